@@ -0,0 +1,17 @@
+package com.dashboard.cloud_cost_dashboard.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs such as budget alert evaluation.
+ *
+ * The jobs share Spring Boot's scheduler, sized by spring.task.scheduling.pool.size so a long
+ * cube reload or budget evaluation does not hold up the others. Heartbeats other instances
+ * judge liveness by (report job progress, report schedule lease renewal) run on threads of their
+ * own in {@code ReportJobQueue} and {@code ReportScheduler}, not on this scheduler.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,6 +1,8 @@
 package com.dashboard.cloud_cost_dashboard.controller;
 
 import com.dashboard.service.interfaces.AnalyticsService;
+import com.dashboard.service.impl.PredictionCache;
+import com.dashboard.service.impl.RequestCoalescer;
 import com.dashboard.dto.analytics.PredictionRequest;
 import com.dashboard.dto.analytics.TrendAnalysisRequest;
 import com.dashboard.dto.analytics.ComparisonRequest;
@@ -16,12 +18,23 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private PredictionCache predictionCache;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
     @PostMapping("/predictions")
     public Object generatePredictions(@RequestBody PredictionRequest request) {
         System.out.println("Generating cost predictions for method: " + request.getMethod());
         return analyticsService.predictCosts(request);
     }
 
+    @GetMapping("/predictions/cache")
+    public Object getPredictionCacheStats() {
+        return predictionCache.getStats();
+    }
+
     @PostMapping("/trends")
     public Object analyzeTrends(@RequestBody TrendAnalysisRequest request) {
         System.out.println("Analyzing trends for team: " + request.getTeamName());
@@ -43,4 +56,19 @@ public class AnalyticsController {
         System.out.println("Detecting anomalies for team: " + teamName);
         return analyticsService.detectAnomalies(teamName, startDate, endDate, threshold);
     }
+
+    @GetMapping("/top-resources")
+    public Object getTopResources(
+            @RequestParam(required = false) String teamName,
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        System.out.println("Finding top " + limit + " resources from " + startDate + " to " + endDate);
+        return analyticsService.getTopResources(teamName, startDate, endDate, limit);
+    }
+
+    @GetMapping("/request-coalescing")
+    public Object getRequestCoalescingStats() {
+        return requestCoalescer.getStats();
+    }
 }
\ No newline at end of file
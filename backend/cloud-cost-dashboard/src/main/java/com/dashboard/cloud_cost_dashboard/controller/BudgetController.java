@@ -1,12 +1,15 @@
 package com.dashboard.cloud_cost_dashboard.controller;
 
 import com.dashboard.service.interfaces.BudgetService;
+import com.dashboard.service.impl.BudgetAlertScheduler;
 import com.dashboard.dto.budget.CreateBudgetRequest;
 import com.dashboard.dto.budget.UpdateBudgetRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/budgets")
 @CrossOrigin(origins = "http://localhost:3000")
@@ -15,6 +18,9 @@ public class BudgetController {
     @Autowired
     private BudgetService budgetService;
 
+    @Autowired
+    private BudgetAlertScheduler budgetAlertScheduler;
+
     @PostMapping
     public Object createBudget(@RequestBody CreateBudgetRequest request) {
         System.out.println("Creating budget: " + request.getName());
@@ -53,6 +59,18 @@ public class BudgetController {
         return budgetService.getBudgetAlerts();
     }
 
+    @PostMapping("/alerts/evaluate")
+    public Object evaluateBudgetAlerts() {
+        System.out.println("Triggering budget alert evaluation");
+        boolean ran = budgetAlertScheduler.runOnce();
+        return Map.of("ran", ran, "stats", budgetAlertScheduler.getStats());
+    }
+
+    @GetMapping("/alerts/evaluation")
+    public Object getAlertEvaluationStats() {
+        return budgetAlertScheduler.getStats();
+    }
+
     @GetMapping("/{budgetId}/metrics")
     public Object calculateBudgetMetrics(@PathVariable String budgetId) {
         System.out.println("Calculating metrics for budget: " + budgetId);
@@ -0,0 +1,71 @@
+package com.dashboard.cloud_cost_dashboard.controller;
+
+import com.dashboard.model.report.Report;
+import com.dashboard.service.impl.ReportExporter;
+import com.dashboard.service.interfaces.ReportService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ReportExportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportExporter reportExporter;
+
+    /**
+     * Stream the usage rows of a completed report as CSV, newline-delimited JSON, Excel or PDF.
+     * CSV and JSON are gzip-encoded when the client accepts it
+     */
+    @GetMapping("/{reportId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadReport(@PathVariable String reportId,
+                                                                @RequestParam(defaultValue = "csv") String format,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        System.out.println("Downloading report " + reportId + " as " + format);
+        Report report = reportService.getReport(reportId);
+        try {
+            reportExporter.validate(report, format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+
+        boolean gzip = reportExporter.isCompressible(format) && acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> reportExporter.export(report, format, out, gzip);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(reportExporter.getContentType(format)))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(reportExporter.getFileName(report, format)).build().toString())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/exports/stats")
+    public Map<String, Object> getExportStats() {
+        return reportExporter.getStats();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+}
@@ -0,0 +1,74 @@
+package com.dashboard.cloud_cost_dashboard.controller;
+
+import com.dashboard.dto.report.GenerateReportRequest;
+import com.dashboard.model.report.ReportJob;
+import com.dashboard.service.impl.ReportJobQueue;
+import com.dashboard.service.interfaces.ReportService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ReportJobController {
+
+    @Autowired
+    private ReportJobQueue reportJobQueue;
+
+    @Autowired
+    private ReportService reportService;
+
+    /**
+     * Queue a report for generation; poll the returned job for progress
+     */
+    @PostMapping
+    public ResponseEntity<Object> submitReport(@RequestBody GenerateReportRequest request) {
+        System.out.println("Submitting report job: " + request.getTitle());
+        try {
+            return ResponseEntity.accepted().body(reportJobQueue.submit(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ReportJob getJob(@PathVariable String jobId) {
+        return reportJobQueue.getJob(jobId);
+    }
+
+    @GetMapping
+    public Object getJobs(@RequestParam String userId, @RequestParam(defaultValue = "20") int limit) {
+        return reportJobQueue.getJobs(userId, Math.min(Math.max(limit, 1), 100));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ReportJob cancelJob(@PathVariable String jobId) {
+        System.out.println("Cancelling report job: " + jobId);
+        return reportJobQueue.cancel(jobId);
+    }
+
+    /**
+     * The generated report, once the job has completed
+     */
+    @GetMapping("/{jobId}/report")
+    public ResponseEntity<Object> getJobReport(@PathVariable String jobId) {
+        ReportJob job = reportJobQueue.getJob(jobId);
+        if (!"completed".equals(job.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Report job is " + job.getStatus(), "job", job));
+        }
+        return ResponseEntity.ok(reportService.getReport(job.getReportId()));
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return reportJobQueue.getStats();
+    }
+}
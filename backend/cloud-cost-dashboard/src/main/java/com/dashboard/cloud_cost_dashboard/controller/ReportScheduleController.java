@@ -0,0 +1,45 @@
+package com.dashboard.cloud_cost_dashboard.controller;
+
+import com.dashboard.dto.report.ReportScheduleRequest;
+import com.dashboard.service.impl.ReportScheduler;
+import com.dashboard.service.interfaces.ReportService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports/schedules")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ReportScheduleController {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportScheduler reportScheduler;
+
+    /**
+     * Create a recurring report; runs are delivered to the scheduler's delivery directory
+     */
+    @PostMapping
+    public ResponseEntity<Object> scheduleReport(@RequestBody ReportScheduleRequest request) {
+        System.out.println("Creating report schedule: " + request.getName());
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(reportService.scheduleReport(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Runs, failures, lag and durations of the schedules run on this instance
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return reportScheduler.getStats();
+    }
+}
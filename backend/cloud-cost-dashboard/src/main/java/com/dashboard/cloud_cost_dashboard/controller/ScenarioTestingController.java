@@ -1,6 +1,7 @@
 package com.dashboard.cloud_cost_dashboard.controller;
 
 import com.dashboard.service.impl.ScenarioDataService;
+import com.dashboard.service.impl.ScenarioProvisioningService;
 import com.dashboard.templates.ScenarioTemplates;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +17,9 @@ public class ScenarioTestingController {
     @Autowired
     private ScenarioDataService scenarioDataService;
     
+    @Autowired
+    private ScenarioProvisioningService scenarioProvisioningService;
+    
     /**
      * Get all available scenario templates
      */
@@ -78,6 +82,22 @@ public class ScenarioTestingController {
         }
     }
     
+    /**
+     * Generate a scenario session of one template for every student of a class roster
+     */
+    @PostMapping("/generate/bulk")
+    public ResponseEntity<Map<String, Object>> generateScenariosForClass(@RequestBody BulkGenerateScenarioRequest request) {
+        try {
+            return ResponseEntity.ok(scenarioProvisioningService.provisionClassroom(
+                request.getTemplateId(), request.getStudentIdentifiers()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to generate scenarios: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Get scenario session details (for student view)
      */
@@ -131,6 +151,16 @@ public class ScenarioTestingController {
         public void setStudentIdentifier(String studentIdentifier) { this.studentIdentifier = studentIdentifier; }
     }
     
+    static class BulkGenerateScenarioRequest {
+        private String templateId;
+        private List<String> studentIdentifiers;
+        
+        public String getTemplateId() { return templateId; }
+        public void setTemplateId(String templateId) { this.templateId = templateId; }
+        public List<String> getStudentIdentifiers() { return studentIdentifiers; }
+        public void setStudentIdentifiers(List<String> studentIdentifiers) { this.studentIdentifiers = studentIdentifiers; }
+    }
+    
     static class StudentSubmission {
         private String studentIdentifier;
         private List<Recommendation> recommendations;
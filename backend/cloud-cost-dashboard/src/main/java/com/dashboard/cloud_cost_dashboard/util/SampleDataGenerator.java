@@ -2,16 +2,27 @@ package com.dashboard.cloud_cost_dashboard.util;
 
 import com.dashboard.cloud_cost_dashboard.model.*;
 import com.dashboard.cloud_cost_dashboard.repository.*;
+import com.dashboard.service.impl.DailyCostRollup;
+import com.dashboard.service.impl.TopResourceTracker;
+import com.dashboard.service.impl.UsageRecordBatchWriter;
+import com.dashboard.util.UsageCsvWriter;
+import com.dashboard.util.UsageRowBatch;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.BufferedWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 @Profile("!test") // Don't run during tests
@@ -27,420 +38,208 @@ public class SampleDataGenerator implements CommandLineRunner {
 
     @Autowired CloudProviderRepository cloudProviderRepository;
 
-    private final Random random = new Random();
-    private static final int MONTHS_OF_DATA = 6;
-
-    // Pricing constants (simplified)
-    private static final Map<String, BigDecimal> SERVICE_HOURLY_RATES =
-            new HashMap<>() {
-                {
-                    // AWS
-                    put("AmazonEC2", new BigDecimal("0.0464")); // t3.medium
-                    put("AmazonS3", new BigDecimal("0.023")); // per GB
-                    put("AmazonRDS", new BigDecimal("0.096")); // db.t3.medium
-                    put("AWSLambda", new BigDecimal("0.0000166667")); // per GB-second
-                    put("AmazonCloudWatch", new BigDecimal("0.30")); // per metric
-                    put("AmazonVPC", new BigDecimal("0.045")); // NAT Gateway
-                    put("AmazonCloudFront", new BigDecimal("0.085")); // per GB
-                    put("AmazonDynamoDB", new BigDecimal("0.25")); // per million requests
-                    put("ElasticLoadBalancing", new BigDecimal("0.025")); // ALB
-                    put("AmazonEKS", new BigDecimal("0.10")); // per cluster hour
-
-                    // Azure
-                    put("VirtualMachines", new BigDecimal("0.0496")); // D2s v3
-                    put("Storage", new BigDecimal("0.0184")); // Hot tier per GB
-                    put("SQLDatabase", new BigDecimal("0.0896")); // S2
-                    put("Functions", new BigDecimal("0.000016")); // per GB-second
-                    put("Monitor", new BigDecimal("0.25")); // per metric
-                    put("VirtualNetwork", new BigDecimal("0.045")); // VPN Gateway
-                    put("CDN", new BigDecimal("0.081")); // per GB
-                    put("CosmosDB", new BigDecimal("0.008")); // per RU
-                    put("LoadBalancer", new BigDecimal("0.025")); // Standard
-                    put("ContainerInstances", new BigDecimal("0.10")); // AKS per node hour
-
-                    // GCP
-                    put("ComputeEngine", new BigDecimal("0.0475")); // n1-standard-1
-                    put("CloudStorage", new BigDecimal("0.020")); // Standard per GB
-                    put("CloudSQL", new BigDecimal("0.0935")); // db-n1-standard-1
-                    put("CloudFunctions", new BigDecimal("0.0000166")); // per GB-second
-                    put("Stackdriver", new BigDecimal("0.2580")); // per metric
-                    put("VPCNetwork", new BigDecimal("0.050")); // Cloud VPN
-                    put("CloudCDN", new BigDecimal("0.080")); // per GB
-                    put("Firestore", new BigDecimal("0.06")); // per 100K reads
-                    put("LoadBalancing", new BigDecimal("0.025")); // per rule
-                    put("GKE", new BigDecimal("0.10")); // cluster management fee
-                }
-            };
+    @Autowired(required = false)
+    UsageRecordBatchWriter usageRecordBatchWriter;
 
-    @Override
-    public void run(String... args) throws Exception {
-        // Check if data already exists
-        if (usageRecordRepository.count() > 0) {
-            System.out.println("Sample data already exists. Skipping generation.");
-            return;
-        }
+    // The JPA path bypasses the batch writer, so it feeds the rollup and sketches itself
+    @Autowired(required = false)
+    DailyCostRollup dailyCostRollup;
 
-        System.out.println("Generating sample cloud cost data...");
+    @Autowired(required = false)
+    TopResourceTracker topResourceTracker;
 
-        // Create base data if it doesn't exist
-        createBaseDataIfNeeded();
+    // Bulk mode writes usage rows through JDBC batches instead of one Hibernate insert per row
+    @Value("${sample-data.bulk-mode:true}")
+    boolean bulkMode;
 
-        List<Team> teams = teamRepository.findAll();
-        List<Service> services = serviceRepository.findAll();
-        List<Account> accounts = accountRepository.findAll();
-
-        LocalDate startDate = LocalDate.now().minusMonths(MONTHS_OF_DATA);
-        LocalDate endDate = LocalDate.now();
-
-        int totalRecords = 0;
-        LocalDate currentDate = startDate;
-
-        while (!currentDate.isAfter(endDate)) {
-            for (Team team : teams) {
-                // Each team uses different services based on their profile
-                List<Service> teamServices = getServicesForTeam(team, services);
-
-                for (Service service : teamServices) {
-                    // Generate usage for this service on this day
-                    Account account = getAccountForService(service, accounts);
-
-                    // Generate hourly usage with variations
-                    for (int hour = 0; hour < 24; hour++) {
-                        if (shouldGenerateUsageForHour(team, service, currentDate, hour)) {
-                            UsageRecord record =
-                                    generateUsageRecord(team, service, account, currentDate, hour);
-                            usageRecordRepository.save(record);
-                            totalRecords++;
-                        }
-                    }
-                }
-            }
-
-            currentDate = currentDate.plusDays(1);
+    @Value("${sample-data.batch-size:10000}")
+    int bulkBatchSize = 10000;
 
-            // Log progress
-            if (currentDate.getDayOfMonth() == 1) {
-                System.out.println("Generated data up to: " + currentDate);
-            }
-        }
+    // Same seed + scale settings + end date = same rows, whatever the parallelism
+    @Value("${sample-data.seed:42}")
+    long seed = 42;
 
-        System.out.println(
-                "Sample data generation complete. Generated " + totalRecords + " usage records.");
-    }
+    @Value("${sample-data.months:6}")
+    int months = 6;
 
-    private List<Service> getServicesForTeam(Team team, List<Service> allServices) {
-        List<Service> teamServices = new ArrayList<>();
-        String teamName = team.getName();
-
-        for (Service service : allServices) {
-            boolean includeService = false;
-
-            // Platform team uses infrastructure services
-            if (teamName.equals("platform")) {
-                includeService =
-                        service.getCategory().equals("Compute")
-                                || service.getCategory().equals("Networking")
-                                || service.getServiceCode().contains("EKS")
-                                || service.getServiceCode().contains("GKE")
-                                || service.getServiceCode().contains("ContainerInstances");
-            }
-            // Data analytics team uses data services
-            else if (teamName.equals("data-analytics")) {
-                includeService =
-                        service.getCategory().equals("Database")
-                                || service.getCategory().equals("Storage")
-                                || service.getServiceCode().contains("Lambda")
-                                || service.getServiceCode().contains("Functions");
-            }
-            // Mobile team uses CDN and API services
-            else if (teamName.equals("mobile")) {
-                includeService =
-                        service.getServiceCode().contains("CloudFront")
-                                || service.getServiceCode().contains("CDN")
-                                || service.getServiceCode().contains("S3")
-                                || service.getServiceCode().contains("Storage");
-            }
-            // Web frontend team
-            else if (teamName.equals("web-frontend")) {
-                includeService =
-                        service.getServiceCode().contains("CloudFront")
-                                || service.getServiceCode().contains("CDN")
-                                || service.getServiceCode().contains("S3")
-                                || service.getServiceCode().contains("Storage")
-                                || service.getServiceCode().contains("LoadBalanc");
-            }
-            // DevOps team uses monitoring and infrastructure
-            else if (teamName.equals("devops")) {
-                includeService =
-                        service.getCategory().equals("Management")
-                                || service.getServiceCode().contains("EKS")
-                                || service.getServiceCode().contains("GKE")
-                                || service.getServiceCode().contains("ContainerInstances");
-            }
-            // Security team uses monitoring services
-            else if (teamName.equals("security")) {
-                includeService =
-                        service.getCategory().equals("Management")
-                                || service.getServiceCode().contains("VPC")
-                                || service.getServiceCode().contains("VirtualNetwork");
-            }
-            // ML team uses compute and storage
-            else if (teamName.equals("ml-team")) {
-                includeService =
-                        service.getCategory().equals("Compute")
-                                || service.getCategory().equals("Storage")
-                                || service.getServiceCode().contains("Lambda")
-                                || service.getServiceCode().contains("Functions");
-            }
-            // Backend API team
-            else if (teamName.equals("backend-api")) {
-                includeService =
-                        service.getCategory().equals("Compute")
-                                || service.getCategory().equals("Database")
-                                || service.getServiceCode().contains("LoadBalanc");
-            }
-            // QA automation team
-            else if (teamName.equals("qa-automation")) {
-                includeService =
-                        service.getCategory().equals("Compute")
-                                || service.getServiceCode().contains("Lambda")
-                                || service.getServiceCode().contains("Functions");
-            }
-            // Infrastructure team uses everything
-            else if (teamName.equals("infrastructure")) {
-                includeService = random.nextDouble() < 0.3; // 30% chance for any service
-            }
+    // Totals to scale up to; extra load-test teams/services are created when above the base data
+    @Value("${sample-data.teams:0}")
+    int teamCount;
 
-            if (includeService) {
-                teamServices.add(service);
-            }
-        }
+    @Value("${sample-data.services:0}")
+    int serviceCount;
 
-        return teamServices;
-    }
+    @Value("${sample-data.resources-per-service:1}")
+    int resourcesPerService = 1;
 
-    private Account getAccountForService(Service service, List<Account> accounts) {
-        // 80% production, 20% development
-        boolean isProduction = random.nextDouble() < 0.8;
-        Account.Environment targetEnv =
-                isProduction ? Account.Environment.PRODUCTION : Account.Environment.DEVELOPMENT;
-
-        return accounts.stream()
-                .filter(
-                        a ->
-                                a.getCloudProvider()
-                                        .getId()
-                                        .equals(service.getCloudProvider().getId()))
-                .filter(a -> a.getEnvironment().equals(targetEnv))
-                .findFirst()
-                .orElse(accounts.get(0));
-    }
+    // 0 = one worker per available core
+    @Value("${sample-data.parallelism:0}")
+    int parallelism;
 
-    private boolean shouldGenerateUsageForHour(
-            Team team, Service service, LocalDate date, int hour) {
-        // Weekday vs weekend patterns
-        boolean isWeekend = date.getDayOfWeek().getValue() >= 6;
+    // Last usage date (yyyy-MM-dd); defaults to today
+    @Value("${sample-data.end-date:}")
+    String endDate;
 
-        // Business hours (9-18 in UTC)
-        boolean isBusinessHours = hour >= 9 && hour <= 18;
+    // When set, rows are written to this CSV file (usage_records layout) instead of the database
+    @Value("${sample-data.output-file:}")
+    String outputFile;
 
-        // Base probability
-        double probability = 0.3;
+    private static final String[] SYNTHETIC_SERVICE_CATEGORIES = {
+        "Compute", "Storage", "Database", "Networking"
+    };
 
-        // Adjust for patterns
-        if (isBusinessHours && !isWeekend) {
-            probability = 0.8; // Higher during business hours on weekdays
-        } else if (isWeekend) {
-            probability = 0.2; // Lower on weekends
-        }
-
-        // Some services run 24/7 (databases, load balancers)
-        if (service.getCategory().equals("Database")
-                || service.getServiceCode().contains("LoadBalanc")
-                || service.getServiceCode().contains("EKS")
-                || service.getServiceCode().contains("GKE")) {
-            probability = 0.95; // Almost always running
-        }
+    @Override
+    public void run(String... args) throws Exception {
+        boolean toFile = outputFile != null && !outputFile.isBlank();
 
-        // Batch jobs (data analytics) run at night
-        if (team.getName().equals("data-analytics") && (hour < 6 || hour > 22)) {
-            probability = 0.7;
+        // Check if data already exists
+        if (!toFile && usageRecordRepository.count() > 0) {
+            System.out.println("Sample data already exists. Skipping generation.");
+            return;
         }
 
-        return random.nextDouble() < probability;
-    }
+        System.out.println("Generating sample cloud cost data...");
 
-    private UsageRecord generateUsageRecord(
-            Team team, Service service, Account account, LocalDate date, int hour) {
-        UsageRecord record = new UsageRecord();
-        record.setAccount(account);
-        record.setTeam(team);
-        record.setService(service);
-        record.setUsageDate(date);
-        record.setUsageHour(hour);
-
-        // Generate resource ID and name
-        String resourceType = getResourceTypeForService(service);
-        String resourceId = generateResourceId(service, team);
-        record.setResourceId(resourceId);
-        record.setResourceName(resourceType + "-" + team.getName() + "-" + random.nextInt(100));
-        record.setResourceType(resourceType);
-
-        // Set region
-        record.setRegion(getRandomRegion(service.getCloudProvider()));
-
-        // Generate usage quantity and calculate cost
-        BigDecimal[] usageAndCost = generateUsageAndCost(service, date, hour);
-        record.setUsageQuantity(usageAndCost[0]);
-        record.setUsageUnit(getUsageUnit(service));
-        record.setUnitPrice(usageAndCost[1]);
-        record.setTotalCost(usageAndCost[2]);
-        record.setCurrency("USD");
-
-        // Add tags
-        Map<String, String> tags = new HashMap<>();
-        tags.put("team", team.getName());
-        tags.put("environment", account.getEnvironment().getValue());
-        tags.put("cost-center", team.getCostCenter());
-        tags.put("managed-by", "terraform");
-        record.setTags(tags);
-
-        return record;
-    }
+        // Create base data if it doesn't exist
+        createBaseDataIfNeeded();
+        createLoadTestDataIfNeeded();
 
-    private String getResourceTypeForService(Service service) {
-        String serviceCode = service.getServiceCode();
-        if (serviceCode.contains("EC2")
-                || serviceCode.contains("VirtualMachines")
-                || serviceCode.contains("ComputeEngine")) {
-            return "instance";
-        } else if (serviceCode.contains("S3") || serviceCode.contains("Storage")) {
-            return "bucket";
-        } else if (serviceCode.contains("RDS") || serviceCode.contains("SQL")) {
-            return "database";
-        } else if (serviceCode.contains("Lambda") || serviceCode.contains("Functions")) {
-            return "function";
-        } else if (serviceCode.contains("EKS")
-                || serviceCode.contains("GKE")
-                || serviceCode.contains("ContainerInstances")) {
-            return "cluster";
-        } else if (serviceCode.contains("LoadBalanc")) {
-            return "load-balancer";
-        } else if (serviceCode.contains("VPC") || serviceCode.contains("VirtualNetwork")) {
-            return "network";
-        }
-        return "resource";
-    }
+        List<Team> teams = teamRepository.findAll();
+        List<Service> services = serviceRepository.findAll();
+        List<Account> accounts = accountRepository.findAll();
 
-    private String generateResourceId(Service service, Team team) {
-        String prefix = "";
-        CloudProvider provider = service.getCloudProvider();
-
-        if (provider.getName().equals("aws")) {
-            if (service.getServiceCode().contains("EC2")) prefix = "i-";
-            else if (service.getServiceCode().contains("S3")) prefix = "s3://";
-            else if (service.getServiceCode().contains("RDS")) prefix = "db-";
-        } else if (provider.getName().equals("azure")) {
-            prefix =
-                    "/subscriptions/"
-                            + UUID.randomUUID()
-                            + "/resourceGroups/rg-"
-                            + team.getName()
-                            + "/";
-        } else if (provider.getName().equals("gcp")) {
-            prefix = "projects/my-project/";
+        LocalDate lastDate =
+                endDate == null || endDate.isBlank() ? LocalDate.now() : LocalDate.parse(endDate);
+        SyntheticUsageGenerator generator =
+                new SyntheticUsageGenerator(
+                        teams,
+                        services,
+                        accounts,
+                        lastDate.minusMonths(months),
+                        lastDate,
+                        seed,
+                        resourcesPerService);
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+
+        long startNanos = System.nanoTime();
+        long totalRecords;
+        String mode;
+        if (toFile) {
+            mode = "csv " + outputFile;
+            try (Writer writer =
+                    new BufferedWriter(
+                            Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8),
+                            1 << 20)) {
+                UsageCsvWriter csv = new UsageCsvWriter(writer);
+                csv.writeHeader();
+                totalRecords = generator.generate(workers, bulkBatchSize, csv::write);
+            }
+        } else if (bulkMode && usageRecordBatchWriter != null) {
+            mode = "bulk mode";
+            totalRecords = generator.generate(workers, bulkBatchSize, usageRecordBatchWriter::write);
+        } else {
+            mode = "jpa";
+            Map<Long, Team> teamsById = teams.stream().collect(Collectors.toMap(Team::getId, Function.identity()));
+            Map<Long, Service> servicesById =
+                    services.stream().collect(Collectors.toMap(Service::getId, Function.identity()));
+            Map<Long, Account> accountsById =
+                    accounts.stream().collect(Collectors.toMap(Account::getId, Function.identity()));
+            totalRecords =
+                    generator.generate(
+                            workers,
+                            bulkBatchSize,
+                            batch -> saveAsEntities(batch, teamsById, servicesById, accountsById));
         }
 
-        return prefix + UUID.randomUUID().toString().substring(0, 12);
+        long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        System.out.println(
+                "Sample data generation complete. Generated "
+                        + totalRecords
+                        + " usage records for "
+                        + generator.getPartitionCount()
+                        + " (team, day) partitions in "
+                        + elapsedMs
+                        + " ms ("
+                        + (totalRecords * 1000L / elapsedMs)
+                        + " rows/s, "
+                        + workers
+                        + " workers, "
+                        + mode
+                        + ").");
     }
 
-    private String getRandomRegion(CloudProvider provider) {
-        List<String> regions = new ArrayList<>();
-
-        if (provider.getName().equals("aws")) {
-            regions = Arrays.asList("us-east-1", "us-west-2", "eu-west-1", "ap-southeast-1");
-        } else if (provider.getName().equals("azure")) {
-            regions = Arrays.asList("eastus", "westus2", "northeurope", "southeastasia");
-        } else if (provider.getName().equals("gcp")) {
-            regions = Arrays.asList("us-central1", "us-west1", "europe-west1", "asia-southeast1");
+    private void saveAsEntities(
+            UsageRowBatch batch,
+            Map<Long, Team> teamsById,
+            Map<Long, Service> servicesById,
+            Map<Long, Account> accountsById) {
+        List<UsageRecord> records = new ArrayList<>(batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+            Team team = teamsById.get(batch.getTeamId(row));
+            Account account = accountsById.get(batch.getAccountId(row));
+
+            UsageRecord record = new UsageRecord();
+            record.setAccount(account);
+            record.setTeam(team);
+            record.setService(servicesById.get(batch.getServiceId(row)));
+            record.setUsageDate(batch.getUsageDate(row));
+            record.setUsageHour(batch.getUsageHour(row));
+            record.setResourceId(batch.getResourceId(row));
+            record.setResourceName(batch.getResourceName(row));
+            record.setResourceType(batch.getResourceType(row));
+            record.setRegion(batch.getRegion(row));
+            record.setUsageQuantity(UsageRowBatch.toDecimal(batch.getUsageQuantity(row)));
+            record.setUsageUnit(batch.getUsageUnit(row));
+            record.setUnitPrice(UsageRowBatch.toDecimal(batch.getUnitPrice(row)));
+            record.setTotalCost(UsageRowBatch.toDecimal(batch.getTotalCost(row)));
+            record.setCurrency(batch.getCurrency(row));
+
+            // Add tags
+            Map<String, String> tags = new HashMap<>();
+            tags.put("team", team.getName());
+            tags.put("environment", account.getEnvironment().getValue());
+            tags.put("cost-center", team.getCostCenter());
+            tags.put("managed-by", "terraform");
+            record.setTags(tags);
+
+            records.add(record);
         }
-
-        return regions.get(random.nextInt(regions.size()));
-    }
-
-    private BigDecimal[] generateUsageAndCost(Service service, LocalDate date, int hour) {
-        BigDecimal baseRate = SERVICE_HOURLY_RATES.get(service.getServiceCode());
-        if (baseRate == null) baseRate = new BigDecimal("0.05");
-
-        // Generate usage quantity with some randomness
-        BigDecimal quantity = generateUsageQuantity(service, date, hour);
-
-        // Apply time-based variations (peak hours cost more)
-        BigDecimal hourlyMultiplier = BigDecimal.ONE;
-        if (hour >= 9 && hour <= 17) { // Business hours
-            hourlyMultiplier = new BigDecimal("1.2");
+        usageRecordRepository.saveAll(records);
+        if (dailyCostRollup != null) {
+            dailyCostRollup.record(batch);
         }
-
-        // Apply seasonal variations
-        BigDecimal seasonalMultiplier = BigDecimal.ONE;
-        int month = date.getMonthValue();
-        if (month == 11 || month == 12) { // Black Friday / Holiday season
-            seasonalMultiplier = new BigDecimal("1.5");
+        if (topResourceTracker != null) {
+            topResourceTracker.record(batch);
         }
-
-        BigDecimal adjustedRate = baseRate.multiply(hourlyMultiplier).multiply(seasonalMultiplier);
-        BigDecimal totalCost = quantity.multiply(adjustedRate).setScale(6, RoundingMode.HALF_UP);
-
-        return new BigDecimal[] {quantity, adjustedRate, totalCost};
     }
 
-    private BigDecimal generateUsageQuantity(Service service, LocalDate date, int hour) {
-        String serviceCode = service.getServiceCode();
-
-        // Base quantities for different service types
-        if (serviceCode.contains("EC2")
-                || serviceCode.contains("VirtualMachines")
-                || serviceCode.contains("ComputeEngine")) {
-            // Number of instance hours (1-20 instances)
-            return new BigDecimal(1 + random.nextInt(20));
-        } else if (serviceCode.contains("S3") || serviceCode.contains("Storage")) {
-            // GB of storage (10-1000 GB)
-            return new BigDecimal(10 + random.nextInt(990));
-        } else if (serviceCode.contains("RDS") || serviceCode.contains("SQL")) {
-            // Database instance hours (1-5 instances)
-            return new BigDecimal(1 + random.nextInt(5));
-        } else if (serviceCode.contains("Lambda") || serviceCode.contains("Functions")) {
-            // GB-seconds (100-10000)
-            return new BigDecimal(100 + random.nextInt(9900));
-        } else if (serviceCode.contains("CloudFront") || serviceCode.contains("CDN")) {
-            // GB transferred (1-500 GB)
-            return new BigDecimal(1 + random.nextInt(500));
+    private void createLoadTestDataIfNeeded() {
+        long existingTeams = teamRepository.count();
+        for (long i = existingTeams + 1; i <= teamCount; i++) {
+            Team team = new Team();
+            team.setName(String.format("%s%03d", SyntheticUsageGenerator.SYNTHETIC_TEAM_PREFIX, i));
+            team.setDisplayName("Load Test Team " + i);
+            team.setDepartment("Load Testing");
+            team.setCostCenter(String.format("LT-%03d", i));
+            team.setManagerEmail("loadtest-manager@company.com");
+            teamRepository.save(team);
         }
 
-        // Default quantity
-        return new BigDecimal(1 + random.nextInt(100));
-    }
-
-    private String getUsageUnit(Service service) {
-        String serviceCode = service.getServiceCode();
-
-        if (serviceCode.contains("EC2")
-                || serviceCode.contains("VirtualMachines")
-                || serviceCode.contains("ComputeEngine")) {
-            return "Instance-Hours";
-        } else if (serviceCode.contains("S3") || serviceCode.contains("Storage")) {
-            return "GB-Month";
-        } else if (serviceCode.contains("RDS") || serviceCode.contains("SQL")) {
-            return "Instance-Hours";
-        } else if (serviceCode.contains("Lambda") || serviceCode.contains("Functions")) {
-            return "GB-Seconds";
-        } else if (serviceCode.contains("CloudFront") || serviceCode.contains("CDN")) {
-            return "GB";
-        } else if (serviceCode.contains("LoadBalanc")) {
-            return "LCU-Hours";
+        long existingServices = serviceRepository.count();
+        if (existingServices < serviceCount) {
+            List<CloudProvider> providers = cloudProviderRepository.findAll();
+            providers.sort(Comparator.comparing(CloudProvider::getId));
+            for (long i = existingServices + 1; i <= serviceCount; i++) {
+                CloudProvider provider = providers.get((int) (i % providers.size()));
+                String category =
+                        SYNTHETIC_SERVICE_CATEGORIES[(int) (i % SYNTHETIC_SERVICE_CATEGORIES.length)];
+                createService(
+                        provider,
+                        String.format("LoadTest%s%03d", category, i),
+                        "Load Test " + category + " " + i,
+                        category);
+            }
         }
-
-        return "Units";
     }
 
     private void createBaseDataIfNeeded() {
@@ -0,0 +1,575 @@
+package com.dashboard.cloud_cost_dashboard.util;
+
+import com.dashboard.cloud_cost_dashboard.model.*;
+import com.dashboard.util.UsageRowBatch;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Deterministic synthetic usage generator. The date range is cut into (date, team)
+ * partitions; each partition draws from its own SplittableRandom seeded from (seed, team
+ * index, date), so its rows do not depend on which thread generates it or when. Partitions
+ * are generated in parallel on a ForkJoinPool and handed to the sink strictly in partition
+ * order, so the same seed and inputs always produce the same row sequence regardless of the
+ * thread count.
+ */
+public class SyntheticUsageGenerator {
+
+    /** Receives generated rows in partition order; the batch is reused once the call returns. */
+    public interface RowSink {
+        void accept(UsageRowBatch batch) throws Exception;
+    }
+
+    static final String SYNTHETIC_TEAM_PREFIX = "loadtest-team-";
+
+    // Usage profiles understood by the generator; synthetic teams cycle through them
+    static final String[] TEAM_PROFILES = {
+        "platform",
+        "data-analytics",
+        "mobile",
+        "web-frontend",
+        "devops",
+        "security",
+        "ml-team",
+        "backend-api",
+        "qa-automation",
+        "infrastructure"
+    };
+
+    // Pricing constants (simplified)
+    static final Map<String, BigDecimal> SERVICE_HOURLY_RATES =
+            new HashMap<>() {
+                {
+                    // AWS
+                    put("AmazonEC2", new BigDecimal("0.0464")); // t3.medium
+                    put("AmazonS3", new BigDecimal("0.023")); // per GB
+                    put("AmazonRDS", new BigDecimal("0.096")); // db.t3.medium
+                    put("AWSLambda", new BigDecimal("0.0000166667")); // per GB-second
+                    put("AmazonCloudWatch", new BigDecimal("0.30")); // per metric
+                    put("AmazonVPC", new BigDecimal("0.045")); // NAT Gateway
+                    put("AmazonCloudFront", new BigDecimal("0.085")); // per GB
+                    put("AmazonDynamoDB", new BigDecimal("0.25")); // per million requests
+                    put("ElasticLoadBalancing", new BigDecimal("0.025")); // ALB
+                    put("AmazonEKS", new BigDecimal("0.10")); // per cluster hour
+
+                    // Azure
+                    put("VirtualMachines", new BigDecimal("0.0496")); // D2s v3
+                    put("Storage", new BigDecimal("0.0184")); // Hot tier per GB
+                    put("SQLDatabase", new BigDecimal("0.0896")); // S2
+                    put("Functions", new BigDecimal("0.000016")); // per GB-second
+                    put("Monitor", new BigDecimal("0.25")); // per metric
+                    put("VirtualNetwork", new BigDecimal("0.045")); // VPN Gateway
+                    put("CDN", new BigDecimal("0.081")); // per GB
+                    put("CosmosDB", new BigDecimal("0.008")); // per RU
+                    put("LoadBalancer", new BigDecimal("0.025")); // Standard
+                    put("ContainerInstances", new BigDecimal("0.10")); // AKS per node hour
+
+                    // GCP
+                    put("ComputeEngine", new BigDecimal("0.0475")); // n1-standard-1
+                    put("CloudStorage", new BigDecimal("0.020")); // Standard per GB
+                    put("CloudSQL", new BigDecimal("0.0935")); // db-n1-standard-1
+                    put("CloudFunctions", new BigDecimal("0.0000166")); // per GB-second
+                    put("Stackdriver", new BigDecimal("0.2580")); // per metric
+                    put("VPCNetwork", new BigDecimal("0.050")); // Cloud VPN
+                    put("CloudCDN", new BigDecimal("0.080")); // per GB
+                    put("Firestore", new BigDecimal("0.06")); // per 100K reads
+                    put("LoadBalancing", new BigDecimal("0.025")); // per rule
+                    put("GKE", new BigDecimal("0.10")); // cluster management fee
+                }
+            };
+
+    private static final BigDecimal DEFAULT_HOURLY_RATE = new BigDecimal("0.05");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final String[] AWS_REGIONS = {"us-east-1", "us-west-2", "eu-west-1", "ap-southeast-1"};
+    private static final String[] AZURE_REGIONS = {"eastus", "westus2", "northeurope", "southeastasia"};
+    private static final String[] GCP_REGIONS = {"us-central1", "us-west1", "europe-west1", "asia-southeast1"};
+
+    private final long seed;
+    private final LocalDate startDate;
+    private final int days;
+    private final int resourcesPerService;
+    private final List<Team> teams;
+    private final String[] teamProfiles;
+    private final ServiceProfile[] services;
+    private final int[][] teamServices; // null entry = sampled per partition (infrastructure profile)
+    private final String[][][] resourceIds; // [team][service][resource]
+    private final String[][][] resourceNames;
+    private final String[][][] resourceRegions;
+    private final int maxRowsPerPartition;
+
+    /**
+     * @param startDate First usage date (inclusive)
+     * @param endDate Last usage date (inclusive)
+     */
+    public SyntheticUsageGenerator(
+            List<Team> teams,
+            List<Service> services,
+            List<Account> accounts,
+            LocalDate startDate,
+            LocalDate endDate,
+            long seed,
+            int resourcesPerService) {
+        if (teams.isEmpty() || services.isEmpty() || accounts.isEmpty()) {
+            throw new IllegalArgumentException("Teams, services and accounts are required");
+        }
+        if (resourcesPerService < 1) {
+            throw new IllegalArgumentException(
+                    "Resources per service must be at least 1: " + resourcesPerService);
+        }
+
+        this.seed = seed;
+        this.startDate = startDate;
+        this.days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        this.resourcesPerService = resourcesPerService;
+
+        // Sort by id so the partition -> entity mapping does not depend on repository ordering
+        this.teams = sortedById(teams, Team::getId);
+        List<Service> sortedServices = sortedById(services, Service::getId);
+        List<Account> sortedAccounts = sortedById(accounts, Account::getId);
+
+        this.services = new ServiceProfile[sortedServices.size()];
+        for (int i = 0; i < this.services.length; i++) {
+            this.services[i] = new ServiceProfile(sortedServices.get(i), sortedAccounts);
+        }
+
+        this.teamProfiles = new String[this.teams.size()];
+        this.teamServices = new int[this.teams.size()][];
+        this.resourceIds = new String[this.teams.size()][this.services.length][resourcesPerService];
+        this.resourceNames = new String[this.teams.size()][this.services.length][resourcesPerService];
+        this.resourceRegions = new String[this.teams.size()][this.services.length][resourcesPerService];
+        for (int t = 0; t < this.teams.size(); t++) {
+            teamProfiles[t] = profileFor(this.teams.get(t).getName(), t);
+            teamServices[t] = servicesForProfile(teamProfiles[t]);
+            buildResources(t);
+        }
+
+        this.maxRowsPerPartition = this.services.length * 24 * resourcesPerService;
+    }
+
+    public int getPartitionCount() {
+        return days * teams.size();
+    }
+
+    /**
+     * Generate every partition and feed the rows to the sink in partition order.
+     * @param parallelism Number of ForkJoinPool workers generating partitions
+     * @param batchSize Rows per batch handed to the sink
+     * @return Total rows generated
+     */
+    public long generate(int parallelism, int batchSize, RowSink sink) throws Exception {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+
+        int partitionCount = getPartitionCount();
+        int window = parallelism * 4; // bounds memory to window x maxRowsPerPartition rows
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Deque<ForkJoinTask<UsageRowBatch>> inFlight = new ArrayDeque<>(window);
+            UsageRowBatch out = new UsageRowBatch(batchSize);
+            long totalRows = 0;
+            int next = 0;
+
+            while (next < partitionCount || !inFlight.isEmpty()) {
+                while (next < partitionCount && inFlight.size() < window) {
+                    int partition = next++;
+                    inFlight.addLast(pool.submit(() -> generatePartition(partition)));
+                }
+
+                UsageRowBatch partitionRows = inFlight.pollFirst().join();
+                for (int row = 0; row < partitionRows.size(); row++) {
+                    out.copyRowFrom(partitionRows, row);
+                    if (out.isFull()) {
+                        sink.accept(out);
+                        out.clear();
+                    }
+                }
+                totalRows += partitionRows.size();
+            }
+
+            if (!out.isEmpty()) {
+                sink.accept(out);
+            }
+            return totalRows;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Generate the rows of one (date, team) partition. Partitions are numbered date-major:
+     * partition = dayIndex * teamCount + teamIndex.
+     */
+    UsageRowBatch generatePartition(int partition) {
+        int teamIndex = partition % teams.size();
+        LocalDate date = startDate.plusDays(partition / teams.size());
+        SplittableRandom rng = new SplittableRandom(partitionSeed(teamIndex, date.toEpochDay()));
+
+        Team team = teams.get(teamIndex);
+        String profile = teamProfiles[teamIndex];
+        boolean isWeekend = date.getDayOfWeek().getValue() >= 6;
+        int seasonalTenths = date.getMonthValue() >= 11 ? 15 : 10; // Black Friday / Holiday season
+        int epochDay = (int) date.toEpochDay();
+        UsageRowBatch rows = new UsageRowBatch(maxRowsPerPartition);
+
+        for (int s : servicesForPartition(teamIndex, rng)) {
+            ServiceProfile service = services[s];
+            // 80% production, 20% development
+            Account account = rng.nextDouble() < 0.8 ? service.productionAccount : service.developmentAccount;
+
+            for (int hour = 0; hour < 24; hour++) {
+                // Peak hours cost more
+                long rateE12 = service.rateE10 * (hour >= 9 && hour <= 17 ? 12 : 10) * seasonalTenths;
+                long unitPrice = (rateE12 + 500_000) / 1_000_000;
+
+                for (int r = 0; r < resourcesPerService; r++) {
+                    if (!shouldGenerateUsage(profile, service, isWeekend, hour, rng)) {
+                        continue;
+                    }
+                    long quantity = service.minQuantity + rng.nextInt(service.quantityRange);
+
+                    int row = rows.addRow(0);
+                    rows.setAccountId(row, account.getId());
+                    rows.setTeamId(row, team.getId());
+                    rows.setServiceId(row, service.id);
+                    rows.setResourceId(row, resourceIds[teamIndex][s][r]);
+                    rows.setResourceName(row, resourceNames[teamIndex][s][r]);
+                    rows.setResourceType(row, service.resourceType);
+                    rows.setRegion(row, resourceRegions[teamIndex][s][r]);
+                    rows.setUsageDateEpochDay(row, epochDay);
+                    rows.setUsageHour(row, hour);
+                    rows.setUsageQuantity(row, quantity * 1_000_000L);
+                    rows.setUsageUnit(row, service.usageUnit);
+                    rows.setUnitPrice(row, unitPrice);
+                    rows.setTotalCost(row, (quantity * rateE12 + 500_000) / 1_000_000);
+                }
+            }
+        }
+        return rows;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private long partitionSeed(int teamIndex, long epochDay) {
+        return mix(seed + mix(teamIndex + 1L) + epochDay * 0x9E3779B97F4A7C15L);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static <T> List<T> sortedById(List<T> items, java.util.function.Function<T, Long> id) {
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparing(id, Comparator.nullsLast(Comparator.naturalOrder())));
+        return sorted;
+    }
+
+    private static String profileFor(String teamName, int teamIndex) {
+        if (teamName.startsWith(SYNTHETIC_TEAM_PREFIX)) {
+            return TEAM_PROFILES[teamIndex % TEAM_PROFILES.length];
+        }
+        return teamName;
+    }
+
+    private int[] servicesForPartition(int teamIndex, SplittableRandom rng) {
+        if (teamServices[teamIndex] != null) {
+            return teamServices[teamIndex];
+        }
+        // Infrastructure team uses everything: 30% chance for any service
+        int[] picked = new int[services.length];
+        int count = 0;
+        for (int s = 0; s < services.length; s++) {
+            if (rng.nextDouble() < 0.3) {
+                picked[count++] = s;
+            }
+        }
+        return Arrays.copyOf(picked, count);
+    }
+
+    private int[] servicesForProfile(String profile) {
+        if (profile.equals("infrastructure")) {
+            return null;
+        }
+
+        List<Integer> picked = new ArrayList<>();
+        for (int s = 0; s < services.length; s++) {
+            String category = services[s].category;
+            String code = services[s].code;
+            boolean includeService = false;
+
+            // Platform team uses infrastructure services
+            if (profile.equals("platform")) {
+                includeService =
+                        category.equals("Compute")
+                                || category.equals("Networking")
+                                || code.contains("EKS")
+                                || code.contains("GKE")
+                                || code.contains("ContainerInstances");
+            }
+            // Data analytics team uses data services
+            else if (profile.equals("data-analytics")) {
+                includeService =
+                        category.equals("Database")
+                                || category.equals("Storage")
+                                || code.contains("Lambda")
+                                || code.contains("Functions");
+            }
+            // Mobile team uses CDN and API services
+            else if (profile.equals("mobile")) {
+                includeService =
+                        code.contains("CloudFront")
+                                || code.contains("CDN")
+                                || code.contains("S3")
+                                || code.contains("Storage");
+            }
+            // Web frontend team
+            else if (profile.equals("web-frontend")) {
+                includeService =
+                        code.contains("CloudFront")
+                                || code.contains("CDN")
+                                || code.contains("S3")
+                                || code.contains("Storage")
+                                || code.contains("LoadBalanc");
+            }
+            // DevOps team uses monitoring and infrastructure
+            else if (profile.equals("devops")) {
+                includeService =
+                        category.equals("Management")
+                                || code.contains("EKS")
+                                || code.contains("GKE")
+                                || code.contains("ContainerInstances");
+            }
+            // Security team uses monitoring services
+            else if (profile.equals("security")) {
+                includeService =
+                        category.equals("Management")
+                                || code.contains("VPC")
+                                || code.contains("VirtualNetwork");
+            }
+            // ML team uses compute and storage
+            else if (profile.equals("ml-team")) {
+                includeService =
+                        category.equals("Compute")
+                                || category.equals("Storage")
+                                || code.contains("Lambda")
+                                || code.contains("Functions");
+            }
+            // Backend API team
+            else if (profile.equals("backend-api")) {
+                includeService =
+                        category.equals("Compute")
+                                || category.equals("Database")
+                                || code.contains("LoadBalanc");
+            }
+            // QA automation team
+            else if (profile.equals("qa-automation")) {
+                includeService =
+                        category.equals("Compute")
+                                || code.contains("Lambda")
+                                || code.contains("Functions");
+            }
+
+            if (includeService) {
+                picked.add(s);
+            }
+        }
+        return picked.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean shouldGenerateUsage(
+            String profile, ServiceProfile service, boolean isWeekend, int hour, SplittableRandom rng) {
+        // Business hours (9-18 in UTC)
+        boolean isBusinessHours = hour >= 9 && hour <= 18;
+
+        // Base probability
+        double probability = 0.3;
+
+        // Adjust for patterns
+        if (isBusinessHours && !isWeekend) {
+            probability = 0.8; // Higher during business hours on weekdays
+        } else if (isWeekend) {
+            probability = 0.2; // Lower on weekends
+        }
+
+        // Some services run 24/7 (databases, load balancers)
+        if (service.alwaysOn) {
+            probability = 0.95; // Almost always running
+        }
+
+        // Batch jobs (data analytics) run at night
+        if (profile.equals("data-analytics") && (hour < 6 || hour > 22)) {
+            probability = 0.7;
+        }
+
+        return rng.nextDouble() < probability;
+    }
+
+    // Resources are stable per (team, service, index) so the same resource recurs every day
+    private void buildResources(int teamIndex) {
+        Team team = teams.get(teamIndex);
+        String azureSubscription = null;
+        for (int s = 0; s < services.length; s++) {
+            ServiceProfile service = services[s];
+            for (int r = 0; r < resourcesPerService; r++) {
+                long hash = mix(seed ^ mix(((long) teamIndex << 40) ^ ((long) s << 20) ^ r));
+                String prefix = "";
+                if (service.provider.equals("aws")) {
+                    if (service.code.contains("EC2")) prefix = "i-";
+                    else if (service.code.contains("S3")) prefix = "s3://";
+                    else if (service.code.contains("RDS")) prefix = "db-";
+                } else if (service.provider.equals("azure")) {
+                    if (azureSubscription == null) {
+                        long subscription = mix(seed ^ mix(teamIndex + 0x5EEDL));
+                        azureSubscription =
+                                hex(subscription, 8) + "-" + hex(subscription >>> 32, 4) + "-"
+                                        + hex(mix(subscription), 4) + "-" + hex(mix(subscription) >>> 16, 4)
+                                        + "-" + hex(mix(subscription) >>> 32, 12);
+                    }
+                    prefix = "/subscriptions/" + azureSubscription + "/resourceGroups/rg-" + team.getName() + "/";
+                } else if (service.provider.equals("gcp")) {
+                    prefix = "projects/my-project/";
+                }
+
+                resourceIds[teamIndex][s][r] = prefix + hex(hash, 12);
+                resourceNames[teamIndex][s][r] = service.resourceType + "-" + team.getName() + "-" + r;
+                resourceRegions[teamIndex][s][r] =
+                        service.regions.length == 0
+                                ? null
+                                : service.regions[(int) Long.remainderUnsigned(hash, service.regions.length)];
+            }
+        }
+    }
+
+    private static String hex(long bits, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = HEX_DIGITS[(int) (bits >>> ((i % 16) * 4)) & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /** Per-service constants derived once from the entity, so partitions never touch strings. */
+    private static class ServiceProfile {
+        final long id;
+        final String code;
+        final String category;
+        final String provider;
+        final String resourceType;
+        final String usageUnit;
+        final String[] regions;
+        final long rateE10; // hourly rate with ten decimal places
+        final int minQuantity;
+        final int quantityRange;
+        final boolean alwaysOn;
+        final Account productionAccount;
+        final Account developmentAccount;
+
+        ServiceProfile(Service service, List<Account> accounts) {
+            this.id = service.getId();
+            this.code = service.getServiceCode();
+            this.category = service.getCategory() == null ? "" : service.getCategory();
+            this.provider = service.getCloudProvider().getName();
+            this.resourceType = resourceTypeFor(code);
+            this.usageUnit = usageUnitFor(code);
+            this.regions =
+                    provider.equals("aws")
+                            ? AWS_REGIONS
+                            : provider.equals("azure")
+                                    ? AZURE_REGIONS
+                                    : provider.equals("gcp") ? GCP_REGIONS : new String[0];
+            this.rateE10 =
+                    SERVICE_HOURLY_RATES.getOrDefault(code, DEFAULT_HOURLY_RATE)
+                            .movePointRight(10)
+                            .longValue();
+            this.alwaysOn =
+                    category.equals("Database")
+                            || code.contains("LoadBalanc")
+                            || code.contains("EKS")
+                            || code.contains("GKE");
+
+            int[] quantity = quantityRangeFor(code);
+            this.minQuantity = quantity[0];
+            this.quantityRange = quantity[1];
+
+            Long providerId = service.getCloudProvider().getId();
+            this.productionAccount = accountFor(accounts, providerId, Account.Environment.PRODUCTION);
+            this.developmentAccount = accountFor(accounts, providerId, Account.Environment.DEVELOPMENT);
+        }
+
+        private static Account accountFor(List<Account> accounts, Long providerId, Account.Environment environment) {
+            return accounts.stream()
+                    .filter(a -> a.getCloudProvider().getId().equals(providerId))
+                    .filter(a -> a.getEnvironment().equals(environment))
+                    .findFirst()
+                    .orElse(accounts.get(0));
+        }
+
+        private static String resourceTypeFor(String serviceCode) {
+            if (serviceCode.contains("EC2")
+                    || serviceCode.contains("VirtualMachines")
+                    || serviceCode.contains("ComputeEngine")) {
+                return "instance";
+            } else if (serviceCode.contains("S3") || serviceCode.contains("Storage")) {
+                return "bucket";
+            } else if (serviceCode.contains("RDS") || serviceCode.contains("SQL")) {
+                return "database";
+            } else if (serviceCode.contains("Lambda") || serviceCode.contains("Functions")) {
+                return "function";
+            } else if (serviceCode.contains("EKS")
+                    || serviceCode.contains("GKE")
+                    || serviceCode.contains("ContainerInstances")) {
+                return "cluster";
+            } else if (serviceCode.contains("LoadBalanc")) {
+                return "load-balancer";
+            } else if (serviceCode.contains("VPC") || serviceCode.contains("VirtualNetwork")) {
+                return "network";
+            }
+            return "resource";
+        }
+
+        private static String usageUnitFor(String serviceCode) {
+            if (serviceCode.contains("EC2")
+                    || serviceCode.contains("VirtualMachines")
+                    || serviceCode.contains("ComputeEngine")) {
+                return "Instance-Hours";
+            } else if (serviceCode.contains("S3") || serviceCode.contains("Storage")) {
+                return "GB-Month";
+            } else if (serviceCode.contains("RDS") || serviceCode.contains("SQL")) {
+                return "Instance-Hours";
+            } else if (serviceCode.contains("Lambda") || serviceCode.contains("Functions")) {
+                return "GB-Seconds";
+            } else if (serviceCode.contains("CloudFront") || serviceCode.contains("CDN")) {
+                return "GB";
+            } else if (serviceCode.contains("LoadBalanc")) {
+                return "LCU-Hours";
+            }
+            return "Units";
+        }
+
+        /** @return {minimum, range} of the usage quantity for one hour */
+        private static int[] quantityRangeFor(String serviceCode) {
+            if (serviceCode.contains("EC2")
+                    || serviceCode.contains("VirtualMachines")
+                    || serviceCode.contains("ComputeEngine")) {
+                return new int[] {1, 20}; // Number of instance hours (1-20 instances)
+            } else if (serviceCode.contains("S3") || serviceCode.contains("Storage")) {
+                return new int[] {10, 990}; // GB of storage (10-1000 GB)
+            } else if (serviceCode.contains("RDS") || serviceCode.contains("SQL")) {
+                return new int[] {1, 5}; // Database instance hours (1-5 instances)
+            } else if (serviceCode.contains("Lambda") || serviceCode.contains("Functions")) {
+                return new int[] {100, 9900}; // GB-seconds (100-10000)
+            } else if (serviceCode.contains("CloudFront") || serviceCode.contains("CDN")) {
+                return new int[] {1, 500}; // GB transferred (1-500 GB)
+            }
+            return new int[] {1, 100};
+        }
+    }
+}
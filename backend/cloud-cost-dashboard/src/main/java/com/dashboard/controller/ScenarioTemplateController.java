@@ -19,30 +19,7 @@ public class ScenarioTemplateController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size) {
         
-        List<Map<String, Object>> templates;
-        
-        // Filter by difficulty or get all
-        if (difficulty != null && !difficulty.isEmpty()) {
-            templates = ScenarioTemplates.getTemplatesByDifficulty(difficulty);
-        } else {
-            templates = ScenarioTemplates.getAllTemplates();
-        }
-        
-        // Further filter by type if specified
-        if (type != null && !type.isEmpty()) {
-            String finalType = type;
-            templates = templates.stream()
-                .filter(t -> finalType.equals(t.get("type")))
-                .toList();
-        }
-        
-        // Further filter by category if specified
-        if (category != null && !category.isEmpty()) {
-            String finalCategory = category;
-            templates = templates.stream()
-                .filter(t -> finalCategory.equals(t.get("category")))
-                .toList();
-        }
+        List<Map<String, Object>> templates = ScenarioTemplates.filterTemplates(difficulty, type, category);
         
         // Pagination
         int pageNum = page != null ? page : 0;
@@ -82,26 +59,12 @@ public class ScenarioTemplateController {
     
     @GetMapping("/categories")
     public ResponseEntity<List<String>> getCategories() {
-        Set<String> categories = new HashSet<>();
-        ScenarioTemplates.getAllTemplates().forEach(template -> {
-            Object category = template.get("category");
-            if (category != null) {
-                categories.add(category.toString());
-            }
-        });
-        return ResponseEntity.ok(new ArrayList<>(categories));
+        return ResponseEntity.ok(ScenarioTemplates.getCategories());
     }
     
     @GetMapping("/types")
     public ResponseEntity<List<String>> getTypes() {
-        Set<String> types = new HashSet<>();
-        ScenarioTemplates.getAllTemplates().forEach(template -> {
-            Object type = template.get("type");
-            if (type != null) {
-                types.add(type.toString());
-            }
-        });
-        return ResponseEntity.ok(new ArrayList<>(types));
+        return ResponseEntity.ok(ScenarioTemplates.getTypes());
     }
     
     @GetMapping("/search")
@@ -109,23 +72,7 @@ public class ScenarioTemplateController {
             @RequestParam String query,
             @RequestParam(required = false) String difficulty) {
         
-        String searchQuery = query.toLowerCase();
-        List<Map<String, Object>> templates = difficulty != null ? 
-            ScenarioTemplates.getTemplatesByDifficulty(difficulty) : 
-            ScenarioTemplates.getAllTemplates();
-        
-        List<Map<String, Object>> results = templates.stream()
-            .filter(template -> {
-                String name = template.get("name").toString().toLowerCase();
-                String description = template.get("description").toString().toLowerCase();
-                String type = template.get("type").toString().toLowerCase();
-                return name.contains(searchQuery) || 
-                       description.contains(searchQuery) || 
-                       type.contains(searchQuery);
-            })
-            .toList();
-        
-        return ResponseEntity.ok(results);
+        return ResponseEntity.ok(ScenarioTemplates.searchTemplates(query, difficulty));
     }
     
     @GetMapping("/recommended/{teamId}")
@@ -0,0 +1,111 @@
+package com.dashboard.model.ingestion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IngestionReport {
+    private static final int MAX_REJECTED_SAMPLES = 20;
+
+    private String filePath;
+    private String status; // running, completed, failed
+    private long rowsRead;
+    private long rowsInserted;
+    private long rowsRejected;
+    private long batchCount;
+    private int batchSize;
+    private int parallelism; // Worker threads used to parse the file (1 = streaming reader)
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private List<String> rejectedSamples; // First few rejected rows with line number and reason
+    private String errorMessage;
+    private String startedAt;
+    private String completedAt;
+
+    // Constructors
+    public IngestionReport() {
+        this.status = "running";
+        this.startedAt = java.time.Instant.now().toString();
+        this.rejectedSamples = new ArrayList<>();
+    }
+
+    public IngestionReport(String filePath) {
+        this();
+        this.filePath = filePath;
+    }
+
+    // Getters and Setters
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+
+    public long getRowsInserted() { return rowsInserted; }
+    public void setRowsInserted(long rowsInserted) { this.rowsInserted = rowsInserted; }
+
+    public long getRowsRejected() { return rowsRejected; }
+    public void setRowsRejected(long rowsRejected) { this.rowsRejected = rowsRejected; }
+
+    public long getBatchCount() { return batchCount; }
+    public void setBatchCount(long batchCount) { this.batchCount = batchCount; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public List<String> getRejectedSamples() { return rejectedSamples; }
+    public void setRejectedSamples(List<String> rejectedSamples) { this.rejectedSamples = rejectedSamples; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public String getStartedAt() { return startedAt; }
+    public void setStartedAt(String startedAt) { this.startedAt = startedAt; }
+
+    public String getCompletedAt() { return completedAt; }
+    public void setCompletedAt(String completedAt) { this.completedAt = completedAt; }
+
+    // Helper methods
+    public boolean isCompleted() {
+        return "completed".equals(status);
+    }
+
+    public boolean isFailed() {
+        return "failed".equals(status);
+    }
+
+    public void recordRejected(long lineNumber, String reason) {
+        rowsRejected++;
+        if (rejectedSamples.size() < MAX_REJECTED_SAMPLES) {
+            rejectedSamples.add("line " + lineNumber + ": " + reason);
+        }
+    }
+
+    public void markCompleted(long elapsedMs) {
+        this.status = "completed";
+        finish(elapsedMs);
+    }
+
+    public void markFailed(String errorMessage, long elapsedMs) {
+        this.status = "failed";
+        this.errorMessage = errorMessage;
+        finish(elapsedMs);
+    }
+
+    private void finish(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+        this.completedAt = java.time.Instant.now().toString();
+        this.rowsPerSecond = elapsedMs > 0 ? rowsInserted * 1000.0 / elapsedMs : rowsInserted;
+    }
+}
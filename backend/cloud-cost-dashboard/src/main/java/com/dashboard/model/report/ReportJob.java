@@ -0,0 +1,79 @@
+package com.dashboard.model.report;
+
+public class ReportJob {
+    private String id;
+    private String reportId; // Id of the report once generated
+    private String userId;
+    private String status; // queued, running, completed, failed, cancelled
+    private long rowsScanned;
+    private int sectionsDone;
+    private int sectionsTotal;
+    private String currentSection;
+    private boolean cancelRequested;
+    private String errorMessage;
+    private String submittedAt;
+    private String startedAt;
+    private String completedAt;
+
+    // Constructors
+    public ReportJob() {
+        this.status = "queued";
+        this.submittedAt = java.time.Instant.now().toString();
+    }
+
+    public ReportJob(String id, String reportId, String userId) {
+        this();
+        this.id = id;
+        this.reportId = reportId;
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getReportId() { return reportId; }
+    public void setReportId(String reportId) { this.reportId = reportId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getRowsScanned() { return rowsScanned; }
+    public void setRowsScanned(long rowsScanned) { this.rowsScanned = rowsScanned; }
+
+    public int getSectionsDone() { return sectionsDone; }
+    public void setSectionsDone(int sectionsDone) { this.sectionsDone = sectionsDone; }
+
+    public int getSectionsTotal() { return sectionsTotal; }
+    public void setSectionsTotal(int sectionsTotal) { this.sectionsTotal = sectionsTotal; }
+
+    public String getCurrentSection() { return currentSection; }
+    public void setCurrentSection(String currentSection) { this.currentSection = currentSection; }
+
+    public boolean isCancelRequested() { return cancelRequested; }
+    public void setCancelRequested(boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public String getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(String submittedAt) { this.submittedAt = submittedAt; }
+
+    public String getStartedAt() { return startedAt; }
+    public void setStartedAt(String startedAt) { this.startedAt = startedAt; }
+
+    public String getCompletedAt() { return completedAt; }
+    public void setCompletedAt(String completedAt) { this.completedAt = completedAt; }
+
+    // Helper methods
+    public boolean isFinished() {
+        return "completed".equals(status) || "failed".equals(status) || "cancelled".equals(status);
+    }
+
+    public double getProgressPercentage() {
+        return sectionsTotal > 0 ? sectionsDone * 100.0 / sectionsTotal : 0.0;
+    }
+}
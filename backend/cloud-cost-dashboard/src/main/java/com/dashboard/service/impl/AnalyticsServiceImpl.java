@@ -7,10 +7,13 @@ import com.dashboard.model.analytics.TeamComparison;
 import com.dashboard.dto.analytics.PredictionRequest;
 import com.dashboard.dto.analytics.TrendAnalysisRequest;
 import com.dashboard.dto.analytics.ComparisonRequest;
+import com.dashboard.util.CostSeries;
+import com.dashboard.util.Percentiles;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import java.util.*;
 import java.time.LocalDate;
@@ -21,15 +24,71 @@ import java.math.RoundingMode;
 @Service
 public class AnalyticsServiceImpl implements AnalyticsService {
 
+    // Reported per compared entity as p<N>_daily_cost
+    private static final int[] DAILY_COST_PERCENTILES = {50, 95, 99};
+
+    private static final int DEFAULT_TOP_RESOURCES = 20;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private CostCube costCube;
+
+    @Autowired
+    private TopResourceTracker topResourceTracker;
+
+    @Autowired
+    private PredictionCache predictionCache;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
     @Override
     public PredictionResult predictCosts(PredictionRequest request) {
+        return requestCoalescer.execute("analytics.predictCosts",
+            Arrays.asList(request.getMethod(), request.getDaysToPredict(), request.isIncludeSeasonality(),
+                request.getConfidenceLevel(), request.getTeamName(), request.getStartDate(), request.getEndDate(),
+                request.getOptions()),
+            () -> computePredictions(request));
+    }
+
+    @Override
+    public TrendAnalysis analyzeTrends(TrendAnalysisRequest request) {
+        return requestCoalescer.execute("analytics.analyzeTrends",
+            Arrays.asList(request.getTeamName(), request.getStartDate(), request.getEndDate(),
+                request.getWindowSize(), request.isIncludeAnomalyDetection()),
+            () -> computeTrendAnalysis(request));
+    }
+
+    @Override
+    public TeamComparison compareEntities(ComparisonRequest request) {
+        return requestCoalescer.execute("analytics.compareEntities",
+            Arrays.asList(request.getComparisonType(), request.getStartDate(), request.getEndDate(),
+                request.getMetric(), request.getIncludeEntities(), request.getExcludeEntities(), request.isIncludeEfficiencyMetrics()),
+            () -> computeComparison(request));
+    }
+
+    @Override
+    public List<Object> detectAnomalies(String teamName, String startDate, String endDate, Double threshold) {
+        return requestCoalescer.execute("analytics.detectAnomalies", Arrays.asList(teamName, startDate, endDate, threshold),
+            () -> findAnomalies(teamName, startDate, endDate, threshold));
+    }
+
+    // ========================================
+    // PRIVATE HELPER METHODS
+    // ========================================
+
+    private PredictionResult computePredictions(PredictionRequest request) {
+        PredictionResult cached = predictionCache.get(request);
+        if (cached != null) {
+            return cached;
+        }
         System.out.println("Generating cost predictions using method: " + request.getMethod());
+        PredictionCache.Epoch epoch = predictionCache.begin();
         
         // Fetch historical data
-        List<Map<String, Object>> historicalData = fetchHistoricalData(
+        CostSeries historicalData = fetchHistoricalData(
             request.getTeamName(), 
             request.getStartDate(), 
             request.getEndDate()
@@ -40,20 +99,21 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         }
         
         // Apply prediction algorithm based on method
-        return switch (request.getMethod().toLowerCase()) {
+        PredictionResult result = switch (request.getMethod().toLowerCase()) {
             case "linear" -> generateLinearPrediction(historicalData, request);
             case "exponential" -> generateExponentialPrediction(historicalData, request);
             case "seasonal" -> generateSeasonalPrediction(historicalData, request);
             case "growth" -> generateGrowthPrediction(historicalData, request);
             default -> throw new IllegalArgumentException("Unsupported prediction method: " + request.getMethod());
         };
+        predictionCache.put(request, result, epoch);
+        return result;
     }
 
-    @Override
-    public TrendAnalysis analyzeTrends(TrendAnalysisRequest request) {
+    private TrendAnalysis computeTrendAnalysis(TrendAnalysisRequest request) {
         System.out.println("Analyzing trends for team: " + request.getTeamName());
         
-        List<Map<String, Object>> costData = fetchHistoricalData(
+        CostSeries costData = fetchHistoricalData(
             request.getTeamName(),
             request.getStartDate(),
             request.getEndDate()
@@ -80,8 +140,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return analysis;
     }
 
-    @Override
-    public TeamComparison compareEntities(ComparisonRequest request) {
+    private TeamComparison computeComparison(ComparisonRequest request) {
         System.out.println("Comparing entities by: " + request.getComparisonType());
         
         TeamComparison comparison = new TeamComparison();
@@ -102,31 +161,27 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return comparison;
     }
 
-    @Override
-    public List<Object> detectAnomalies(String teamName, String startDate, String endDate, Double threshold) {
+    private List<Object> findAnomalies(String teamName, String startDate, String endDate, Double threshold) {
         System.out.println("Detecting anomalies for team: " + teamName + " with threshold: " + threshold);
         
-        List<Map<String, Object>> costData = fetchHistoricalData(teamName, startDate, endDate);
+        CostSeries costData = fetchHistoricalData(teamName, startDate, endDate);
         List<Object> anomalies = new ArrayList<>();
         
         // Calculate statistical baseline
-        double[] costs = costData.stream()
-            .mapToDouble(row -> ((BigDecimal) row.get("cost")).doubleValue())
-            .toArray();
+        double[] costs = costData.costs();
         
-        double mean = Arrays.stream(costs).average().orElse(0.0);
+        double mean = costData.meanCost();
         double stdDev = calculateStandardDeviation(costs, mean);
         
         // Detect anomalies using statistical thresholds
         for (int i = 0; i < costData.size(); i++) {
-            Map<String, Object> dataPoint = costData.get(i);
-            double cost = ((BigDecimal) dataPoint.get("cost")).doubleValue();
+            double cost = costs[i];
             double deviationScore = Math.abs(cost - mean) / stdDev;
             
             if (deviationScore > threshold) {
                 Map<String, Object> anomaly = new HashMap<>();
-                anomaly.put("date", dataPoint.get("date"));
-                anomaly.put("service", dataPoint.get("service_name"));
+                anomaly.put("date", costData.getDate(i).toString());
+                anomaly.put("service", costData.getService(i));
                 anomaly.put("actualCost", cost);
                 anomaly.put("expectedCost", mean);
                 anomaly.put("deviationScore", deviationScore);
@@ -141,15 +196,22 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return anomalies;
     }
 
-    // ========================================
-    // PRIVATE HELPER METHODS
-    // ========================================
+    private List<Map<String, Object>> findTopResources(String teamName, String startDate, String endDate, Integer limit) {
+        int resourceLimit = limit != null && limit > 0 ? limit : DEFAULT_TOP_RESOURCES;
+        LocalDate start = LocalDate.parse(startDate);
+        LocalDate end = LocalDate.parse(endDate);
+        
+        if (topResourceTracker.covers(start, end)) {
+            return topResourceTracker.topResources(start, end, teamName == null ? null : List.of(teamName), resourceLimit);
+        }
+        return queryTopResources(teamName, startDate, endDate, resourceLimit);
+    }
 
-    private List<Map<String, Object>> fetchHistoricalData(String teamName, String startDate, String endDate) {
+    private CostSeries fetchHistoricalData(String teamName, String startDate, String endDate) {
         String sql = """
             SELECT date, team_name, service_name, region, provider, 
                    SUM(cost) as cost, SUM(usage_quantity) as usage_quantity
-            FROM enhanced_usage_records 
+            FROM daily_cost_rollup 
             WHERE date BETWEEN ? AND ?
             """;
         
@@ -164,17 +226,28 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         
         sql += " GROUP BY date, team_name, service_name, region, provider ORDER BY date";
         
-        return jdbcTemplate.queryForList(sql, params.toArray());
+        // Rows are appended straight into primitive columns; no per-row map or boxed values
+        CostSeries series = new CostSeries();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> series.add(
+            rs.getDate("date").toLocalDate(),
+            rs.getString("team_name"),
+            rs.getString("service_name"),
+            rs.getString("region"),
+            rs.getString("provider"),
+            rs.getDouble("cost"),
+            rs.getDouble("usage_quantity")
+        ), params.toArray());
+        return series;
     }
 
-    private PredictionResult generateLinearPrediction(List<Map<String, Object>> data, PredictionRequest request) {
+    private PredictionResult generateLinearPrediction(CostSeries data, PredictionRequest request) {
         // Simple linear regression implementation
         int n = data.size();
         double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0;
         
         for (int i = 0; i < n; i++) {
             double x = i + 1; // Day index
-            double y = ((BigDecimal) data.get(i).get("cost")).doubleValue();
+            double y = data.getCost(i);
             
             sumX += x;
             sumY += y;
@@ -211,16 +284,16 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return result;
     }
 
-    private PredictionResult generateExponentialPrediction(List<Map<String, Object>> data, PredictionRequest request) {
+    private PredictionResult generateExponentialPrediction(CostSeries data, PredictionRequest request) {
         // Exponential smoothing implementation
         double alpha = 0.3; // Smoothing parameter
         List<Double> smoothed = new ArrayList<>();
         
-        double s = ((BigDecimal) data.get(0).get("cost")).doubleValue();
+        double s = data.getCost(0);
         smoothed.add(s);
         
         for (int i = 1; i < data.size(); i++) {
-            double actual = ((BigDecimal) data.get(i).get("cost")).doubleValue();
+            double actual = data.getCost(i);
             s = alpha * actual + (1 - alpha) * s;
             smoothed.add(s);
         }
@@ -253,20 +326,16 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return result;
     }
 
-    private PredictionResult generateSeasonalPrediction(List<Map<String, Object>> data, PredictionRequest request) {
+    private PredictionResult generateSeasonalPrediction(CostSeries data, PredictionRequest request) {
         // Simplified seasonal decomposition
         int seasonLength = 7; // Weekly seasonality
-        List<Double> costs = data.stream()
-            .map(row -> ((BigDecimal) row.get("cost")).doubleValue())
-            .toList();
-        
         // Calculate seasonal components
         double[] seasonal = new double[seasonLength];
         for (int i = 0; i < seasonLength; i++) {
             double sum = 0;
             int count = 0;
-            for (int j = i; j < costs.size(); j += seasonLength) {
-                sum += costs.get(j);
+            for (int j = i; j < data.size(); j += seasonLength) {
+                sum += data.getCost(j);
                 count++;
             }
             seasonal[i] = count > 0 ? sum / count : 0;
@@ -274,7 +343,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         
         // Generate predictions with seasonality
         List<Map<String, Object>> predictions = new ArrayList<>();
-        double avgCost = costs.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        double avgCost = data.meanCost();
         
         for (int i = 1; i <= request.getDaysToPredict(); i++) {
             double seasonalComponent = seasonal[i % seasonLength];
@@ -299,12 +368,10 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return result;
     }
 
-    private PredictionResult generateGrowthPrediction(List<Map<String, Object>> data, PredictionRequest request) {
+    private PredictionResult generateGrowthPrediction(CostSeries data, PredictionRequest request) {
         // Growth rate based prediction
         double growthRate = 0.05; // 5% annual growth rate
-        double avgCost = data.stream()
-            .mapToDouble(row -> ((BigDecimal) row.get("cost")).doubleValue())
-            .average().orElse(0);
+        double avgCost = data.meanCost();
         
         List<Map<String, Object>> predictions = new ArrayList<>();
         for (int i = 1; i <= request.getDaysToPredict(); i++) {
@@ -329,15 +396,12 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return result;
     }
 
-    private double calculateRSquared(List<Map<String, Object>> data, double slope, double intercept) {
-        double sumY = data.stream()
-            .mapToDouble(row -> ((BigDecimal) row.get("cost")).doubleValue())
-            .sum();
-        double meanY = sumY / data.size();
+    private double calculateRSquared(CostSeries data, double slope, double intercept) {
+        double meanY = data.meanCost();
         
         double ssRes = 0, ssTot = 0;
         for (int i = 0; i < data.size(); i++) {
-            double actual = ((BigDecimal) data.get(i).get("cost")).doubleValue();
+            double actual = data.getCost(i);
             double predicted = slope * (i + 1) + intercept;
             
             ssRes += Math.pow(actual - predicted, 2);
@@ -347,7 +411,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return 1 - (ssRes / ssTot);
     }
 
-    private Map<String, Object> calculateTrendMetrics(List<Map<String, Object>> data) {
+    private Map<String, Object> calculateTrendMetrics(CostSeries data) {
         Map<String, Object> metrics = new HashMap<>();
         
         if (data.size() < 2) {
@@ -357,23 +421,20 @@ public class AnalyticsServiceImpl implements AnalyticsService {
             return metrics;
         }
         
-        List<Double> costs = data.stream()
-            .map(row -> ((BigDecimal) row.get("cost")).doubleValue())
-            .toList();
-        
         // Calculate growth rate
-        double firstHalf = costs.subList(0, costs.size() / 2).stream()
-            .mapToDouble(Double::doubleValue).average().orElse(0);
-        double secondHalf = costs.subList(costs.size() / 2, costs.size()).stream()
-            .mapToDouble(Double::doubleValue).average().orElse(0);
+        int half = data.size() / 2;
+        double firstHalf = data.meanCost(0, half);
+        double secondHalf = data.meanCost(half, data.size());
         
         double growthRate = firstHalf > 0 ? ((secondHalf - firstHalf) / firstHalf) * 100 : 0;
         
         // Calculate volatility
-        double mean = costs.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double variance = costs.stream()
-            .mapToDouble(cost -> Math.pow(cost - mean, 2))
-            .average().orElse(0);
+        double mean = data.meanCost();
+        double variance = 0;
+        for (int i = 0; i < data.size(); i++) {
+            variance += Math.pow(data.getCost(i) - mean, 2);
+        }
+        variance /= data.size();
         double volatility = Math.sqrt(variance) / mean * 100;
         
         // Determine overall trend
@@ -393,28 +454,23 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return metrics;
     }
 
-    private List<Object> detectTrendAnomalies(List<Map<String, Object>> data) {
+    private List<Object> detectTrendAnomalies(CostSeries data) {
         // Simplified anomaly detection for trends
         List<Object> anomalies = new ArrayList<>();
         
         if (data.size() < 7) return anomalies; // Need at least a week of data
         
-        List<Double> costs = data.stream()
-            .map(row -> ((BigDecimal) row.get("cost")).doubleValue())
-            .toList();
-        
         // Simple moving average anomaly detection
         int windowSize = 7;
-        for (int i = windowSize; i < costs.size(); i++) {
-            double windowAvg = costs.subList(i - windowSize, i).stream()
-                .mapToDouble(Double::doubleValue).average().orElse(0);
+        for (int i = windowSize; i < data.size(); i++) {
+            double windowAvg = data.meanCost(i - windowSize, i);
             
-            double current = costs.get(i);
+            double current = data.getCost(i);
             double deviation = Math.abs(current - windowAvg) / windowAvg;
             
             if (deviation > 0.3) { // 30% deviation threshold
                 Map<String, Object> anomaly = new HashMap<>();
-                anomaly.put("date", data.get(i).get("date"));
+                anomaly.put("date", data.getDate(i).toString());
                 anomaly.put("type", "trend_deviation");
                 anomaly.put("severity", deviation);
                 anomaly.put("expected", windowAvg);
@@ -466,19 +522,27 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return insights;
     }
 
+    @Override
+    public List<Map<String, Object>> getTopResources(String teamName, String startDate, String endDate, Integer limit) {
+        return requestCoalescer.execute("analytics.getTopResources", Arrays.asList(teamName, startDate, endDate, limit),
+            () -> findTopResources(teamName, startDate, endDate, limit));
+    }
+
     private TeamComparison compareTeams(String startDate, String endDate) {
         String sql = """
             SELECT team_name, 
                    SUM(cost) as total_cost,
-                   AVG(cost) as avg_daily_cost,
+                   SUM(cost) / SUM(record_count) as avg_daily_cost,
                    COUNT(DISTINCT service_name) as service_count
-            FROM enhanced_usage_records 
+            FROM daily_cost_rollup 
             WHERE date BETWEEN ? AND ?
             GROUP BY team_name 
             ORDER BY total_cost DESC
             """;
         
-        List<Map<String, Object>> teamData = jdbcTemplate.queryForList(sql, startDate, endDate);
+        List<Map<String, Object>> teamData = costCube.isReady()
+            ? compareFromCube(CostCube.Dimension.TEAM, startDate, endDate, "avg_daily_cost", CostCube.Dimension.SERVICE)
+            : withDailyCostPercentiles(jdbcTemplate.queryForList(sql, startDate, endDate), "team_name", startDate, endDate);
         
         TeamComparison comparison = new TeamComparison();
         comparison.setComparisonType("teams");
@@ -518,16 +582,19 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         String sql = """
             SELECT service_name, 
                    SUM(cost) as total_cost,
-                   AVG(cost) as avg_cost,
+                   SUM(cost) / SUM(record_count) as avg_cost,
                    COUNT(DISTINCT team_name) as team_count,
                    COUNT(DISTINCT region) as region_count
-            FROM enhanced_usage_records 
+            FROM daily_cost_rollup 
             WHERE date BETWEEN ? AND ?
             GROUP BY service_name 
             ORDER BY total_cost DESC
             """;
         
-        List<Map<String, Object>> serviceData = jdbcTemplate.queryForList(sql, startDate, endDate);
+        List<Map<String, Object>> serviceData = costCube.isReady()
+            ? compareFromCube(CostCube.Dimension.SERVICE, startDate, endDate, "avg_cost",
+                              CostCube.Dimension.TEAM, CostCube.Dimension.REGION)
+            : withDailyCostPercentiles(jdbcTemplate.queryForList(sql, startDate, endDate), "service_name", startDate, endDate);
         
         TeamComparison comparison = new TeamComparison();
         comparison.setComparisonType("services");
@@ -543,13 +610,16 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                    SUM(cost) as total_cost,
                    COUNT(DISTINCT service_name) as service_count,
                    COUNT(DISTINCT team_name) as team_count
-            FROM enhanced_usage_records 
+            FROM daily_cost_rollup 
             WHERE date BETWEEN ? AND ?
             GROUP BY region 
             ORDER BY total_cost DESC
             """;
         
-        List<Map<String, Object>> regionData = jdbcTemplate.queryForList(sql, startDate, endDate);
+        List<Map<String, Object>> regionData = costCube.isReady()
+            ? compareFromCube(CostCube.Dimension.REGION, startDate, endDate, null,
+                              CostCube.Dimension.SERVICE, CostCube.Dimension.TEAM)
+            : withDailyCostPercentiles(jdbcTemplate.queryForList(sql, startDate, endDate), "region", startDate, endDate);
         
         TeamComparison comparison = new TeamComparison();
         comparison.setComparisonType("regions");
@@ -559,6 +629,110 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return comparison;
     }
 
+    /**
+     * Build comparison rows from the in-memory cost cube, with the same columns the SQL
+     * comparison queries and {@link #withDailyCostPercentiles} return.
+     * @param avgColumn Column for cost per rollup record, or null to leave it out
+     * @param counted Dimensions reported as {@code <dimension>_count} distinct-value columns
+     */
+    private List<Map<String, Object>> compareFromCube(CostCube.Dimension groupBy, String startDate, String endDate,
+                                                      String avgColumn, CostCube.Dimension... counted) {
+        // Counting dates makes the cube keep each group's daily costs for the percentiles
+        CostCube.Dimension[] distinct = Arrays.copyOf(counted, counted.length + 1);
+        distinct[counted.length] = CostCube.Dimension.DATE;
+        Map<String, CostCube.Group> groups = costCube.groupBy(groupBy,
+            LocalDate.parse(startDate), LocalDate.parse(endDate), null, distinct);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (CostCube.Group group : groups.values()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(groupBy.getColumn(), group.getKey());
+            row.put("total_cost", group.getCost());
+            if (avgColumn != null) {
+                row.put(avgColumn, group.getRecordCount() > 0
+                    ? group.getCost().divide(BigDecimal.valueOf(group.getRecordCount()), 8, RoundingMode.HALF_UP)
+                    : null);
+            }
+            for (CostCube.Dimension dimension : counted) {
+                row.put(dimension.name().toLowerCase() + "_count", group.getDistinctCount(dimension));
+            }
+            for (int percentile : DAILY_COST_PERCENTILES) {
+                row.put("p" + percentile + "_daily_cost", group.getDailyCostPercentile(percentile));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Add p50/p95/p99 daily cost columns to SQL comparison rows, from one pass over the
+     * per-day rollup totals of the compared column (MySQL has no percentile aggregate).
+     */
+    private List<Map<String, Object>> withDailyCostPercentiles(List<Map<String, Object>> rows, String column,
+                                                               String startDate, String endDate) {
+        String sql = """
+            SELECT %s AS entity, SUM(cost) AS daily_cost
+            FROM daily_cost_rollup
+            WHERE date BETWEEN ? AND ?
+            GROUP BY %s, date
+            """.formatted(column, column);
+        
+        Map<String, List<BigDecimal>> dailyCosts = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+            dailyCosts.computeIfAbsent(rs.getString("entity"), key -> new ArrayList<>()).add(rs.getBigDecimal("daily_cost")),
+            startDate, endDate);
+        
+        for (Map<String, Object> row : rows) {
+            List<BigDecimal> costs = dailyCosts.getOrDefault(String.valueOf(row.get(column)), List.of());
+            List<BigDecimal> sorted = costs.stream().sorted().toList();
+            for (int percentile : DAILY_COST_PERCENTILES) {
+                row.put("p" + percentile + "_daily_cost", Percentiles.of(sorted, percentile));
+            }
+        }
+        return rows;
+    }
+
+    /** Exact top resources for ranges longer than the tracker keeps, grouped from the fact tables. */
+    private List<Map<String, Object>> queryTopResources(String teamName, String startDate, String endDate, int limit) {
+        String teamFilter = teamName != null ? " AND team_name = ?" : "";
+        String sql = """
+            SELECT resource_id, SUM(cost) AS total_cost
+            FROM (
+                SELECT resource_id, cost
+                FROM enhanced_usage_records
+                WHERE date BETWEEN ? AND ? AND resource_id IS NOT NULL%1$s
+                UNION ALL
+                SELECT ur.resource_id, ur.total_cost
+                FROM usage_records ur
+                JOIN teams t ON ur.team_id = t.id
+                WHERE ur.usage_date BETWEEN ? AND ? AND ur.resource_id IS NOT NULL%2$s
+            ) resources
+            GROUP BY resource_id
+            ORDER BY total_cost DESC
+            LIMIT ?
+            """.formatted(teamFilter, teamFilter.replace("team_name", "t.name"));
+        
+        List<Object> params = new ArrayList<>();
+        for (int branch = 0; branch < 2; branch++) {
+            params.add(startDate);
+            params.add(endDate);
+            if (teamName != null) {
+                params.add(teamName);
+            }
+        }
+        params.add(limit);
+        
+        List<Map<String, Object>> resources = new ArrayList<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            Map<String, Object> resource = new LinkedHashMap<>();
+            resource.put("resourceId", rs.getString("resource_id"));
+            resource.put("totalCost", rs.getBigDecimal("total_cost"));
+            resource.put("maxOverestimate", BigDecimal.ZERO);
+            resources.add(resource);
+        }, params.toArray());
+        return resources;
+    }
+
     private double calculateStandardDeviation(double[] values, double mean) {
         double sum = 0;
         for (double value : values) {
@@ -0,0 +1,151 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.service.interfaces.BudgetService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs budget alert evaluation in the background on a fixed cadence so reads of
+ * /api/budgets/alerts never evaluate budgets themselves.
+ *
+ * Runs are single-flight: within the process an overlapping trigger (scheduled or manual) is
+ * skipped, and across instances a MySQL named lock (GET_LOCK) lets only one replica evaluate
+ * at a time. The lock is held on its own connection for the length of the run.
+ */
+@Component
+public class BudgetAlertScheduler {
+
+    static final String LOCK_NAME = "budget_alert_evaluation";
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${budget.alerts.scheduler.enabled:true}")
+    private boolean enabled = true;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder completedRuns = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+    private final LongAdder skippedRuns = new LongAdder();
+
+    private volatile String lastRunStartedAt;
+    private volatile long lastRunDurationMs = -1;
+    private volatile int lastBudgetsEvaluated;
+    private volatile String lastError;
+
+    @Scheduled(initialDelayString = "${budget.alerts.initial-delay-ms:30000}",
+               fixedDelayString = "${budget.alerts.evaluation-interval-ms:300000}")
+    public void scheduledEvaluation() {
+        if (enabled) {
+            runOnce();
+        }
+    }
+
+    /**
+     * Evaluate all active budgets now unless a run is already in progress here or on another
+     * instance.
+     * @return true if this call performed the evaluation
+     */
+    public boolean runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            skippedRuns.increment();
+            return false;
+        }
+        try {
+            Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                if (!acquireLock(connection)) {
+                    return false;
+                }
+                try {
+                    evaluate();
+                    return true;
+                } finally {
+                    releaseLock(connection);
+                }
+            });
+            if (!Boolean.TRUE.equals(ran)) {
+                skippedRuns.increment();
+                return false;
+            }
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("completedRuns", completedRuns.sum());
+        stats.put("failedRuns", failedRuns.sum());
+        stats.put("skippedRuns", skippedRuns.sum());
+        stats.put("lastRunStartedAt", lastRunStartedAt);
+        stats.put("lastRunDurationMs", lastRunDurationMs);
+        stats.put("lastBudgetsEvaluated", lastBudgetsEvaluated);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void evaluate() {
+        long startNanos = System.nanoTime();
+        lastRunStartedAt = LocalDateTime.now().toString();
+        try {
+            int evaluated = budgetService.evaluateBudgetAlerts();
+            lastBudgetsEvaluated = evaluated;
+            lastError = null;
+            completedRuns.increment();
+            System.out.println("Evaluated " + evaluated + " budgets for alerts in " + elapsedMs(startNanos) + "ms");
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            failedRuns.increment();
+            System.err.println("Budget alert evaluation failed: " + e.getMessage());
+        } finally {
+            lastRunDurationMs = elapsedMs(startNanos);
+        }
+    }
+
+    private boolean acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseLock(Connection connection) {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            // The server drops the lock with the session anyway
+            System.err.println("Error releasing budget alert lock: " + e.getMessage());
+        }
+    }
+
+    private long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
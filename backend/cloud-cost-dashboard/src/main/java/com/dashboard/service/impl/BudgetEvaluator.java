@@ -0,0 +1,220 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.model.budget.Budget;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Evaluates many budgets at once with set-based queries instead of a query per budget.
+ *
+ * Spend comes from the running counters in {@link BudgetSpendCounters}. Alert history is
+ * loaded with one windowed query per chunk of ids, and the "already alerted today" check is a
+ * single lookup whose result is kept in memory while new alerts are batch-inserted.
+ */
+@Component
+public class BudgetEvaluator {
+
+    /** Ids per IN list; keeps statements well below driver and optimizer limits. */
+    static final int ID_CHUNK_SIZE = 500;
+
+    static final int ALERT_HISTORY_LIMIT = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BudgetSpendCounters budgetSpendCounters;
+
+    /**
+     * Fill in current spend, days remaining and alert history for every budget.
+     */
+    public void enrich(List<Budget> budgets) {
+        loadSpending(budgets);
+        loadAlertHistory(budgets);
+    }
+
+    /**
+     * Fill in current spend (and with it utilization) and days remaining for every budget.
+     */
+    public void loadSpending(List<Budget> budgets) {
+        List<String> budgetIds = new ArrayList<>();
+        budgets.forEach(budget -> budgetIds.add(budget.getId()));
+        Map<String, BigDecimal> spendById = budgetSpendCounters.getSpend(budgetIds);
+
+        for (Budget budget : budgets) {
+            budget.setCurrentSpend(spendById.getOrDefault(budget.getId(), BigDecimal.ZERO));
+            budget.setDaysRemaining(calculateDaysRemaining(budget.getEndDate()));
+        }
+    }
+
+    /**
+     * Fill in the most recent alert messages of every budget.
+     */
+    public void loadAlertHistory(List<Budget> budgets) {
+        Map<String, List<String>> historyById = new HashMap<>();
+
+        for (List<Budget> chunk : chunks(budgets)) {
+            String sql = """
+                SELECT budget_id, message, created_at
+                FROM (
+                    SELECT budget_id, message, created_at,
+                           ROW_NUMBER() OVER (PARTITION BY budget_id ORDER BY created_at DESC) AS rn
+                    FROM budget_alerts
+                    WHERE budget_id IN (%s)
+                ) ranked
+                WHERE rn <= ?
+                ORDER BY budget_id, rn
+                """.formatted(placeholders(chunk.size()));
+
+            List<Object> params = new ArrayList<>();
+            chunk.forEach(budget -> params.add(budget.getId()));
+            params.add(ALERT_HISTORY_LIMIT);
+
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                String entry = rs.getObject("created_at") + ": " + rs.getString("message");
+                historyById.computeIfAbsent(rs.getString("budget_id"), id -> new ArrayList<>()).add(entry);
+            }, params.toArray());
+        }
+
+        for (Budget budget : budgets) {
+            budget.setAlertHistory(historyById.getOrDefault(budget.getId(), new ArrayList<>()));
+        }
+    }
+
+    /**
+     * Create today's threshold alerts for budgets whose spend has been loaded. A budget gets at
+     * most one active alert per severity per day.
+     * @return number of alerts created
+     */
+    public int generateAlerts(List<Budget> budgets) {
+        Set<String> alertedToday = new HashSet<>();
+        for (List<Budget> chunk : chunks(budgets)) {
+            String sql = """
+                SELECT budget_id, severity
+                FROM budget_alerts
+                WHERE status = 'active' AND created_at >= CURRENT_DATE AND budget_id IN (%s)
+                """.formatted(placeholders(chunk.size()));
+
+            List<Object> params = new ArrayList<>();
+            chunk.forEach(budget -> params.add(budget.getId()));
+
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                alertedToday.add(alertKey(rs.getString("budget_id"), rs.getString("severity")));
+            }, params.toArray());
+        }
+
+        List<Object[]> newAlerts = new ArrayList<>();
+        for (Budget budget : budgets) {
+            Object[] alert = buildAlert(budget);
+            if (alert != null && alertedToday.add(alertKey(budget.getId(), (String) alert[3]))) {
+                newAlerts.add(alert);
+            }
+        }
+
+        if (newAlerts.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO budget_alerts
+            (id, budget_id, budget_name, severity, type, message, trigger_amount,
+             trigger_percentage, trigger_date, status, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_DATE, 'active', CURRENT_TIMESTAMP)
+            """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Object[] alert = newAlerts.get(i);
+                for (int column = 0; column < alert.length; column++) {
+                    ps.setObject(column + 1, alert[column]);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return newAlerts.size();
+            }
+        });
+
+        System.out.println("Created " + newAlerts.size() + " budget alerts for " + budgets.size() + " budgets");
+        return newAlerts.size();
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * @return insert parameters (id, budget_id, budget_name, severity, type, message,
+     *         trigger_amount, trigger_percentage), or null if the budget needs no alert
+     */
+    private Object[] buildAlert(Budget budget) {
+        double utilization = budget.getUtilizationPercentage();
+        String severity;
+        String message;
+
+        if (utilization >= 100.0) {
+            severity = "critical";
+            message = "Budget exceeded! Current spending: " +
+                     String.format("%.2f%%", utilization) + " of budget";
+        } else if (utilization >= budget.getAlertThreshold()) {
+            severity = "high";
+            message = "Budget threshold exceeded! Current spending: " +
+                     String.format("%.2f%%", utilization) + " of budget";
+        } else if (utilization >= (budget.getAlertThreshold() - 10)) {
+            severity = "medium";
+            message = "Approaching budget threshold. Current spending: " +
+                     String.format("%.2f%%", utilization) + " of budget";
+        } else {
+            return null; // No alert needed
+        }
+
+        String type = utilization >= 100.0 ? "budget_exceeded" : "threshold_exceeded";
+        return new Object[] {
+            UUID.randomUUID().toString(),
+            budget.getId(),
+            budget.getName(),
+            severity,
+            type,
+            message,
+            budget.getCurrentSpend(),
+            utilization
+        };
+    }
+
+    private int calculateDaysRemaining(String endDate) {
+        try {
+            LocalDate end = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE);
+            LocalDate now = LocalDate.now();
+            return (int) ChronoUnit.DAYS.between(now, end);
+        } catch (Exception e) {
+            System.err.println("Error calculating days remaining: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static String alertKey(String budgetId, String severity) {
+        return budgetId + "|" + severity;
+    }
+
+    private static List<List<Budget>> chunks(List<Budget> budgets) {
+        List<List<Budget>> chunks = new ArrayList<>();
+        for (int start = 0; start < budgets.size(); start += ID_CHUNK_SIZE) {
+            chunks.add(budgets.subList(start, Math.min(budgets.size(), start + ID_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -13,7 +13,6 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import java.util.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 
 @Service
@@ -22,6 +21,18 @@ public class BudgetServiceImpl implements BudgetService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private BudgetEvaluator budgetEvaluator;
+
+    @Autowired
+    private BudgetSpendCounters budgetSpendCounters;
+
+    @Autowired
+    private CostCube costCube;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
     @Override
     public Budget createBudget(CreateBudgetRequest request) {
         System.out.println("Creating budget: " + request.getName());
@@ -52,9 +63,11 @@ public class BudgetServiceImpl implements BudgetService {
             request.getEndDate(),
             request.getCreatedBy()
         );
+        budgetSpendCounters.invalidate(null);
         
-        // Return the created budget with calculated metrics
-        Budget budget = getBudget(budgetId);
+        // Return the created budget with calculated metrics; read it directly rather than
+        // joining a getBudget call that started before the write
+        Budget budget = loadBudget(budgetId);
         System.out.println("Created budget with ID: " + budgetId);
         return budget;
     }
@@ -122,8 +135,9 @@ public class BudgetServiceImpl implements BudgetService {
         if (rowsUpdated == 0) {
             throw new RuntimeException("Budget not found: " + budgetId);
         }
+        budgetSpendCounters.invalidate(budgetId);
         
-        Budget budget = getBudget(budgetId);
+        Budget budget = loadBudget(budgetId);
         System.out.println("Updated budget: " + budgetId);
         return budget;
     }
@@ -139,14 +153,59 @@ public class BudgetServiceImpl implements BudgetService {
             throw new RuntimeException("Budget not found: " + budgetId);
         }
         
-        // Also delete related alerts
+        // Also delete related alerts and the spend counter
         jdbcTemplate.update("DELETE FROM budget_alerts WHERE budget_id = ?", budgetId);
+        budgetSpendCounters.invalidate(budgetId);
         
         System.out.println("Deleted budget: " + budgetId);
     }
 
     @Override
     public List<Budget> getAllBudgets() {
+        return requestCoalescer.execute("budgets.getAllBudgets", List.of(), () -> loadAllBudgets());
+    }
+
+    @Override
+    public Budget getBudget(String budgetId) {
+        return requestCoalescer.execute("budgets.getBudget", Arrays.asList(budgetId), () -> loadBudget(budgetId));
+    }
+
+    @Override
+    public List<BudgetAlert> getBudgetAlerts() {
+        return requestCoalescer.execute("budgets.getBudgetAlerts", List.of(), () -> loadBudgetAlerts());
+    }
+
+    @Override
+    public int evaluateBudgetAlerts() {
+        String sql = "SELECT * FROM budgets WHERE status = 'active'";
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql);
+        
+        List<Budget> budgets = new ArrayList<>();
+        for (Map<String, Object> budgetRow : rows) {
+            budgets.add(mapRowToBudget(budgetRow));
+        }
+        
+        budgetEvaluator.loadSpending(budgets);
+        budgetEvaluator.generateAlerts(budgets);
+        return budgets.size();
+    }
+
+    @Override
+    public Object calculateBudgetMetrics(String budgetId) {
+        return requestCoalescer.execute("budgets.calculateBudgetMetrics", Arrays.asList(budgetId),
+            () -> computeBudgetMetrics(budgetId));
+    }
+
+    @Override
+    public Object getBudgetAnalytics() {
+        return requestCoalescer.execute("budgets.getBudgetAnalytics", List.of(), () -> computeBudgetAnalytics());
+    }
+
+    // ========================================
+    // PRIVATE HELPER METHODS
+    // ========================================
+
+    private List<Budget> loadAllBudgets() {
         System.out.println("Fetching all budgets");
         
         String sql = """
@@ -160,17 +219,15 @@ public class BudgetServiceImpl implements BudgetService {
         List<Budget> budgets = new ArrayList<>();
         
         for (Map<String, Object> row : rows) {
-            Budget budget = mapRowToBudget(row);
-            enrichBudgetWithMetrics(budget);
-            budgets.add(budget);
+            budgets.add(mapRowToBudget(row));
         }
+        budgetEvaluator.enrich(budgets);
         
         System.out.println("Retrieved " + budgets.size() + " budgets");
         return budgets;
     }
 
-    @Override
-    public Budget getBudget(String budgetId) {
+    private Budget loadBudget(String budgetId) {
         System.out.println("Fetching budget: " + budgetId);
         
         String sql = """
@@ -187,19 +244,14 @@ public class BudgetServiceImpl implements BudgetService {
         }
         
         Budget budget = mapRowToBudget(rows.get(0));
-        enrichBudgetWithMetrics(budget);
+        budgetEvaluator.enrich(List.of(budget));
         
         return budget;
     }
 
-    @Override
-    public List<BudgetAlert> getBudgetAlerts() {
+    private List<BudgetAlert> loadBudgetAlerts() {
         System.out.println("Fetching budget alerts");
         
-        // First, check all active budgets for threshold violations
-        generateAlertsForActiveBudgets();
-        
-        // Then return all active alerts
         String sql = """
             SELECT ba.id, ba.budget_id, ba.budget_name, ba.severity, ba.type, ba.message,
                    ba.trigger_amount, ba.trigger_percentage, ba.trigger_date, ba.status,
@@ -220,8 +272,7 @@ public class BudgetServiceImpl implements BudgetService {
         return alerts;
     }
 
-    @Override
-    public Object calculateBudgetMetrics(String budgetId) {
+    private Object computeBudgetMetrics(String budgetId) {
         System.out.println("Calculating budget metrics for: " + budgetId);
         
         Budget budget = getBudget(budgetId);
@@ -246,8 +297,7 @@ public class BudgetServiceImpl implements BudgetService {
         return metrics;
     }
 
-    @Override
-    public Object getBudgetAnalytics() {
+    private Object computeBudgetAnalytics() {
         System.out.println("Fetching budget analytics");
         
         Map<String, Object> analytics = new HashMap<>();
@@ -315,10 +365,6 @@ public class BudgetServiceImpl implements BudgetService {
         return analytics;
     }
 
-    // ========================================
-    // PRIVATE HELPER METHODS
-    // ========================================
-
     private Budget mapRowToBudget(Map<String, Object> row) {
         Budget budget = new Budget();
         budget.setId((String) row.get("id"));
@@ -363,176 +409,10 @@ public class BudgetServiceImpl implements BudgetService {
         return alert;
     }
 
-    private void enrichBudgetWithMetrics(Budget budget) {
-        // Calculate current spending
-        BigDecimal currentSpend = calculateCurrentSpending(budget);
-        budget.setCurrentSpend(currentSpend);
-        
-        // Calculate days remaining
-        int daysRemaining = calculateDaysRemaining(budget.getEndDate());
-        budget.setDaysRemaining(daysRemaining);
-        
-        // Load alert history
-        List<String> alertHistory = getAlertHistory(budget.getId());
-        budget.setAlertHistory(alertHistory);
-    }
-
-    private BigDecimal calculateCurrentSpending(Budget budget) {
-        String sql = """
-            SELECT COALESCE(SUM(cost), 0) as total_cost
-            FROM enhanced_usage_records
-            WHERE date BETWEEN ? AND ?
-            """;
-        
-        List<Object> params = new ArrayList<>();
-        params.add(budget.getStartDate());
-        params.add(budget.getEndDate());
-        
-        // Add scope-specific filtering
-        if ("team".equals(budget.getScope())) {
-            sql += " AND team_name = ?";
-            params.add(budget.getTarget());
-        } else if ("service".equals(budget.getScope())) {
-            sql += " AND service_name = ?";
-            params.add(budget.getTarget());
-        }
-        // For "organization" scope, no additional filter needed
-        
-        List<Map<String, Object>> result = jdbcTemplate.queryForList(sql, params.toArray());
-        BigDecimal totalCost = (BigDecimal) result.get(0).get("total_cost");
-        
-        return totalCost != null ? totalCost : BigDecimal.ZERO;
-    }
-
-    private int calculateDaysRemaining(String endDate) {
-        try {
-            LocalDate end = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE);
-            LocalDate now = LocalDate.now();
-            return (int) ChronoUnit.DAYS.between(now, end);
-        } catch (Exception e) {
-            System.err.println("Error calculating days remaining: " + e.getMessage());
-            return 0;
-        }
-    }
-
-    private List<String> getAlertHistory(String budgetId) {
-        String sql = """
-            SELECT message, created_at
-            FROM budget_alerts
-            WHERE budget_id = ?
-            ORDER BY created_at DESC
-            LIMIT 10
-            """;
-        
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, budgetId);
-        List<String> history = new ArrayList<>();
-        
-        for (Map<String, Object> row : rows) {
-            String entry = row.get("created_at") + ": " + row.get("message");
-            history.add(entry);
-        }
-        
-        return history;
-    }
-
-    private void generateAlertsForActiveBudgets() {
-        String sql = "SELECT * FROM budgets WHERE status = 'active'";
-        List<Map<String, Object>> budgets = jdbcTemplate.queryForList(sql);
-        
-        for (Map<String, Object> budgetRow : budgets) {
-            Budget budget = mapRowToBudget(budgetRow);
-            enrichBudgetWithMetrics(budget);
-            
-            checkAndCreateAlert(budget);
-        }
-    }
-
-    private void checkAndCreateAlert(Budget budget) {
-        double utilization = budget.getUtilizationPercentage();
-        String severity;
-        String message;
-        
-        if (utilization >= 100.0) {
-            severity = "critical";
-            message = "Budget exceeded! Current spending: " + 
-                     String.format("%.2f%%", utilization) + " of budget";
-        } else if (utilization >= budget.getAlertThreshold()) {
-            severity = "high";
-            message = "Budget threshold exceeded! Current spending: " + 
-                     String.format("%.2f%%", utilization) + " of budget";
-        } else if (utilization >= (budget.getAlertThreshold() - 10)) {
-            severity = "medium";
-            message = "Approaching budget threshold. Current spending: " + 
-                     String.format("%.2f%%", utilization) + " of budget";
-        } else {
-            return; // No alert needed
-        }
-        
-        // Check if similar alert already exists
-        String checkSql = """
-            SELECT COUNT(*) as count
-            FROM budget_alerts
-            WHERE budget_id = ? AND severity = ? AND status = 'active'
-            AND DATE(created_at) = CURRENT_DATE
-            """;
-        
-        List<Map<String, Object>> existing = jdbcTemplate.queryForList(checkSql, budget.getId(), severity);
-        long existingCount = (Long) existing.get(0).get("count");
-        
-        if (existingCount == 0) {
-            createBudgetAlert(budget, severity, message, utilization);
-        }
-    }
-
-    private void createBudgetAlert(Budget budget, String severity, String message, double utilization) {
-        String alertId = UUID.randomUUID().toString();
-        String type = utilization >= 100.0 ? "budget_exceeded" : "threshold_exceeded";
-        
-        String sql = """
-            INSERT INTO budget_alerts 
-            (id, budget_id, budget_name, severity, type, message, trigger_amount, 
-             trigger_percentage, trigger_date, status, created_at)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_DATE, 'active', CURRENT_TIMESTAMP)
-            """;
-        
-        jdbcTemplate.update(sql,
-            alertId,
-            budget.getId(),
-            budget.getName(),
-            severity,
-            type,
-            message,
-            budget.getCurrentSpend(),
-            utilization,
-            LocalDate.now().toString()
-        );
-        
-        System.out.println("Created " + severity + " alert for budget: " + budget.getName());
-    }
-
     private Map<String, Object> calculateSpendingTrend(Budget budget) {
-        // Get daily spending data for the budget period
-        String sql = """
-            SELECT DATE(date) as day, SUM(cost) as daily_cost
-            FROM enhanced_usage_records
-            WHERE date BETWEEN ? AND ?
-            """;
-        
-        List<Object> params = new ArrayList<>();
-        params.add(budget.getStartDate());
-        params.add(budget.getEndDate());
-        
-        if ("team".equals(budget.getScope())) {
-            sql += " AND team_name = ?";
-            params.add(budget.getTarget());
-        } else if ("service".equals(budget.getScope())) {
-            sql += " AND service_name = ?";
-            params.add(budget.getTarget());
-        }
-        
-        sql += " GROUP BY DATE(date) ORDER BY day";
-        
-        List<Map<String, Object>> dailySpending = jdbcTemplate.queryForList(sql, params.toArray());
+        List<Map<String, Object>> dailySpending = costCube.isReady()
+            ? dailySpendingFromCube(budget)
+            : queryDailySpending(budget);
         
         Map<String, Object> trend = new HashMap<>();
         trend.put("dailySpending", dailySpending);
@@ -565,6 +445,56 @@ public class BudgetServiceImpl implements BudgetService {
         return trend;
     }
 
+    private List<Map<String, Object>> queryDailySpending(Budget budget) {
+        // Get daily spending data for the budget period
+        String sql = """
+            SELECT date as day, SUM(cost) as daily_cost
+            FROM daily_cost_rollup
+            WHERE date BETWEEN ? AND ?
+            """;
+        
+        List<Object> params = new ArrayList<>();
+        params.add(budget.getStartDate());
+        params.add(budget.getEndDate());
+        
+        if ("team".equals(budget.getScope())) {
+            sql += " AND team_name = ?";
+            params.add(budget.getTarget());
+        } else if ("service".equals(budget.getScope())) {
+            sql += " AND service_name = ?";
+            params.add(budget.getTarget());
+        }
+        
+        sql += " GROUP BY date ORDER BY day";
+        
+        return jdbcTemplate.queryForList(sql, params.toArray());
+    }
+
+    /** Daily spending rows shaped like {@link #queryDailySpending}, read from the cost cube. */
+    private List<Map<String, Object>> dailySpendingFromCube(Budget budget) {
+        CostCube.Filter filter = new CostCube.Filter();
+        if ("team".equals(budget.getScope())) {
+            filter.include(CostCube.Dimension.TEAM, List.of(budget.getTarget()));
+        } else if ("service".equals(budget.getScope())) {
+            filter.include(CostCube.Dimension.SERVICE, List.of(budget.getTarget()));
+        }
+        
+        Map<String, CostCube.Group> days = costCube.groupBy(CostCube.Dimension.DATE,
+            LocalDate.parse(budget.getStartDate()), LocalDate.parse(budget.getEndDate()), filter);
+        
+        // Groups come back most expensive first; the trend reads them in date order
+        List<Map<String, Object>> dailySpending = new ArrayList<>();
+        days.values().stream()
+            .sorted(Comparator.comparing(CostCube.Group::getKey))
+            .forEach(group -> {
+                Map<String, Object> day = new LinkedHashMap<>();
+                day.put("day", java.sql.Date.valueOf(group.getKey()));
+                day.put("daily_cost", group.getCost());
+                dailySpending.add(day);
+            });
+        return dailySpending;
+    }
+
     private BigDecimal calculateAverageForPeriod(List<Map<String, Object>> data, int start, int end) {
         if (start >= end || start >= data.size()) {
             return BigDecimal.ZERO;
@@ -0,0 +1,451 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.UsageRowBatch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running spend per budget, kept in budget_spend so reading a budget's utilization is a
+ * primary-key lookup.
+ *
+ * <ul>
+ *   <li>Reads ({@link #getSpend}) return seeded counters. A budget without one is computed from
+ *       daily_cost_rollup with a grouped query and its counter seeded.</li>
+ *   <li>Ingestion passes each batch's rollup cells to {@link #recordCosts}, in the transaction
+ *       that upserted them, which adds the cost to every budget whose scope (team, service or
+ *       organization) and date window match. The delta is an upsert, so it lands even on a
+ *       budget not seeded yet; such a row only holds deltas and is not read until seeded.</li>
+ *   <li>A seed locks (creating where needed) the counter rows before it reads the rollup, in a
+ *       transaction of its own. Ingestion that committed earlier is in the rollup it reads;
+ *       ingestion still open waits on those locks and adds its delta after the seed. Either way
+ *       each batch is counted once.</li>
+ *   <li>{@link DailyCostRollup#rebuild} marks the counters of the rebuilt dates unseeded through
+ *       {@link #unseed}, so they are recomputed on next read.</li>
+ *   <li>{@link #reconcile()} recomputes every counter from the rollup on a fixed cadence,
+ *       re-seeds the ones that drifted (manual data fixes, budgets changed on another instance)
+ *       and drops counters of deleted budgets.</li>
+ * </ul>
+ *
+ * The budget definitions needed to match deltas are cached in memory for at most
+ * budget.spend.index-ttl-ms, and reloaded sooner after {@link #invalidate(String)}, which the
+ * budget service calls whenever a budget changes on this instance. Other instances pick the
+ * change up when their copy expires; deltas they match against the old definition in between
+ * are corrected by the next reconciliation.
+ */
+@Component
+public class BudgetSpendCounters {
+
+    private static final BigDecimal DRIFT_TOLERANCE = new BigDecimal("0.01");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${budget.spend.reconcile-enabled:true}")
+    private boolean reconcileEnabled = true;
+
+    @Value("${budget.spend.index-ttl-ms:60000}")
+    private long indexTtlMs = 60000;
+
+    private volatile BudgetIndex index;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private final LongAdder deltasApplied = new LongAdder();
+    private final LongAdder seeded = new LongAdder();
+    private volatile String lastReconcileAt;
+    private volatile long lastReconcileDurationMs = -1;
+    private volatile int lastBudgetsChecked;
+    private volatile int lastBudgetsCorrected;
+    private volatile BigDecimal lastMaxDrift = BigDecimal.ZERO;
+
+    /**
+     * @return current spend per budget id (ids that name no budget are absent)
+     */
+    public Map<String, BigDecimal> getSpend(Collection<String> budgetIds) {
+        Map<String, BigDecimal> spend = readCounters(budgetIds);
+
+        List<String> missing = new ArrayList<>();
+        for (String budgetId : budgetIds) {
+            if (!spend.containsKey(budgetId)) {
+                missing.add(budgetId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            spend.putAll(seed(missing, false));
+        }
+        return spend;
+    }
+
+    /**
+     * Add rollup cell costs to the counters of every matching budget. Must run in the
+     * transaction that upserted the cells into the rollup. Arrays are parallel and hold
+     * {@code count} cells; costs are fixed-point at {@link UsageRowBatch#MONEY_SCALE}.
+     */
+    public void recordCosts(int[] epochDays, String[] teamNames, String[] serviceNames, long[] costs, int count) {
+        BudgetIndex budgets = index();
+        if (budgets.isEmpty()) {
+            return;
+        }
+
+        Map<String, long[]> deltas = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            addMatches(deltas, budgets.organization, epochDays[i], costs[i]);
+            addMatches(deltas, budgets.byTeam.get(teamNames[i]), epochDays[i], costs[i]);
+            addMatches(deltas, budgets.byService.get(serviceNames[i]), epochDays[i], costs[i]);
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Sorted so concurrent ingestion workers and seeds lock counter rows in the same order
+        List<String> budgetIds = new ArrayList<>(deltas.keySet());
+        Collections.sort(budgetIds);
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO budget_spend (budget_id, current_spend) VALUES (?, ?)
+            ON DUPLICATE KEY UPDATE current_spend = current_spend + VALUES(current_spend)
+            """,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setString(1, budgetIds.get(i));
+                    ps.setBigDecimal(2, UsageRowBatch.toDecimal(deltas.get(budgetIds.get(i))[0]));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return budgetIds.size();
+                }
+            });
+        deltasApplied.add(budgetIds.size());
+    }
+
+    /**
+     * Forget the cached budget definitions and drop the counter of a changed or deleted budget
+     * so it is recomputed on next read.
+     * @param budgetId Budget whose scope or window changed, or null if none
+     */
+    public void invalidate(String budgetId) {
+        index = null;
+        if (budgetId != null) {
+            jdbcTemplate.update("DELETE FROM budget_spend WHERE budget_id = ?", budgetId);
+        }
+    }
+
+    /**
+     * Mark the counters of every budget whose window overlaps the dates unseeded, so they are
+     * recomputed from the rollup on next read. Called in the transaction that rewrote those
+     * rollup dates.
+     * @return number of counters marked
+     */
+    public int unseed(LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.update("""
+            UPDATE budget_spend bs
+            JOIN budgets b ON b.id = bs.budget_id
+            SET bs.seeded_at = NULL
+            WHERE b.start_date <= ? AND b.end_date >= ?
+            """, endDate, startDate);
+    }
+
+    @Scheduled(initialDelayString = "${budget.spend.reconcile-initial-delay-ms:120000}",
+               fixedDelayString = "${budget.spend.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        if (reconcileEnabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Recompute every budget's spend from the rollup and overwrite counters that drifted.
+     * @return number of counters corrected, or -1 if a reconciliation was already running
+     */
+    public int reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return -1;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            index = null;
+            List<String> budgetIds = new ArrayList<>(index().ids);
+            Map<String, BigDecimal> expected = computeFromRollup(budgetIds);
+            Map<String, BigDecimal> actual = readCounters(budgetIds);
+
+            List<String> corrections = new ArrayList<>();
+            BigDecimal maxDrift = BigDecimal.ZERO;
+            for (Map.Entry<String, BigDecimal> entry : expected.entrySet()) {
+                BigDecimal stored = actual.get(entry.getKey());
+                if (stored == null) {
+                    corrections.add(entry.getKey());
+                    continue;
+                }
+                BigDecimal drift = entry.getValue().subtract(stored).abs();
+                if (drift.compareTo(DRIFT_TOLERANCE) > 0) {
+                    corrections.add(entry.getKey());
+                    maxDrift = maxDrift.max(drift);
+                }
+            }
+            // Re-seeded under the counter locks rather than overwritten with the values above,
+            // which may already miss deltas committed since they were read
+            if (!corrections.isEmpty()) {
+                seed(corrections, true);
+            }
+            jdbcTemplate.update("DELETE FROM budget_spend WHERE budget_id NOT IN (SELECT id FROM budgets)");
+
+            lastReconcileAt = LocalDateTime.now().toString();
+            lastBudgetsChecked = budgetIds.size();
+            lastBudgetsCorrected = corrections.size();
+            lastMaxDrift = maxDrift;
+            System.out.println("Reconciled " + budgetIds.size() + " budget spend counters, corrected "
+                + corrections.size() + " (max drift " + maxDrift + ")");
+            return corrections.size();
+        } catch (RuntimeException e) {
+            System.err.println("Budget spend reconciliation failed: " + e.getMessage());
+            throw e;
+        } finally {
+            lastReconcileDurationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            reconciling.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("deltasApplied", deltasApplied.sum());
+        stats.put("countersSeeded", seeded.sum());
+        stats.put("lastReconcileAt", lastReconcileAt);
+        stats.put("lastReconcileDurationMs", lastReconcileDurationMs);
+        stats.put("lastBudgetsChecked", lastBudgetsChecked);
+        stats.put("lastBudgetsCorrected", lastBudgetsCorrected);
+        stats.put("lastMaxDrift", lastMaxDrift);
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Lock (creating where missing) the counter rows, then compute their spend from the rollup
+     * and store it, in one new transaction. Ingestion holds a counter's lock from its delta until
+     * it commits, so the rollup read after the locks contains exactly the deltas the counters do
+     * not receive later.
+     * @return seeded spend per budget id that names a budget
+     */
+    private Map<String, BigDecimal> seed(List<String> budgetIds, boolean reconciled) {
+        List<String> sorted = new ArrayList<>(budgetIds);
+        Collections.sort(sorted);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // A new transaction, so the rollup is read after the locks are taken
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Map<String, BigDecimal> computed = transaction.execute(status -> {
+            jdbcTemplate.batchUpdate("""
+                INSERT INTO budget_spend (budget_id, current_spend) VALUES (?, 0)
+                ON DUPLICATE KEY UPDATE budget_id = budget_id
+                """, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, sorted.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sorted.size();
+                    }
+                });
+            Map<String, BigDecimal> spend = computeFromRollup(sorted);
+            writeCounters(spend, reconciled);
+            return spend;
+        });
+        seeded.add(computed.size());
+        return computed;
+    }
+
+    /** Seeded counters only; rows holding nothing but deltas are left out. */
+    private Map<String, BigDecimal> readCounters(Collection<String> budgetIds) {
+        Map<String, BigDecimal> spend = new HashMap<>();
+        for (List<String> chunk : chunks(budgetIds)) {
+            String sql = "SELECT budget_id, current_spend FROM budget_spend WHERE seeded_at IS NOT NULL AND budget_id IN ("
+                + placeholders(chunk.size()) + ")";
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                spend.put(rs.getString("budget_id"), rs.getBigDecimal("current_spend"));
+            }, chunk.toArray());
+        }
+        return spend;
+    }
+
+    /**
+     * Spend of each budget over its window from daily_cost_rollup: one grouped query per chunk
+     * of ids, with one UNION branch per scope so each branch can use its rollup index.
+     * @return spend for every id that names a budget (zero when nothing matched)
+     */
+    private Map<String, BigDecimal> computeFromRollup(List<String> budgetIds) {
+        Map<String, BigDecimal> spend = new HashMap<>();
+
+        for (List<String> chunk : chunks(budgetIds)) {
+            String sql = """
+                SELECT b.id AS budget_id, COALESCE(SUM(r.cost), 0) AS total_cost
+                FROM budgets b
+                LEFT JOIN daily_cost_rollup r ON r.team_name = b.target AND r.date BETWEEN b.start_date AND b.end_date
+                WHERE b.scope = 'team' AND b.id IN (%1$s)
+                GROUP BY b.id
+                UNION ALL
+                SELECT b.id AS budget_id, COALESCE(SUM(r.cost), 0) AS total_cost
+                FROM budgets b
+                LEFT JOIN daily_cost_rollup r ON r.service_name = b.target AND r.date BETWEEN b.start_date AND b.end_date
+                WHERE b.scope = 'service' AND b.id IN (%1$s)
+                GROUP BY b.id
+                UNION ALL
+                SELECT b.id AS budget_id, COALESCE(SUM(r.cost), 0) AS total_cost
+                FROM budgets b
+                LEFT JOIN daily_cost_rollup r ON r.date BETWEEN b.start_date AND b.end_date
+                WHERE (b.scope IS NULL OR b.scope NOT IN ('team', 'service')) AND b.id IN (%1$s)
+                GROUP BY b.id
+                """.formatted(placeholders(chunk.size()));
+
+            List<Object> params = new ArrayList<>();
+            for (int branch = 0; branch < 3; branch++) {
+                params.addAll(chunk);
+            }
+
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                BigDecimal cost = rs.getBigDecimal("total_cost");
+                spend.put(rs.getString("budget_id"), cost != null ? cost : BigDecimal.ZERO);
+            }, params.toArray());
+        }
+        return spend;
+    }
+
+    private void writeCounters(Map<String, BigDecimal> spend, boolean reconciled) {
+        if (spend.isEmpty()) {
+            return;
+        }
+        List<String> budgetIds = new ArrayList<>(spend.keySet());
+        Collections.sort(budgetIds);
+        String sql = """
+            INSERT INTO budget_spend (budget_id, current_spend, seeded_at, reconciled_at)
+            VALUES (?, ?, CURRENT_TIMESTAMP, %1$s)
+            ON DUPLICATE KEY UPDATE current_spend = VALUES(current_spend), seeded_at = CURRENT_TIMESTAMP,
+                reconciled_at = %1$s
+            """.formatted(reconciled ? "CURRENT_TIMESTAMP" : "NULL");
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, budgetIds.get(i));
+                ps.setBigDecimal(2, spend.get(budgetIds.get(i)));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return budgetIds.size();
+            }
+        });
+    }
+
+    private static void addMatches(Map<String, long[]> deltas, List<BudgetWindow> windows, int epochDay, long cost) {
+        if (windows == null) {
+            return;
+        }
+        for (BudgetWindow window : windows) {
+            if (epochDay >= window.startEpochDay && epochDay <= window.endEpochDay) {
+                deltas.computeIfAbsent(window.budgetId, id -> new long[1])[0] += cost;
+            }
+        }
+    }
+
+    private BudgetIndex index() {
+        BudgetIndex current = index;
+        if (current == null || current.isExpired(indexTtlMs)) {
+            synchronized (this) {
+                current = index;
+                if (current == null || current.isExpired(indexTtlMs)) {
+                    current = loadIndex();
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private BudgetIndex loadIndex() {
+        BudgetIndex loaded = new BudgetIndex();
+        jdbcTemplate.query("SELECT id, scope, target, start_date, end_date FROM budgets", (RowCallbackHandler) rs -> {
+            java.sql.Date start = rs.getDate("start_date");
+            java.sql.Date end = rs.getDate("end_date");
+            if (start == null || end == null) {
+                return;
+            }
+            BudgetWindow window = new BudgetWindow(rs.getString("id"),
+                start.toLocalDate().toEpochDay(), end.toLocalDate().toEpochDay());
+            String scope = rs.getString("scope");
+            String target = rs.getString("target");
+            if ("team".equals(scope)) {
+                loaded.byTeam.computeIfAbsent(target, t -> new ArrayList<>()).add(window);
+            } else if ("service".equals(scope)) {
+                loaded.byService.computeIfAbsent(target, t -> new ArrayList<>()).add(window);
+            } else {
+                loaded.organization.add(window);
+            }
+            loaded.ids.add(window.budgetId);
+        });
+        return loaded;
+    }
+
+    private static List<List<String>> chunks(Collection<String> ids) {
+        List<String> list = ids instanceof List<String> l ? l : new ArrayList<>(ids);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int start = 0; start < list.size(); start += BudgetEvaluator.ID_CHUNK_SIZE) {
+            chunks.add(list.subList(start, Math.min(list.size(), start + BudgetEvaluator.ID_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static final class BudgetWindow {
+        final String budgetId;
+        final long startEpochDay;
+        final long endEpochDay;
+
+        BudgetWindow(String budgetId, long startEpochDay, long endEpochDay) {
+            this.budgetId = budgetId;
+            this.startEpochDay = startEpochDay;
+            this.endEpochDay = endEpochDay;
+        }
+    }
+
+    /** Budgets by the dimension their scope matches on. */
+    private static final class BudgetIndex {
+        final Map<String, List<BudgetWindow>> byTeam = new HashMap<>();
+        final Map<String, List<BudgetWindow>> byService = new HashMap<>();
+        final List<BudgetWindow> organization = new ArrayList<>();
+        final List<String> ids = new ArrayList<>();
+        final long loadedAtNanos = System.nanoTime();
+
+        boolean isEmpty() {
+            return ids.isEmpty();
+        }
+
+        boolean isExpired(long ttlMs) {
+            return System.nanoTime() - loadedAtNanos > TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        }
+    }
+}
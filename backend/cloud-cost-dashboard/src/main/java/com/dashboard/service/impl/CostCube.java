@@ -0,0 +1,894 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.CompressedBitmap;
+import com.dashboard.util.OffHeapColumn;
+import com.dashboard.util.Percentiles;
+import com.dashboard.util.StringDictionary;
+import com.dashboard.util.UsageRowBatch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * In-process, column-oriented copy of daily_cost_rollup (enhanced_usage_records and ingested
+ * usage aggregated to one cell per date, team, service, region and provider), so dashboard
+ * group-by / filter queries are answered from memory instead of MySQL.
+ *
+ * Dimensions are dictionary-encoded int columns and the measures (cost, usage quantity, record
+ * count) are fixed-point long columns at {@link UsageRowBatch#MONEY_SCALE}. A refresh re-reads
+ * only rollup rows whose updated_at is at or after the newest one already loaded (less a small
+ * overlap for late commits) and overwrites those cells; a full reload on a longer cadence picks
+ * up deleted rows. Until the first load completes {@link #isReady()} is false and callers fall
+ * back to SQL.
+ *
+ * Cell columns and the merge index live off-heap in {@link OffHeapColumn}s, so a large cube
+ * does not grow the Java heap or its GC pauses. With cost.cube.storage-dir set, each full reload
+ * writes a new generation of memory-mapped column files there, and a restarted process remaps
+ * the current generation and catches up with an incremental refresh instead of reloading.
+ *
+ * Each dimension value also has a {@link CompressedBitmap} of the cells carrying it. A filter
+ * resolves to the OR of its values' bitmaps per dimension, ANDed across dimensions, so a
+ * filtered {@link #groupBy} or {@link #cells} only visits the matching cells. That covers
+ * dashboard group-bys and report totals and breakdowns; reads of raw usage rows (report rows
+ * before the first load, resource details, exports) still filter with SQL IN, since cells hold
+ * no resource ids or tags and lag ingestion by up to a refresh.
+ */
+@Component
+public class CostCube {
+
+    public enum Dimension {
+        DATE("date"),
+        TEAM("team_name"),
+        SERVICE("service_name"),
+        REGION("region"),
+        PROVIDER("provider");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        /**
+         * @return the dimension stored in the given column, or null if the column is not one
+         */
+        public static Dimension forColumn(String column) {
+            for (Dimension dimension : values()) {
+                if (dimension.column.equals(column)) {
+                    return dimension;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final String LOAD_SQL = """
+        SELECT date, team_name, service_name, region, provider,
+               cost, usage_quantity, record_count, updated_at
+        FROM daily_cost_rollup
+        WHERE updated_at >= ?
+        """;
+
+    /** Re-read window before the watermark, covering upserts that committed out of order. */
+    private static final long WATERMARK_OVERLAP_MS = 5000;
+
+    /** File in the storage directory naming the generation directory to restore from. */
+    private static final String CURRENT_GENERATION_FILE = "CURRENT";
+    private static final String GENERATION_PREFIX = "gen-";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${cost.cube.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cost.cube.full-reload-interval-ms:3600000}")
+    private long fullReloadIntervalMs = 3600000;
+
+    // Directory for memory-mapped cell columns; blank keeps them in direct buffers only
+    @Value("${cost.cube.storage-dir:}")
+    private String storageDir = "";
+
+    // Queries share the read lock; merging a refresh into the live cells takes the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private Cells cells;
+    private volatile boolean ready;
+
+    // Only touched by the single-flight refresh
+    private Timestamp watermark;
+    private long lastFullLoadNanos;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder fullReloads = new LongAdder();
+    private final LongAdder incrementalRefreshes = new LongAdder();
+    private volatile String lastRefreshAt;
+    private volatile long lastRefreshDurationMs = -1;
+    private volatile int lastCellsMerged;
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @Scheduled(initialDelayString = "${cost.cube.initial-delay-ms:10000}",
+               fixedDelayString = "${cost.cube.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * Bring the cube up to date: a full reload on first use and once per full-reload interval,
+     * otherwise a merge of the rollup rows changed since the previous refresh.
+     * @return number of cells loaded or merged, or -1 if a refresh was already running
+     */
+    public int refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return -1;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            if (cells == null) {
+                restore(startNanos);
+            }
+            boolean full = !ready
+                || startNanos - lastFullLoadNanos >= TimeUnit.MILLISECONDS.toNanos(fullReloadIntervalMs);
+            Cells loaded = Cells.create(full ? newGeneration() : null);
+            Timestamp since = full ? new Timestamp(0)
+                : new Timestamp(watermark.getTime() - WATERMARK_OVERLAP_MS);
+            Timestamp newest;
+            try {
+                newest = load(loaded, since);
+            } catch (RuntimeException e) {
+                closeQuietly(loaded, e);
+                throw e;
+            }
+
+            Cells replaced = null;
+            lock.writeLock().lock();
+            try {
+                if (full) {
+                    replaced = cells;
+                    cells = loaded;
+                } else {
+                    cells.replaceFrom(loaded);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            if (full || newest.after(watermark)) {
+                watermark = newest;
+            }
+            cells.save(watermark);
+            if (full) {
+                publish(replaced);
+                lastFullLoadNanos = startNanos;
+                fullReloads.increment();
+            } else {
+                loaded.close();
+                incrementalRefreshes.increment();
+            }
+            ready = true;
+            lastCellsMerged = loaded.size;
+            lastRefreshAt = LocalDateTime.now().toString();
+            if (full) {
+                System.out.println("Loaded cost cube: " + loaded.size + " cells updated up to " + watermark);
+            }
+            return loaded.size;
+        } catch (IOException e) {
+            System.err.println("Cost cube storage failed: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            System.err.println("Cost cube refresh failed: " + e.getMessage());
+            throw e;
+        } finally {
+            lastRefreshDurationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Aggregate the cells of a date range by one dimension.
+     * @param filter Restricts the non-date dimensions to sets of values; may be null
+     * @param distinct Dimensions whose distinct values should be counted per group; including
+     *                 {@link Dimension#DATE} also keeps each group's cost per day, for
+     *                 {@link Group#getDailyCostPercentile}
+     * @return groups keyed by dimension value (ISO date for {@link Dimension#DATE}), most
+     *         expensive first
+     */
+    public Map<String, Group> groupBy(Dimension groupBy, LocalDate startDate, LocalDate endDate,
+                                      Filter filter, Dimension... distinct) {
+        if (!isReady()) {
+            throw new IllegalStateException("Cost cube is not loaded");
+        }
+        queries.increment();
+        int startDay = (int) startDate.toEpochDay();
+        int endDay = (int) endDate.toEpochDay();
+        if (endDay < startDay) {
+            return new LinkedHashMap<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Cells current = cells;
+            boolean byDate = groupBy == Dimension.DATE;
+            Group[] groups = new Group[byDate ? endDay - startDay + 1 : current.dictionary(groupBy).size()];
+
+            IntConsumer accumulate = cell -> {
+                int day = current.days.getInt(cell);
+                if (day < startDay || day > endDay) {
+                    return;
+                }
+                int slot = byDate ? day - startDay : current.id(groupBy, cell);
+                Group group = groups[slot];
+                if (group == null) {
+                    String key = byDate ? LocalDate.ofEpochDay(day).toString() : current.dictionary(groupBy).decode(slot);
+                    group = new Group(key, distinct, endDay - startDay + 1);
+                    groups[slot] = group;
+                }
+                long cost = current.costs.getLong(cell);
+                group.costs += cost;
+                if (group.dailyCosts != null) {
+                    group.dailyCosts[day - startDay] += cost;
+                }
+                group.usageQuantities += current.usageQuantities.getLong(cell);
+                group.recordCount += current.recordCounts.getLong(cell);
+                for (int d = 0; d < distinct.length; d++) {
+                    group.distinctValues[d].set(current.id(distinct[d], cell) - (distinct[d] == Dimension.DATE ? startDay : 0));
+                }
+            };
+            CompressedBitmap matching = current.matching(filter);
+            if (matching == null) {
+                for (int cell = 0; cell < current.size; cell++) {
+                    accumulate.accept(cell);
+                }
+            } else {
+                matching.forEach(accumulate);
+            }
+
+            List<Group> ordered = new ArrayList<>();
+            for (Group group : groups) {
+                if (group != null) {
+                    ordered.add(group);
+                }
+            }
+            ordered.sort((a, b) -> Long.compare(b.costs, a.costs));
+            Map<String, Group> result = new LinkedHashMap<>();
+            ordered.forEach(group -> result.put(group.key, group));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fold the cells of a date range into a report aggregation, reading one snapshot of the cube so
+     * every grouping folded from them covers the same data. Cells are summed by dictionary id;
+     * each distinct id is decoded once, before the read lock is released.
+     * @param filter Restricts the non-date dimensions to sets of values; may be null
+     */
+    public void fold(LocalDate startDate, LocalDate endDate, Filter filter, ReportAggregation.CellAccumulator accumulator) {
+        if (!isReady()) {
+            throw new IllegalStateException("Cost cube is not loaded");
+        }
+        queries.increment();
+        int startDay = (int) startDate.toEpochDay();
+        int endDay = (int) endDate.toEpochDay();
+
+        lock.readLock().lock();
+        try {
+            Cells current = cells;
+            if (endDay >= startDay) {
+                Dimension[] dimensions = Dimension.values();
+                int[] ids = new int[dimensions.length];
+                IntConsumer fold = cell -> {
+                    int day = current.days.getInt(cell);
+                    if (day < startDay || day > endDay) {
+                        return;
+                    }
+                    for (Dimension dimension : dimensions) {
+                        ids[dimension.ordinal()] = current.id(dimension, cell);
+                    }
+                    ids[Dimension.DATE.ordinal()] = day - startDay;
+                    accumulator.add(ids, current.costs.getLong(cell), current.recordCounts.getLong(cell));
+                };
+                CompressedBitmap matching = current.matching(filter);
+                if (matching == null) {
+                    for (int cell = 0; cell < current.size; cell++) {
+                        fold.accept(cell);
+                    }
+                } else {
+                    matching.forEach(fold);
+                }
+            }
+            accumulator.resolve(startDay, dimension -> current.dictionary(dimension)::decode);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("storage", storageDir.isBlank() ? "direct" : storageDir);
+        stats.put("ready", ready);
+        lock.readLock().lock();
+        try {
+            stats.put("cells", cells == null ? 0 : cells.size);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("watermark", watermark == null ? null : watermark.toString());
+        stats.put("queries", queries.sum());
+        stats.put("fullReloads", fullReloads.sum());
+        stats.put("incrementalRefreshes", incrementalRefreshes.sum());
+        stats.put("lastRefreshAt", lastRefreshAt);
+        stats.put("lastRefreshDurationMs", lastRefreshDurationMs);
+        stats.put("lastCellsMerged", lastCellsMerged);
+        return stats;
+    }
+
+    /** Allowed values per dimension; dimensions without an entry are unrestricted. */
+    public static final class Filter {
+        private final Map<Dimension, Set<String>> values = new EnumMap<>(Dimension.class);
+
+        /**
+         * Restrict a dimension to the given values. Null or empty collections leave it
+         * unrestricted.
+         */
+        public Filter include(Dimension dimension, Collection<String> allowed) {
+            if (dimension == Dimension.DATE) {
+                throw new IllegalArgumentException("Dates are restricted by range, not by filter");
+            }
+            if (allowed != null && !allowed.isEmpty()) {
+                values.put(dimension, new HashSet<>(allowed));
+            }
+            return this;
+        }
+    }
+
+    /** Measures of one group of cells. */
+    public static final class Group {
+        private final String key;
+        private final Dimension[] distinct;
+        private final BitSet[] distinctValues;
+        private long costs;
+        private long usageQuantities;
+        private long recordCount;
+        // Cost per day of the queried range, kept when dates are counted
+        private final long[] dailyCosts;
+        private List<BigDecimal> sortedDailyCosts;
+
+        Group(String key, Dimension[] distinct, int days) {
+            this.key = key;
+            this.distinct = distinct;
+            this.distinctValues = new BitSet[distinct.length];
+            long[] daily = null;
+            for (int d = 0; d < distinct.length; d++) {
+                distinctValues[d] = new BitSet();
+                if (distinct[d] == Dimension.DATE) {
+                    daily = new long[days];
+                }
+            }
+            this.dailyCosts = daily;
+        }
+
+        public String getKey() { return key; }
+        public BigDecimal getCost() { return UsageRowBatch.toDecimal(costs); }
+        public BigDecimal getUsageQuantity() { return UsageRowBatch.toDecimal(usageQuantities); }
+        public long getRecordCount() { return recordCount; }
+
+        /**
+         * @return number of distinct values of a dimension requested when grouping
+         */
+        public long getDistinctCount(Dimension dimension) {
+            for (int d = 0; d < distinct.length; d++) {
+                if (distinct[d] == dimension) {
+                    return distinctValues[d].cardinality();
+                }
+            }
+            throw new IllegalArgumentException("Distinct " + dimension + " values were not requested");
+        }
+
+        /**
+         * Daily cost at a percentile of the group's days with spend, computed exactly from its
+         * per-day totals. Requires {@link Dimension#DATE} among the distinct dimensions.
+         * @param percentile Percentile between 0 and 100
+         * @return the daily cost, or null if the group has no days
+         */
+        public BigDecimal getDailyCostPercentile(double percentile) {
+            if (dailyCosts == null) {
+                throw new IllegalArgumentException("Distinct " + Dimension.DATE + " values were not requested");
+            }
+            if (sortedDailyCosts == null) {
+                BitSet days = distinctValues[Arrays.asList(distinct).indexOf(Dimension.DATE)];
+                long[] costs = days.stream().mapToLong(day -> dailyCosts[day]).sorted().toArray();
+                sortedDailyCosts = new ArrayList<>(costs.length);
+                for (long cost : costs) {
+                    sortedDailyCosts.add(UsageRowBatch.toDecimal(cost));
+                }
+            }
+            return Percentiles.of(sortedDailyCosts, percentile);
+        }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Remap the generation a previous process published, so the first refresh only has to
+     * catch up. Any failure leaves the cube empty and the refresh falls back to a full load.
+     */
+    private void restore(long startNanos) {
+        if (storageDir.isBlank()) {
+            return;
+        }
+        Path root = Path.of(storageDir);
+        Path pointer = root.resolve(CURRENT_GENERATION_FILE);
+        if (!Files.exists(pointer)) {
+            return;
+        }
+        try {
+            Cells restored = Cells.open(root.resolve(Files.readString(pointer).trim()));
+            if (restored == null) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                cells = restored;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            watermark = restored.savedWatermark;
+            lastFullLoadNanos = startNanos;
+            ready = true;
+            System.out.println("Restored cost cube: " + restored.size + " cells updated up to " + watermark);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not restore cost cube from " + storageDir + ", reloading: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return directory for the columns of a new full load, or null for direct buffers
+     */
+    private Path newGeneration() throws IOException {
+        if (storageDir.isBlank()) {
+            return null;
+        }
+        Path root = Files.createDirectories(Path.of(storageDir));
+        long name = System.currentTimeMillis();
+        // Reloads within the same millisecond must not reuse the live generation's files
+        while (Files.exists(root.resolve(GENERATION_PREFIX + name))) {
+            name++;
+        }
+        return Files.createDirectory(root.resolve(GENERATION_PREFIX + name));
+    }
+
+    /**
+     * Point the storage directory at the live generation, then release the replaced cells and
+     * delete every other generation, including ones left behind by failed loads. Closing unmaps
+     * the replaced columns right away, so their deleted files do not stay mapped until a GC;
+     * that is safe because queries only read cells under the read lock, which the swap waited on.
+     */
+    private void publish(Cells replaced) throws IOException {
+        if (replaced != null) {
+            replaced.close();
+        }
+        if (storageDir.isBlank()) {
+            return;
+        }
+        Path root = Path.of(storageDir);
+        String current = cells.directory.getFileName().toString();
+        Path temp = root.resolve(CURRENT_GENERATION_FILE + ".tmp");
+        Files.writeString(temp, current);
+        Files.move(temp, root.resolve(CURRENT_GENERATION_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        try (DirectoryStream<Path> generations = Files.newDirectoryStream(root, GENERATION_PREFIX + "*")) {
+            for (Path generation : generations) {
+                if (!generation.getFileName().toString().equals(current)) {
+                    deleteGeneration(generation);
+                }
+            }
+        }
+    }
+
+    private static void deleteGeneration(Path generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(generation)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(generation);
+    }
+
+    private static void closeQuietly(Cells discarded, Exception cause) {
+        try {
+            discarded.close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Read the rollup rows updated at or after {@code since} into {@code target}.
+     * @return newest updated_at seen, or {@code since} if there were no rows
+     */
+    private Timestamp load(Cells target, Timestamp since) {
+        Timestamp[] newest = {since};
+        jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> {
+            target.add(
+                (int) rs.getDate("date").toLocalDate().toEpochDay(),
+                valueOrUnknown(rs.getString("team_name")),
+                valueOrUnknown(rs.getString("service_name")),
+                valueOrUnknown(rs.getString("region")),
+                valueOrUnknown(rs.getString("provider")),
+                toFixedPoint(rs.getBigDecimal("cost")),
+                toFixedPoint(rs.getBigDecimal("usage_quantity")),
+                rs.getLong("record_count"));
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            if (updatedAt != null && updatedAt.after(newest[0])) {
+                newest[0] = updatedAt;
+            }
+        }, since);
+        return newest[0];
+    }
+
+    // Dimension ids index the value bitmaps and group slots, so every cell needs a non-null value
+    private static String valueOrUnknown(String value) {
+        return value != null ? value : DailyCostRollup.UNKNOWN_REGION;
+    }
+
+    private static long toFixedPoint(BigDecimal value) {
+        if (value == null) {
+            return 0;
+        }
+        return value.movePointRight(UsageRowBatch.MONEY_SCALE).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /**
+     * Cell columns with their dictionaries and an open-addressing key index for merging. Columns
+     * and index live off-heap; cells with a directory map their columns from files there, and
+     * {@link #save} writes the size, watermark and dictionaries that {@link #open} needs to map
+     * them again.
+     */
+    private static final class Cells implements Closeable {
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final String META_FILE = "cells.meta";
+        private static final int META_VERSION = 1;
+
+        final Path directory;
+        int size;
+        Timestamp savedWatermark;
+
+        final OffHeapColumn days;
+        final OffHeapColumn teams;
+        final OffHeapColumn services;
+        final OffHeapColumn regions;
+        final OffHeapColumn providers;
+        final OffHeapColumn costs;
+        final OffHeapColumn usageQuantities;
+        final OffHeapColumn recordCounts;
+        private final List<OffHeapColumn> columns;
+
+        final StringDictionary teamDictionary = new StringDictionary();
+        final StringDictionary serviceDictionary = new StringDictionary();
+        final StringDictionary regionDictionary = new StringDictionary();
+        final StringDictionary providerDictionary = new StringDictionary();
+
+        // Per dimension ordinal, the cells carrying each dictionary id (DATE has none)
+        private final List<List<CompressedBitmap>> valueCells = new ArrayList<>();
+
+        // Slot holds cell + 1, or 0 when empty; kept at most half full so probes stay short
+        private OffHeapColumn slots;
+        private Path slotsFile;
+        private long slotMask;
+
+        private Cells(Path directory) throws IOException {
+            this.directory = directory;
+            days = column("days", OffHeapColumn.INT_BYTES);
+            teams = column("teams", OffHeapColumn.INT_BYTES);
+            services = column("services", OffHeapColumn.INT_BYTES);
+            regions = column("regions", OffHeapColumn.INT_BYTES);
+            providers = column("providers", OffHeapColumn.INT_BYTES);
+            costs = column("costs", OffHeapColumn.LONG_BYTES);
+            usageQuantities = column("usage_quantities", OffHeapColumn.LONG_BYTES);
+            recordCounts = column("record_counts", OffHeapColumn.LONG_BYTES);
+            columns = List.of(days, teams, services, regions, providers, costs, usageQuantities, recordCounts);
+            for (int d = 0; d < Dimension.values().length; d++) {
+                valueCells.add(new ArrayList<>());
+            }
+            rehash(INITIAL_CAPACITY * 2);
+        }
+
+        /**
+         * @param directory Empty directory for mapped column files, or null for direct buffers
+         */
+        static Cells create(Path directory) throws IOException {
+            return new Cells(directory);
+        }
+
+        /**
+         * Map the columns saved in a directory and rebuild their key index.
+         * @return the saved cells, or null if the directory holds no complete save
+         */
+        static Cells open(Path directory) throws IOException {
+            Path meta = directory.resolve(META_FILE);
+            if (!Files.exists(meta)) {
+                return null;
+            }
+            Cells cells = new Cells(directory);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(meta)))) {
+                if (in.readInt() != META_VERSION) {
+                    cells.close();
+                    return null;
+                }
+                int size = in.readInt();
+                cells.savedWatermark = new Timestamp(in.readLong());
+                for (StringDictionary dictionary : cells.dictionaries()) {
+                    int count = in.readInt();
+                    for (int id = 0; id < count; id++) {
+                        dictionary.encode(in.readUTF());
+                    }
+                }
+                if (cells.days.capacity() < size) {
+                    throw new IOException("Column files hold fewer than " + size + " cells");
+                }
+                cells.size = size;
+                cells.rehash(Long.highestOneBit(Math.max(size, INITIAL_CAPACITY)) * 4);
+                for (int cell = 0; cell < size; cell++) {
+                    cells.indexValues(cell);
+                }
+                return cells;
+            } catch (IOException | RuntimeException e) {
+                cells.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Flush mapped columns and record what is needed to reopen them; a no-op for direct
+         * buffers. The metadata is replaced atomically, so a crash mid-save leaves the previous
+         * save, whose watermark makes the next refresh re-read everything written since.
+         */
+        void save(Timestamp watermark) throws IOException {
+            if (directory == null) {
+                return;
+            }
+            columns.forEach(OffHeapColumn::force);
+            Path temp = directory.resolve(META_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(META_VERSION);
+                out.writeInt(size);
+                out.writeLong(watermark.getTime());
+                for (StringDictionary dictionary : dictionaries()) {
+                    out.writeInt(dictionary.size());
+                    for (int id = 0; id < dictionary.size(); id++) {
+                        out.writeUTF(dictionary.decode(id));
+                    }
+                }
+            }
+            Files.move(temp, directory.resolve(META_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * @return index of the cell the measures were added to
+         */
+        int add(int day, String team, String service, String region, String provider,
+                long cost, long usageQuantity, long recordCount) {
+            int teamId = teamDictionary.encode(team);
+            int serviceId = serviceDictionary.encode(service);
+            int regionId = regionDictionary.encode(region);
+            int providerId = providerDictionary.encode(provider);
+
+            long slot = slotOf(day, teamId, serviceId, regionId, providerId);
+            int cell = slots.getInt(slot) - 1;
+            if (cell < 0) {
+                cell = size++;
+                if (cell >= days.capacity()) {
+                    columns.forEach(column -> column.ensureCapacity(size));
+                }
+                days.putInt(cell, day);
+                teams.putInt(cell, teamId);
+                services.putInt(cell, serviceId);
+                regions.putInt(cell, regionId);
+                providers.putInt(cell, providerId);
+                // Reused file space past a restored size may hold values from an unsaved write
+                costs.putLong(cell, 0);
+                usageQuantities.putLong(cell, 0);
+                recordCounts.putLong(cell, 0);
+                slots.putInt(slot, cell + 1);
+                indexValues(cell);
+                if ((long) size * 2 > slotMask + 1) {
+                    rehash((slotMask + 1) * 2);
+                }
+            }
+            costs.addLong(cell, cost);
+            usageQuantities.addLong(cell, usageQuantity);
+            recordCounts.addLong(cell, recordCount);
+            return cell;
+        }
+
+        /** Overwrite (or add) every cell of {@code other}; rollup rows carry totals, not deltas. */
+        void replaceFrom(Cells other) {
+            for (int cell = 0; cell < other.size; cell++) {
+                int target = add(other.days.getInt(cell),
+                    other.teamDictionary.decode(other.teams.getInt(cell)),
+                    other.serviceDictionary.decode(other.services.getInt(cell)),
+                    other.regionDictionary.decode(other.regions.getInt(cell)),
+                    other.providerDictionary.decode(other.providers.getInt(cell)),
+                    0, 0, 0);
+                costs.putLong(target, other.costs.getLong(cell));
+                usageQuantities.putLong(target, other.usageQuantities.getLong(cell));
+                recordCounts.putLong(target, other.recordCounts.getLong(cell));
+            }
+        }
+
+        StringDictionary dictionary(Dimension dimension) {
+            return switch (dimension) {
+                case TEAM -> teamDictionary;
+                case SERVICE -> serviceDictionary;
+                case REGION -> regionDictionary;
+                case PROVIDER -> providerDictionary;
+                case DATE -> throw new IllegalArgumentException("Dates are not dictionary-encoded");
+            };
+        }
+
+        int id(Dimension dimension, int cell) {
+            return switch (dimension) {
+                case DATE -> days.getInt(cell);
+                case TEAM -> teams.getInt(cell);
+                case SERVICE -> services.getInt(cell);
+                case REGION -> regions.getInt(cell);
+                case PROVIDER -> providers.getInt(cell);
+            };
+        }
+
+        /**
+         * @return cells whose dimension values pass the filter, or null if it restricts nothing
+         */
+        CompressedBitmap matching(Filter filter) {
+            if (filter == null || filter.values.isEmpty()) {
+                return null;
+            }
+            List<CompressedBitmap> perDimension = new ArrayList<>();
+            for (Map.Entry<Dimension, Set<String>> entry : filter.values.entrySet()) {
+                List<CompressedBitmap> bitmaps = valueCells.get(entry.getKey().ordinal());
+                List<CompressedBitmap> allowed = new ArrayList<>();
+                for (String value : entry.getValue()) {
+                    int id = dictionary(entry.getKey()).lookup(value);
+                    if (id >= 0) {
+                        allowed.add(bitmaps.get(id));
+                    }
+                }
+                perDimension.add(allowed.size() == 1 ? allowed.get(0) : CompressedBitmap.or(allowed));
+            }
+            // Intersect from the most selective dimension so intermediate results stay small
+            perDimension.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+            CompressedBitmap result = perDimension.get(0);
+            for (int i = 1; i < perDimension.size() && !result.isEmpty(); i++) {
+                result = result.and(perDimension.get(i));
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (OffHeapColumn column : columns) {
+                column.close();
+            }
+            slots.close();
+        }
+
+        private void indexValues(int cell) {
+            for (Dimension dimension : Dimension.values()) {
+                if (dimension == Dimension.DATE) {
+                    continue;
+                }
+                List<CompressedBitmap> bitmaps = valueCells.get(dimension.ordinal());
+                int id = id(dimension, cell);
+                while (bitmaps.size() <= id) {
+                    bitmaps.add(new CompressedBitmap());
+                }
+                bitmaps.get(id).add(cell);
+            }
+        }
+
+        private List<StringDictionary> dictionaries() {
+            return List.of(teamDictionary, serviceDictionary, regionDictionary, providerDictionary);
+        }
+
+        private OffHeapColumn column(String name, int width) throws IOException {
+            return directory == null
+                ? OffHeapColumn.allocate(width, INITIAL_CAPACITY)
+                : OffHeapColumn.map(directory.resolve(name + ".col"), width, INITIAL_CAPACITY);
+        }
+
+        /**
+         * @return slot holding the cell with this key, or the empty slot where it belongs
+         */
+        private long slotOf(int day, int team, int service, int region, int provider) {
+            long slot = hash(day, team, service, region, provider) & slotMask;
+            while (true) {
+                int entry = slots.getInt(slot);
+                if (entry == 0) {
+                    return slot;
+                }
+                int cell = entry - 1;
+                if (days.getInt(cell) == day && teams.getInt(cell) == team && services.getInt(cell) == service
+                        && regions.getInt(cell) == region && providers.getInt(cell) == provider) {
+                    return slot;
+                }
+                slot = (slot + 1) & slotMask;
+            }
+        }
+
+        /** Rebuild the key index with a power-of-two number of slots. */
+        private void rehash(long slotCount) {
+            OffHeapColumn previous = slots;
+            Path previousFile = slotsFile;
+            try {
+                // The index is derived data: mapped next to the columns to keep it off the heap
+                // and out of direct memory, but rebuilt rather than restored
+                if (directory == null) {
+                    slots = OffHeapColumn.allocate(OffHeapColumn.INT_BYTES, slotCount);
+                } else {
+                    slotsFile = directory.resolve("slots-" + slotCount + ".idx");
+                    Files.deleteIfExists(slotsFile);
+                    slots = OffHeapColumn.map(slotsFile, OffHeapColumn.INT_BYTES, slotCount);
+                }
+                slotMask = slotCount - 1;
+                for (int cell = 0; cell < size; cell++) {
+                    long slot = slotOf(days.getInt(cell), teams.getInt(cell), services.getInt(cell),
+                        regions.getInt(cell), providers.getInt(cell));
+                    slots.putInt(slot, cell + 1);
+                }
+                if (previous != null) {
+                    previous.close();
+                }
+                if (previousFile != null) {
+                    Files.deleteIfExists(previousFile);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to rebuild cost cube index", e);
+            }
+        }
+
+        private static long hash(int day, int team, int service, int region, int provider) {
+            long h = day;
+            h = h * 31 + team;
+            h = h * 31 + service;
+            h = h * 31 + region;
+            h = h * 31 + provider;
+            h *= 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 29);
+        }
+    }
+}
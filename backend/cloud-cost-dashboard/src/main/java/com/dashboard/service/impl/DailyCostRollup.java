@@ -0,0 +1,255 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.UsageRowBatch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains daily_cost_rollup: one row per (date, team_name, service_name, region, provider)
+ * holding sum(cost), sum(usage_quantity) and the number of raw usage rows behind it. Rows of
+ * enhanced_usage_records and usage_records land in the same cells: an ingested service is
+ * rolled up under services.rollup_name (e.g. "EC2" for AmazonEC2), the name
+ * enhanced_usage_records uses, and under its service code only when it has none.
+ *
+ * Ingestion calls {@link #record(UsageRowBatch)} in the transaction that writes each batch,
+ * which collapses the batch into per-cell deltas, adds them with a single upsert batch, passes
+ * the same cells on to {@link BudgetSpendCounters} in the same transaction and invalidates the
+ * {@link PredictionCache} entries they affect once it commits. {@link #rebuild} re-derives a date range from
+ * the fact tables when the rollup has drifted (manual deletes or loads that bypass ingestion)
+ * and marks the budget counters covering it for re-seeding.
+ */
+@Component
+public class DailyCostRollup {
+
+    /** Region recorded for usage rows that carry none; region is part of the rollup key. */
+    static final String UNKNOWN_REGION = "unknown";
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO daily_cost_rollup
+        (date, team_name, service_name, region, provider, cost, usage_quantity, record_count)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            cost = cost + VALUES(cost),
+            usage_quantity = usage_quantity + VALUES(usage_quantity),
+            record_count = record_count + VALUES(record_count)
+        """;
+
+    // Cells are upserted in primary-key order so concurrent ingestion workers lock rows in the
+    // same order and cannot deadlock each other
+    private static final Comparator<Cell> KEY_ORDER = Comparator
+        .comparingInt((Cell cell) -> cell.epochDay)
+        .thenComparing(cell -> cell.teamName)
+        .thenComparing(cell -> cell.serviceName)
+        .thenComparing(cell -> cell.region)
+        .thenComparing(cell -> cell.provider);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DimensionDictionary dimensionDictionary;
+
+    @Autowired
+    private BudgetSpendCounters budgetSpendCounters;
+
+    @Autowired
+    private PredictionCache predictionCache;
+
+    private final LongAdder rowsRecorded = new LongAdder();
+    private final LongAdder cellsUpserted = new LongAdder();
+
+    /**
+     * Add the rows of a written batch to the rollup. Team and service ids must be resolved.
+     * @return number of rollup cells touched
+     */
+    @Transactional
+    public int record(UsageRowBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Cell, Cell> cells = new HashMap<>();
+        Cell probe = new Cell();
+        for (int row = 0; row < batch.size(); row++) {
+            probe.set(batch.getUsageDateEpochDay(row), batch.getTeamId(row), batch.getServiceId(row),
+                batch.getRegion(row) == null ? UNKNOWN_REGION : batch.getRegion(row));
+            Cell cell = cells.get(probe);
+            if (cell == null) {
+                cell = probe.copy();
+                cells.put(cell, cell);
+            }
+            cell.cost += batch.getTotalCost(row);
+            cell.usageQuantity += batch.getUsageQuantity(row);
+            cell.recordCount++;
+        }
+
+        List<Cell> ordered = new ArrayList<>(cells.size());
+        for (Cell cell : cells.values()) {
+            String teamName = dimensionDictionary.teamName(cell.teamId);
+            String[] service = dimensionDictionary.serviceLabel(cell.serviceId);
+            if (teamName == null || service == null) {
+                throw new IllegalStateException("Cannot roll up usage for team " + cell.teamId
+                    + " / service " + cell.serviceId + ": unknown dimension id");
+            }
+            cell.teamName = teamName;
+            cell.serviceName = service[0];
+            cell.provider = service[1];
+            ordered.add(cell);
+        }
+        ordered.sort(KEY_ORDER);
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Cell cell = ordered.get(i);
+                ps.setDate(1, java.sql.Date.valueOf(LocalDate.ofEpochDay(cell.epochDay)));
+                ps.setString(2, cell.teamName);
+                ps.setString(3, cell.serviceName);
+                ps.setString(4, cell.region);
+                ps.setString(5, cell.provider);
+                ps.setBigDecimal(6, UsageRowBatch.toDecimal(cell.cost));
+                ps.setBigDecimal(7, UsageRowBatch.toDecimal(cell.usageQuantity));
+                ps.setLong(8, cell.recordCount);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ordered.size();
+            }
+        });
+
+        int[] epochDays = new int[ordered.size()];
+        String[] teamNames = new String[ordered.size()];
+        String[] serviceNames = new String[ordered.size()];
+        long[] costs = new long[ordered.size()];
+        for (int i = 0; i < ordered.size(); i++) {
+            Cell cell = ordered.get(i);
+            epochDays[i] = cell.epochDay;
+            teamNames[i] = cell.teamName;
+            serviceNames[i] = cell.serviceName;
+            costs[i] = cell.cost;
+        }
+        budgetSpendCounters.recordCosts(epochDays, teamNames, serviceNames, costs, ordered.size());
+        // Cells are in date order, so the first and last bound the dates touched
+        predictionCache.invalidate(new HashSet<>(Arrays.asList(teamNames)),
+            LocalDate.ofEpochDay(epochDays[0]), LocalDate.ofEpochDay(epochDays[epochDays.length - 1]));
+
+        rowsRecorded.add(batch.size());
+        cellsUpserted.add(ordered.size());
+        return ordered.size();
+    }
+
+    /**
+     * Replace the rollup rows of a date range with fresh aggregates of enhanced_usage_records
+     * and usage_records.
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date " + endDate + " is before start date " + startDate);
+        }
+
+        long startTime = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM daily_cost_rollup WHERE date BETWEEN ? AND ?", startDate, endDate);
+
+        int written = jdbcTemplate.update("""
+            INSERT INTO daily_cost_rollup (date, team_name, service_name, region, provider, cost, usage_quantity, record_count)
+            SELECT date, team_name, service_name, region, provider,
+                   SUM(cost), COALESCE(SUM(usage_quantity), 0), COUNT(*)
+            FROM enhanced_usage_records
+            WHERE date BETWEEN ? AND ?
+            GROUP BY date, team_name, service_name, region, provider
+            """, startDate, endDate);
+
+        written += jdbcTemplate.update("""
+            INSERT INTO daily_cost_rollup (date, team_name, service_name, region, provider, cost, usage_quantity, record_count)
+            SELECT ur.usage_date, t.name, COALESCE(s.rollup_name, s.service_code), COALESCE(ur.region, ?), p.name,
+                   SUM(ur.total_cost), COALESCE(SUM(ur.usage_quantity), 0), COUNT(*)
+            FROM usage_records ur
+            JOIN teams t ON ur.team_id = t.id
+            JOIN services s ON ur.service_id = s.id
+            JOIN cloud_providers p ON s.provider_id = p.id
+            WHERE ur.usage_date BETWEEN ? AND ?
+            GROUP BY ur.usage_date, t.name, COALESCE(s.rollup_name, s.service_code), COALESCE(ur.region, ?), p.name
+            ON DUPLICATE KEY UPDATE
+                cost = cost + VALUES(cost),
+                usage_quantity = usage_quantity + VALUES(usage_quantity),
+                record_count = record_count + VALUES(record_count)
+            """, UNKNOWN_REGION, startDate, endDate, UNKNOWN_REGION);
+        budgetSpendCounters.unseed(startDate, endDate);
+        predictionCache.invalidate(null, startDate, endDate);
+
+        System.out.println("Rebuilt daily cost rollup for " + startDate + " to " + endDate + ": "
+            + written + " rows in " + (System.currentTimeMillis() - startTime) + "ms");
+        return written;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("rowsRecorded", rowsRecorded.sum());
+        stats.put("cellsUpserted", cellsUpserted.sum());
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /** Rollup key plus the deltas accumulated for it; equality covers the key only. */
+    private static final class Cell {
+        int epochDay;
+        long teamId;
+        long serviceId;
+        String region;
+
+        String teamName;
+        String serviceName;
+        String provider;
+        long cost;
+        long usageQuantity;
+        long recordCount;
+
+        void set(int epochDay, long teamId, long serviceId, String region) {
+            this.epochDay = epochDay;
+            this.teamId = teamId;
+            this.serviceId = serviceId;
+            this.region = region;
+        }
+
+        Cell copy() {
+            Cell cell = new Cell();
+            cell.set(epochDay, teamId, serviceId, region);
+            return cell;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Cell cell)) {
+                return false;
+            }
+            return epochDay == cell.epochDay && teamId == cell.teamId
+                && serviceId == cell.serviceId && region.equals(cell.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(epochDay, teamId, serviceId, region);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.dashboard.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-memory dictionary from dimension natural keys to surrogate ids, used by ingestion to
+ * write usage_records foreign keys without loading Team/Service/Account entities.
+ *
+ * <ul>
+ *   <li>Teams are keyed by lower-cased name.</li>
+ *   <li>Services are keyed by lower-cased service code, name or rollup name, with and without
+ *       the provider name, so "EC2" and ("aws", "AmazonEC2") both resolve.</li>
+ *   <li>Accounts are keyed by the provider's account id string.</li>
+ * </ul>
+ *
+ * The whole table set is loaded on first use into an immutable snapshot, and {@link #refresh()}
+ * publishes a complete new one with a single reference swap. Keys missing from the snapshot
+ * are looked up in the database once and the result (including "not found", stored as 0) is
+ * remembered until {@link #forgetMisses()} or {@link #refresh()}. The reverse lookups
+ * ({@link #teamName}, {@link #serviceLabel}) give the names the daily rollup is keyed by. Safe
+ * for concurrent use.
+ */
+@Component
+public class DimensionDictionary {
+
+    private static final long NOT_FOUND = 0L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Replaced as a whole by refresh(), so readers see either the old or the new tables, never a
+    // half-copied one
+    private volatile Snapshot snapshot;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @return surrogate id of the team, or 0 if no team has this name
+     */
+    public long resolveTeamId(String teamName) {
+        Snapshot current = ensureLoaded();
+        return lookup(current.teams, current.lateTeams, teamName.toLowerCase(),
+            key -> findId("SELECT id FROM teams WHERE LOWER(name) = ? ORDER BY id", key));
+    }
+
+    /**
+     * @param provider Provider name (aws, gcp, azure) or null to match any provider
+     * @return surrogate id of the service, or 0 if no service matches
+     */
+    public long resolveServiceId(String service, String provider) {
+        Snapshot current = ensureLoaded();
+        String lowered = service.toLowerCase();
+        String loweredProvider = provider == null ? null : provider.toLowerCase();
+        return lookup(current.services, current.lateServices, serviceKey(loweredProvider, lowered), key -> {
+            String sql = """
+                SELECT s.id FROM services s
+                JOIN cloud_providers p ON s.provider_id = p.id
+                WHERE (LOWER(s.service_code) = ? OR LOWER(s.service_name) = ? OR LOWER(s.rollup_name) = ?)
+                """;
+            if (loweredProvider == null) {
+                return findId(sql + " ORDER BY s.id", lowered, lowered, lowered);
+            }
+            return findId(sql + " AND LOWER(p.name) = ? ORDER BY s.id", lowered, lowered, lowered, loweredProvider);
+        });
+    }
+
+    /**
+     * @return surrogate id of the account with this provider account id, or 0 if unknown
+     */
+    public long resolveAccountId(String accountId) {
+        Snapshot current = ensureLoaded();
+        return lookup(current.accounts, current.lateAccounts, accountId,
+            key -> findId("SELECT id FROM accounts WHERE account_id = ? ORDER BY id", key));
+    }
+
+    /**
+     * Account to bill when a file has no account column: the production account (or else the
+     * first account) of the service's provider.
+     * @return surrogate account id, or 0 if the provider has no accounts
+     */
+    public long resolveDefaultAccountId(long serviceId) {
+        Snapshot current = ensureLoaded();
+        return lookup(current.defaultAccountByService, current.lateDefaultAccountByService, serviceId, id -> findId("""
+            SELECT a.id FROM accounts a
+            JOIN services s ON s.provider_id = a.provider_id
+            WHERE s.id = ?
+            ORDER BY CASE WHEN UPPER(a.environment) = 'PRODUCTION' THEN 0 ELSE 1 END, a.id
+            """, id));
+    }
+
+    /**
+     * @return name of the team with this surrogate id, or null if there is none
+     */
+    public String teamName(long teamId) {
+        Snapshot current = ensureLoaded();
+        String cached = cached(current.teamNames, current.lateTeamNames, teamId);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> names = jdbcTemplate.queryForList("SELECT name FROM teams WHERE id = ?", String.class, teamId);
+        if (names.isEmpty() || names.get(0) == null) {
+            return null;
+        }
+        current.lateTeamNames.put(teamId, names.get(0));
+        return names.get(0);
+    }
+
+    /**
+     * @return {rollup name, provider name} of the service with this surrogate id, or null if
+     *         there is none; the rollup name is services.rollup_name, else the service code
+     */
+    public String[] serviceLabel(long serviceId) {
+        Snapshot current = ensureLoaded();
+        String[] cached = cached(current.serviceLabels, current.lateServiceLabels, serviceId);
+        if (cached != null) {
+            return cached;
+        }
+        List<String[]> labels = jdbcTemplate.query("""
+            SELECT COALESCE(s.rollup_name, s.service_code) AS rollup_name, p.name AS provider_name
+            FROM services s
+            JOIN cloud_providers p ON s.provider_id = p.id
+            WHERE s.id = ?
+            """, (rs, rowNum) -> new String[] {rs.getString("rollup_name"), rs.getString("provider_name")}, serviceId);
+        if (labels.isEmpty()) {
+            return null;
+        }
+        current.lateServiceLabels.put(serviceId, labels.get(0));
+        return labels.get(0);
+    }
+
+    /**
+     * Drop remembered "not found" results so keys created since are picked up. Called at the
+     * start of every ingestion run.
+     */
+    public void forgetMisses() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        current.lateTeams.values().removeIf(id -> id == NOT_FOUND);
+        current.lateServices.values().removeIf(id -> id == NOT_FOUND);
+        current.lateAccounts.values().removeIf(id -> id == NOT_FOUND);
+        current.lateDefaultAccountByService.values().removeIf(id -> id == NOT_FOUND);
+    }
+
+    /**
+     * Reload the whole dictionary from the dimension tables. Lookups keep using the previous
+     * tables until the new ones are complete.
+     */
+    public synchronized void refresh() {
+        Map<String, Long> loadedTeams = new HashMap<>();
+        Map<String, Long> loadedServices = new HashMap<>();
+        Map<String, Long> loadedAccounts = new HashMap<>();
+        Map<Long, Long> providerByService = new HashMap<>();
+        Map<Long, Long> defaultAccountByProvider = new HashMap<>();
+        Map<Long, String> loadedTeamNames = new HashMap<>();
+        Map<Long, String[]> loadedServiceLabels = new HashMap<>();
+
+        jdbcTemplate.query("SELECT id, name FROM teams ORDER BY id", (RowCallbackHandler) rs -> {
+            loadedTeams.putIfAbsent(rs.getString("name").toLowerCase(), rs.getLong("id"));
+            loadedTeamNames.put(rs.getLong("id"), rs.getString("name"));
+        });
+
+        jdbcTemplate.query("""
+            SELECT s.id, s.provider_id, s.service_code, s.service_name,
+                   COALESCE(s.rollup_name, s.service_code) AS rollup_name, p.name AS provider_name
+            FROM services s
+            JOIN cloud_providers p ON s.provider_id = p.id
+            ORDER BY s.id
+            """, (RowCallbackHandler) rs -> {
+            long id = rs.getLong("id");
+            String provider = rs.getString("provider_name").toLowerCase();
+            providerByService.put(id, rs.getLong("provider_id"));
+            loadedServiceLabels.put(id, new String[] {rs.getString("rollup_name"), rs.getString("provider_name")});
+            for (String name : new String[] {rs.getString("service_code"), rs.getString("service_name"), rs.getString("rollup_name")}) {
+                if (name != null) {
+                    loadedServices.putIfAbsent(serviceKey(provider, name.toLowerCase()), id);
+                    loadedServices.putIfAbsent(serviceKey(null, name.toLowerCase()), id);
+                }
+            }
+        });
+
+        jdbcTemplate.query("""
+            SELECT id, account_id, provider_id FROM accounts
+            ORDER BY CASE WHEN UPPER(environment) = 'PRODUCTION' THEN 0 ELSE 1 END, id
+            """, (RowCallbackHandler) rs -> {
+            loadedAccounts.putIfAbsent(rs.getString("account_id"), rs.getLong("id"));
+            defaultAccountByProvider.putIfAbsent(rs.getLong("provider_id"), rs.getLong("id"));
+        });
+
+        Map<Long, Long> loadedDefaultAccounts = new HashMap<>();
+        providerByService.forEach((serviceId, providerId) -> {
+            Long accountId = defaultAccountByProvider.get(providerId);
+            if (accountId != null) {
+                loadedDefaultAccounts.put(serviceId, accountId);
+            }
+        });
+        snapshot = new Snapshot(loadedTeams, loadedServices, loadedAccounts, loadedDefaultAccounts,
+            loadedTeamNames, loadedServiceLabels);
+
+        System.out.println("Loaded dimension dictionary: " + loadedTeams.size() + " teams, "
+            + providerByService.size() + " services, " + loadedAccounts.size() + " accounts");
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("teams", current == null ? 0 : current.teams.size() + current.lateTeams.size());
+        stats.put("services", current == null ? 0 : current.services.size() + current.lateServices.size());
+        stats.put("accounts", current == null ? 0 : current.accounts.size() + current.lateAccounts.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private Snapshot ensureLoaded() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private <K> long lookup(Map<K, Long> loaded, Map<K, Long> late, K key, Function<K, Long> loader) {
+        Long cached = cached(loaded, late, key);
+        if (cached != null) {
+            return cached;
+        }
+        return late.computeIfAbsent(key, loader);
+    }
+
+    private <K, V> V cached(Map<K, V> loaded, Map<K, V> late, K key) {
+        V value = loaded.get(key);
+        if (value == null) {
+            value = late.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    private static String serviceKey(String provider, String service) {
+        return (provider == null ? "" : provider) + "|" + service;
+    }
+
+    private long findId(String sql, Object... args) {
+        List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, args);
+        return ids.isEmpty() || ids.get(0) == null ? NOT_FOUND : ids.get(0);
+    }
+
+    /**
+     * The dimension tables as loaded by one refresh (immutable), plus the keys looked up one by
+     * one since, including remembered "not found" results.
+     */
+    private static final class Snapshot {
+        final Map<String, Long> teams;
+        final Map<String, Long> services;
+        final Map<String, Long> accounts;
+        final Map<Long, Long> defaultAccountByService;
+        final Map<Long, String> teamNames;
+        final Map<Long, String[]> serviceLabels;
+
+        final Map<String, Long> lateTeams = new ConcurrentHashMap<>();
+        final Map<String, Long> lateServices = new ConcurrentHashMap<>();
+        final Map<String, Long> lateAccounts = new ConcurrentHashMap<>();
+        final Map<Long, Long> lateDefaultAccountByService = new ConcurrentHashMap<>();
+        final Map<Long, String> lateTeamNames = new ConcurrentHashMap<>();
+        final Map<Long, String[]> lateServiceLabels = new ConcurrentHashMap<>();
+
+        Snapshot(Map<String, Long> teams, Map<String, Long> services, Map<String, Long> accounts,
+                 Map<Long, Long> defaultAccountByService, Map<Long, String> teamNames,
+                 Map<Long, String[]> serviceLabels) {
+            this.teams = Map.copyOf(teams);
+            this.services = Map.copyOf(services);
+            this.accounts = Map.copyOf(accounts);
+            this.defaultAccountByService = Map.copyOf(defaultAccountByService);
+            this.teamNames = Map.copyOf(teamNames);
+            this.serviceLabels = Map.copyOf(serviceLabels);
+        }
+    }
+}
@@ -528,7 +528,7 @@ public class OptimizationServiceImpl implements OptimizationService {
     private double getCurrentCosts(String teamName, String startDate, String endDate) {
         String sql = """
             SELECT SUM(cost) as total_cost 
-            FROM enhanced_usage_records 
+            FROM daily_cost_rollup 
             WHERE date BETWEEN ? AND ?
             """;
         
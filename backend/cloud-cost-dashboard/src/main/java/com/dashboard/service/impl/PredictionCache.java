@@ -0,0 +1,435 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.dto.analytics.PredictionRequest;
+import com.dashboard.model.analytics.PredictionResult;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-level cache for cost predictions: a bounded in-process LRU in front of the
+ * prediction_cache table, keyed by method, team, history range, horizon and model options.
+ *
+ * <ul>
+ *   <li>{@link #get} checks the LRU, then the table (shared by every instance), and promotes
+ *       table hits into the LRU. An LRU entry is only served while its table row is still the
+ *       one it was stored or read as (same cache_key and valid_until): usage ingested by another
+ *       instance invalidates predictions there, and that instance can only delete the row.</li>
+ *   <li>{@link #put} stores a fresh prediction in both levels until its valid_until.</li>
+ *   <li>{@link DailyCostRollup} calls {@link #invalidate} whenever usage lands, dropping every
+ *       prediction of an affected team (or of all teams) whose history range overlaps the
+ *       changed dates. The table keeps team and history range in indexed columns for this. Inside
+ *       a transaction the invalidation runs once it commits, so no prediction computed from the
+ *       history before the change can be stored after the invalidation ran.</li>
+ * </ul>
+ *
+ * A prediction computed while its history changed must not be cached after the invalidation
+ * has run. Callers take an {@link Epoch} with {@link #begin} before reading history, and
+ * {@link #put} discards the result if an overlapping invalidation happened on this instance
+ * since then, or if a rollup cell of the history range was updated (by any instance) after it.
+ *
+ * Cached results are shared between callers and must not be modified.
+ */
+@Component
+public class PredictionCache {
+
+    /** Team value stored for predictions over all teams. */
+    static final String ALL_TEAMS = "*";
+
+    /** Invalidations remembered for {@link #put}; older epochs are treated as stale. */
+    private static final int TRACKED_INVALIDATIONS = 256;
+
+    /** Allowance for clock differences between instances and the database. */
+    private static final long CLOCK_SKEW_MS = 5000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${analytics.prediction-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${analytics.prediction-cache.max-entries:500}")
+    private int maxEntries = 500;
+
+    @Value("${analytics.prediction-cache.ttl-minutes:60}")
+    private long ttlMinutes = 60;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Guarded by entries
+    private long generation;
+    private final Deque<Invalidation> recentInvalidations = new ArrayDeque<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder staleDiscards = new LongAdder();
+
+    /** Start of a prediction computation; take it before reading the history. */
+    public Epoch begin() {
+        synchronized (entries) {
+            return new Epoch(generation, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @return the cached prediction for the request, or null if none is valid
+     */
+    public PredictionResult get(PredictionRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        String key = cacheKey(request);
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null || entry.validUntil <= now) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            if (isStored(key, entry)) {
+                memoryHits.increment();
+                return entry.result;
+            }
+            // Invalidated by another instance, and possibly stored again since
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+        }
+
+        Entry stored = readStored(key);
+        if (stored == null) {
+            misses.increment();
+            return null;
+        }
+        tableHits.increment();
+        remember(key, stored);
+        return stored.result;
+    }
+
+    /**
+     * Cache a freshly computed prediction in memory and in prediction_cache, unless its history
+     * changed since {@code epoch}.
+     * @param epoch taken with {@link #begin} before the history was read
+     */
+    public void put(PredictionRequest request, PredictionResult result, Epoch epoch) {
+        if (!enabled) {
+            return;
+        }
+        String key = cacheKey(request);
+        String team = team(request);
+        // Whole seconds, as valid_until is stored, so the row can be matched on it by get
+        long validUntil = (System.currentTimeMillis() + ttlMinutes * 60_000) / 1000 * 1000;
+        Entry entry = new Entry(ALL_TEAMS.equals(team) ? null : team, LocalDate.parse(request.getStartDate()),
+            LocalDate.parse(request.getEndDate()), result, validUntil);
+        synchronized (entries) {
+            if (invalidatedSince(epoch, entry)) {
+                staleDiscards.increment();
+                return;
+            }
+        }
+
+        try {
+            // Only stored if no rollup cell of the history changed since the computation started
+            boolean stored = jdbcTemplate.update("""
+                INSERT INTO prediction_cache (cache_key, method, team_name, start_date, end_date,
+                                              parameters, results, confidence_score, valid_until)
+                SELECT ?, ?, ?, ?, ?, ?, ?, ?, ? FROM DUAL
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM daily_cost_rollup
+                    WHERE updated_at >= ? AND date BETWEEN ? AND ? AND (? = ? OR team_name = ?)
+                )
+                ON DUPLICATE KEY UPDATE
+                    parameters = VALUES(parameters),
+                    results = VALUES(results),
+                    confidence_score = VALUES(confidence_score),
+                    valid_until = VALUES(valid_until),
+                    created_at = CURRENT_TIMESTAMP
+                """,
+                key, request.getMethod().toLowerCase(), team, entry.startDate, entry.endDate,
+                MAPPER.writeValueAsString(parameters(request)), MAPPER.writeValueAsString(result),
+                BigDecimal.valueOf(result.getConfidence()).setScale(2, RoundingMode.HALF_UP),
+                new Timestamp(entry.validUntil),
+                new Timestamp(epoch.startedAtMillis - CLOCK_SKEW_MS), entry.startDate, entry.endDate,
+                team, ALL_TEAMS, team) > 0;
+            if (!stored) {
+                staleDiscards.increment();
+                return;
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Without its row the entry could not be told apart from an invalidated one
+            System.err.println("Failed to store prediction " + key + ": " + e.getMessage());
+            return;
+        }
+
+        synchronized (entries) {
+            if (!invalidatedSince(epoch, entry)) {
+                remember(key, entry);
+                return;
+            }
+            staleDiscards.increment();
+        }
+        // Invalidated while the row was written; its DELETE may have run first
+        jdbcTemplate.update("DELETE FROM prediction_cache WHERE cache_key = ?", key);
+    }
+
+    /**
+     * Drop predictions whose history includes usage that just changed. Called inside a
+     * transaction, this happens after it commits: dropped earlier, a prediction computed from the
+     * history as it was before the commit could be stored again and outlive the change.
+     * @param teamNames Teams whose usage changed, or null for all teams
+     */
+    public void invalidate(Collection<String> teamNames, LocalDate startDate, LocalDate endDate) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateNow(teamNames, startDate, endDate);
+            return;
+        }
+        Set<String> teams = teamNames == null ? null : Set.copyOf(teamNames);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    invalidateNow(teams, startDate, endDate);
+                } catch (RuntimeException e) {
+                    // The usage is committed either way; the predictions expire with their TTL
+                    System.err.println("Failed to invalidate predictions for " + startDate + " to " + endDate
+                        + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${analytics.prediction-cache.purge-initial-delay-ms:300000}",
+               fixedDelayString = "${analytics.prediction-cache.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (enabled) {
+            int purged = jdbcTemplate.update("DELETE FROM prediction_cache WHERE valid_until < CURRENT_TIMESTAMP");
+            System.out.println("Purged " + purged + " expired predictions");
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.sum() + tableHits.sum();
+        long lookups = hits + misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (entries) {
+            stats.put("memoryEntries", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("memoryHits", memoryHits.sum());
+        stats.put("tableHits", tableHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("hitRatio", lookups > 0 ? (double) hits / lookups : 0.0);
+        stats.put("memoryHitRatio", lookups > 0 ? (double) memoryHits.sum() / lookups : 0.0);
+        stats.put("invalidations", invalidations.sum());
+        stats.put("staleDiscards", staleDiscards.sum());
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private Entry readStored(String key) {
+        List<Entry> found = new ArrayList<>(1);
+        try {
+            jdbcTemplate.query("""
+                SELECT parameters, results, valid_until FROM prediction_cache
+                WHERE cache_key = ? AND valid_until > CURRENT_TIMESTAMP
+                """, (RowCallbackHandler) rs -> {
+                try {
+                    Map<?, ?> parameters = MAPPER.readValue(rs.getString("parameters"), Map.class);
+                    String team = (String) parameters.get("team");
+                    found.add(new Entry(ALL_TEAMS.equals(team) ? null : team,
+                        LocalDate.parse((String) parameters.get("startDate")),
+                        LocalDate.parse((String) parameters.get("endDate")),
+                        MAPPER.readValue(rs.getString("results"), PredictionResult.class),
+                        rs.getTimestamp("valid_until").getTime()));
+                } catch (JsonProcessingException e) {
+                    System.err.println("Ignoring unreadable cached prediction " + key + ": " + e.getMessage());
+                }
+            }, key);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to read cached prediction " + key + ": " + e.getMessage());
+        }
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private void invalidateNow(Collection<String> teamNames, LocalDate startDate, LocalDate endDate) {
+        Invalidation invalidation = new Invalidation(teamNames == null ? null : Set.copyOf(teamNames),
+            startDate, endDate);
+        int dropped = 0;
+        synchronized (entries) {
+            invalidation.generation = ++generation;
+            recentInvalidations.addLast(invalidation);
+            if (recentInvalidations.size() > TRACKED_INVALIDATIONS) {
+                recentInvalidations.removeFirst();
+            }
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (invalidation.affects(iterator.next())) {
+                    iterator.remove();
+                    dropped++;
+                }
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("""
+            DELETE FROM prediction_cache
+            WHERE start_date <= ? AND end_date >= ?
+            """);
+        List<Object> params = new ArrayList<>(List.of(endDate, startDate));
+        if (teamNames != null) {
+            sql.append(" AND team_name IN (?")
+               .append(", ?".repeat(teamNames.size()))
+               .append(")");
+            params.add(ALL_TEAMS);
+            params.addAll(teamNames);
+        }
+        dropped += jdbcTemplate.update(sql.toString(), params.toArray());
+        invalidations.add(dropped);
+    }
+
+    /** Whether the table still holds the row the entry was stored or read as. */
+    private boolean isStored(String key, Entry entry) {
+        try {
+            Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM prediction_cache WHERE cache_key = ? AND valid_until = ?",
+                Integer.class, key, new Timestamp(entry.validUntil));
+            return rows != null && rows > 0;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to check cached prediction " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** Caller holds the entries lock. */
+    private boolean invalidatedSince(Epoch epoch, Entry entry) {
+        if (generation == epoch.generation) {
+            return false;
+        }
+        Invalidation oldest = recentInvalidations.peekFirst();
+        if (oldest == null || oldest.generation > epoch.generation + 1) {
+            // Some invalidations since the epoch are no longer tracked
+            return true;
+        }
+        Iterator<Invalidation> newestFirst = recentInvalidations.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Invalidation invalidation = newestFirst.next();
+            if (invalidation.generation <= epoch.generation) {
+                return false;
+            }
+            if (invalidation.affects(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void remember(String key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static String cacheKey(PredictionRequest request) {
+        return String.join("|",
+            request.getMethod().toLowerCase(),
+            team(request),
+            request.getStartDate(),
+            request.getEndDate(),
+            String.valueOf(request.getDaysToPredict()),
+            String.valueOf(request.isIncludeSeasonality()),
+            String.valueOf(request.getConfidenceLevel()));
+    }
+
+    /** Team a prediction is scoped to; null and "all" both mean every team. */
+    private static String team(PredictionRequest request) {
+        String teamName = request.getTeamName();
+        return teamName == null || teamName.equals("all") ? ALL_TEAMS : teamName;
+    }
+
+    private static Map<String, Object> parameters(PredictionRequest request) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("team", team(request));
+        parameters.put("startDate", request.getStartDate());
+        parameters.put("endDate", request.getEndDate());
+        parameters.put("daysToPredict", request.getDaysToPredict());
+        parameters.put("includeSeasonality", request.isIncludeSeasonality());
+        parameters.put("confidenceLevel", request.getConfidenceLevel());
+        return parameters;
+    }
+
+    /** Invalidation generation and start time of a prediction computation. */
+    public static final class Epoch {
+        private final long generation;
+        private final long startedAtMillis;
+
+        Epoch(long generation, long startedAtMillis) {
+            this.generation = generation;
+            this.startedAtMillis = startedAtMillis;
+        }
+    }
+
+    private static final class Invalidation {
+        final Set<String> teamNames;
+        final LocalDate startDate;
+        final LocalDate endDate;
+        long generation;
+
+        Invalidation(Set<String> teamNames, LocalDate startDate, LocalDate endDate) {
+            this.teamNames = teamNames;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        boolean affects(Entry entry) {
+            boolean teamAffected = teamNames == null || entry.teamName == null || teamNames.contains(entry.teamName);
+            return teamAffected && !entry.startDate.isAfter(endDate) && !entry.endDate.isBefore(startDate);
+        }
+    }
+
+    private static final class Entry {
+        final String teamName;
+        final LocalDate startDate;
+        final LocalDate endDate;
+        final PredictionResult result;
+        final long validUntil;
+
+        Entry(String teamName, LocalDate startDate, LocalDate endDate, PredictionResult result, long validUntil) {
+            this.teamName = teamName;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.result = result;
+            this.validUntil = validUntil;
+        }
+    }
+}
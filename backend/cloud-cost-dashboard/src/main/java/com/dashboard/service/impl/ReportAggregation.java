@@ -0,0 +1,505 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.UsageRowBatch;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Every total, group-by and top-N a report needs from its cost rows, computed in one pass.
+ *
+ * A {@link Plan} lists the group-by columns (optionally nested, e.g. service within team) and
+ * how many top resources to keep. {@link Plan#aggregate} splits the rows into chunks, folds each
+ * chunk into a partial whose groups are dense ids with fixed-point long sums at
+ * {@link UsageRowBatch#MONEY_SCALE}, and merges the partials in chunk order. Chunks run on the
+ * common fork-join pool once there is more than one. Group keys are the columns' values as
+ * strings, as the row-by-row groupings rendered them; sums come back at the largest scale of the
+ * input costs. Rows may also be pre-aggregated cells, whose record_count column gives the number
+ * of usage rows each one stands for.
+ *
+ * Rows that are not in memory, such as a result set read through a cursor, are folded one at a
+ * time with {@link Plan#accumulator}; only the first row of each top-resource candidate is kept.
+ * Cost cube cells are folded by {@link CostCube#fold} into a {@link Plan#cellAccumulator}, which
+ * sums by the cube's dictionary ids and decodes each distinct id once, so no row is built per cell.
+ */
+public class ReportAggregation {
+
+    private final Plan plan;
+    private final Partial totals;
+
+    private ReportAggregation(Plan plan, Partial totals) {
+        this.plan = plan;
+        this.totals = totals;
+    }
+
+    public static final class Plan {
+        private final List<String> groupBys = new ArrayList<>();
+        private final Map<String, String> nestedGroupBys = new LinkedHashMap<>();
+        private int topResources;
+
+        public Plan groupBy(String column) {
+            if (!groupBys.contains(column)) {
+                groupBys.add(column);
+            }
+            return this;
+        }
+
+        /** Sums of {@code column} within each value of {@code parentColumn}. */
+        public Plan groupBy(String parentColumn, String column) {
+            groupBy(parentColumn);
+            nestedGroupBys.put(parentColumn, column);
+            return this;
+        }
+
+        /** Keep per-resource totals for the {@code limit} most expensive resources. */
+        public Plan topResources(int limit) {
+            topResources = Math.max(topResources, limit);
+            return this;
+        }
+
+        /**
+         * @param chunkSize rows folded by one task; larger inputs are aggregated in parallel
+         */
+        public ReportAggregation aggregate(List<Map<String, Object>> rows, int chunkSize) {
+            int size = rows.size();
+            int chunk = Math.max(1, chunkSize);
+            int chunks = Math.max(1, (size + chunk - 1) / chunk);
+            Partial totals = chunks == 1
+                ? new Partial(this).fold(rows, 0, size)
+                : IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> new Partial(this).fold(rows, c * chunk, Math.min(size, (c + 1) * chunk)))
+                    .reduce(Partial::merge)
+                    .orElseGet(() -> new Partial(this));
+            return new ReportAggregation(this, totals);
+        }
+
+        /** Fold rows one at a time on the calling thread, for rows streamed from a cursor. */
+        public Accumulator accumulator() {
+            return new Accumulator(this);
+        }
+
+        /**
+         * Fold cost cube cells, see {@link CostCube#fold}. Group-by columns the cube does not keep
+         * sum into a single null key, as they would for cells read as rows.
+         * @throws IllegalArgumentException if the plan keeps top resources, which cells have no ids for
+         */
+        public CellAccumulator cellAccumulator() {
+            if (topResources > 0) {
+                throw new IllegalArgumentException("Cost cube cells have no resource ids");
+            }
+            return new CellAccumulator(this);
+        }
+    }
+
+    public static final class Accumulator {
+        private final Plan plan;
+        private final Partial partial;
+
+        private Accumulator(Plan plan) {
+            this.plan = plan;
+            this.partial = new Partial(plan);
+        }
+
+        /** The row must not be modified afterwards; top-resource candidates keep a reference. */
+        public void add(Map<String, Object> row) {
+            partial.fold(row);
+        }
+
+        public ReportAggregation finish() {
+            return new ReportAggregation(plan, partial);
+        }
+    }
+
+    /**
+     * Sums of cost cube cells by dictionary id; day ids are offsets from the first day of the range.
+     * Ids are decoded into group keys once, before the cube releases the cells' snapshot.
+     */
+    public static final class CellAccumulator {
+        private final Plan plan;
+        // Per group-by: the dimension it reads, or null for a column the cube does not keep
+        private final CostCube.Dimension[] dimensions;
+        private final CostCube.Dimension[] nestedDimensions;
+        private final IdSums[] groups;
+        // Per group-by: the nested sums for each parent id, or null when the column has none
+        private final IdSums[][] nested;
+        private long totalCost;
+        private long recordCount;
+        private long cellCount;
+        private Partial partial;
+
+        private CellAccumulator(Plan plan) {
+            this.plan = plan;
+            int groupCount = plan.groupBys.size();
+            this.dimensions = new CostCube.Dimension[groupCount];
+            this.nestedDimensions = new CostCube.Dimension[groupCount];
+            this.groups = new IdSums[groupCount];
+            this.nested = new IdSums[groupCount][];
+            for (int i = 0; i < groupCount; i++) {
+                String column = plan.groupBys.get(i);
+                dimensions[i] = CostCube.Dimension.forColumn(column);
+                groups[i] = new IdSums();
+                String nestedColumn = plan.nestedGroupBys.get(column);
+                if (nestedColumn != null) {
+                    nestedDimensions[i] = CostCube.Dimension.forColumn(nestedColumn);
+                    nested[i] = new IdSums[0];
+                }
+            }
+        }
+
+        /** Cells folded, for progress reporting. */
+        public long getCellCount() {
+            return cellCount;
+        }
+
+        /**
+         * @throws IllegalStateException if the cube has not folded its cells into this accumulator
+         */
+        public ReportAggregation finish() {
+            if (partial == null) {
+                throw new IllegalStateException("Cost cube cells have not been folded");
+            }
+            return new ReportAggregation(plan, partial);
+        }
+
+        /**
+         * @param ids the cell's id per {@link CostCube.Dimension} ordinal; reused between cells
+         */
+        void add(int[] ids, long cost, long records) {
+            cellCount++;
+            totalCost += cost;
+            recordCount += records;
+            for (int i = 0; i < groups.length; i++) {
+                int id = id(dimensions[i], ids);
+                groups[i].add(id, cost);
+                if (nested[i] != null) {
+                    nestedSums(i, id).add(id(nestedDimensions[i], ids), cost);
+                }
+            }
+        }
+
+        /**
+         * Turn the id sums into group keys, while the dictionaries the ids came from are held.
+         * @param startDay epoch day that day ids are offsets from
+         * @param dictionaries decodes the ids of each dictionary-encoded dimension
+         */
+        void resolve(int startDay, Function<CostCube.Dimension, IntFunction<String>> dictionaries) {
+            Partial resolved = new Partial(plan);
+            resolved.totalCost = totalCost;
+            resolved.recordCount = recordCount;
+            resolved.scale = cellCount > 0 ? UsageRowBatch.MONEY_SCALE : 0;
+            for (int i = 0; i < groups.length; i++) {
+                IdSums sums = groups[i];
+                IntFunction<Object> keys = keys(dimensions[i], startDay, dictionaries);
+                IntFunction<Object> nestedKeys = nested[i] != null ? keys(nestedDimensions[i], startDay, dictionaries) : null;
+                for (int id = sums.seen.nextSetBit(0); id >= 0; id = sums.seen.nextSetBit(id + 1)) {
+                    int groupId = resolved.groups[i].add(keys.apply(id), sums.sums[id]);
+                    if (nestedKeys != null && id < nested[i].length && nested[i][id] != null) {
+                        IdSums children = nested[i][id];
+                        Sums target = resolved.nestedSums(i, groupId);
+                        for (int child = children.seen.nextSetBit(0); child >= 0; child = children.seen.nextSetBit(child + 1)) {
+                            target.add(nestedKeys.apply(child), children.sums[child]);
+                        }
+                    }
+                }
+            }
+            partial = resolved;
+        }
+
+        private static int id(CostCube.Dimension dimension, int[] ids) {
+            return dimension != null ? ids[dimension.ordinal()] : 0;
+        }
+
+        private static IntFunction<Object> keys(CostCube.Dimension dimension, int startDay,
+                                                Function<CostCube.Dimension, IntFunction<String>> dictionaries) {
+            if (dimension == null) {
+                return id -> null;
+            }
+            if (dimension == CostCube.Dimension.DATE) {
+                return id -> LocalDate.ofEpochDay(startDay + id);
+            }
+            IntFunction<String> dictionary = dictionaries.apply(dimension);
+            return dictionary::apply;
+        }
+
+        private IdSums nestedSums(int group, int parentId) {
+            IdSums[] perParent = nested[group];
+            if (parentId >= perParent.length) {
+                perParent = Arrays.copyOf(perParent, Math.max(parentId + 1, perParent.length * 2));
+                nested[group] = perParent;
+            }
+            if (perParent[parentId] == null) {
+                perParent[parentId] = new IdSums();
+            }
+            return perParent[parentId];
+        }
+    }
+
+    public BigDecimal getTotalCost() {
+        return toDecimal(totals.totalCost);
+    }
+
+    public long getRecordCount() {
+        return totals.recordCount;
+    }
+
+    public boolean hasTopResources() {
+        return plan.topResources > 0;
+    }
+
+    public boolean hasGroup(String column) {
+        return plan.groupBys.contains(column);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the plan did not group by the column
+     */
+    public Map<String, BigDecimal> getGroup(String column) {
+        return toMap(totals.groups[groupIndex(column)]);
+    }
+
+    public boolean hasNestedGroup(String parentColumn, String column) {
+        return column.equals(plan.nestedGroupBys.get(parentColumn));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the plan did not nest the column in the parent column
+     */
+    public Map<String, Map<String, BigDecimal>> getNestedGroup(String parentColumn, String column) {
+        if (!hasNestedGroup(parentColumn, column)) {
+            throw new IllegalArgumentException("Not grouped by " + column + " within " + parentColumn);
+        }
+        int index = groupIndex(parentColumn);
+        Sums parents = totals.groups[index];
+        List<Sums> nested = totals.nested[index];
+        Map<String, Map<String, BigDecimal>> result = new HashMap<>();
+        for (int id = 0; id < parents.size; id++) {
+            result.put(parents.key(id), id < nested.size() ? toMap(nested.get(id)) : new HashMap<>());
+        }
+        return result;
+    }
+
+    /**
+     * The most expensive resources, most expensive first: resourceId, totalCost, and the service,
+     * team, provider and region of the resource's first row.
+     */
+    public List<Map<String, Object>> getTopResources(int limit) {
+        Sums resources = totals.resources;
+        if (resources == null || limit <= 0) {
+            return List.of();
+        }
+        int keep = Math.min(limit, resources.size);
+        // Min-heap of the most expensive ids seen so far
+        PriorityQueue<Integer> top = new PriorityQueue<>(keep + 1, Comparator.comparingLong(id -> resources.sums[id]));
+        for (int id = 0; id < resources.size; id++) {
+            if (top.size() < keep) {
+                top.add(id);
+            } else if (keep > 0 && resources.sums[id] > resources.sums[top.peek()]) {
+                top.poll();
+                top.add(id);
+            }
+        }
+        List<Map<String, Object>> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int id = top.poll();
+            Map<String, Object> row = totals.resourceFirstRows.get(id);
+            Map<String, Object> resource = new HashMap<>();
+            resource.put("resourceId", resources.key(id));
+            resource.put("totalCost", toDecimal(resources.sums[id]));
+            resource.put("service", row.get("service_name"));
+            resource.put("team", row.get("team_name"));
+            resource.put("provider", row.get("provider"));
+            resource.put("region", row.get("region"));
+            result.add(resource);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private int groupIndex(String column) {
+        int index = plan.groupBys.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not grouped by " + column);
+        }
+        return index;
+    }
+
+    private Map<String, BigDecimal> toMap(Sums sums) {
+        Map<String, BigDecimal> result = new HashMap<>(Math.max(16, sums.size * 2));
+        for (int id = 0; id < sums.size; id++) {
+            result.put(sums.key(id), toDecimal(sums.sums[id]));
+        }
+        return result;
+    }
+
+    private BigDecimal toDecimal(long fixedPoint) {
+        return UsageRowBatch.toDecimal(fixedPoint).setScale(totals.scale, RoundingMode.HALF_UP);
+    }
+
+    private static long toFixedPoint(BigDecimal value) {
+        if (value == null) {
+            return 0;
+        }
+        return value.movePointRight(UsageRowBatch.MONEY_SCALE).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /**
+     * Per-chunk accumulators. Groups are keyed by the raw column value, so dates and strings are
+     * not rendered per row; keys become strings only when results are read.
+     */
+    private static final class Partial {
+        private final Plan plan;
+        private final Sums[] groups;
+        // Per group-by: the nested sums for each parent id, or null when the column has none
+        private final List<Sums>[] nested;
+        private final String[] nestedColumns;
+        private final Sums resources;
+        // First row of each resource id, for its service, team, provider and region
+        private final List<Map<String, Object>> resourceFirstRows;
+        private long totalCost;
+        private long recordCount;
+        private int scale;
+
+        @SuppressWarnings("unchecked")
+        Partial(Plan plan) {
+            this.plan = plan;
+            int groupCount = plan.groupBys.size();
+            this.groups = new Sums[groupCount];
+            this.nested = new List[groupCount];
+            this.nestedColumns = new String[groupCount];
+            for (int i = 0; i < groupCount; i++) {
+                groups[i] = new Sums();
+                nestedColumns[i] = plan.nestedGroupBys.get(plan.groupBys.get(i));
+                if (nestedColumns[i] != null) {
+                    nested[i] = new ArrayList<>();
+                }
+            }
+            this.resources = plan.topResources > 0 ? new Sums() : null;
+            this.resourceFirstRows = resources != null ? new ArrayList<>() : null;
+        }
+
+        Partial fold(List<Map<String, Object>> rows, int from, int to) {
+            for (int r = from; r < to; r++) {
+                fold(rows.get(r));
+            }
+            return this;
+        }
+
+        void fold(Map<String, Object> row) {
+            BigDecimal value = (BigDecimal) row.get("cost");
+            long cost = toFixedPoint(value);
+            if (value != null && value.scale() > scale) {
+                scale = Math.min(value.scale(), UsageRowBatch.MONEY_SCALE);
+            }
+            totalCost += cost;
+            Object records = row.get("record_count");
+            recordCount += records instanceof Number number ? number.longValue() : 1;
+            for (int i = 0; i < groups.length; i++) {
+                int id = groups[i].add(row.get(plan.groupBys.get(i)), cost);
+                if (nestedColumns[i] != null) {
+                    nestedSums(i, id).add(row.get(nestedColumns[i]), cost);
+                }
+            }
+            if (resources != null) {
+                int size = resources.size;
+                if (resources.add(row.get("resource_id"), cost) == size) {
+                    resourceFirstRows.add(row);
+                }
+            }
+        }
+
+        /** Add another chunk's totals; {@code other} must cover later rows than this one. */
+        Partial merge(Partial other) {
+            totalCost += other.totalCost;
+            recordCount += other.recordCount;
+            scale = Math.max(scale, other.scale);
+            for (int i = 0; i < groups.length; i++) {
+                Sums otherGroup = other.groups[i];
+                for (int otherId = 0; otherId < otherGroup.size; otherId++) {
+                    int id = groups[i].add(otherGroup.keys[otherId], otherGroup.sums[otherId]);
+                    if (nestedColumns[i] != null && otherId < other.nested[i].size()) {
+                        Sums otherNested = other.nested[i].get(otherId);
+                        Sums target = nestedSums(i, id);
+                        for (int n = 0; n < otherNested.size; n++) {
+                            target.add(otherNested.keys[n], otherNested.sums[n]);
+                        }
+                    }
+                }
+            }
+            if (resources != null) {
+                for (int otherId = 0; otherId < other.resources.size; otherId++) {
+                    int size = resources.size;
+                    if (resources.add(other.resources.keys[otherId], other.resources.sums[otherId]) == size) {
+                        resourceFirstRows.add(other.resourceFirstRows.get(otherId));
+                    }
+                }
+            }
+            return this;
+        }
+
+        private Sums nestedSums(int group, int parentId) {
+            List<Sums> perParent = nested[group];
+            while (perParent.size() <= parentId) {
+                perParent.add(new Sums());
+            }
+            return perParent.get(parentId);
+        }
+    }
+
+    /** Fixed-point cost sums indexed by ids that are already dense, such as dictionary ids. */
+    private static final class IdSums {
+        private long[] sums = new long[16];
+        private final BitSet seen = new BitSet();
+
+        void add(int id, long cost) {
+            if (id >= sums.length) {
+                sums = Arrays.copyOf(sums, Math.max(id + 1, sums.length * 2));
+            }
+            sums[id] += cost;
+            seen.set(id);
+        }
+    }
+
+    /** Dense ids for the distinct values of one column, with a fixed-point cost sum per id. */
+    private static final class Sums {
+        private final Map<Object, Integer> ids = new HashMap<>();
+        private Object[] keys = new Object[16];
+        private long[] sums = new long[16];
+        private int size;
+        private int lastId = -1;
+
+        /**
+         * @return id of the key, assigned in first-seen order
+         */
+        int add(Object key, long cost) {
+            // Report rows come ordered by date, so runs of the same key skip the hash lookup
+            if (lastId >= 0 && Objects.equals(keys[lastId], key)) {
+                sums[lastId] += cost;
+                return lastId;
+            }
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = size++;
+                if (id == keys.length) {
+                    keys = Arrays.copyOf(keys, id * 2);
+                    sums = Arrays.copyOf(sums, id * 2);
+                }
+                keys[id] = key;
+                ids.put(key, id);
+            }
+            sums[id] += cost;
+            lastId = id;
+            return id;
+        }
+
+        String key(int id) {
+            return String.valueOf(keys[id]);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.dto.report.GenerateReportRequest;
+import com.dashboard.model.report.Report;
+import com.dashboard.util.ReportCsvWriter;
+import com.dashboard.util.ReportJsonLinesWriter;
+import com.dashboard.util.ReportPdfWriter;
+import com.dashboard.util.ReportRowWriter;
+import com.dashboard.util.ReportXlsxWriter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the usage rows behind a completed report to a download. Rows are read from a
+ * forward-only JDBC cursor (report.export.fetch-size rows per round trip) and written one at a
+ * time through a {@link ReportRowWriter}, so memory use does not depend on the size of the export.
+ * Excel and PDF downloads also carry the report's saved data as a summary ahead of the rows.
+ */
+@Component
+public class ReportExporter {
+
+    static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // Report data is already in memory, but a summary sheet or page should stay readable
+    static final int MAX_SUMMARY_ENTRIES = 2000;
+
+    static final List<String> COLUMNS = List.of(
+        "date", "team_name", "service_name", "provider", "region", "resource_id",
+        "cost", "usage_quantity", "usage_unit", "tags");
+
+    private record ExportFormat(String contentType, String extension, boolean compressible) {}
+
+    private static final Map<String, ExportFormat> FORMATS = Map.of(
+        "csv", new ExportFormat("text/csv", "csv", true),
+        "json", new ExportFormat("application/x-ndjson", "jsonl", true),
+        "excel", new ExportFormat("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx", false),
+        "pdf", new ExportFormat("application/pdf", "pdf", false));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${report.export.fetch-size:1000}")
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder failedExports = new LongAdder();
+    private final LongAdder rowsExported = new LongAdder();
+
+    public boolean supports(String format) {
+        return format != null && FORMATS.containsKey(format);
+    }
+
+    public Set<String> getSupportedFormats() {
+        return new TreeSet<>(FORMATS.keySet());
+    }
+
+    /**
+     * Check that the report can be exported in the format, before any response is written.
+     * @throws IllegalArgumentException if the format is not supported
+     * @throws IllegalStateException if the report has not completed
+     */
+    public void validate(Report report, String format) {
+        if (!supports(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format
+                + " (supported: " + String.join(", ", getSupportedFormats()) + ")");
+        }
+        if (!report.isCompleted()) {
+            throw new IllegalStateException("Report is not completed yet");
+        }
+    }
+
+    public String getContentType(String format) {
+        return exportFormat(format).contentType();
+    }
+
+    /** Whether the format benefits from gzip on the wire; already-compressed formats do not. */
+    public boolean isCompressible(String format) {
+        return exportFormat(format).compressible();
+    }
+
+    public String getFileName(Report report, String format) {
+        return getFileName(report, format, java.time.LocalDate.now());
+    }
+
+    /** File name dated {@code date}, e.g. a scheduled run's date in the schedule's timezone. */
+    public String getFileName(Report report, String format, java.time.LocalDate date) {
+        String sanitizedTitle = report.getTitle().replaceAll("[^a-zA-Z0-9-_]", "_");
+        String extension = supports(format) ? exportFormat(format).extension() : format;
+        return sanitizedTitle + "_" + date + "." + extension;
+    }
+
+    /**
+     * Write the report's usage rows to {@code out}, gzip-compressed if requested. The stream is
+     * finished but not closed.
+     * @return number of rows written
+     */
+    public long export(Report report, String format, OutputStream out, boolean gzip) throws IOException {
+        validate(report, format);
+        long startTime = System.currentTimeMillis();
+        exports.increment();
+
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, WRITE_BUFFER_SIZE) : null;
+        OutputStream target = gzip ? compressed : out;
+        try {
+            ReportRowWriter writer = createWriter(format, report, target);
+            writer.writeSummary(summarize(report));
+            writer.writeHeader(COLUMNS);
+            long rows = streamRows(report, writer);
+            writer.finish();
+            if (compressed != null) {
+                compressed.finish();
+            }
+            out.flush();
+
+            long elapsedMs = System.currentTimeMillis() - startTime;
+            System.out.println("Exported " + rows + " rows of report " + report.getId() + " as " + format
+                + (gzip ? " (gzip)" : "") + " in " + elapsedMs + "ms");
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            failedExports.increment();
+            System.err.println("Export of report " + report.getId() + " failed: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("fetchSize", fetchSize);
+        stats.put("exports", exports.sum());
+        stats.put("failedExports", failedExports.sum());
+        stats.put("rowsExported", rowsExported.sum());
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private ExportFormat exportFormat(String format) {
+        ExportFormat exportFormat = format == null ? null : FORMATS.get(format);
+        if (exportFormat == null) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        return exportFormat;
+    }
+
+    private ReportRowWriter createWriter(String format, Report report, OutputStream out) {
+        return switch (format) {
+            case "csv" -> new ReportCsvWriter(textWriter(out));
+            case "json" -> new ReportJsonLinesWriter(textWriter(out));
+            case "excel" -> new ReportXlsxWriter(new BufferedOutputStream(out, WRITE_BUFFER_SIZE));
+            case "pdf" -> new ReportPdfWriter(new BufferedOutputStream(out, WRITE_BUFFER_SIZE), report.getTitle());
+            default -> throw new IllegalArgumentException("Unsupported export format: " + format);
+        };
+    }
+
+    private static BufferedWriter textWriter(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Report details followed by its saved data, flattened to labels such as
+     * "costByTeam.Platform" or "topServices[0].cost".
+     */
+    Map<String, Object> summarize(Report report) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("Title", report.getTitle());
+        summary.put("Type", report.getType());
+        Map<String, Object> config = report.getConfiguration() != null ? report.getConfiguration() : Map.of();
+        String[] dateRange = resolveDateRange(config);
+        summary.put("Period", dateRange[0] + " to " + dateRange[1]);
+        if (report.getGeneratedBy() != null) summary.put("Generated by", report.getGeneratedBy());
+        if (report.getCompletedAt() != null) summary.put("Completed at", report.getCompletedAt());
+        if (report.getData() != null) {
+            flatten("", report.getData(), summary);
+        }
+        if (report.getRecommendations() != null) {
+            for (int i = 0; i < report.getRecommendations().size() && summary.size() < MAX_SUMMARY_ENTRIES; i++) {
+                summary.put("Recommendation " + (i + 1), report.getRecommendations().get(i));
+            }
+        }
+        return summary;
+    }
+
+    private static void flatten(String label, Object value, Map<String, Object> summary) {
+        if (summary.size() >= MAX_SUMMARY_ENTRIES) {
+            return;
+        }
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                flatten(label.isEmpty() ? String.valueOf(entry.getKey()) : label + "." + entry.getKey(), entry.getValue(), summary);
+            }
+        } else if (value instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                flatten(label + "[" + i + "]", list.get(i), summary);
+            }
+        } else {
+            summary.put(label, value);
+        }
+    }
+
+    private long streamRows(Report report, ReportRowWriter writer) throws IOException {
+        List<Object> params = new ArrayList<>();
+        String sql = buildExportQuery(report.getConfiguration() != null ? report.getConfiguration() : Map.of(), params);
+        Object[] values = new Object[COLUMNS.size()];
+        long[] rows = {0};
+
+        RowCallbackHandler handler = rs -> {
+            readRow(rs, values);
+            try {
+                writer.writeRow(values);
+            } catch (IOException e) {
+                // Client went away or the stream broke; stop reading the cursor
+                throw new UncheckedIOException(e);
+            }
+            if (++rows[0] % fetchSize == 0) {
+                rowsExported.add(fetchSize);
+            }
+        };
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                return statement;
+            }, handler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            rowsExported.add(rows[0] % fetchSize);
+        }
+        return rows[0];
+    }
+
+    private static void readRow(ResultSet rs, Object[] values) throws java.sql.SQLException {
+        values[0] = rs.getString("date");
+        values[1] = rs.getString("team_name");
+        values[2] = rs.getString("service_name");
+        values[3] = rs.getString("provider");
+        values[4] = rs.getString("region");
+        values[5] = rs.getString("resource_id");
+        values[6] = rs.getBigDecimal("cost");
+        values[7] = rs.getBigDecimal("usage_quantity");
+        values[8] = rs.getString("usage_unit");
+        values[9] = rs.getString("tags");
+    }
+
+    /**
+     * Same rows ReportServiceImpl streams for the report: its resolved date range and filters, as
+     * SQL IN lists since the rows carry resource ids and tags the cost cube does not keep. Reports
+     * saved before the range was recorded fall back to re-resolving their time range.
+     */
+    String buildExportQuery(Map<String, Object> config, List<Object> params) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT date, team_name, service_name, provider, region, resource_id,
+                   cost, usage_quantity, usage_unit, tags
+            FROM enhanced_usage_records
+            WHERE date BETWEEN ? AND ?
+            """);
+
+        String[] dateRange = resolveDateRange(config);
+        params.add(dateRange[0]);
+        params.add(dateRange[1]);
+
+        appendInFilter(sql, params, "team_name", config.get("teams"));
+        appendInFilter(sql, params, "service_name", config.get("services"));
+        appendInFilter(sql, params, "provider", config.get("providers"));
+        appendInFilter(sql, params, "region", config.get("regions"));
+
+        sql.append(" ORDER BY date");
+        return sql.toString();
+    }
+
+    private static String[] resolveDateRange(Map<String, Object> config) {
+        if (config.get("startDate") != null && config.get("endDate") != null) {
+            return new String[]{config.get("startDate").toString(), config.get("endDate").toString()};
+        }
+        GenerateReportRequest request = new GenerateReportRequest();
+        request.setTimeRange(config.get("timeRange") != null ? config.get("timeRange").toString() : "last_30_days");
+        if (config.get("customStartDate") != null) request.setCustomStartDate(config.get("customStartDate").toString());
+        if (config.get("customEndDate") != null) request.setCustomEndDate(config.get("customEndDate").toString());
+        return request.getEffectiveDateRange();
+    }
+
+    private static void appendInFilter(StringBuilder sql, List<Object> params, String column, Object values) {
+        if (!(values instanceof Collection<?> collection) || collection.isEmpty()) {
+            return;
+        }
+        sql.append(" AND ").append(column).append(" IN (")
+           .append(String.join(",", Collections.nCopies(collection.size(), "?")))
+           .append(")");
+        params.addAll(collection);
+    }
+}
@@ -0,0 +1,478 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.dto.report.GenerateReportRequest;
+import com.dashboard.model.report.ReportJob;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous report generation backed by the report_jobs table.
+ *
+ * <ul>
+ *   <li>{@link #submit} stores the request as a queued job and returns at once; the report is
+ *       generated on a pool of report.jobs.workers threads under the job's report id.</li>
+ *   <li>Jobs are claimed oldest first with a conditional UPDATE, so several instances can share
+ *       the table. A user never has more than report.jobs.max-running-per-user jobs running; their
+ *       other jobs wait while other users' jobs go ahead.</li>
+ *   <li>The running and pending limits are checked in a transaction holding the user's
+ *       report_job_users row lock, so claims and submissions for one user take turns across
+ *       instances. A claim that deadlocks or times out on the lock is retried once, then left
+ *       queued for the next poll.</li>
+ *   <li>While jobs run here, a thread of their own writes their progress every
+ *       report.jobs.heartbeat-interval-ms; {@link #poll} queues again the running jobs of instances
+ *       that stopped writing progress and claims queued jobs for idle workers. The heartbeat does
+ *       not share the scheduler, so long scheduled tasks elsewhere cannot make live jobs look
+ *       stale.</li>
+ *   <li>{@link #cancel} drops a queued job, or flags a running one so it stops at its next
+ *       section (on whichever instance runs it).</li>
+ * </ul>
+ */
+@Component
+public class ReportJobQueue {
+
+    // Queued jobs read per dispatch; jobs of users at their running limit are skipped over
+    private static final int DISPATCH_SCAN_LIMIT = 100;
+
+    // Tries of a transaction under a user's lock before a deadlock or lock timeout is given up on
+    private static final int LOCK_ATTEMPTS = 2;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String JOB_COLUMNS = """
+        id, report_id, user_id, status, rows_scanned, sections_done, sections_total, current_section,
+        cancel_requested, error_message, submitted_at, started_at, completed_at
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportServiceImpl reportService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${report.jobs.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${report.jobs.workers:2}")
+    private int workers = 2;
+
+    @Value("${report.jobs.max-running-per-user:1}")
+    private int maxRunningPerUser = 1;
+
+    @Value("${report.jobs.max-pending-per-user:10}")
+    private int maxPendingPerUser = 10;
+
+    @Value("${report.jobs.stale-after-minutes:5}")
+    private int staleAfterMinutes = 5;
+
+    @Value("${report.jobs.heartbeat-interval-ms:1000}")
+    private long heartbeatIntervalMs = 1000;
+
+    private final Map<String, ReportProgress> running = new ConcurrentHashMap<>();
+    private ExecutorService pool;
+    private ScheduledExecutorService heartbeat;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder requeued = new LongAdder();
+
+    /**
+     * Queue a report for generation.
+     * @return the queued job; poll {@link #getJob} with its id
+     * @throws IllegalArgumentException if the request is invalid
+     * @throws IllegalStateException if the user already has max-pending-per-user jobs queued or running
+     */
+    public ReportJob submit(GenerateReportRequest request) {
+        if (!request.isValid()) {
+            throw new IllegalArgumentException("Invalid report request: " + request);
+        }
+        String userId = request.getGeneratedBy() != null ? request.getGeneratedBy() : "anonymous";
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), UUID.randomUUID().toString(), userId);
+        String requestJson = toJson(request);
+        jdbcTemplate.update(
+            "INSERT INTO report_job_users (user_id) VALUES (?) ON DUPLICATE KEY UPDATE user_id = user_id", userId);
+        withUserLock(userId, () -> {
+            Integer pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM report_jobs WHERE user_id = ? AND status IN ('queued', 'running')",
+                Integer.class, userId);
+            if (pending != null && pending >= maxPendingPerUser) {
+                throw new IllegalStateException("User " + userId + " already has " + pending
+                    + " report jobs pending; at most " + maxPendingPerUser + " are allowed");
+            }
+            return jdbcTemplate.update("""
+                INSERT INTO report_jobs (id, report_id, user_id, status, request, submitted_at, updated_at)
+                VALUES (?, ?, ?, 'queued', ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                """, job.getId(), job.getReportId(), userId, requestJson);
+        });
+        submitted.increment();
+        System.out.println("Queued report job " + job.getId() + " for " + userId + ": " + request.getTitle());
+
+        // The job is queued either way; a failed dispatch is retried by the next poll
+        tryDispatch();
+        return job;
+    }
+
+    /**
+     * @throws RuntimeException if the job does not exist
+     */
+    public ReportJob getJob(String jobId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT " + JOB_COLUMNS + " FROM report_jobs WHERE id = ?", jobId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Report job not found: " + jobId);
+        }
+        return mapRowToJob(rows.get(0));
+    }
+
+    /** Most recent jobs of a user, newest first. */
+    public List<ReportJob> getJobs(String userId, int limit) {
+        List<ReportJob> jobs = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT " + JOB_COLUMNS + " FROM report_jobs WHERE user_id = ? ORDER BY submitted_at DESC LIMIT ?",
+                userId, limit)) {
+            jobs.add(mapRowToJob(row));
+        }
+        return jobs;
+    }
+
+    /**
+     * Cancel a queued or running job. A running job stops at its next section; its report is not saved.
+     * @return the job after the request
+     */
+    public ReportJob cancel(String jobId) {
+        int dequeued = jdbcTemplate.update("""
+            UPDATE report_jobs SET status = 'cancelled', completed_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ? AND status = 'queued'
+            """, jobId);
+        if (dequeued > 0) {
+            cancelled.increment();
+        } else {
+            jdbcTemplate.update("UPDATE report_jobs SET cancel_requested = TRUE WHERE id = ? AND status = 'running'", jobId);
+            ReportProgress progress = running.get(jobId);
+            if (progress != null) {
+                progress.cancel();
+            }
+        }
+        System.out.println("Cancellation requested for report job " + jobId);
+        return getJob(jobId);
+    }
+
+    @Scheduled(initialDelayString = "${report.jobs.initial-delay-ms:10000}",
+               fixedDelayString = "${report.jobs.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            requeueStaleJobs();
+            dispatch();
+        } catch (RuntimeException e) {
+            System.err.println("Report job poll failed: " + e.getMessage());
+        }
+    }
+
+    /** Write the progress of this instance's running jobs; runs on the heartbeat thread. */
+    void heartbeat() {
+        try {
+            writeProgress();
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled executor task, it would cancel the heartbeat for good
+            System.err.println("Report job heartbeat failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("workers", workers);
+        stats.put("running", running.size());
+        stats.put("maxRunningPerUser", maxRunningPerUser);
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("requeued", requeued.sum());
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Claim the oldest queued jobs for idle workers, skipping users at their running limit.
+     */
+    private synchronized void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        int idle = workers - running.size();
+        if (idle <= 0) {
+            return;
+        }
+
+        Set<String> usersAtLimit = new HashSet<>();
+        List<Map<String, Object>> queued = jdbcTemplate.queryForList("""
+            SELECT id, report_id, user_id, request FROM report_jobs
+            WHERE status = 'queued'
+            ORDER BY submitted_at
+            LIMIT ?
+            """, DISPATCH_SCAN_LIMIT);
+        for (Map<String, Object> row : queued) {
+            if (idle == 0) {
+                break;
+            }
+            String jobId = (String) row.get("id");
+            String userId = (String) row.get("user_id");
+            if (usersAtLimit.contains(userId)) {
+                continue;
+            }
+            Claim claim;
+            try {
+                claim = withUserLock(userId, () -> claim(jobId, userId));
+            } catch (PessimisticLockingFailureException e) {
+                System.err.println("Could not lock report jobs of " + userId + ", leaving " + jobId
+                    + " queued: " + e.getMessage());
+                continue;
+            }
+            if (claim == Claim.USER_AT_LIMIT) {
+                usersAtLimit.add(userId);
+            }
+            if (claim != Claim.CLAIMED) {
+                continue;
+            }
+            idle--;
+
+            ReportProgress progress = new ReportProgress();
+            running.put(jobId, progress);
+            startHeartbeat();
+            String reportId = (String) row.get("report_id");
+            String requestJson = String.valueOf(row.get("request"));
+            pool().execute(() -> runJob(jobId, reportId, requestJson, progress));
+        }
+    }
+
+    private enum Claim { CLAIMED, TAKEN, USER_AT_LIMIT }
+
+    /** Dispatch from outside a poll, where a failure must not reach the caller. */
+    private void tryDispatch() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            System.err.println("Report job dispatch failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run {@code work} in a transaction holding the lock on the user's report_job_users row, so
+     * checks of the user's jobs and the writes that depend on them are not interleaved with
+     * another instance's. The row lock is taken even when the user has no jobs, unlike a locking
+     * read of report_jobs, whose gap locks do not exclude each other. Deadlocks and lock wait
+     * timeouts are retried up to {@link #LOCK_ATTEMPTS} times in all.
+     * @throws PessimisticLockingFailureException if the lock could not be taken on the last try
+     */
+    private <T> T withUserLock(String userId, Supplier<T> work) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> {
+                    List<String> locked = jdbcTemplate.queryForList(
+                        "SELECT user_id FROM report_job_users WHERE user_id = ? FOR UPDATE", String.class, userId);
+                    if (locked.isEmpty()) {
+                        // Users whose jobs predate the table and were not backfilled
+                        jdbcTemplate.update("INSERT INTO report_job_users (user_id) VALUES (?)", userId);
+                    }
+                    return work.get();
+                });
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= LOCK_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /** Claim a queued job unless its user is at the running limit; runs under the user's lock. */
+    private Claim claim(String jobId, String userId) {
+        Integer runningJobs = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM report_jobs WHERE user_id = ? AND status = 'running'",
+            Integer.class, userId);
+        if (runningJobs != null && runningJobs >= maxRunningPerUser) {
+            return Claim.USER_AT_LIMIT;
+        }
+        // Another instance may have claimed the job since it was read
+        int claimed = jdbcTemplate.update("""
+            UPDATE report_jobs
+            SET status = 'running', started_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ? AND status = 'queued'
+            """, jobId);
+        return claimed > 0 ? Claim.CLAIMED : Claim.TAKEN;
+    }
+
+    private void runJob(String jobId, String reportId, String requestJson, ReportProgress progress) {
+        try {
+            GenerateReportRequest request = MAPPER.readValue(requestJson, GenerateReportRequest.class);
+            reportService.generateReport(request, reportId, progress);
+            finishJob(jobId, progress, "completed", null);
+            completed.increment();
+        } catch (CancellationException e) {
+            finishJob(jobId, progress, "cancelled", null);
+            cancelled.increment();
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("Report job " + jobId + " failed: " + cause.getMessage());
+            finishJob(jobId, progress, "failed", cause.getMessage());
+            failed.increment();
+        } finally {
+            running.remove(jobId);
+            tryDispatch();
+        }
+    }
+
+    private void finishJob(String jobId, ReportProgress progress, String status, String errorMessage) {
+        try {
+            jdbcTemplate.update("""
+                UPDATE report_jobs
+                SET status = ?, rows_scanned = ?, sections_done = ?, sections_total = ?, current_section = ?,
+                    error_message = ?, completed_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP
+                WHERE id = ?
+                """, status, progress.getRowsScanned(), progress.getSectionsDone(), progress.getSectionsTotal(),
+                progress.getCurrentSection(), errorMessage, jobId);
+        } catch (RuntimeException e) {
+            // The row stays running and is picked up again once it goes stale
+            System.err.println("Failed to record " + status + " for report job " + jobId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the progress of this instance's running jobs. The update also refreshes updated_at and
+     * matches nothing once a cancellation was requested from another instance.
+     */
+    private void writeProgress() {
+        for (Map.Entry<String, ReportProgress> entry : running.entrySet()) {
+            ReportProgress progress = entry.getValue();
+            int written = jdbcTemplate.update("""
+                UPDATE report_jobs
+                SET rows_scanned = ?, sections_done = ?, sections_total = ?, current_section = ?,
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE id = ? AND status = 'running' AND cancel_requested = FALSE
+                """, progress.getRowsScanned(), progress.getSectionsDone(), progress.getSectionsTotal(),
+                progress.getCurrentSection(), entry.getKey());
+            if (written == 0) {
+                progress.cancel();
+            }
+        }
+    }
+
+    private void requeueStaleJobs() {
+        String stale = " WHERE status = 'running' AND updated_at < DATE_SUB(CURRENT_TIMESTAMP, INTERVAL ? MINUTE)";
+        int dropped = jdbcTemplate.update(
+            "UPDATE report_jobs SET status = 'cancelled', completed_at = CURRENT_TIMESTAMP" + stale
+                + " AND cancel_requested = TRUE", staleAfterMinutes);
+        int requeuedJobs = jdbcTemplate.update(
+            "UPDATE report_jobs SET status = 'queued', started_at = NULL, updated_at = CURRENT_TIMESTAMP" + stale,
+            staleAfterMinutes);
+        if (dropped + requeuedJobs > 0) {
+            requeued.add(requeuedJobs);
+            cancelled.add(dropped);
+            System.out.println("Requeued " + requeuedJobs + " and cancelled " + dropped + " stale report jobs");
+        }
+    }
+
+    private synchronized void startHeartbeat() {
+        if (heartbeat == null) {
+            heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "report-job-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            heartbeat.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private ExecutorService pool() {
+        if (pool == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(workers, runnable -> {
+                Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return pool;
+    }
+
+    private ReportJob mapRowToJob(Map<String, Object> row) {
+        ReportJob job = new ReportJob();
+        job.setId((String) row.get("id"));
+        job.setReportId((String) row.get("report_id"));
+        job.setUserId((String) row.get("user_id"));
+        job.setStatus((String) row.get("status"));
+        job.setRowsScanned(((Number) row.get("rows_scanned")).longValue());
+        job.setSectionsDone(((Number) row.get("sections_done")).intValue());
+        job.setSectionsTotal(((Number) row.get("sections_total")).intValue());
+        job.setCurrentSection((String) row.get("current_section"));
+        Object cancelRequested = row.get("cancel_requested");
+        job.setCancelRequested(cancelRequested instanceof Boolean flag ? flag
+            : cancelRequested instanceof Number number && number.intValue() != 0);
+        job.setErrorMessage((String) row.get("error_message"));
+        job.setSubmittedAt(row.get("submitted_at").toString());
+        if (row.get("started_at") != null) {
+            job.setStartedAt(row.get("started_at").toString());
+        }
+        if (row.get("completed_at") != null) {
+            job.setCompletedAt(row.get("completed_at").toString());
+        }
+
+        // Progress of a job running here is fresher than the last write
+        ReportProgress progress = running.get(job.getId());
+        if (progress != null && "running".equals(job.getStatus())) {
+            job.setRowsScanned(progress.getRowsScanned());
+            job.setSectionsDone(progress.getSectionsDone());
+            job.setSectionsTotal(progress.getSectionsTotal());
+            job.setCurrentSection(progress.getCurrentSection());
+            job.setCancelRequested(job.isCancelRequested() || progress.isCancelled());
+        }
+        return job;
+    }
+
+    private static String toJson(GenerateReportRequest request) {
+        try {
+            return MAPPER.writeValueAsString(request);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Report request cannot be stored: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dashboard.service.impl;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of one report generation. The generating thread advances it section by section;
+ * other threads read it and may {@link #cancel} it, which stops generation at the next section.
+ */
+public class ReportProgress {
+
+    private final AtomicLong rowsScanned = new AtomicLong();
+    private volatile int sectionsDone;
+    private volatile int sectionsTotal;
+    private volatile String currentSection;
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() { return cancelled; }
+    public long getRowsScanned() { return rowsScanned.get(); }
+    public int getSectionsDone() { return sectionsDone; }
+    public int getSectionsTotal() { return sectionsTotal; }
+    public String getCurrentSection() { return currentSection; }
+
+    void start(int sections) {
+        sectionsTotal = sections;
+    }
+
+    /**
+     * @throws CancellationException if the generation was cancelled
+     */
+    void startSection(String section) {
+        if (cancelled) {
+            throw new CancellationException("Report generation cancelled before " + section);
+        }
+        currentSection = section;
+    }
+
+    void sectionDone() {
+        sectionsDone++;
+    }
+
+    void addRowsScanned(long rows) {
+        rowsScanned.addAndGet(rows);
+    }
+}
@@ -0,0 +1,518 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.dto.report.GenerateReportRequest;
+import com.dashboard.model.report.Report;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the recurring reports in report_schedules.
+ *
+ * <ul>
+ *   <li>{@link #poll} claims due schedules for idle workers inside a transaction with
+ *       SELECT ... FOR UPDATE SKIP LOCKED, leasing each to this instance, so replicas never run
+ *       the same occurrence twice. While schedules run here, a thread of their own renews their
+ *       leases every report.schedules.lease-renew-interval-ms, independently of the shared
+ *       scheduler; a lease that expires (its instance died) lets another replica run the
+ *       occurrence.</li>
+ *   <li>Reports are generated on a pool of report.schedules.workers threads and exported in the
+ *       schedule's delivery format into report.schedules.delivery-dir/&lt;schedule id&gt;/, with
+ *       a manifest of the recipients next to each file.</li>
+ *   <li>Occurrences fall at the start date's time of day (06:00 for a bare date) in the
+ *       schedule's timezone, so they keep their local time across DST changes. After a run the
+ *       schedule moves to its first occurrence after now; occurrences missed while no instance
+ *       was running are not replayed.</li>
+ * </ul>
+ */
+@Component
+public class ReportScheduler {
+
+    static final LocalTime DEFAULT_RUN_TIME = LocalTime.of(6, 0);
+    private static final int INITIALIZE_BATCH_SIZE = 100;
+
+    private static final DateTimeFormatter SQL_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportServiceImpl reportService;
+
+    @Autowired
+    private ReportExporter reportExporter;
+
+    @Value("${report.schedules.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${report.schedules.workers:2}")
+    private int workers = 2;
+
+    @Value("${report.schedules.lease-minutes:10}")
+    private int leaseMinutes = 10;
+
+    @Value("${report.schedules.lease-renew-interval-ms:30000}")
+    private long leaseRenewIntervalMs = 30000;
+
+    @Value("${report.schedules.delivery-dir:report-deliveries}")
+    private String deliveryDir = "report-deliveries";
+
+    private final String instanceId = createInstanceId();
+    private final Map<String, Long> running = new ConcurrentHashMap<>();
+    private final Map<String, ScheduleTimings> timings = new ConcurrentHashMap<>();
+    private ExecutorService pool;
+    private ScheduledExecutorService leaseRenewal;
+
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /** A claimed occurrence of a schedule; scheduledFor is UTC. */
+    record DueSchedule(String id, String name, String reportConfig, String frequency, String startDate,
+                       String endDate, String deliveryFormat, String timezone, String createdBy,
+                       String recipients, LocalDateTime scheduledFor) {}
+
+    @Scheduled(initialDelayString = "${report.schedules.initial-delay-ms:30000}",
+               fixedDelayString = "${report.schedules.poll-interval-ms:30000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            initializeNextRuns();
+            dispatch();
+        } catch (RuntimeException e) {
+            System.err.println("Report schedule poll failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * First occurrence of a schedule strictly after {@code after}.
+     * @param startDate local date (runs at {@link #DEFAULT_RUN_TIME}) or date-time in the zone
+     * @param endDate last local date on which the schedule may run, or null
+     * @return the occurrence, or null once the schedule has passed its end date
+     * @throws IllegalArgumentException if the frequency or a date is invalid
+     */
+    static Instant nextRun(String frequency, String startDate, String endDate, ZoneId zone, Instant after) {
+        LocalDateTime anchor = parseStart(startDate);
+        LocalDateTime afterLocal = LocalDateTime.ofInstant(after, zone);
+        long periods = switch (frequency) {
+            case "daily" -> ChronoUnit.DAYS.between(anchor, afterLocal);
+            case "weekly" -> ChronoUnit.WEEKS.between(anchor, afterLocal);
+            case "monthly" -> ChronoUnit.MONTHS.between(anchor, afterLocal);
+            case "quarterly" -> ChronoUnit.MONTHS.between(anchor, afterLocal) / 3;
+            default -> throw new IllegalArgumentException("Unknown schedule frequency: " + frequency);
+        };
+        // Start a period early: DST shifts can move the estimate by an hour either way
+        long period = Math.max(0, periods - 1);
+        ZonedDateTime occurrence = occurrence(anchor, frequency, period, zone);
+        while (!occurrence.toInstant().isAfter(after)) {
+            occurrence = occurrence(anchor, frequency, ++period, zone);
+        }
+        if (endDate != null && !endDate.isBlank() && occurrence.toLocalDate().isAfter(parseStart(endDate).toLocalDate())) {
+            return null;
+        }
+        return occurrence.toInstant();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the timezone is not a known zone id
+     */
+    static ZoneId parseZone(String timezone) {
+        try {
+            return ZoneId.of(timezone == null || timezone.isBlank() ? "UTC" : timezone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown timezone: " + timezone, e);
+        }
+    }
+
+    /** UTC wall time as written to the DATETIME columns of report_schedules. */
+    static String toSqlUtc(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneOffset.UTC).format(SQL_DATE_TIME);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (leaseRenewal != null) {
+            leaseRenewal.shutdownNow();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("instanceId", instanceId);
+        stats.put("workers", workers);
+        stats.put("running", running.size());
+        stats.put("claimed", claimed.sum());
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        Map<String, Object> schedules = new TreeMap<>();
+        timings.forEach((scheduleId, timing) -> schedules.put(scheduleId, timing.toMap()));
+        stats.put("schedules", schedules);
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Claim due schedules for idle workers.
+     */
+    private synchronized void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        int idle = workers - running.size();
+        if (idle <= 0) {
+            return;
+        }
+        for (DueSchedule schedule : claimDueSchedules(idle)) {
+            claimed.increment();
+            running.put(schedule.id(), System.currentTimeMillis());
+            startLeaseRenewal();
+            pool().execute(() -> {
+                try {
+                    runSchedule(schedule);
+                } finally {
+                    running.remove(schedule.id());
+                    dispatch();
+                }
+            });
+        }
+    }
+
+    private List<DueSchedule> claimDueSchedules(int limit) {
+        List<DueSchedule> due = jdbcTemplate.execute((ConnectionCallback<List<DueSchedule>>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                // Rows locked by another instance's claim are skipped rather than waited for
+                List<DueSchedule> schedules = selectDueForUpdate(connection, limit);
+                try (PreparedStatement lease = connection.prepareStatement("""
+                        UPDATE report_schedules
+                        SET locked_by = ?, locked_until = DATE_ADD(UTC_TIMESTAMP(), INTERVAL ? MINUTE)
+                        WHERE id = ?
+                        """)) {
+                    for (DueSchedule schedule : schedules) {
+                        lease.setString(1, instanceId);
+                        lease.setInt(2, leaseMinutes);
+                        lease.setString(3, schedule.id());
+                        lease.addBatch();
+                    }
+                    if (!schedules.isEmpty()) {
+                        lease.executeBatch();
+                    }
+                }
+                connection.commit();
+                return schedules;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        return due != null ? due : List.of();
+    }
+
+    private List<DueSchedule> selectDueForUpdate(Connection connection, int limit) throws SQLException {
+        List<DueSchedule> schedules = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement("""
+                SELECT id, name, report_config, frequency, start_date, end_date, delivery_format, timezone,
+                       created_by, recipients, next_run_at
+                FROM report_schedules
+                WHERE is_active = TRUE AND next_run_at <= UTC_TIMESTAMP()
+                  AND (locked_until IS NULL OR locked_until < UTC_TIMESTAMP())
+                ORDER BY next_run_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+                """)) {
+            select.setInt(1, limit);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    schedules.add(new DueSchedule(rs.getString("id"), rs.getString("name"),
+                        rs.getString("report_config"), rs.getString("frequency"), rs.getString("start_date"),
+                        rs.getString("end_date"), rs.getString("delivery_format"), rs.getString("timezone"),
+                        rs.getString("created_by"), rs.getString("recipients"),
+                        parseSqlDateTime(rs.getString("next_run_at"))));
+                }
+            }
+        }
+        return schedules;
+    }
+
+    /**
+     * Generate and deliver one occurrence, then release the lease and move the schedule on.
+     */
+    void runSchedule(DueSchedule schedule) {
+        long startTime = System.currentTimeMillis();
+        long lagMs = Math.max(0, startTime - schedule.scheduledFor().toInstant(ZoneOffset.UTC).toEpochMilli());
+        String reportId = null;
+        String outputPath = null;
+        String error = null;
+        ZoneId zone = ZoneOffset.UTC;
+        try {
+            zone = parseZone(schedule.timezone());
+            GenerateReportRequest request = MAPPER.readValue(schedule.reportConfig(), GenerateReportRequest.class);
+            if (request.getGeneratedBy() == null) {
+                request.setGeneratedBy(schedule.createdBy());
+            }
+            Report report = reportService.generateReport(request);
+            reportId = report.getId();
+            LocalDate runDate = LocalDate.ofInstant(schedule.scheduledFor().toInstant(ZoneOffset.UTC), zone);
+            outputPath = deliver(schedule, report, runDate).toString();
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            error = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+        }
+        long durationMs = System.currentTimeMillis() - startTime;
+
+        // A failed occurrence is not retried; the schedule moves on to its next occurrence
+        Instant next = null;
+        try {
+            Instant after = Instant.ofEpochMilli(Math.max(System.currentTimeMillis(),
+                schedule.scheduledFor().toInstant(ZoneOffset.UTC).toEpochMilli()));
+            next = nextRun(schedule.frequency(), schedule.startDate(), schedule.endDate(), zone, after);
+        } catch (IllegalArgumentException e) {
+            error = error != null ? error : e.getMessage();
+        }
+
+        timings.computeIfAbsent(schedule.id(), id -> new ScheduleTimings()).record(lagMs, durationMs, error == null);
+        if (error == null) {
+            completed.increment();
+            System.out.println("Ran report schedule " + schedule.id() + " (" + schedule.name() + ") " + lagMs
+                + "ms late in " + durationMs + "ms; next run " + (next != null ? next : "none"));
+        } else {
+            failed.increment();
+            System.err.println("Report schedule " + schedule.id() + " failed: " + error);
+        }
+
+        try {
+            jdbcTemplate.update("""
+                UPDATE report_schedules
+                SET next_run_at = ?, is_active = ?, locked_by = NULL, locked_until = NULL,
+                    last_run_at = ?, last_status = ?, last_report_id = ?, last_output_path = ?, last_error = ?,
+                    last_lag_ms = ?, last_duration_ms = ?, run_count = run_count + 1,
+                    failure_count = failure_count + ?
+                WHERE id = ? AND locked_by = ?
+                """, toSqlUtc(next), next != null, schedule.scheduledFor().format(SQL_DATE_TIME),
+                error == null ? "completed" : "failed", reportId, outputPath, error, lagMs, durationMs,
+                error == null ? 0 : 1, schedule.id(), instanceId);
+        } catch (RuntimeException e) {
+            // The lease expires and the occurrence runs again elsewhere
+            System.err.println("Failed to record run of report schedule " + schedule.id() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Export the report into the schedule's delivery directory. The file is written under a
+     * temporary name and moved into place, so a reader never sees a partial export.
+     */
+    private Path deliver(DueSchedule schedule, Report report, LocalDate runDate) throws IOException {
+        Path directory = Paths.get(deliveryDir, schedule.id().replaceAll("[^a-zA-Z0-9-_]", "_"));
+        Files.createDirectories(directory);
+        String fileName = reportExporter.getFileName(report, schedule.deliveryFormat(), runDate);
+        Path target = directory.resolve(fileName);
+        Path partial = directory.resolve(fileName + ".part");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+            reportExporter.export(report, schedule.deliveryFormat(), out, false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("scheduleId", schedule.id());
+        manifest.put("scheduleName", schedule.name());
+        manifest.put("reportId", report.getId());
+        manifest.put("file", fileName);
+        manifest.put("format", schedule.deliveryFormat());
+        manifest.put("scheduledFor", schedule.scheduledFor().toInstant(ZoneOffset.UTC).toString());
+        manifest.put("timezone", schedule.timezone());
+        manifest.put("recipients", schedule.recipients() != null ? MAPPER.readValue(schedule.recipients(), List.class) : List.of());
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(directory.resolve(fileName + ".json").toFile(), manifest);
+        return target;
+    }
+
+    /**
+     * Extend the leases of this instance's running schedules, so long reports are not claimed again.
+     */
+    private synchronized void startLeaseRenewal() {
+        if (leaseRenewal == null) {
+            leaseRenewal = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "report-schedule-lease");
+                thread.setDaemon(true);
+                return thread;
+            });
+            leaseRenewal.scheduleWithFixedDelay(this::renewLeasesQuietly, leaseRenewIntervalMs, leaseRenewIntervalMs,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void renewLeasesQuietly() {
+        try {
+            renewLeases();
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled executor task, it would stop renewals for good
+            System.err.println("Report schedule lease renewal failed: " + e.getMessage());
+        }
+    }
+
+    void renewLeases() {
+        if (running.isEmpty()) {
+            return;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(leaseMinutes);
+        params.add(instanceId);
+        params.addAll(running.keySet());
+        jdbcTemplate.update("UPDATE report_schedules SET locked_until = DATE_ADD(UTC_TIMESTAMP(), INTERVAL ? MINUTE)"
+            + " WHERE locked_by = ? AND id IN (" + String.join(",", Collections.nCopies(running.size(), "?")) + ")",
+            params.toArray());
+    }
+
+    /**
+     * Compute the first run of active schedules that do not have one yet (created before
+     * next_run_at was recorded). Schedules already past their end date are deactivated.
+     */
+    private void initializeNextRuns() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+            SELECT id, frequency, start_date, end_date, timezone FROM report_schedules
+            WHERE is_active = TRUE AND next_run_at IS NULL
+            LIMIT ?
+            """, INITIALIZE_BATCH_SIZE);
+        for (Map<String, Object> row : rows) {
+            String scheduleId = (String) row.get("id");
+            try {
+                Instant next = nextRun((String) row.get("frequency"), (String) row.get("start_date"),
+                    (String) row.get("end_date"), parseZone((String) row.get("timezone")), Instant.now());
+                jdbcTemplate.update("UPDATE report_schedules SET next_run_at = ?, is_active = ? WHERE id = ? AND next_run_at IS NULL",
+                    toSqlUtc(next), next != null, scheduleId);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Deactivating report schedule " + scheduleId + ": " + e.getMessage());
+                jdbcTemplate.update("UPDATE report_schedules SET is_active = FALSE, last_error = ? WHERE id = ?",
+                    e.getMessage(), scheduleId);
+            }
+        }
+    }
+
+    private static ZonedDateTime occurrence(LocalDateTime anchor, String frequency, long period, ZoneId zone) {
+        // Always offset from the anchor, so a schedule starting on the 31st keeps returning to month end
+        LocalDateTime local = switch (frequency) {
+            case "daily" -> anchor.plusDays(period);
+            case "weekly" -> anchor.plusWeeks(period);
+            case "monthly" -> anchor.plusMonths(period);
+            default -> anchor.plusMonths(period * 3);
+        };
+        return local.atZone(zone);
+    }
+
+    private static LocalDateTime parseStart(String date) {
+        if (date == null || date.isBlank()) {
+            throw new IllegalArgumentException("Schedule start date is required");
+        }
+        try {
+            return date.length() <= 10 ? LocalDate.parse(date).atTime(DEFAULT_RUN_TIME) : parseSqlDateTime(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid schedule date: " + date, e);
+        }
+    }
+
+    /** Accepts both "2025-01-15 06:00:00" (JDBC) and "2025-01-15T06:00" (ISO). */
+    private static LocalDateTime parseSqlDateTime(String value) {
+        return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+    }
+
+    private ExecutorService pool() {
+        if (pool == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(workers, runnable -> {
+                Thread thread = new Thread(runnable, "report-schedule-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return pool;
+    }
+
+    private static String createInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "unknown";
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /** Lag and duration of the runs of one schedule on this instance. */
+    private static final class ScheduleTimings {
+        private long runs;
+        private long failures;
+        private long lastLagMs;
+        private long maxLagMs;
+        private long lastDurationMs;
+        private long maxDurationMs;
+        private long totalDurationMs;
+
+        synchronized void record(long lagMs, long durationMs, boolean succeeded) {
+            runs++;
+            if (!succeeded) {
+                failures++;
+            }
+            lastLagMs = lagMs;
+            maxLagMs = Math.max(maxLagMs, lagMs);
+            lastDurationMs = durationMs;
+            maxDurationMs = Math.max(maxDurationMs, durationMs);
+            totalDurationMs += durationMs;
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("runs", runs);
+            map.put("failures", failures);
+            map.put("lastLagMs", lastLagMs);
+            map.put("maxLagMs", maxLagMs);
+            map.put("lastDurationMs", lastDurationMs);
+            map.put("maxDurationMs", maxDurationMs);
+            map.put("avgDurationMs", runs == 0 ? 0 : totalDurationMs / runs);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.dashboard.service.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing for read-only service calls: while a call is running, identical
+ * calls (same operation and arguments) wait for it and receive its result or exception
+ * instead of running the same queries again. Nothing is kept once the call completes, so
+ * a call that starts afterwards always computes fresh data.
+ *
+ * Coalesced callers share one result object, so it must not be modified. Arguments must
+ * have value equality (strings, numbers, dates, lists of those).
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Run {@code computation}, or wait for an identical call that is already running.
+     * @param operation Name of the service method, e.g. "analytics.analyzeTrends"
+     * @param arguments Everything the result depends on; nulls are allowed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, List<?> arguments, Supplier<T> computation) {
+        Counters opCounters = counters.computeIfAbsent(operation, op -> new Counters());
+        opCounters.calls.increment();
+
+        List<Object> key = new ArrayList<>(arguments.size() + 1);
+        key.add(operation);
+        key.addAll(arguments);
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            opCounters.deduplicated.increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        try {
+            T result = computation.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long calls = 0;
+        long deduplicated = 0;
+        Map<String, Object> byOperation = new TreeMap<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            long opCalls = entry.getValue().calls.sum();
+            long opDeduplicated = entry.getValue().deduplicated.sum();
+            byOperation.put(entry.getKey(), Map.of("calls", opCalls, "deduplicated", opDeduplicated));
+            calls += opCalls;
+            deduplicated += opDeduplicated;
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("calls", calls);
+        stats.put("deduplicated", deduplicated);
+        stats.put("deduplicatedRatio", calls > 0 ? (double) deduplicated / calls : 0.0);
+        stats.put("inFlight", inFlight.size());
+        stats.put("operations", byOperation);
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder deduplicated = new LongAdder();
+    }
+}
@@ -1,27 +1,73 @@
 package com.dashboard.service.impl;
 
 import com.dashboard.templates.ScenarioTemplates;
+import com.dashboard.util.ScenarioUsageBatch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Generates scenario sessions: the session row, a month of daily usage with planted
+ * inefficiencies, grading keys and summary metadata.
+ *
+ * Usage rows are generated into reusable {@link ScenarioUsageBatch} chunks on the calling thread
+ * and inserted by a writer task, one batch statement per chunk, so memory stays bounded by
+ * (queue-capacity + 2) chunks whatever the template size. Writers run on one pool of
+ * scenario.provisioning.parallelism threads shared by all sessions and shut down with the
+ * application context; a session whose writer has not started yet waits for a free batch
+ * as it would for a slow writer. Chunks are committed as they are
+ * written; if any step fails the session row is deleted, which cascades to its usage data,
+ * grading keys and metadata.
+ */
 @Service
-@Transactional
 public class ScenarioDataService {
     
+    static final int DEFAULT_BATCH_SIZE = 2000;
+    static final int DEFAULT_QUEUE_CAPACITY = 2;
+    private static final long QUEUE_POLL_MS = 100;
+
+    private static final String INSERT_USAGE_SQL = "INSERT INTO scenario_usage_data (session_id, team_id, service_name, " +
+                    "resource_type, resource_id, cost, usage_amount, usage_unit, date, metadata) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Marks the end of the generated rows for the writer thread
+    private static final ScenarioUsageBatch END_OF_STREAM = new ScenarioUsageBatch(1);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
-    private static final Random RANDOM = new Random();
-    
+    @Value("${scenario.generation.batch-size:2000}")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    @Value("${scenario.generation.queue-capacity:2}")
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    @Value("${scenario.provisioning.parallelism:8}")
+    private int writerThreads = ScenarioProvisioningService.DEFAULT_PARALLELISM;
+
+    private ExecutorService writerPool;
+
     // Resource type mappings for different scenario types
     private static final Map<String, List<String>> SCENARIO_RESOURCES = Map.of(
         "rightsizing", List.of("EC2 Instance", "RDS Instance", "ElastiCache Node", "ECS Task"),
@@ -46,8 +92,22 @@ public class ScenarioDataService {
         "Auto Scaling Group", "EC2"
     );
     
+    // Daily base cost per resource type, before difficulty scaling
+    private static final Map<String, Double> BASE_COSTS = Map.of(
+        "EC2 Instance", 50.0,
+        "RDS Instance", 75.0,
+        "S3 Bucket", 10.0,
+        "EBS Volume", 5.0,
+        "Lambda Function", 15.0,
+        "NAT Gateway", 45.0,
+        "Load Balancer", 25.0,
+        "ElastiCache Node", 35.0
+    );
+    
     /**
-     * Generate a complete scenario session with data and grading keys
+     * Generate a complete scenario session with data and grading keys. The data is drawn from a
+     * seed derived from the template and student, so a student regenerating the same template
+     * gets the same usage pattern (dated from today).
      */
     public String generateScenarioSession(String templateId, String studentIdentifier) {
         // Get scenario template
@@ -57,17 +117,26 @@ public class ScenarioDataService {
         }
         
         // Create session
+        long startTime = System.currentTimeMillis();
         String sessionId = UUID.randomUUID().toString();
         createScenarioSession(sessionId, template, studentIdentifier);
         
-        // Generate usage data with intentional inefficiencies
-        generateScenarioData(sessionId, template);
-        
-        // Generate grading keys
-        generateGradingKeys(sessionId, template);
-        
-        // Generate metadata
-        generateScenarioMetadata(sessionId, template);
+        try {
+            // Generate usage data with intentional inefficiencies
+            long usageRows = generateScenarioData(sessionId, template, new Random(studentSeed(templateId, studentIdentifier)));
+            
+            // Generate grading keys
+            generateGradingKeys(sessionId, template);
+            
+            // Generate metadata
+            generateScenarioMetadata(sessionId, template);
+            
+            System.out.println("Generated scenario session " + sessionId + " (" + templateId + ", " + usageRows
+                + " usage rows) in " + (System.currentTimeMillis() - startTime) + "ms");
+        } catch (RuntimeException e) {
+            deleteScenarioSession(sessionId);
+            throw e;
+        }
         
         return sessionId;
     }
@@ -91,16 +160,45 @@ public class ScenarioDataService {
         );
     }
     
+    /**
+     * Deterministic seed for a student's copy of a template
+     */
+    static long studentSeed(String templateId, String studentIdentifier) {
+        long hash = 1125899906842597L;
+        String key = templateId + "|" + studentIdentifier;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        // Spread the bits so identifiers differing only in their last characters get unrelated streams
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+    
+    /**
+     * Remove a partially generated session; usage data, grading keys and metadata cascade
+     */
+    private void deleteScenarioSession(String sessionId) {
+        try {
+            jdbcTemplate.update("DELETE FROM scenario_sessions WHERE session_id = ?", sessionId);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to clean up scenario session " + sessionId + ": " + e.getMessage());
+        }
+    }
+    
     /**
      * Generate realistic usage data with known inefficiencies
+     * @return number of usage rows inserted
      */
-    private void generateScenarioData(String sessionId, Map<String, Object> template) {
+    private long generateScenarioData(String sessionId, Map<String, Object> template, Random random) {
         String scenarioType = (String) template.get("type");
         String difficulty = (String) template.get("difficulty");
         
         // Determine date range (last 30 days)
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(30);
+        int startDay = (int) startDate.toEpochDay();
+        int endDay = (int) endDate.toEpochDay();
         
         // Generate teams based on difficulty
         List<String> teams = generateTeams(difficulty);
@@ -109,33 +207,54 @@ public class ScenarioDataService {
         List<String> resourceTypes = SCENARIO_RESOURCES.getOrDefault(scenarioType, 
             List.of("EC2 Instance", "S3 Bucket", "RDS Instance"));
         
-        // Generate usage records with inefficiencies
-        List<Map<String, Object>> usageRecords = new ArrayList<>();
+        BlockingQueue<ScenarioUsageBatch> fullBatches = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ScenarioUsageBatch> freeBatches = new ArrayBlockingQueue<>(queueCapacity + 2);
+        for (int i = 0; i < queueCapacity + 2; i++) {
+            freeBatches.add(new ScenarioUsageBatch(batchSize));
+        }
         
-        for (String team : teams) {
-            for (String resourceType : resourceTypes) {
-                int resourceCount = getResourceCount(difficulty, resourceType);
-                
-                for (int i = 0; i < resourceCount; i++) {
-                    String resourceId = generateResourceId(resourceType, team, i);
+        Future<Long> writer = writerPool().submit(() -> drainBatches(sessionId, fullBatches, freeBatches));
+        try {
+            
+            // Generate usage records with inefficiencies, handing each full chunk to the writer
+            ScenarioUsageBatch batch = takeBatch(freeBatches, writer);
+            for (String team : teams) {
+                for (String resourceType : resourceTypes) {
+                    int resourceCount = getResourceCount(difficulty, resourceType);
                     String service = RESOURCE_SERVICE_MAP.getOrDefault(resourceType, "Other");
+                    double baseCost = generateBaseCost(resourceType, difficulty);
                     
-                    // Generate daily usage records
-                    LocalDate currentDate = startDate;
-                    while (!currentDate.isAfter(endDate)) {
-                        Map<String, Object> record = generateUsageRecord(
-                            sessionId, team, service, resourceType, resourceId, 
-                            currentDate, scenarioType, difficulty
-                        );
-                        usageRecords.add(record);
-                        currentDate = currentDate.plusDays(1);
+                    for (int i = 0; i < resourceCount; i++) {
+                        String resourceId = generateResourceId(resourceType, team, i);
+                        
+                        // Generate daily usage records
+                        for (int day = startDay; day <= endDay; day++) {
+                            addUsageRecord(batch, team, service, resourceType, resourceId, day, baseCost, scenarioType, random);
+                            if (batch.isFull()) {
+                                putBatch(fullBatches, batch, writer);
+                                batch = takeBatch(freeBatches, writer);
+                            }
+                        }
                     }
                 }
             }
+            
+            if (!batch.isEmpty()) {
+                putBatch(fullBatches, batch, writer);
+            }
+            putBatch(fullBatches, END_OF_STREAM, writer);
+            return writer.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to write usage data for scenario session " + sessionId, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating scenario session " + sessionId, e);
+        } finally {
+            writer.cancel(true);
         }
-        
-        // Batch insert usage records
-        batchInsertUsageRecords(usageRecords);
     }
     
     /**
@@ -196,9 +315,7 @@ public class ScenarioDataService {
         config.put("template", template);
         config.put("generatedAt", LocalDateTime.now().toString());
         
-        jdbcTemplate.update(sql, sessionId, avgSavings, 
-            new com.fasterxml.jackson.databind.ObjectMapper().valueToTree(config).toString(), 
-            sessionId);
+        jdbcTemplate.update(sql, sessionId, avgSavings, MAPPER.valueToTree(config).toString(), sessionId);
     }
     
     // Helper methods
@@ -238,48 +355,25 @@ public class ScenarioDataService {
         return String.format("%s-%s-%04d", prefix, team.toLowerCase(), index + 1);
     }
     
-    private Map<String, Object> generateUsageRecord(String sessionId, String team, String service,
-                                                   String resourceType, String resourceId,
-                                                   LocalDate date, String scenarioType, String difficulty) {
-        Map<String, Object> record = new HashMap<>();
-        record.put("session_id", sessionId);
-        record.put("team_id", team);
-        record.put("service_name", service);
-        record.put("resource_type", resourceType);
-        record.put("resource_id", resourceId);
-        record.put("date", date);
-        
+    private void addUsageRecord(ScenarioUsageBatch batch, String team, String service, String resourceType,
+                                String resourceId, int epochDay, double baseCost, String scenarioType,
+                                Random random) {
         // Generate cost with inefficiencies
-        double baseCost = generateBaseCost(resourceType, difficulty);
-        double inefficiencyMultiplier = generateInefficiencyMultiplier(scenarioType, resourceType);
+        double inefficiencyMultiplier = generateInefficiencyMultiplier(scenarioType, resourceType, random);
         double dailyCost = baseCost * inefficiencyMultiplier;
         
         // Add some randomness
-        dailyCost *= (0.8 + RANDOM.nextDouble() * 0.4); // ±20% variation
-        record.put("cost", BigDecimal.valueOf(dailyCost).setScale(2, RoundingMode.HALF_UP));
+        dailyCost *= (0.8 + random.nextDouble() * 0.4); // ±20% variation
         
         // Generate usage metrics
-        Map<String, Object> metadata = generateResourceMetadata(resourceType, scenarioType, inefficiencyMultiplier);
-        record.put("usage_amount", metadata.get("usage_amount"));
-        record.put("usage_unit", metadata.get("usage_unit"));
-        record.put("metadata", new com.fasterxml.jackson.databind.ObjectMapper().valueToTree(metadata).toString());
-        
-        return record;
+        Map<String, Object> metadata = generateResourceMetadata(resourceType, scenarioType, inefficiencyMultiplier, random);
+        batch.addRow(team, service, resourceType, resourceId, Math.round(dailyCost * 100),
+            (Double) metadata.get("usage_amount"), (String) metadata.get("usage_unit"), epochDay,
+            MAPPER.valueToTree(metadata).toString());
     }
     
     private double generateBaseCost(String resourceType, String difficulty) {
-        Map<String, Double> baseCosts = Map.of(
-            "EC2 Instance", 50.0,
-            "RDS Instance", 75.0,
-            "S3 Bucket", 10.0,
-            "EBS Volume", 5.0,
-            "Lambda Function", 15.0,
-            "NAT Gateway", 45.0,
-            "Load Balancer", 25.0,
-            "ElastiCache Node", 35.0
-        );
-        
-        double base = baseCosts.getOrDefault(resourceType, 20.0);
+        double base = BASE_COSTS.getOrDefault(resourceType, 20.0);
         
         // Scale by difficulty
         switch (difficulty) {
@@ -294,14 +388,14 @@ public class ScenarioDataService {
         return base;
     }
     
-    private double generateInefficiencyMultiplier(String scenarioType, String resourceType) {
+    private double generateInefficiencyMultiplier(String scenarioType, String resourceType, Random random) {
         switch (scenarioType) {
             case "rightsizing":
                 // Oversized resources
                 return resourceType.contains("Instance") ? 2.5 : 1.2;
             case "cost_optimization":
                 // Unused or underutilized resources
-                return RANDOM.nextDouble() < 0.3 ? 0.1 : 1.3;
+                return random.nextDouble() < 0.3 ? 0.1 : 1.3;
             case "reserved_instances":
                 // On-demand pricing when RI would be better
                 return 1.5;
@@ -316,7 +410,8 @@ public class ScenarioDataService {
         }
     }
     
-    private Map<String, Object> generateResourceMetadata(String resourceType, String scenarioType, double inefficiency) {
+    private Map<String, Object> generateResourceMetadata(String resourceType, String scenarioType, double inefficiency,
+                                                         Random random) {
         Map<String, Object> metadata = new HashMap<>();
         
         switch (resourceType) {
@@ -328,9 +423,9 @@ public class ScenarioDataService {
                 metadata.put("usage_unit", "hours");
                 break;
             case "S3 Bucket":
-                double storage = 100 + RANDOM.nextInt(900);
+                double storage = 100 + random.nextInt(900);
                 metadata.put("storage_gb", storage);
-                metadata.put("requests", RANDOM.nextInt(10000));
+                metadata.put("requests", random.nextInt(10000));
                 metadata.put("usage_amount", storage);
                 metadata.put("usage_unit", "GB");
                 break;
@@ -398,24 +493,91 @@ public class ScenarioDataService {
         return key;
     }
     
-    private void batchInsertUsageRecords(List<Map<String, Object>> records) {
-        String sql = "INSERT INTO scenario_usage_data (session_id, team_id, service_name, resource_type, " +
-                    "resource_id, cost, usage_amount, usage_unit, date, metadata) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        jdbcTemplate.batchUpdate(sql, records, records.size(), (ps, record) -> {
-            ps.setString(1, (String) record.get("session_id"));
-            ps.setString(2, (String) record.get("team_id"));
-            ps.setString(3, (String) record.get("service_name"));
-            ps.setString(4, (String) record.get("resource_type"));
-            ps.setString(5, (String) record.get("resource_id"));
-            ps.setBigDecimal(6, (BigDecimal) record.get("cost"));
-            ps.setDouble(7, (Double) record.get("usage_amount"));
-            ps.setString(8, (String) record.get("usage_unit"));
-            ps.setDate(9, java.sql.Date.valueOf((LocalDate) record.get("date")));
-            ps.setString(10, (String) record.get("metadata"));
+    /**
+     * Writer loop: insert each full chunk as one batch statement and return its buffer to the pool.
+     * @return rows inserted
+     */
+    private long drainBatches(String sessionId, BlockingQueue<ScenarioUsageBatch> fullBatches,
+                              BlockingQueue<ScenarioUsageBatch> freeBatches) throws InterruptedException {
+        long inserted = 0;
+        while (true) {
+            ScenarioUsageBatch batch = fullBatches.take();
+            if (batch == END_OF_STREAM) {
+                return inserted;
+            }
+            insertUsageBatch(sessionId, batch);
+            inserted += batch.size();
+            freeBatches.put(batch);
+        }
+    }
+    
+    private void insertUsageBatch(String sessionId, ScenarioUsageBatch batch) {
+        jdbcTemplate.batchUpdate(INSERT_USAGE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int row) throws SQLException {
+                ps.setString(1, sessionId);
+                ps.setString(2, batch.getTeamId(row));
+                ps.setString(3, batch.getServiceName(row));
+                ps.setString(4, batch.getResourceType(row));
+                ps.setString(5, batch.getResourceId(row));
+                ps.setBigDecimal(6, batch.getCost(row));
+                ps.setDouble(7, batch.getUsageAmount(row));
+                ps.setString(8, batch.getUsageUnit(row));
+                ps.setDate(9, java.sql.Date.valueOf(batch.getDate(row)));
+                ps.setString(10, batch.getMetadata(row));
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
         });
     }
     
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (writerPool != null) {
+            writerPool.shutdownNow();
+        }
+    }
+    
+    private synchronized ExecutorService writerPool() {
+        if (writerPool == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            writerPool = Executors.newFixedThreadPool(Math.max(1, writerThreads), runnable -> {
+                Thread thread = new Thread(runnable, "scenario-usage-writer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writerPool;
+    }
+    
+    // The generator never blocks indefinitely: if the writer dies, its exception is rethrown here
+    private ScenarioUsageBatch takeBatch(BlockingQueue<ScenarioUsageBatch> freeBatches, Future<Long> writer)
+            throws InterruptedException, ExecutionException {
+        ScenarioUsageBatch batch;
+        while ((batch = freeBatches.poll(QUEUE_POLL_MS, TimeUnit.MILLISECONDS)) == null) {
+            checkWriter(writer);
+        }
+        batch.clear();
+        return batch;
+    }
+    
+    private void putBatch(BlockingQueue<ScenarioUsageBatch> fullBatches, ScenarioUsageBatch batch,
+                          Future<Long> writer) throws InterruptedException, ExecutionException {
+        while (!fullBatches.offer(batch, QUEUE_POLL_MS, TimeUnit.MILLISECONDS)) {
+            checkWriter(writer);
+        }
+    }
+    
+    private void checkWriter(Future<Long> writer) throws InterruptedException, ExecutionException {
+        if (writer.isDone()) {
+            writer.get();
+            throw new IllegalStateException("Scenario usage writer stopped before generation finished");
+        }
+    }
+    
     private void batchInsertGradingKeys(List<Map<String, Object>> keys) {
         String sql = "INSERT INTO grading_keys (session_id, optimization_type, target_resource, " +
                     "issue_description, expected_savings_percent, implementation_difficulty, " +
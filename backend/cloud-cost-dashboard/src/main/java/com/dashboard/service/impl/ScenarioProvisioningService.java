@@ -0,0 +1,148 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.templates.ScenarioTemplates;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provisions one scenario session per student of a class roster. Sessions are generated on one
+ * pool of scenario.provisioning.parallelism threads shared by all provisioning requests, so
+ * concurrent classrooms queue instead of multiplying the sessions (and connections) in flight.
+ * A failed student is reported and does not stop the others. The pool is shut down with the
+ * application context.
+ */
+@Service
+public class ScenarioProvisioningService {
+
+    // A session in flight uses a connection for generation and one for its writer, so keep twice this
+    // below the connection pool size
+    static final int DEFAULT_PARALLELISM = 8;
+    static final int DEFAULT_MAX_ROSTER_SIZE = 500;
+
+    @Autowired
+    private ScenarioDataService scenarioDataService;
+
+    @Value("${scenario.provisioning.parallelism:8}")
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    @Value("${scenario.provisioning.max-roster-size:500}")
+    private int maxRosterSize = DEFAULT_MAX_ROSTER_SIZE;
+
+    private ExecutorService pool;
+
+    /**
+     * Generate a session of the template for every student. Duplicate identifiers are provisioned once.
+     * @return summary with one result per student, in roster order
+     */
+    public Map<String, Object> provisionClassroom(String templateId, List<String> studentIdentifiers) {
+        if (ScenarioTemplates.getTemplateById(templateId) == null) {
+            throw new IllegalArgumentException("Invalid template ID: " + templateId);
+        }
+        if (studentIdentifiers == null || studentIdentifiers.isEmpty()) {
+            throw new IllegalArgumentException("At least one student identifier is required");
+        }
+        Set<String> roster = new LinkedHashSet<>();
+        for (String studentIdentifier : studentIdentifiers) {
+            if (studentIdentifier == null || studentIdentifier.isBlank()) {
+                throw new IllegalArgumentException("Student identifiers must not be blank");
+            }
+            roster.add(studentIdentifier.trim());
+        }
+        if (roster.size() > maxRosterSize) {
+            throw new IllegalArgumentException("Roster has " + roster.size() + " students; at most "
+                + maxRosterSize + " can be provisioned at once");
+        }
+
+        long startTime = System.currentTimeMillis();
+        int workers = Math.max(1, Math.min(parallelism, roster.size()));
+        ExecutorService pool = pool();
+
+        List<Map<String, Object>> results = new ArrayList<>(roster.size());
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(roster.size());
+        try {
+            for (String studentIdentifier : roster) {
+                futures.add(pool.submit(() -> provisionStudent(templateId, studentIdentifier)));
+            }
+            for (Future<Map<String, Object>> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while provisioning " + templateId + " sessions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to provision " + templateId + " sessions", e.getCause());
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Provisioning is shutting down", e);
+        } finally {
+            // Only this request's unfinished students; the pool is shared
+            for (Future<Map<String, Object>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        long succeeded = results.stream().filter(result -> "created".equals(result.get("status"))).count();
+        long elapsedMs = System.currentTimeMillis() - startTime;
+        System.out.println("Provisioned " + succeeded + "/" + results.size() + " " + templateId + " sessions with "
+            + workers + " workers in " + elapsedMs + "ms");
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("templateId", templateId);
+        summary.put("requested", results.size());
+        summary.put("succeeded", succeeded);
+        summary.put("failed", results.size() - succeeded);
+        summary.put("parallelism", workers);
+        summary.put("elapsedMs", elapsedMs);
+        summary.put("results", results);
+        return summary;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private synchronized ExecutorService pool() {
+        if (pool == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+                Thread thread = new Thread(runnable, "scenario-provisioning-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return pool;
+    }
+
+    private Map<String, Object> provisionStudent(String templateId, String studentIdentifier) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("studentIdentifier", studentIdentifier);
+        result.put("seed", ScenarioDataService.studentSeed(templateId, studentIdentifier));
+        long startTime = System.currentTimeMillis();
+        try {
+            String sessionId = scenarioDataService.generateScenarioSession(templateId, studentIdentifier);
+            result.put("status", "created");
+            result.put("sessionId", sessionId);
+            result.put("dashboardUrl", "/dashboard?scenario=" + sessionId);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to provision " + templateId + " for " + studentIdentifier + ": " + e.getMessage());
+            result.put("status", "failed");
+            result.put("error", e.getMessage());
+        }
+        result.put("elapsedMs", System.currentTimeMillis() - startTime);
+        return result;
+    }
+}
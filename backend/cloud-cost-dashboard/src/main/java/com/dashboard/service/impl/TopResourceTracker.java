@@ -0,0 +1,322 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.SpaceSavingSketch;
+import com.dashboard.util.UsageRowBatch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Most expensive resources per day and team, kept as {@link SpaceSavingSketch}es so "top N
+ * resources" over a date range merges a bounded number of counters instead of grouping raw
+ * usage by resource_id.
+ *
+ * <ul>
+ *   <li>A day is seeded from enhanced_usage_records and usage_records (one grouped pass per
+ *       table) the first time a query covers it. Sketches are keyed by team name and resource id
+ *       only; usage_records teams resolve through teams.name as in the rollup, and service
+ *       names (see services.rollup_name) play no part, so both tables share one counter per
+ *       resource.</li>
+ *   <li>{@link UsageRecordBatchWriter} passes every written batch to {@link #record} after
+ *       writing it, which adds the rows of kept days. A day is kept from before its seed queries
+ *       run; rows recorded while they run are buffered and added once the seed is in, so batches
+ *       committed after the seed's snapshot are not lost. Rows for days not kept are left to a
+ *       later seed.</li>
+ *   <li>Other instances ingest usage too, and their batches only reach their own sketches. Each
+ *       day therefore keeps the number of usage rows it accounts for: the day's sum of
+ *       daily_cost_rollup.record_count when it was seeded, plus every row this instance recorded
+ *       for it since. Queries first read the rollup's counts for their range (one grouped pass
+ *       over its primary key) and seed again the days whose count differs from theirs, so rows
+ *       written on any instance show up by the next query. {@link DailyCostRollup#rebuild} of a
+ *       day that leaves its count unchanged is not noticed until the day is dropped.</li>
+ *   <li>At most cost.top-resources.max-days days are kept; the oldest are dropped first and
+ *       seeded again if a later query needs them.</li>
+ * </ul>
+ *
+ * Memory is bounded by max-days x (teams + 4) x cost.top-resources.capacity counters. Costs are exact
+ * while no team has more resources in a day than the capacity; past that, a resource's cost may
+ * be overstated by at most its reported maxOverestimate, and light resources evicted on some days
+ * lose those days' (small) costs. A batch committed just before a seed's snapshot but recorded
+ * after its day was registered is counted by both, overstating that batch's resources once.
+ */
+@Component
+public class TopResourceTracker {
+
+    private static final String SEED_ENHANCED_SQL = """
+        SELECT date, team_name, resource_id, SUM(cost) AS cost
+        FROM enhanced_usage_records
+        WHERE date BETWEEN ? AND ? AND resource_id IS NOT NULL
+        GROUP BY date, team_name, resource_id
+        """;
+
+    private static final String SEED_INGESTED_SQL = """
+        SELECT ur.usage_date AS date, t.name AS team_name, ur.resource_id, SUM(ur.total_cost) AS cost
+        FROM usage_records ur
+        JOIN teams t ON ur.team_id = t.id
+        WHERE ur.usage_date BETWEEN ? AND ? AND ur.resource_id IS NOT NULL
+        GROUP BY ur.usage_date, t.name, ur.resource_id
+        """;
+
+    private static final String RECORD_COUNTS_SQL = """
+        SELECT date, SUM(record_count) AS records
+        FROM daily_cost_rollup
+        WHERE date BETWEEN ? AND ?
+        GROUP BY date
+        """;
+
+    private static final int ALL_TEAMS_CAPACITY_FACTOR = 4;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DimensionDictionary dimensionDictionary;
+
+    @Value("${cost.top-resources.capacity:500}")
+    private int capacity = 500;
+
+    @Value("${cost.top-resources.max-days:93}")
+    private int maxDays = 93;
+
+    private final Map<Integer, Day> days = new ConcurrentHashMap<>();
+    private final Object seedLock = new Object();
+
+    private final LongAdder rowsRecorded = new LongAdder();
+    private final LongAdder daysSeeded = new LongAdder();
+    private final LongAdder daysReseeded = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+
+    /**
+     * Add the rows of a written batch to the sketches of their day and team. Team ids must be
+     * resolved.
+     */
+    public void record(UsageRowBatch batch) {
+        int recorded = 0;
+        for (int row = 0; row < batch.size(); row++) {
+            Day day = days.get(batch.getUsageDateEpochDay(row));
+            if (day == null) {
+                continue;
+            }
+            String resourceId = batch.getResourceId(row);
+            long cost = batch.getTotalCost(row);
+            // Credits (negative costs) never make a resource a top spender
+            String teamName = resourceId != null && cost > 0 ? dimensionDictionary.teamName(batch.getTeamId(row)) : null;
+            synchronized (day) {
+                // Every row adds to the day's rollup record_count, sketched or not
+                day.records++;
+                if (teamName == null) {
+                    continue;
+                }
+                if (day.pending != null) {
+                    day.pending.add(new PendingRow(teamName, resourceId, cost));
+                } else {
+                    day.add(teamName, resourceId, cost, capacity);
+                }
+            }
+            recorded++;
+        }
+        rowsRecorded.add(recorded);
+    }
+
+    /**
+     * Whether a date range fits within the days kept; longer ranges should be answered from
+     * the fact tables.
+     */
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        return !endDate.isBefore(startDate) && endDate.toEpochDay() - startDate.toEpochDay() < maxDays;
+    }
+
+    /**
+     * @param teamNames Teams to include, or null / empty for all teams
+     * @return up to {@code limit} resources by cost over the range, most expensive first, with
+     *         resourceId, totalCost and maxOverestimate
+     */
+    public List<Map<String, Object>> topResources(LocalDate startDate, LocalDate endDate,
+                                                  Collection<String> teamNames, int limit) {
+        if (!covers(startDate, endDate)) {
+            throw new IllegalArgumentException("Top resources cover at most " + maxDays + " days");
+        }
+        queries.increment();
+        int startDay = (int) startDate.toEpochDay();
+        int endDay = (int) endDate.toEpochDay();
+        ensureSeeded(startDay, endDay);
+
+        SpaceSavingSketch.Union union = new SpaceSavingSketch.Union();
+        for (int epochDay = startDay; epochDay <= endDay; epochDay++) {
+            Day day = days.get(epochDay);
+            if (day == null) {
+                continue;
+            }
+            synchronized (day) {
+                if (teamNames == null || teamNames.isEmpty()) {
+                    union.add(day.allTeams);
+                    continue;
+                }
+                for (String teamName : teamNames) {
+                    SpaceSavingSketch sketch = day.byTeam.get(teamName);
+                    if (sketch != null) {
+                        union.add(sketch);
+                    }
+                }
+            }
+        }
+
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (SpaceSavingSketch.Entry entry : union.top(limit)) {
+            Map<String, Object> resource = new LinkedHashMap<>();
+            resource.put("resourceId", entry.getKey());
+            resource.put("totalCost", UsageRowBatch.toDecimal(entry.getWeight()));
+            resource.put("maxOverestimate", UsageRowBatch.toDecimal(entry.getError()));
+            top.add(resource);
+        }
+        return top;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("days", days.size());
+        stats.put("capacity", capacity);
+        stats.put("maxDays", maxDays);
+        stats.put("rowsRecorded", rowsRecorded.sum());
+        stats.put("daysSeeded", daysSeeded.sum());
+        stats.put("daysReseeded", daysReseeded.sum());
+        stats.put("queries", queries.sum());
+        return stats;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Seed the days of a range that are not kept yet, or whose rollup record count differs from
+     * theirs, with one grouped query per fact table over the span they cover, then drop the
+     * oldest days beyond max-days. The days are registered before the queries so {@link #record}
+     * buffers batches written meanwhile instead of skipping them; queries wait on the seed lock,
+     * so they never read a day still being seeded.
+     */
+    private void ensureSeeded(int startDay, int endDay) {
+        synchronized (seedLock) {
+            // Read before the fact tables: a batch committed in between is seeded, and its day
+            // seeded again by the next query, rather than missed
+            Map<Integer, Long> recordCounts = new HashMap<>();
+            jdbcTemplate.query(RECORD_COUNTS_SQL, (RowCallbackHandler) rs -> recordCounts.put(
+                    (int) rs.getDate("date").toLocalDate().toEpochDay(), rs.getLong("records")),
+                java.sql.Date.valueOf(LocalDate.ofEpochDay(startDay)), java.sql.Date.valueOf(LocalDate.ofEpochDay(endDay)));
+            int moved = 0;
+            for (int epochDay = startDay; epochDay <= endDay; epochDay++) {
+                Day day = days.get(epochDay);
+                if (day == null) {
+                    continue;
+                }
+                synchronized (day) {
+                    if (day.records == recordCounts.getOrDefault(epochDay, 0L)) {
+                        continue;
+                    }
+                }
+                // Written on another instance (or not committed yet here); seed it afresh
+                days.remove(epochDay);
+                moved++;
+            }
+            daysReseeded.add(moved);
+
+            int firstMissing = -1;
+            int lastMissing = -1;
+            for (int epochDay = startDay; epochDay <= endDay; epochDay++) {
+                if (!days.containsKey(epochDay)) {
+                    firstMissing = firstMissing < 0 ? epochDay : firstMissing;
+                    lastMissing = epochDay;
+                }
+            }
+            if (firstMissing < 0) {
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            Map<Integer, Day> seeded = new HashMap<>();
+            for (int epochDay = firstMissing; epochDay <= lastMissing; epochDay++) {
+                if (!days.containsKey(epochDay)) {
+                    Day day = new Day(capacity);
+                    day.records = recordCounts.getOrDefault(epochDay, 0L);
+                    day.pending = new ArrayList<>();
+                    seeded.put(epochDay, day);
+                }
+            }
+            days.putAll(seeded);
+
+            RowCallbackHandler handler = rs -> {
+                Day day = seeded.get((int) rs.getDate("date").toLocalDate().toEpochDay());
+                BigDecimal cost = rs.getBigDecimal("cost");
+                if (day != null && cost != null && cost.signum() > 0) {
+                    synchronized (day) {
+                        day.add(rs.getString("team_name"), rs.getString("resource_id"), toFixedPoint(cost), capacity);
+                    }
+                }
+            };
+            java.sql.Date from = java.sql.Date.valueOf(LocalDate.ofEpochDay(firstMissing));
+            java.sql.Date to = java.sql.Date.valueOf(LocalDate.ofEpochDay(lastMissing));
+            try {
+                jdbcTemplate.query(SEED_ENHANCED_SQL, handler, from, to);
+                jdbcTemplate.query(SEED_INGESTED_SQL, handler, from, to);
+            } catch (RuntimeException e) {
+                days.keySet().removeAll(seeded.keySet());
+                throw e;
+            }
+            for (Day day : seeded.values()) {
+                synchronized (day) {
+                    for (PendingRow row : day.pending) {
+                        day.add(row.teamName(), row.resourceId(), row.cost(), capacity);
+                    }
+                    day.pending = null;
+                }
+            }
+            daysSeeded.add(seeded.size());
+
+            List<Integer> kept = new ArrayList<>(days.keySet());
+            Collections.sort(kept);
+            for (int i = 0; i < kept.size() && days.size() > maxDays; i++) {
+                if (kept.get(i) < startDay || kept.get(i) > endDay) {
+                    days.remove(kept.get(i));
+                }
+            }
+            System.out.println("Seeded top resources for " + seeded.size() + " days in "
+                + (System.currentTimeMillis() - startTime) + "ms");
+        }
+    }
+
+    private static long toFixedPoint(BigDecimal value) {
+        return value.movePointRight(UsageRowBatch.MONEY_SCALE).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private record PendingRow(String teamName, String resourceId, long cost) {}
+
+    /**
+     * Sketches of one day: one per team, plus a wider one over all teams so unfiltered queries
+     * merge one sketch per day instead of one per team.
+     */
+    private static final class Day {
+        final Map<String, SpaceSavingSketch> byTeam = new HashMap<>();
+        final SpaceSavingSketch allTeams;
+        // Rollup record_count of the day at its seed plus the rows recorded for it since
+        long records;
+        // Rows recorded while the day is being seeded; null once the seed is in
+        List<PendingRow> pending;
+
+        Day(int capacity) {
+            allTeams = new SpaceSavingSketch(capacity * ALL_TEAMS_CAPACITY_FACTOR);
+        }
+
+        void add(String teamName, String resourceId, long cost, int capacity) {
+            byTeam.computeIfAbsent(teamName, team -> new SpaceSavingSketch(capacity)).add(resourceId, cost);
+            allTeams.add(resourceId, cost);
+        }
+    }
+}
@@ -1,35 +1,516 @@
 package com.dashboard.service.impl;
 
-import com.dashboard.cloud_cost_dashboard.model.UsageRecord;
-import com.dashboard.cloud_cost_dashboard.repository.UsageRecordRepository;
+import com.dashboard.model.ingestion.IngestionReport;
 import com.dashboard.service.interfaces.UsageIngestionService;
+import com.dashboard.util.UsageCsvParser;
+import com.dashboard.util.UsageRowBatch;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Streams billing CSV exports into usage_records. The calling thread reads and parses lines
+ * into pooled {@link UsageRowBatch} buffers; full buffers are handed through a bounded queue
+ * to a single writer thread that inserts them with JDBC batches. Memory is bounded by
+ * (queue capacity + 2) x batch size rows regardless of the file size.
+ *
+ * <p>Large files on the local filesystem are instead memory-mapped and split at newline
+ * boundaries into chunks that are parsed, resolved and written by a pool of worker threads,
+ * one batch buffer per worker. Quoted fields must not contain line breaks in this mode.
+ */
 @Service
 public class UsageIngestionServiceImpl implements UsageIngestionService {
 
-    @Autowired private UsageRecordRepository usageRepository;
+    static final int DEFAULT_BATCH_SIZE = 5000;
+    static final int DEFAULT_QUEUE_CAPACITY = 4;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long QUEUE_POLL_MS = 100;
+    // A single MappedByteBuffer cannot exceed 2 GB, so larger files are cut into more chunks than workers
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    private static final int BOUNDARY_SCAN_BYTES = 8 * 1024;
+
+    // Marks the end of the stream for the writer thread
+    private static final UsageRowBatch END_OF_STREAM = new UsageRowBatch(1);
+
+    @Autowired
+    private UsageRecordBatchWriter batchWriter;
+
+    @Autowired
+    private DimensionDictionary dimensionDictionary;
+
+    @Value("${ingestion.batch-size:5000}")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    @Value("${ingestion.queue-capacity:4}")
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    // 0 = one worker per available core
+    @Value("${ingestion.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${ingestion.parallel-min-file-mb:256}")
+    private long parallelMinFileMb = 256;
 
     @Override
-    public void ingestUsageDataFromCsv(String filePath) {
+    public IngestionReport ingestUsageDataFromCsv(String filePath) {
+        int workers = 1;
+        Path path = localFile(filePath);
+        if (path != null && sizeOf(path) >= parallelMinFileMb * 1024 * 1024) {
+            workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        }
+        return ingestUsageDataFromCsv(filePath, workers);
+    }
+
+    @Override
+    public IngestionReport ingestUsageDataFromCsv(String filePath, int parallelism) {
         System.out.println("Starting ingestion from file: " + filePath);
 
-        // Placeholder: simulate reading and saving records
+        IngestionReport report = new IngestionReport(filePath);
+        report.setBatchSize(batchSize);
+        long start = System.nanoTime();
+
         try {
-            List<UsageRecord> mockRecords =
-                    List.of(
-                            new UsageRecord(), // pretend record 1
-                            new UsageRecord() // pretend record 2
-                            );
-
-            usageRepository.saveAll(mockRecords);
-            System.out.println("Successfully ingested usage records from CSV.");
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+            }
+            Path path = localFile(filePath);
+            if (parallelism > 1 && path != null) {
+                report.setParallelism(parallelism);
+                runMappedPipeline(path, parallelism, report);
+            } else {
+                report.setParallelism(1);
+                try (BufferedReader reader = openReader(filePath)) {
+                    runPipeline(reader, report);
+                }
+            }
+            report.markCompleted(elapsedMs(start));
+            System.out.println("Ingested " + report.getRowsInserted() + " usage records from " + filePath
+                + " in " + report.getElapsedMs() + " ms (" + Math.round(report.getRowsPerSecond())
+                + " rows/s, " + report.getRowsRejected() + " rejected)");
         } catch (Exception e) {
-            System.err.println("Failed to ingest usage data: " + e.getMessage());
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            report.markFailed(cause.getMessage(), elapsedMs(start));
+            System.err.println("Failed to ingest usage data: " + cause.getMessage());
+        }
+
+        return report;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void runPipeline(BufferedReader reader, IngestionReport report) throws Exception {
+        UsageCsvParser parser = new UsageCsvParser(reader.readLine());
+        boolean fileHasAccounts = parser.hasAccountColumn();
+        dimensionDictionary.forgetMisses();
+
+        BlockingQueue<UsageRowBatch> fullBatches = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<UsageRowBatch> freeBatches = new ArrayBlockingQueue<>(queueCapacity + 2);
+        for (int i = 0; i < queueCapacity + 2; i++) {
+            freeBatches.add(new UsageRowBatch(batchSize));
+        }
+
+        ExecutorService writerThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "usage-ingestion-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Future<long[]> writer = writerThread.submit(() -> drainBatches(fullBatches, freeBatches));
+
+            UsageRowBatch batch = takeBatch(freeBatches, writer);
+            long rowsRead = 0;
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                rowsRead++;
+
+                String rejection = parseRow(parser, fileHasAccounts, line, lineNumber, batch);
+                if (rejection != null) {
+                    report.recordRejected(lineNumber, rejection);
+                    continue;
+                }
+
+                if (batch.isFull()) {
+                    putBatch(fullBatches, batch, writer);
+                    batch = takeBatch(freeBatches, writer);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                putBatch(fullBatches, batch, writer);
+            }
+            putBatch(fullBatches, END_OF_STREAM, writer);
+
+            long[] totals = writer.get();
+            report.setRowsRead(rowsRead);
+            report.setRowsInserted(totals[0]);
+            report.setBatchCount(totals[1]);
+        } finally {
+            writerThread.shutdownNow();
+        }
+    }
+
+    private void runMappedPipeline(Path path, int workers, IngestionReport report) throws Exception {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            byte[] headerBytes = readHeader(channel);
+            String header = new String(headerBytes, StandardCharsets.UTF_8).stripTrailing();
+            UsageCsvParser headerParser = new UsageCsvParser(header);
+            boolean fileHasAccounts = headerParser.hasAccountColumn();
+            dimensionDictionary.forgetMisses();
+
+            long[] boundaries = splitAtNewlines(channel, headerBytes.length, size, workers);
+            int chunkCount = boundaries.length - 1;
+            System.out.println("Splitting " + size + " bytes into " + chunkCount + " chunks across "
+                + workers + " workers");
+
+            AtomicInteger threadIndex = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+                Thread thread = new Thread(runnable, "usage-ingestion-worker-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            try {
+                List<Future<ChunkResult>> futures = new ArrayList<>(chunkCount);
+                for (int i = 0; i < chunkCount; i++) {
+                    long chunkStart = boundaries[i];
+                    long chunkEnd = boundaries[i + 1];
+                    futures.add(pool.submit(() -> ingestChunk(channel, chunkStart, chunkEnd, header, fileHasAccounts)));
+                }
+
+                // Chunks are merged in file order so rejected rows get absolute line numbers
+                long linesBefore = 1; // header
+                long rowsRead = 0;
+                long inserted = 0;
+                long batches = 0;
+                for (Future<ChunkResult> future : futures) {
+                    ChunkResult chunk = future.get();
+                    rowsRead += chunk.rowsRead;
+                    inserted += chunk.rowsInserted;
+                    batches += chunk.batchCount;
+                    for (int i = 0; i < chunk.rejectedLines.size(); i++) {
+                        report.recordRejected(linesBefore + chunk.rejectedLines.get(i), chunk.rejectedReasons.get(i));
+                    }
+                    report.setRowsRejected(report.getRowsRejected() + chunk.rowsRejected - chunk.rejectedLines.size());
+                    linesBefore += chunk.lineCount;
+                }
+                report.setRowsRead(rowsRead);
+                report.setRowsInserted(inserted);
+                report.setBatchCount(batches);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Parse, resolve and write one newline-aligned region of the mapped file.
+     * Line numbers in the result are relative to the start of the chunk.
+     */
+    private ChunkResult ingestChunk(FileChannel channel, long start, long end, String header,
+                                    boolean fileHasAccounts) throws IOException {
+        ChunkResult result = new ChunkResult();
+        UsageCsvParser parser = new UsageCsvParser(header);
+        UsageRowBatch batch = new UsageRowBatch(batchSize);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        byte[] lineBytes = new byte[512];
+        int limit = buffer.limit();
+        int position = 0;
+        long lineNumber = 0;
+
+        while (position < limit) {
+            int newline = position;
+            while (newline < limit && buffer.get(newline) != '\n') {
+                newline++;
+            }
+            int length = newline - position;
+            if (length > lineBytes.length) {
+                lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+            }
+            buffer.get(position, lineBytes, 0, length);
+            position = newline + 1;
+            lineNumber++;
+
+            if (length > 0 && lineBytes[length - 1] == '\r') {
+                length--;
+            }
+            String line = new String(lineBytes, 0, length, StandardCharsets.UTF_8);
+            if (line.isBlank()) {
+                continue;
+            }
+            result.rowsRead++;
+
+            String rejection = parseRow(parser, fileHasAccounts, line, lineNumber, batch);
+            if (rejection != null) {
+                result.recordRejected(lineNumber, rejection);
+                continue;
+            }
+
+            if (batch.isFull()) {
+                result.rowsInserted += batchWriter.write(batch);
+                result.batchCount++;
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            result.rowsInserted += batchWriter.write(batch);
+            result.batchCount++;
+        }
+        result.lineCount = lineNumber;
+        return result;
+    }
+
+    /**
+     * Compute chunk boundaries for the data section [dataStart, size): nominal equal splits,
+     * each moved forward to just past the next newline so no line straddles two chunks.
+     */
+    private long[] splitAtNewlines(FileChannel channel, long dataStart, long size, int workers) throws IOException {
+        long dataSize = size - dataStart;
+        if (dataSize <= 0) {
+            return new long[] {dataStart, dataStart};
+        }
+
+        long chunkCount = Math.min(dataSize, Math.max(workers, (dataSize + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES));
+        long[] boundaries = new long[(int) chunkCount + 1];
+        int count = 0;
+        boundaries[count++] = dataStart;
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+
+        for (long i = 1; i < chunkCount; i++) {
+            long boundary = nextLineStart(channel, dataStart + dataSize * i / chunkCount, size, scan);
+            if (boundary > boundaries[count - 1] && boundary < size) {
+                boundaries[count++] = boundary;
+            }
+        }
+        boundaries[count++] = size;
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    private long nextLineStart(FileChannel channel, long from, long size, ByteBuffer scan) throws IOException {
+        long position = from;
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /** @return header line bytes including the terminating newline */
+    private byte[] readHeader(FileChannel channel) throws IOException {
+        long headerEnd = nextLineStart(channel, 0, channel.size(), ByteBuffer.allocate(BOUNDARY_SCAN_BYTES));
+        ByteBuffer header = ByteBuffer.allocate((int) Math.min(headerEnd, Integer.MAX_VALUE));
+        channel.read(header, 0);
+        return header.array();
+    }
+
+    /**
+     * Parse one line into the batch and resolve its dimension keys.
+     * @return null when the row was added, otherwise the rejection reason (the batch is unchanged)
+     */
+    private String parseRow(UsageCsvParser parser, boolean fileHasAccounts, String line,
+                            long lineNumber, UsageRowBatch batch) {
+        try {
+            parser.parseInto(line, lineNumber, batch);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+
+        String rejection = resolveDimensions(batch, batch.size() - 1, fileHasAccounts);
+        if (rejection != null) {
+            batch.removeLastRow();
+        }
+        return rejection;
+    }
+
+    /**
+     * Fill in the surrogate ids for one row from the dimension dictionary.
+     * @return null when the row is fully resolved, otherwise the rejection reason
+     */
+    private String resolveDimensions(UsageRowBatch batch, int row, boolean fileHasAccounts) {
+        if (batch.getTeamId(row) == 0) {
+            long teamId = dimensionDictionary.resolveTeamId(batch.getTeamKey(row));
+            if (teamId == 0) {
+                return "unknown team: " + batch.getTeamKey(row);
+            }
+            batch.setTeamId(row, teamId);
+        }
+
+        if (batch.getServiceId(row) == 0) {
+            long serviceId = dimensionDictionary.resolveServiceId(batch.getServiceKey(row), batch.getProvider(row));
+            if (serviceId == 0) {
+                return "unknown service: " + batch.getServiceKey(row);
+            }
+            batch.setServiceId(row, serviceId);
+        }
+
+        if (batch.getAccountId(row) == 0) {
+            String account = batch.getAccountKey(row);
+            long accountId;
+            if (account != null) {
+                accountId = dimensionDictionary.resolveAccountId(account);
+            } else if (!fileHasAccounts) {
+                // Files without an account column are billed to the primary account of the service's provider
+                accountId = dimensionDictionary.resolveDefaultAccountId(batch.getServiceId(row));
+            } else {
+                return "missing account";
+            }
+            if (accountId == 0) {
+                return account != null ? "unknown account: " + account : "no account for service provider";
+            }
+            batch.setAccountId(row, accountId);
+        }
+        return null;
+    }
+
+    /**
+     * Writer loop: insert each full batch and return its buffer to the pool.
+     * @return {rows inserted, batches written}
+     */
+    private long[] drainBatches(BlockingQueue<UsageRowBatch> fullBatches,
+                                BlockingQueue<UsageRowBatch> freeBatches) throws InterruptedException {
+        long inserted = 0;
+        long batches = 0;
+        while (true) {
+            UsageRowBatch batch = fullBatches.take();
+            if (batch == END_OF_STREAM) {
+                return new long[] {inserted, batches};
+            }
+            inserted += batchWriter.write(batch);
+            batches++;
+            freeBatches.put(batch);
+        }
+    }
+
+    // The reader never blocks indefinitely: if the writer dies, its exception is rethrown here
+    private UsageRowBatch takeBatch(BlockingQueue<UsageRowBatch> freeBatches, Future<long[]> writer) throws Exception {
+        UsageRowBatch batch;
+        while ((batch = freeBatches.poll(QUEUE_POLL_MS, TimeUnit.MILLISECONDS)) == null) {
+            checkWriter(writer);
+        }
+        batch.clear();
+        return batch;
+    }
+
+    private void putBatch(BlockingQueue<UsageRowBatch> fullBatches, UsageRowBatch batch,
+                          Future<long[]> writer) throws Exception {
+        while (!fullBatches.offer(batch, QUEUE_POLL_MS, TimeUnit.MILLISECONDS)) {
+            checkWriter(writer);
+        }
+    }
+
+    private void checkWriter(Future<long[]> writer) throws Exception {
+        if (writer.isDone()) {
+            writer.get();
+            throw new IllegalStateException("Usage record writer stopped before the end of the file");
+        }
+    }
+
+    private BufferedReader openReader(String filePath) throws IOException {
+        if (filePath == null || filePath.isBlank()) {
+            throw new IllegalArgumentException("File path is required");
+        }
+
+        Path path = localFile(filePath);
+        InputStream input;
+        if (path != null) {
+            input = Files.newInputStream(path);
+        } else {
+            input = getClass().getClassLoader().getResourceAsStream(filePath);
+            if (input == null) {
+                throw new FileNotFoundException("Usage file not found: " + filePath);
+            }
+        }
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+    }
+
+    /** @return the path if it names a regular file on the local filesystem, otherwise null */
+    private Path localFile(String filePath) {
+        if (filePath == null || filePath.isBlank()) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(filePath);
+            return Files.isRegularFile(path) ? path : null;
+        } catch (java.nio.file.InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /** Totals for one chunk of a memory-mapped file; rejected line numbers are chunk-relative. */
+    private static class ChunkResult {
+        private static final int MAX_REJECTED_SAMPLES = 20;
+
+        long lineCount;
+        long rowsRead;
+        long rowsInserted;
+        long rowsRejected;
+        long batchCount;
+        final List<Long> rejectedLines = new ArrayList<>();
+        final List<String> rejectedReasons = new ArrayList<>();
+
+        void recordRejected(long lineNumber, String reason) {
+            rowsRejected++;
+            if (rejectedLines.size() < MAX_REJECTED_SAMPLES) {
+                rejectedLines.add(lineNumber);
+                rejectedReasons.add(reason);
+            }
         }
     }
 }
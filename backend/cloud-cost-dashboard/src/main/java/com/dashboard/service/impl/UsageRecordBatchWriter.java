@@ -0,0 +1,100 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.UsageRowBatch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Writes resolved {@link UsageRowBatch} buffers into usage_records with a single JDBC batch per
+ * buffer. With rewriteBatchedStatements=true on the MySQL URL the driver collapses each batch
+ * into multi-row INSERT statements, so one round trip carries thousands of rows. Each written
+ * batch is also added to the daily cost rollup (and through it the budget spend counters) in the
+ * same transaction, so the facts never commit without their aggregates, and then to the
+ * top-resource sketches.
+ */
+@Component
+public class UsageRecordBatchWriter {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO usage_records
+        (account_id, team_id, service_id, resource_id, resource_name, resource_type, region,
+         usage_date, usage_hour, usage_quantity, usage_unit, unit_price, total_cost, currency, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DailyCostRollup dailyCostRollup;
+
+    @Autowired
+    private TopResourceTracker topResourceTracker;
+
+    /**
+     * Insert every row of the batch. All surrogate ids must already be resolved. If the rollup
+     * or budget counter update fails, the inserted rows are rolled back with it.
+     * @return number of rows written
+     */
+    @Transactional
+    public int write(UsageRowBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int row) throws SQLException {
+                ps.setLong(1, batch.getAccountId(row));
+                ps.setLong(2, batch.getTeamId(row));
+                ps.setLong(3, batch.getServiceId(row));
+                setNullableString(ps, 4, batch.getResourceId(row));
+                setNullableString(ps, 5, batch.getResourceName(row));
+                setNullableString(ps, 6, batch.getResourceType(row));
+                setNullableString(ps, 7, batch.getRegion(row));
+                ps.setDate(8, java.sql.Date.valueOf(batch.getUsageDate(row)));
+                ps.setInt(9, batch.getUsageHour(row));
+                ps.setBigDecimal(10, UsageRowBatch.toDecimal(batch.getUsageQuantity(row)));
+                setNullableString(ps, 11, batch.getUsageUnit(row));
+                ps.setBigDecimal(12, UsageRowBatch.toDecimal(batch.getUnitPrice(row)));
+                ps.setBigDecimal(13, UsageRowBatch.toDecimal(batch.getTotalCost(row)));
+                ps.setString(14, batch.getCurrency(row));
+                ps.setTimestamp(15, createdAt);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+
+        if (dailyCostRollup != null) {
+            dailyCostRollup.record(batch);
+        }
+        if (topResourceTracker != null) {
+            topResourceTracker.record(batch);
+        }
+
+        // Drivers may report SUCCESS_NO_INFO (-2) for rewritten batches; count those as written
+        return counts == null ? batch.size() : (int) Arrays.stream(counts).filter(c -> c != 0).count();
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.dashboard.dto.analytics.TrendAnalysisRequest;
 import com.dashboard.dto.analytics.ComparisonRequest;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service interface for advanced analytics features including:
@@ -15,6 +16,7 @@ import java.util.List;
  * - Trend analysis with seasonal patterns
  * - Team and service comparisons
  * - Anomaly detection
+ * - Top resources by cost
  */
 public interface AnalyticsService {
     
@@ -48,4 +50,14 @@ public interface AnalyticsService {
      * @return List of detected anomalies with severity scores
      */
     List<Object> detectAnomalies(String teamName, String startDate, String endDate, Double threshold);
+    
+    /**
+     * Find the most expensive resources in a period
+     * @param teamName Optional team filter
+     * @param startDate Period start date
+     * @param endDate Period end date
+     * @param limit Maximum number of resources (default: 20)
+     * @return Resources ranked by total cost, with the maximum overestimate of each cost
+     */
+    List<Map<String, Object>> getTopResources(String teamName, String startDate, String endDate, Integer limit);
 }
\ No newline at end of file
@@ -48,11 +48,18 @@ public interface BudgetService {
     Budget getBudget(String budgetId);
     
     /**
-     * Get budgets that have exceeded their alert thresholds
+     * Get the active alerts raised by the last budget evaluations. Read-only; alerts are
+     * created by {@link #evaluateBudgetAlerts()} in the background.
      * @return List of budget alerts with severity levels
      */
     List<BudgetAlert> getBudgetAlerts();
     
+    /**
+     * Check all active budgets against their thresholds and create any new alerts
+     * @return Number of budgets evaluated
+     */
+    int evaluateBudgetAlerts();
+    
     /**
      * Calculate budget utilization and forecast for a specific budget
      * @param budgetId Budget identifier
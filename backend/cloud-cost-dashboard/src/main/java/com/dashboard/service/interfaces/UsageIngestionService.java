@@ -1,5 +1,25 @@
 package com.dashboard.service.interfaces;
 
+import com.dashboard.model.ingestion.IngestionReport;
+
 public interface UsageIngestionService {
-    void ingestUsageDataFromCsv(String filePath);
+
+    /**
+     * Stream a billing CSV export into usage_records. The file is read line by line and written
+     * in fixed-size JDBC batches, so memory use does not grow with the size of the file. Local
+     * files above the configured size threshold are parsed in parallel (see the overload below).
+     * @param filePath Path on the filesystem, or a classpath resource such as data/sample-usage.csv
+     * @return Per-run report with rows inserted, rejected rows and throughput
+     */
+    IngestionReport ingestUsageDataFromCsv(String filePath);
+
+    /**
+     * Ingest a billing CSV with an explicit number of parser threads. With parallelism above 1,
+     * a local file is memory-mapped, split at newline boundaries into at least that many chunks
+     * and each chunk is parsed and written on its own worker.
+     * @param filePath Path on the filesystem, or a classpath resource (always read sequentially)
+     * @param parallelism Number of worker threads; 1 uses the streaming reader
+     * @return Per-run report with rows inserted, rejected rows and throughput
+     */
+    IngestionReport ingestUsageDataFromCsv(String filePath, int parallelism);
 }
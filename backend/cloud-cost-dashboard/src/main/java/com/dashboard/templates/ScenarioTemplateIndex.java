@@ -0,0 +1,210 @@
+package com.dashboard.templates;
+
+import java.util.*;
+
+/**
+ * Immutable lookup structures over the scenario template catalog, built once so browsing and
+ * search never rebuild or rescan the templates:
+ *
+ * <ul>
+ *   <li>an id map and per-difficulty, per-type and per-category lists, all in catalog order;</li>
+ *   <li>an inverted index from the lowercase word tokens of each template's name, description
+ *       and type to the templates containing them, kept as a sorted token array so a query
+ *       token matches every indexed token it is a prefix of.</li>
+ * </ul>
+ *
+ * Template maps and the lists returned are unmodifiable.
+ */
+public final class ScenarioTemplateIndex {
+
+    private static final String[] SEARCHED_FIELDS = {"name", "description", "type"};
+
+    private final List<Map<String, Object>> templates;
+    private final Map<String, Map<String, Object>> byId;
+    private final Map<String, List<Map<String, Object>>> byDifficulty;
+    private final Map<String, List<Map<String, Object>>> byType;
+    private final Map<String, List<Map<String, Object>>> byCategory;
+    private final Map<String, BitSet> difficultyBits;
+    private final List<String> typeNames;
+    private final List<String> categoryNames;
+
+    // Sorted distinct tokens; postings[i] holds the ordinals of the templates containing tokens[i]
+    private final String[] tokens;
+    private final BitSet[] postings;
+
+    public ScenarioTemplateIndex(List<Map<String, Object>> catalog) {
+        List<Map<String, Object>> frozen = new ArrayList<>(catalog.size());
+        Map<String, Map<String, Object>> ids = new HashMap<>();
+        Map<String, List<Map<String, Object>>> difficulties = new LinkedHashMap<>();
+        Map<String, List<Map<String, Object>>> types = new LinkedHashMap<>();
+        Map<String, List<Map<String, Object>>> categories = new LinkedHashMap<>();
+        Map<String, BitSet> difficultyOrdinals = new HashMap<>();
+        TreeMap<String, BitSet> tokenPostings = new TreeMap<>();
+
+        for (Map<String, Object> template : catalog) {
+            Map<String, Object> unmodifiable = Collections.unmodifiableMap(template);
+            int ordinal = frozen.size();
+            frozen.add(unmodifiable);
+            if (ids.put((String) template.get("id"), unmodifiable) != null) {
+                throw new IllegalArgumentException("Duplicate scenario template id: " + template.get("id"));
+            }
+            group(difficulties, template.get("difficulty"), unmodifiable);
+            if (template.get("difficulty") != null) {
+                difficultyOrdinals.computeIfAbsent(template.get("difficulty").toString(), d -> new BitSet()).set(ordinal);
+            }
+            group(types, template.get("type"), unmodifiable);
+            group(categories, template.get("category"), unmodifiable);
+            for (String field : SEARCHED_FIELDS) {
+                Object value = template.get(field);
+                if (value != null) {
+                    for (String token : tokenize(value.toString())) {
+                        tokenPostings.computeIfAbsent(token, t -> new BitSet()).set(ordinal);
+                    }
+                }
+            }
+        }
+
+        this.templates = List.copyOf(frozen);
+        this.byId = Map.copyOf(ids);
+        this.byDifficulty = freeze(difficulties);
+        this.byType = freeze(types);
+        this.byCategory = freeze(categories);
+        this.difficultyBits = Map.copyOf(difficultyOrdinals);
+        this.typeNames = List.copyOf(types.keySet());
+        this.categoryNames = List.copyOf(categories.keySet());
+        this.tokens = tokenPostings.keySet().toArray(new String[0]);
+        this.postings = tokenPostings.values().toArray(new BitSet[0]);
+    }
+
+    public List<Map<String, Object>> all() {
+        return templates;
+    }
+
+    /**
+     * @return the template, or null if no template has the id
+     */
+    public Map<String, Object> byId(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public List<Map<String, Object>> byDifficulty(String difficulty) {
+        return byDifficulty.getOrDefault(difficulty, List.of());
+    }
+
+    public List<Map<String, Object>> byType(String type) {
+        return byType.getOrDefault(type, List.of());
+    }
+
+    public List<Map<String, Object>> byCategory(String category) {
+        return byCategory.getOrDefault(category, List.of());
+    }
+
+    /** Distinct types, in order of first appearance in the catalog. */
+    public List<String> types() {
+        return typeNames;
+    }
+
+    /** Distinct categories, in order of first appearance in the catalog. */
+    public List<String> categories() {
+        return categoryNames;
+    }
+
+    /**
+     * Templates matching every given filter; null or empty filters are ignored.
+     */
+    public List<Map<String, Object>> filter(String difficulty, String type, String category) {
+        List<Map<String, Object>> candidates = templates;
+        if (isSet(difficulty)) {
+            candidates = byDifficulty(difficulty);
+        }
+        if (isSet(type) && byType(type).size() < candidates.size()) {
+            candidates = byType(type);
+        }
+        if (isSet(category) && byCategory(category).size() < candidates.size()) {
+            candidates = byCategory(category);
+        }
+        // Start from the smallest indexed list, then check the remaining filters per template
+        List<Map<String, Object>> matches = new ArrayList<>();
+        for (Map<String, Object> template : candidates) {
+            if (matches(template, "difficulty", difficulty) && matches(template, "type", type)
+                    && matches(template, "category", category)) {
+                matches.add(template);
+            }
+        }
+        return matches.size() == candidates.size() ? candidates : Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Templates whose name, description or type contain a word starting with each word of the
+     * query, in catalog order. A query without words matches every template.
+     * @param difficulty Difficulty to search within, or null for all templates
+     */
+    public List<Map<String, Object>> search(String query, String difficulty) {
+        BitSet hits = new BitSet(templates.size());
+        if (difficulty == null) {
+            hits.set(0, templates.size());
+        } else if (difficultyBits.containsKey(difficulty)) {
+            hits.or(difficultyBits.get(difficulty));
+        }
+        for (String queryToken : tokenize(query)) {
+            if (hits.isEmpty()) {
+                break;
+            }
+            hits.and(prefixHits(queryToken));
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(hits.cardinality());
+        for (int ordinal = hits.nextSetBit(0); ordinal >= 0; ordinal = hits.nextSetBit(ordinal + 1)) {
+            results.add(templates.get(ordinal));
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /** Union of the postings of every indexed token starting with the prefix. */
+    private BitSet prefixHits(String prefix) {
+        BitSet hits = new BitSet(templates.size());
+        int index = Arrays.binarySearch(tokens, prefix);
+        for (int i = index >= 0 ? index : -index - 1; i < tokens.length && tokens[i].startsWith(prefix); i++) {
+            hits.or(postings[i]);
+        }
+        return hits;
+    }
+
+    /** Lowercase runs of letters and digits; "reserved_instances" yields "reserved" and "instances". */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private static boolean matches(Map<String, Object> template, String field, String value) {
+        return !isSet(value) || value.equals(template.get(field));
+    }
+
+    private static void group(Map<String, List<Map<String, Object>>> groups, Object key, Map<String, Object> template) {
+        if (key != null) {
+            groups.computeIfAbsent(key.toString(), k -> new ArrayList<>()).add(template);
+        }
+    }
+
+    private static Map<String, List<Map<String, Object>>> freeze(Map<String, List<Map<String, Object>>> groups) {
+        Map<String, List<Map<String, Object>>> frozen = new LinkedHashMap<>();
+        groups.forEach((key, list) -> frozen.put(key, List.copyOf(list)));
+        return Collections.unmodifiableMap(frozen);
+    }
+}
@@ -4,8 +4,11 @@ import java.util.*;
 
 public class ScenarioTemplates {
     
+    // Built once when the class loads; every accessor below reads these immutable structures
+    private static final ScenarioTemplateIndex INDEX = new ScenarioTemplateIndex(createCatalog());
+    
     // Beginner Templates (20 templates)
-    public static List<Map<String, Object>> getBeginnerTemplates() {
+    private static List<Map<String, Object>> createBeginnerTemplates() {
         List<Map<String, Object>> templates = new ArrayList<>();
         
         // 1. Basic Cost Optimization
@@ -272,7 +275,7 @@ public class ScenarioTemplates {
     }
     
     // Intermediate Templates (20 templates)
-    public static List<Map<String, Object>> getIntermediateTemplates() {
+    private static List<Map<String, Object>> createIntermediateTemplates() {
         List<Map<String, Object>> templates = new ArrayList<>();
         
         // 21. Multi-Region Optimization
@@ -539,7 +542,7 @@ public class ScenarioTemplates {
     }
     
     // Advanced Templates (15 templates)
-    public static List<Map<String, Object>> getAdvancedTemplates() {
+    private static List<Map<String, Object>> createAdvancedTemplates() {
         List<Map<String, Object>> templates = new ArrayList<>();
         
         // 41. Multi-Cloud Optimization
@@ -764,8 +767,8 @@ public class ScenarioTemplates {
         template.put("parameters", parameters);
         template.put("category", categorizeTemplate(type));
         template.put("complexity", calculateComplexity(difficulty, skillsRequired.size()));
-        template.put("prerequisites", generatePrerequisites(difficulty, type));
-        template.put("learningObjectives", generateLearningObjectives(type, difficulty));
+        template.put("prerequisites", List.copyOf(generatePrerequisites(difficulty, type)));
+        template.put("learningObjectives", List.copyOf(generateLearningObjectives(type, difficulty)));
         
         return template;
     }
@@ -846,37 +849,75 @@ public class ScenarioTemplates {
         return objectives;
     }
     
+    private static List<Map<String, Object>> createCatalog() {
+        List<Map<String, Object>> catalog = new ArrayList<>();
+        catalog.addAll(createBeginnerTemplates());
+        catalog.addAll(createIntermediateTemplates());
+        catalog.addAll(createAdvancedTemplates());
+        return catalog;
+    }
+    
+    // Get templates of one difficulty
+    public static List<Map<String, Object>> getBeginnerTemplates() {
+        return INDEX.byDifficulty("beginner");
+    }
+    
+    public static List<Map<String, Object>> getIntermediateTemplates() {
+        return INDEX.byDifficulty("intermediate");
+    }
+    
+    public static List<Map<String, Object>> getAdvancedTemplates() {
+        return INDEX.byDifficulty("advanced");
+    }
+    
     // Get all templates
     public static List<Map<String, Object>> getAllTemplates() {
-        List<Map<String, Object>> allTemplates = new ArrayList<>();
-        allTemplates.addAll(getBeginnerTemplates());
-        allTemplates.addAll(getIntermediateTemplates());
-        allTemplates.addAll(getAdvancedTemplates());
-        return allTemplates;
+        return INDEX.all();
     }
     
-    // Get templates by difficulty
+    // Get templates by difficulty; unknown difficulties return all templates
     public static List<Map<String, Object>> getTemplatesByDifficulty(String difficulty) {
-        return switch (difficulty.toLowerCase()) {
-            case "beginner" -> getBeginnerTemplates();
-            case "intermediate" -> getIntermediateTemplates();
-            case "advanced" -> getAdvancedTemplates();
-            default -> getAllTemplates();
-        };
+        String knownDifficulty = knownDifficulty(difficulty);
+        return knownDifficulty != null ? INDEX.byDifficulty(knownDifficulty) : INDEX.all();
     }
     
     // Get templates by type
     public static List<Map<String, Object>> getTemplatesByType(String type) {
-        return getAllTemplates().stream()
-            .filter(template -> type.equals(template.get("type")))
-            .toList();
+        return INDEX.byType(type);
+    }
+    
+    // Get templates matching every given difficulty, type and category; null, empty or unknown
+    // difficulties and empty type or category filters are ignored
+    public static List<Map<String, Object>> filterTemplates(String difficulty, String type, String category) {
+        return INDEX.filter(knownDifficulty(difficulty), type, category);
+    }
+    
+    // Search names, descriptions and types by word prefix, optionally within one difficulty
+    public static List<Map<String, Object>> searchTemplates(String query, String difficulty) {
+        return INDEX.search(query, knownDifficulty(difficulty));
+    }
+    
+    // Get distinct template types and categories
+    public static List<String> getTypes() {
+        return INDEX.types();
+    }
+    
+    public static List<String> getCategories() {
+        return INDEX.categories();
     }
     
     // Get template by ID
     public static Map<String, Object> getTemplateById(String id) {
-        return getAllTemplates().stream()
-            .filter(template -> id.equals(template.get("id")))
-            .findFirst()
-            .orElse(null);
+        return INDEX.byId(id);
+    }
+    
+    private static String knownDifficulty(String difficulty) {
+        if (difficulty == null) {
+            return null;
+        }
+        return switch (difficulty.toLowerCase()) {
+            case "beginner", "intermediate", "advanced" -> difficulty.toLowerCase();
+            default -> null;
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.dashboard.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Column-oriented result of a cost query: one entry per (date, team, service, region, provider)
+ * row. Dates are epoch days, the four dimensions are ids into per-series string dictionaries and
+ * cost / usage are plain doubles, so a series of a million rows is a handful of primitive arrays
+ * instead of a million maps of boxed values.
+ *
+ * Rows are appended in query order; the columns grow by doubling.
+ */
+public class CostSeries {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int size;
+    private int[] epochDays;
+    private int[] teamIds;
+    private int[] serviceIds;
+    private int[] regionIds;
+    private int[] providerIds;
+    private double[] costs;
+    private double[] usageQuantities;
+
+    private final StringDictionary teams = new StringDictionary();
+    private final StringDictionary services = new StringDictionary();
+    private final StringDictionary regions = new StringDictionary();
+    private final StringDictionary providers = new StringDictionary();
+
+    public CostSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CostSeries(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.epochDays = new int[capacity];
+        this.teamIds = new int[capacity];
+        this.serviceIds = new int[capacity];
+        this.regionIds = new int[capacity];
+        this.providerIds = new int[capacity];
+        this.costs = new double[capacity];
+        this.usageQuantities = new double[capacity];
+    }
+
+    /**
+     * Append a row. Null dimension values are kept as null.
+     * @return index of the new row
+     */
+    public int add(LocalDate date, String team, String service, String region, String provider,
+                   double cost, double usageQuantity) {
+        if (size == costs.length) {
+            grow();
+        }
+        int row = size++;
+        epochDays[row] = (int) date.toEpochDay();
+        teamIds[row] = teams.encode(team);
+        serviceIds[row] = services.encode(service);
+        regionIds[row] = regions.encode(region);
+        providerIds[row] = providers.encode(provider);
+        costs[row] = cost;
+        usageQuantities[row] = usageQuantity;
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getEpochDay(int row) {
+        return epochDays[row];
+    }
+
+    public LocalDate getDate(int row) {
+        return LocalDate.ofEpochDay(epochDays[row]);
+    }
+
+    public String getTeam(int row) {
+        return teams.decode(teamIds[row]);
+    }
+
+    public String getService(int row) {
+        return services.decode(serviceIds[row]);
+    }
+
+    public String getRegion(int row) {
+        return regions.decode(regionIds[row]);
+    }
+
+    public String getProvider(int row) {
+        return providers.decode(providerIds[row]);
+    }
+
+    public double getCost(int row) {
+        return costs[row];
+    }
+
+    public double getUsageQuantity(int row) {
+        return usageQuantities[row];
+    }
+
+    /**
+     * @return a copy of the cost column, trimmed to the series size
+     */
+    public double[] costs() {
+        return Arrays.copyOf(costs, size);
+    }
+
+    public double totalCost() {
+        double total = 0;
+        for (int row = 0; row < size; row++) {
+            total += costs[row];
+        }
+        return total;
+    }
+
+    /**
+     * @return mean cost of rows {@code [from, to)}, or 0 for an empty range
+     */
+    public double meanCost(int from, int to) {
+        if (to <= from) {
+            return 0;
+        }
+        double total = 0;
+        for (int row = from; row < to; row++) {
+            total += costs[row];
+        }
+        return total / (to - from);
+    }
+
+    public double meanCost() {
+        return meanCost(0, size);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void grow() {
+        int capacity = costs.length * 2;
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        teamIds = Arrays.copyOf(teamIds, capacity);
+        serviceIds = Arrays.copyOf(serviceIds, capacity);
+        regionIds = Arrays.copyOf(regionIds, capacity);
+        providerIds = Arrays.copyOf(providerIds, capacity);
+        costs = Arrays.copyOf(costs, capacity);
+        usageQuantities = Arrays.copyOf(usageQuantities, capacity);
+    }
+}
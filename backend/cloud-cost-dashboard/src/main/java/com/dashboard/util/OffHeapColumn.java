@@ -0,0 +1,213 @@
+package com.dashboard.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Growable column of ints or longs kept outside the Java heap, either in direct buffers or in a
+ * memory-mapped file. The column is split into fixed-size chunks so it can grow past the 2 GB
+ * limit of a single buffer without copying. A mapped column reopened on the same file sees the
+ * values written before, so its owner can restart warm. Not thread-safe.
+ *
+ * {@link #close} unmaps and frees the chunks immediately instead of leaving them to the garbage
+ * collector, which may not run for a long time while a replaced file's mappings keep its address
+ * space and disk blocks (even once deleted) in use. On a JDK that does not allow this, chunks
+ * are released by the garbage collector as before.
+ */
+public class OffHeapColumn implements Closeable {
+
+    public static final int INT_BYTES = Integer.BYTES;
+    public static final int LONG_BYTES = Long.BYTES;
+
+    // 1M elements per chunk: 8 MB for a long column
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_ELEMENTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ELEMENTS - 1;
+
+    // sun.misc.Unsafe#invokeCleaner, or null when chunks can only be released by GC
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("Off-heap columns will be released by garbage collection: " + e.getMessage());
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final int width;
+    private final FileChannel channel;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private long capacity;
+
+    private OffHeapColumn(int width, FileChannel channel) {
+        if (width != INT_BYTES && width != LONG_BYTES) {
+            throw new IllegalArgumentException("Unsupported element width: " + width);
+        }
+        this.width = width;
+        this.channel = channel;
+    }
+
+    /**
+     * Column held in direct buffers, released when the column is garbage collected.
+     */
+    public static OffHeapColumn allocate(int width, long initialCapacity) {
+        OffHeapColumn column = new OffHeapColumn(width, null);
+        column.ensureCapacity(initialCapacity);
+        return column;
+    }
+
+    /**
+     * Column backed by a file, mapping every chunk the file already holds.
+     */
+    public static OffHeapColumn map(Path file, int width, long initialCapacity) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        OffHeapColumn column = new OffHeapColumn(width, channel);
+        try {
+            column.ensureCapacity(Math.max(initialCapacity, channel.size() / width));
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return column;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Grow the column to hold at least {@code elements} values. New values read as zero.
+     */
+    public void ensureCapacity(long elements) {
+        while (capacity < elements) {
+            if (channel == null && chunks.size() <= 1 && capacity < CHUNK_ELEMENTS) {
+                // Small direct columns grow by copying their only chunk so tiny cubes stay tiny
+                int grown = (int) Math.min(CHUNK_ELEMENTS, Math.max(1024, Math.max(capacity * 2, elements)));
+                ByteBuffer chunk = ByteBuffer.allocateDirect(grown * width).order(ByteOrder.nativeOrder());
+                if (!chunks.isEmpty()) {
+                    chunk.put(chunks.get(0).duplicate().clear());
+                    chunk.clear();
+                    release(chunks.set(0, chunk));
+                } else {
+                    chunks.add(chunk);
+                }
+                capacity = grown;
+            } else {
+                chunks.add(newChunk(chunks.size()));
+                capacity = (long) chunks.size() << CHUNK_SHIFT;
+            }
+        }
+    }
+
+    public int getInt(long index) {
+        return chunk(index).getInt(offset(index));
+    }
+
+    public void putInt(long index, int value) {
+        chunk(index).putInt(offset(index), value);
+    }
+
+    public long getLong(long index) {
+        return chunk(index).getLong(offset(index));
+    }
+
+    public void putLong(long index, long value) {
+        chunk(index).putLong(offset(index), value);
+    }
+
+    public void addLong(long index, long delta) {
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        chunk.putLong(offset, chunk.getLong(offset) + delta);
+    }
+
+    /** Write mapped chunks back to the file; a no-op for direct columns. */
+    public void force() {
+        if (channel == null) {
+            return;
+        }
+        for (ByteBuffer chunk : chunks) {
+            ((MappedByteBuffer) chunk).force();
+        }
+    }
+
+    /** @return whether {@link #close} releases chunks immediately on this JDK */
+    public static boolean releasesOnClose() {
+        return INVOKE_CLEANER != null;
+    }
+
+    /**
+     * Unmap or free every chunk and close the file. The column must not be used afterwards, by
+     * this or any other thread: its chunks are gone, and reading one would fault.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (ByteBuffer chunk : chunks) {
+                release(chunk);
+            }
+            chunks.clear();
+            capacity = 0;
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private ByteBuffer newChunk(int chunkIndex) {
+        long bytes = (long) CHUNK_ELEMENTS * width;
+        if (channel == null) {
+            return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        }
+        try {
+            // Mapping past the end extends the file; untouched pages stay sparse on disk
+            return channel.map(FileChannel.MapMode.READ_WRITE, chunkIndex * bytes, bytes)
+                .order(ByteOrder.nativeOrder());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map column chunk " + chunkIndex, e);
+        }
+    }
+
+    private static void release(ByteBuffer chunk) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, chunk);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to release column chunk", e);
+        }
+    }
+
+    private ByteBuffer chunk(long index) {
+        return chunks.get((int) (index >>> CHUNK_SHIFT));
+    }
+
+    private int offset(long index) {
+        return (int) (index & CHUNK_MASK) * width;
+    }
+}
@@ -0,0 +1,39 @@
+package com.dashboard.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Percentiles of small sorted samples, interpolating linearly between the two closest ranks
+ * (the PERCENTILE_CONT definition), so cube and SQL code paths report the same figures.
+ */
+public final class Percentiles {
+
+    private Percentiles() {
+    }
+
+    /**
+     * @param sorted Values in ascending order
+     * @param percentile Percentile between 0 and 100
+     * @return the interpolated value, or null for an empty sample
+     */
+    public static BigDecimal of(List<BigDecimal> sorted, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (sorted.isEmpty()) {
+            return null;
+        }
+        double rank = percentile / 100 * (sorted.size() - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = (int) Math.ceil(rank);
+        BigDecimal low = sorted.get(lower);
+        if (lower == upper) {
+            return low;
+        }
+        BigDecimal fraction = BigDecimal.valueOf(rank - lower);
+        return low.add(sorted.get(upper).subtract(low).multiply(fraction))
+            .setScale(Math.max(low.scale(), 2), RoundingMode.HALF_UP);
+    }
+}
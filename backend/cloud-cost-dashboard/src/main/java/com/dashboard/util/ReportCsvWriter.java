@@ -0,0 +1,65 @@
+package com.dashboard.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Writes report rows as RFC 4180 CSV with a header line. Fields containing commas, quotes or
+ * line breaks are quoted; null values are written as empty fields.
+ */
+public class ReportCsvWriter implements ReportRowWriter {
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public ReportCsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) throws IOException {
+        writeRow(columns.toArray());
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        line.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendValue(values[i]);
+        }
+        line.append('\n');
+        out.append(line);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void appendValue(Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof BigDecimal decimal) {
+            line.append(decimal.toPlainString());
+            return;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            line.append(value);
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,98 @@
+package com.dashboard.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Writes report rows as newline-delimited JSON: one object per row, keyed by the header columns.
+ * Numbers are written as JSON numbers, dates and other values as strings.
+ */
+public class ReportJsonLinesWriter implements ReportRowWriter {
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(512);
+    private String[] keys;
+
+    public ReportJsonLinesWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) {
+        // Quoted once here rather than for every row
+        keys = new String[columns.size()];
+        for (int i = 0; i < keys.length; i++) {
+            line.setLength(0);
+            appendString(columns.get(i));
+            keys[i] = line.append(':').toString();
+        }
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        if (keys == null) {
+            throw new IllegalStateException("writeHeader must be called before writeRow");
+        }
+        line.setLength(0);
+        line.append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(keys[i]);
+            appendValue(values[i]);
+        }
+        line.append("}\n");
+        out.append(line);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void appendValue(Object value) {
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof BigDecimal decimal) {
+            line.append(decimal.toPlainString());
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isFinite(number)) {
+                line.append(value);
+            } else {
+                line.append("null");
+            }
+        } else if (value instanceof Number || value instanceof Boolean) {
+            line.append(value);
+        } else {
+            appendString(value.toString());
+        }
+    }
+
+    private void appendString(String text) {
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,326 @@
+package com.dashboard.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes report rows as a paged PDF table on A4 landscape, using the standard Helvetica fonts so
+ * nothing is embedded. Each page is compressed and written as soon as it fills; only the current
+ * page and one byte offset per PDF object (for the cross-reference table) are held in memory.
+ * Cells longer than their column are truncated, numbers are right-aligned, and the header row is
+ * repeated on every page. A summary, if given, is rendered on the pages before the table.
+ */
+public class ReportPdfWriter implements ReportRowWriter {
+
+    private static final float PAGE_WIDTH = 842f;
+    private static final float PAGE_HEIGHT = 595f;
+    private static final float MARGIN = 36f;
+    private static final float TITLE_SIZE = 12f;
+    private static final float FONT_SIZE = 7f;
+    private static final float ROW_HEIGHT = 10f;
+    private static final float CELL_PADDING = 2f;
+    private static final float SUMMARY_VALUE_X = MARGIN + 320f;
+
+    // Helvetica advance widths as a fraction of the font size; letters are estimated at the digit width
+    private static final float DIGIT_WIDTH = 0.556f;
+    private static final float NARROW_WIDTH = 0.278f;
+    private static final float AVERAGE_WIDTH = 0.556f;
+
+    // Fixed object numbers; pages and their content streams are numbered from FIRST_PAGE_OBJECT
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT_REGULAR = 3;
+    private static final int FONT_BOLD = 4;
+    private static final int FIRST_PAGE_OBJECT = 5;
+
+    private final OutputStream out;
+    private final String title;
+    private final StringBuilder page = new StringBuilder(16 * 1024);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(8 * 1024);
+    private final byte[] deflateBuffer = new byte[8 * 1024];
+
+    private long offset;
+    private long[] objectOffsets = new long[256];
+    private int nextObject = FIRST_PAGE_OBJECT;
+    private int[] pageObjects = new int[128];
+    private int pageCount;
+
+    private boolean pageOpen;
+    private float y;
+    private String[] header;
+    private float[] columnX;
+    private float columnWidth;
+    private int maxCellChars;
+
+    public ReportPdfWriter(OutputStream out, String title) {
+        this.out = out;
+        this.title = title != null ? title : "Report";
+    }
+
+    @Override
+    public void writeSummary(Map<String, Object> summary) throws IOException {
+        startDocument();
+        startPage("Summary");
+        int maxValueChars = (int) ((PAGE_WIDTH - MARGIN - SUMMARY_VALUE_X) / (FONT_SIZE * AVERAGE_WIDTH));
+        int maxLabelChars = (int) ((SUMMARY_VALUE_X - MARGIN - CELL_PADDING * 4) / (FONT_SIZE * AVERAGE_WIDTH));
+        for (Map.Entry<String, Object> entry : summary.entrySet()) {
+            if (y < MARGIN + ROW_HEIGHT) {
+                endPage();
+                startPage("Summary");
+            }
+            appendText("F2", MARGIN, y, fit(entry.getKey(), maxLabelChars));
+            appendText("F1", SUMMARY_VALUE_X, y, fit(format(entry.getValue()), maxValueChars));
+            y -= ROW_HEIGHT * 1.2f;
+        }
+        endPage();
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) throws IOException {
+        startDocument();
+        header = columns.toArray(new String[0]);
+        columnWidth = (PAGE_WIDTH - 2 * MARGIN) / header.length;
+        columnX = new float[header.length];
+        for (int i = 0; i < header.length; i++) {
+            columnX[i] = MARGIN + i * columnWidth;
+        }
+        maxCellChars = Math.max(1, (int) ((columnWidth - 2 * CELL_PADDING) / (FONT_SIZE * AVERAGE_WIDTH)));
+        startTablePage();
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        if (header == null) {
+            throw new IllegalStateException("writeHeader must be called before writeRow");
+        }
+        if (y < MARGIN + ROW_HEIGHT) {
+            endPage();
+            startTablePage();
+        }
+        for (int i = 0; i < values.length && i < columnX.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = fit(format(value), maxCellChars);
+            float x = columnX[i] + CELL_PADDING;
+            if (value instanceof Number) {
+                x = columnX[i] + columnWidth - CELL_PADDING - numberWidth(text);
+            }
+            appendText("F1", x, y, text);
+        }
+        y -= ROW_HEIGHT;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        startDocument();
+        if (pageOpen) {
+            endPage();
+        }
+        if (pageCount == 0) {
+            startPage(null);
+            endPage();
+        }
+
+        beginObject(PAGES);
+        StringBuilder kids = new StringBuilder(64);
+        write("<< /Type /Pages /Count " + pageCount + " /Kids [");
+        for (int i = 0; i < pageCount; i++) {
+            kids.setLength(0);
+            kids.append(i % 16 == 0 ? "\n" : " ").append(pageObjects[i]).append(" 0 R");
+            write(kids.toString());
+        }
+        write(" ] >>\nendobj\n");
+
+        beginObject(CATALOG);
+        write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+        int info = nextObject++;
+        beginObject(info);
+        write("<< /Title (" + escape(title) + ") /Producer (Cloud Cost Dashboard) >>\nendobj\n");
+
+        long xrefOffset = offset;
+        StringBuilder xref = new StringBuilder(20 * 64);
+        xref.append("xref\n0 ").append(nextObject).append("\n0000000000 65535 f \n");
+        for (int object = 1; object < nextObject; object++) {
+            String position = Long.toString(objectOffsets[object]);
+            xref.append("0000000000", position.length(), 10).append(position).append(" 00000 n \n");
+            if (xref.length() > 16 * 1024) {
+                write(xref.toString());
+                xref.setLength(0);
+            }
+        }
+        xref.append("trailer\n<< /Size ").append(nextObject).append(" /Root ").append(CATALOG).append(" 0 R /Info ")
+            .append(info).append(" 0 R >>\nstartxref\n").append(xrefOffset).append("\n%%EOF\n");
+        write(xref.toString());
+        deflater.end();
+        out.flush();
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void startDocument() throws IOException {
+        if (offset > 0) {
+            return;
+        }
+        // The comment of high bytes marks the file as binary for transfer tools
+        write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+        writeFont(FONT_REGULAR, "Helvetica");
+        writeFont(FONT_BOLD, "Helvetica-Bold");
+    }
+
+    private void writeFont(int object, String baseFont) throws IOException {
+        beginObject(object);
+        write("<< /Type /Font /Subtype /Type1 /BaseFont /" + baseFont + " /Encoding /WinAnsiEncoding >>\nendobj\n");
+    }
+
+    private void startTablePage() {
+        startPage(null);
+        for (int i = 0; i < header.length; i++) {
+            appendText("F2", columnX[i] + CELL_PADDING, y, fit(header[i], maxCellChars));
+        }
+        float lineY = y - 3f;
+        page.append("0.5 w ").append(coordinate(MARGIN)).append(' ').append(coordinate(lineY)).append(" m ")
+            .append(coordinate(PAGE_WIDTH - MARGIN)).append(' ').append(coordinate(lineY)).append(" l S\n");
+        y -= ROW_HEIGHT + 3f;
+    }
+
+    private void startPage(String subtitle) {
+        page.setLength(0);
+        pageOpen = true;
+        float titleY = PAGE_HEIGHT - MARGIN - TITLE_SIZE;
+        page.append("BT /F2 ").append(coordinate(TITLE_SIZE)).append(" Tf 1 0 0 1 ").append(coordinate(MARGIN))
+            .append(' ').append(coordinate(titleY)).append(" Tm (")
+            .append(escape(subtitle == null ? title : title + " - " + subtitle)).append(") Tj ET\n");
+        y = titleY - TITLE_SIZE - ROW_HEIGHT;
+    }
+
+    private void endPage() throws IOException {
+        String footer = "Page " + (pageCount + 1);
+        appendText("F1", PAGE_WIDTH - MARGIN - numberWidth(footer), MARGIN / 2, footer);
+
+        byte[] content = page.toString().getBytes(StandardCharsets.ISO_8859_1);
+        deflater.reset();
+        deflater.setInput(content);
+        deflater.finish();
+        compressed.reset();
+        while (!deflater.finished()) {
+            compressed.write(deflateBuffer, 0, deflater.deflate(deflateBuffer));
+        }
+
+        int contentObject = nextObject++;
+        beginObject(contentObject);
+        write("<< /Length " + compressed.size() + " /Filter /FlateDecode >>\nstream\n");
+        compressed.writeTo(out);
+        offset += compressed.size();
+        write("\nendstream\nendobj\n");
+
+        int pageObject = nextObject++;
+        beginObject(pageObject);
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + coordinate(PAGE_WIDTH) + " "
+            + coordinate(PAGE_HEIGHT) + "] /Contents " + contentObject + " 0 R /Resources << /Font << /F1 "
+            + FONT_REGULAR + " 0 R /F2 " + FONT_BOLD + " 0 R >> >> >>\nendobj\n");
+
+        if (pageCount == pageObjects.length) {
+            pageObjects = Arrays.copyOf(pageObjects, pageCount * 2);
+        }
+        pageObjects[pageCount++] = pageObject;
+        pageOpen = false;
+    }
+
+    private void appendText(String font, float x, float textY, String text) {
+        page.append("BT /").append(font).append(' ').append(coordinate(FONT_SIZE)).append(" Tf 1 0 0 1 ")
+            .append(coordinate(x)).append(' ').append(coordinate(textY)).append(" Tm (")
+            .append(escape(text)).append(") Tj ET\n");
+    }
+
+    private void beginObject(int object) throws IOException {
+        if (object >= objectOffsets.length) {
+            objectOffsets = Arrays.copyOf(objectOffsets, Math.max(object + 1, objectOffsets.length * 2));
+        }
+        objectOffsets[object] = offset;
+        write(object + " 0 obj\n");
+    }
+
+    private void write(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(bytes);
+        offset += bytes.length;
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    private static String fit(String text, int maxChars) {
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        return maxChars <= 3 ? text.substring(0, maxChars) : text.substring(0, maxChars - 3) + "...";
+    }
+
+    private static float numberWidth(String text) {
+        float width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            width += c == '.' || c == ',' || c == ' ' ? NARROW_WIDTH : c >= '0' && c <= '9' ? DIGIT_WIDTH : AVERAGE_WIDTH;
+        }
+        return width * FONT_SIZE;
+    }
+
+    /** Two-decimal PDF number without going through String.format. */
+    private static String coordinate(float value) {
+        long hundredths = Math.round(value * 100.0);
+        long whole = hundredths / 100;
+        int fraction = (int) Math.abs(hundredths % 100);
+        String sign = hundredths < 0 && whole == 0 ? "-" : "";
+        if (fraction == 0) {
+            return sign + whole;
+        }
+        return sign + whole + (fraction < 10 ? ".0" : ".") + (fraction % 10 == 0 ? fraction / 10 : fraction);
+    }
+
+    /**
+     * Escape a PDF literal string. Text is written in WinAnsiEncoding; characters outside
+     * Latin-1 become '?' (the euro sign is mapped to its WinAnsi code).
+     */
+    private static String escape(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean plain = c >= 0x20 && c < 0x7F && c != '(' && c != ')' && c != '\\';
+            if (plain && escaped == null) {
+                continue;
+            }
+            if (escaped == null) {
+                escaped = new StringBuilder(text.length() + 8).append(text, 0, i);
+            }
+            if (plain) {
+                escaped.append(c);
+            } else if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c == '\u20ac') {
+                escaped.append('\u0080');
+            } else if (c < 0x20 || c == 0x7F) {
+                escaped.append(' ');
+            } else if (c >= 0xA0 && c <= 0xFF) {
+                escaped.append(c);
+            } else {
+                escaped.append('?');
+            }
+        }
+        return escaped == null ? text : escaped.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.dashboard.util;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes exported report rows one at a time to an output format, holding at most one row, so
+ * exports of any size run in constant memory. Values are Strings, Numbers (BigDecimal written
+ * in plain notation), dates or null.
+ */
+public interface ReportRowWriter {
+
+    /**
+     * Write the report's summary (label to value) ahead of the rows. Document formats render it
+     * as its own sheet or page; row formats have nowhere to put it and ignore it.
+     */
+    default void writeSummary(Map<String, Object> summary) throws IOException {
+    }
+
+    void writeHeader(List<String> columns) throws IOException;
+
+    void writeRow(Object[] values) throws IOException;
+
+    /** Write any trailer and flush; the underlying stream is left open. */
+    void finish() throws IOException;
+}
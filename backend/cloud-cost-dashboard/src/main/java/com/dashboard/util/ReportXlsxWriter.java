@@ -0,0 +1,270 @@
+package com.dashboard.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes report rows as an XLSX workbook, streaming each worksheet into the zip as rows arrive.
+ * Strings are written inline rather than into a shared string table, so nothing but the current
+ * row is held in memory. A summary, if given, becomes the first sheet; the rows follow on
+ * "Breakdown" sheets with a frozen header, continuing on a new sheet whenever one reaches
+ * Excel's row limit.
+ */
+public class ReportXlsxWriter implements ReportRowWriter {
+
+    /** Rows per worksheet including the header, the most Excel opens. */
+    public static final int MAX_ROWS_PER_SHEET = 1_048_576;
+    private static final int MAX_CELL_LENGTH = 32_767;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final int STYLE_BOLD = 1;
+
+    // Style 0 is the default cell format, style 1 the bold header
+    private static final String STYLES = XML_DECLARATION
+        + "<styleSheet xmlns=\"" + MAIN_NS + "\">"
+        + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+        + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+        + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+        + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+        + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+        + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+        + "<cellXfs count=\"2\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+        + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/></cellXfs>"
+        + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+        + "</styleSheet>";
+
+    private final OutputStream out;
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private final int maxRowsPerSheet;
+    private final StringBuilder line = new StringBuilder(512);
+
+    private final List<String> sheetNames = new ArrayList<>();
+    private Object[] header;
+    private int breakdownSheets;
+    private int sheetRows;
+    private boolean sheetOpen;
+
+    public ReportXlsxWriter(OutputStream out) {
+        this(out, MAX_ROWS_PER_SHEET);
+    }
+
+    ReportXlsxWriter(OutputStream out, int maxRowsPerSheet) {
+        if (maxRowsPerSheet < 2) {
+            throw new IllegalArgumentException("A sheet must fit the header and one row: " + maxRowsPerSheet);
+        }
+        this.out = out;
+        this.maxRowsPerSheet = maxRowsPerSheet;
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // Sheet XML is repetitive enough that the fastest level still compresses it ~10x
+        this.zip.setLevel(Deflater.BEST_SPEED);
+        this.xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    @Override
+    public void writeSummary(Map<String, Object> summary) throws IOException {
+        openSheet("Summary", false, "<cols><col min=\"1\" max=\"1\" width=\"48\" customWidth=\"1\"/>"
+            + "<col min=\"2\" max=\"2\" width=\"28\" customWidth=\"1\"/></cols>");
+        writeCells(new Object[]{"Item", "Value"}, STYLE_BOLD);
+        Object[] entry = new Object[2];
+        for (Map.Entry<String, Object> item : summary.entrySet()) {
+            entry[0] = item.getKey();
+            entry[1] = item.getValue();
+            writeCells(entry, 0);
+        }
+        closeSheet();
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) throws IOException {
+        header = columns.toArray();
+        openBreakdownSheet();
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        if (header == null) {
+            throw new IllegalStateException("writeHeader must be called before writeRow");
+        }
+        if (sheetRows >= maxRowsPerSheet) {
+            closeSheet();
+            openBreakdownSheet();
+        }
+        writeCells(values, 0);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (sheetOpen) {
+            closeSheet();
+        }
+        if (sheetNames.isEmpty()) {
+            openSheet("Breakdown", false, "");
+            closeSheet();
+        }
+        writeEntry("[Content_Types].xml", contentTypes());
+        writeEntry("_rels/.rels", XML_DECLARATION
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>");
+        writeEntry("xl/workbook.xml", workbook());
+        writeEntry("xl/_rels/workbook.xml.rels", workbookRelationships());
+        writeEntry("xl/styles.xml", STYLES);
+        zip.finish();
+        out.flush();
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void openBreakdownSheet() throws IOException {
+        breakdownSheets++;
+        openSheet(breakdownSheets == 1 ? "Breakdown" : "Breakdown " + breakdownSheets, true, "");
+        writeCells(header, STYLE_BOLD);
+    }
+
+    private void openSheet(String name, boolean freezeHeader, String columns) throws IOException {
+        sheetNames.add(name);
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetNames.size() + ".xml"));
+        xml.write(XML_DECLARATION);
+        xml.write("<worksheet xmlns=\"" + MAIN_NS + "\">");
+        if (freezeHeader) {
+            xml.write("<sheetViews><sheetView workbookViewId=\"0\">"
+                + "<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>"
+                + "</sheetView></sheetViews>");
+        }
+        xml.write(columns);
+        xml.write("<sheetData>");
+        sheetRows = 0;
+        sheetOpen = true;
+    }
+
+    private void closeSheet() throws IOException {
+        xml.write("</sheetData></worksheet>");
+        xml.flush();
+        zip.closeEntry();
+        sheetOpen = false;
+    }
+
+    private void writeCells(Object[] values, int style) throws IOException {
+        line.setLength(0);
+        line.append("<row r=\"").append(++sheetRows).append("\">");
+        for (Object value : values) {
+            appendCell(value, style);
+        }
+        line.append("</row>\n");
+        xml.append(line);
+    }
+
+    // Cells carry no reference, so each one lands in the column after the previous cell
+    private void appendCell(Object value, int style) {
+        String styleAttribute = style == 0 ? "" : " s=\"" + style + "\"";
+        if (value == null) {
+            line.append("<c").append(styleAttribute).append("/>");
+        } else if (value instanceof BigDecimal decimal) {
+            line.append("<c").append(styleAttribute).append("><v>").append(decimal.toPlainString()).append("</v></c>");
+        } else if ((value instanceof Double || value instanceof Float) && !Double.isFinite(((Number) value).doubleValue())) {
+            appendInlineString(value.toString(), styleAttribute);
+        } else if (value instanceof Number) {
+            line.append("<c").append(styleAttribute).append("><v>").append(value).append("</v></c>");
+        } else if (value instanceof Boolean flag) {
+            line.append("<c t=\"b\"").append(styleAttribute).append("><v>").append(flag ? 1 : 0).append("</v></c>");
+        } else {
+            appendInlineString(value.toString(), styleAttribute);
+        }
+    }
+
+    private void appendInlineString(String text, String styleAttribute) {
+        if (text.length() > MAX_CELL_LENGTH) {
+            text = text.substring(0, MAX_CELL_LENGTH);
+        }
+        line.append("<c t=\"inlineStr\"").append(styleAttribute).append("><is><t");
+        if (!text.isEmpty() && (Character.isWhitespace(text.charAt(0))
+                || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+            line.append(" xml:space=\"preserve\"");
+        }
+        line.append('>');
+        appendEscaped(line, text);
+        line.append("</t></is></c>");
+    }
+
+    /** XML-escape text, dropping characters XML 1.0 cannot represent. */
+    private static void appendEscaped(StringBuilder target, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> target.append("&amp;");
+                case '<' -> target.append("&lt;");
+                case '>' -> target.append("&gt;");
+                case '"' -> target.append("&quot;");
+                default -> {
+                    if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        target.append(c).append(text.charAt(++i));
+                    } else if ((c >= 0x20 && c < 0xD800) || (c > 0xDFFF && c < 0xFFFE) || c == '\t' || c == '\n' || c == '\r') {
+                        target.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        xml.write(content);
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    private String contentTypes() {
+        StringBuilder types = new StringBuilder(XML_DECLARATION)
+            .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+            .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+            .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+            .append("<Override PartName=\"/xl/workbook.xml\" ")
+            .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+            .append("<Override PartName=\"/xl/styles.xml\" ")
+            .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int sheet = 1; sheet <= sheetNames.size(); sheet++) {
+            types.append("<Override PartName=\"/xl/worksheets/sheet").append(sheet).append(".xml\" ")
+                .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return types.append("</Types>").toString();
+    }
+
+    private String workbook() {
+        StringBuilder workbook = new StringBuilder(XML_DECLARATION)
+            .append("<workbook xmlns=\"").append(MAIN_NS).append("\" xmlns:r=\"").append(REL_NS).append("\"><sheets>");
+        for (int sheet = 1; sheet <= sheetNames.size(); sheet++) {
+            workbook.append("<sheet name=\"");
+            appendEscaped(workbook, sheetNames.get(sheet - 1));
+            workbook.append("\" sheetId=\"").append(sheet).append("\" r:id=\"rId").append(sheet).append("\"/>");
+        }
+        return workbook.append("</sheets></workbook>").toString();
+    }
+
+    private String workbookRelationships() {
+        StringBuilder relationships = new StringBuilder(XML_DECLARATION)
+            .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int sheet = 1; sheet <= sheetNames.size(); sheet++) {
+            relationships.append("<Relationship Id=\"rId").append(sheet).append("\" Type=\"").append(REL_NS)
+                .append("/worksheet\" Target=\"worksheets/sheet").append(sheet).append(".xml\"/>");
+        }
+        relationships.append("<Relationship Id=\"rId").append(sheetNames.size() + 1).append("\" Type=\"").append(REL_NS)
+            .append("/styles\" Target=\"styles.xml\"/>");
+        return relationships.append("</Relationships>").toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.dashboard.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Reusable, column-oriented buffer of generated scenario usage rows waiting to be written to
+ * scenario_usage_data. Costs are kept in cents (the scale of the cost column) and dates as epoch
+ * days, so a chunk can be cleared and refilled without allocating per row.
+ */
+public class ScenarioUsageBatch {
+
+    public static final int COST_SCALE = 2;
+
+    private final int capacity;
+    private int size;
+
+    private final String[] teamIds;
+    private final String[] serviceNames;
+    private final String[] resourceTypes;
+    private final String[] resourceIds;
+    private final long[] costs;
+    private final double[] usageAmounts;
+    private final String[] usageUnits;
+    private final int[] dates;
+    private final String[] metadata;
+
+    public ScenarioUsageBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Batch capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.teamIds = new String[capacity];
+        this.serviceNames = new String[capacity];
+        this.resourceTypes = new String[capacity];
+        this.resourceIds = new String[capacity];
+        this.costs = new long[capacity];
+        this.usageAmounts = new double[capacity];
+        this.usageUnits = new String[capacity];
+        this.dates = new int[capacity];
+        this.metadata = new String[capacity];
+    }
+
+    /**
+     * Append one row.
+     * @return index of the new row
+     */
+    public int addRow(String teamId, String serviceName, String resourceType, String resourceId,
+                      long costCents, double usageAmount, String usageUnit, int epochDay, String metadataJson) {
+        if (size >= capacity) {
+            throw new IllegalStateException("Batch is full (" + capacity + " rows)");
+        }
+        int row = size++;
+        teamIds[row] = teamId;
+        serviceNames[row] = serviceName;
+        resourceTypes[row] = resourceType;
+        resourceIds[row] = resourceId;
+        costs[row] = costCents;
+        usageAmounts[row] = usageAmount;
+        usageUnits[row] = usageUnit;
+        dates[row] = epochDay;
+        metadata[row] = metadataJson;
+        return row;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return capacity; }
+    public boolean isFull() { return size >= capacity; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Row accessors
+    public String getTeamId(int row) { return teamIds[row]; }
+    public String getServiceName(int row) { return serviceNames[row]; }
+    public String getResourceType(int row) { return resourceTypes[row]; }
+    public String getResourceId(int row) { return resourceIds[row]; }
+    public long getCostCents(int row) { return costs[row]; }
+    public BigDecimal getCost(int row) { return BigDecimal.valueOf(costs[row], COST_SCALE); }
+    public double getUsageAmount(int row) { return usageAmounts[row]; }
+    public String getUsageUnit(int row) { return usageUnits[row]; }
+    public int getDateEpochDay(int row) { return dates[row]; }
+    public LocalDate getDate(int row) { return LocalDate.ofEpochDay(dates[row]); }
+    public String getMetadata(int row) { return metadata[row]; }
+}
@@ -0,0 +1,191 @@
+package com.dashboard.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Weighted Space-Saving heavy-hitter sketch: tracks at most {@code capacity} keys with their
+ * summed weights. When a new key arrives at a full sketch it takes over the counter with the
+ * smallest weight, inheriting that weight as its error, so every reported weight is an upper
+ * bound that exceeds the true total by at most its error. Any key whose true total is above
+ * the smallest tracked weight is guaranteed to be tracked. Not thread-safe.
+ *
+ * Sketches of disjoint slices of a stream (days, teams) combine with a {@link Union}.
+ * A key evicted from one slice's sketch loses at most that sketch's smallest weight there.
+ */
+public class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    // Min-heap on weight, so the counter to evict is always at the root
+    private final Counter[] heap;
+    private int size;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    /**
+     * Add a non-negative weight to a key; zero weights are ignored.
+     */
+    public void add(String key, long weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight for " + key + ": " + weight);
+        }
+        if (weight == 0) {
+            return;
+        }
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (size < capacity) {
+                counter = new Counter(key, size);
+                counter.weight = weight;
+                heap[size++] = counter;
+                counters.put(key, counter);
+                siftUp(counter.index);
+                return;
+            }
+            // Evict the lightest key; the newcomer may have been it, so it inherits the weight
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.weight;
+            counters.put(key, counter);
+        }
+        counter.weight += weight;
+        siftDown(counter.index);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the heaviest tracked keys, heaviest first
+     */
+    public List<Entry> top(int limit) {
+        Counter[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, (a, b) -> Long.compare(b.weight, a.weight));
+        List<Entry> top = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < Math.min(limit, size); i++) {
+            top.add(new Entry(sorted[i].key, sorted[i].weight, sorted[i].error));
+        }
+        return top;
+    }
+
+    /**
+     * Sum of the counters of several sketches. Memory is proportional to the distinct keys
+     * across the sketches added, which their capacities bound. Not thread-safe.
+     */
+    public static final class Union {
+        private final Map<String, long[]> totals = new HashMap<>();
+
+        public void add(SpaceSavingSketch sketch) {
+            for (int i = 0; i < sketch.size; i++) {
+                Counter counter = sketch.heap[i];
+                long[] total = totals.computeIfAbsent(counter.key, key -> new long[2]);
+                total[0] += counter.weight;
+                total[1] += counter.error;
+            }
+        }
+
+        /**
+         * @return the heaviest keys, heaviest first
+         */
+        public List<Entry> top(int limit) {
+            // Keep the heaviest in a min-heap instead of sorting every key
+            PriorityQueue<Map.Entry<String, long[]>> heaviest =
+                new PriorityQueue<>((a, b) -> Long.compare(a.getValue()[0], b.getValue()[0]));
+            for (Map.Entry<String, long[]> total : totals.entrySet()) {
+                if (heaviest.size() < limit) {
+                    heaviest.add(total);
+                } else if (limit > 0 && total.getValue()[0] > heaviest.peek().getValue()[0]) {
+                    heaviest.poll();
+                    heaviest.add(total);
+                }
+            }
+            List<Entry> top = new ArrayList<>(heaviest.size());
+            for (Map.Entry<String, long[]> total : heaviest) {
+                top.add(new Entry(total.getKey(), total.getValue()[0], total.getValue()[1]));
+            }
+            top.sort((x, y) -> Long.compare(y.weight, x.weight));
+            return top;
+        }
+    }
+
+    /** A tracked key: its weight is at least its true total and at most error above it. */
+    public static final class Entry {
+        private final String key;
+        private final long weight;
+        private final long error;
+
+        Entry(String key, long weight, long error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+
+        public String getKey() { return key; }
+        public long getWeight() { return weight; }
+        public long getError() { return error; }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].weight <= counter.weight) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].index = index;
+            index = parent;
+        }
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].weight < heap[child].weight) {
+                child++;
+            }
+            if (heap[child].weight >= counter.weight) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private static final class Counter {
+        String key;
+        long weight;
+        long error;
+        int index;
+
+        Counter(String key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.dashboard.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense int ids to the distinct values of a string column so columnar structures can
+ * store one int per row instead of a String reference. Id -1 stands for null. Not thread-safe.
+ */
+public class StringDictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @return id of the value, assigning the next id if it has not been seen before
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            values.add(value);
+            ids.put(value, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return id of the value, or -1 if it is null or has never been encoded
+     */
+    public int lookup(String value) {
+        Integer id = value == null ? null : ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    public String decode(int id) {
+        return id < 0 ? null : values.get(id);
+    }
+
+    /** Number of distinct non-null values. */
+    public int size() {
+        return values.size();
+    }
+}
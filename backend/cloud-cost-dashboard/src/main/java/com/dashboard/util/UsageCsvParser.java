@@ -0,0 +1,378 @@
+package com.dashboard.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Header-driven parser for billing CSV exports. Understands both the short sample layout
+ * (teamName,service,usageAmount,usageDate), whose amount is the billed cost, and the full
+ * usage_records column layout (account_id,team_id,service_id,...,total_cost,currency). Column names are
+ * matched case-insensitively, ignoring '_' and '-', so snake_case and camelCase headers work.
+ *
+ * <p>A parser instance keeps a reusable field buffer and is not thread-safe; use one per
+ * reading thread.
+ */
+public class UsageCsvParser {
+
+    private static final int TEAM = 0;
+    private static final int SERVICE = 1;
+    private static final int ACCOUNT = 2;
+    private static final int PROVIDER = 3;
+    private static final int RESOURCE_ID = 4;
+    private static final int RESOURCE_NAME = 5;
+    private static final int RESOURCE_TYPE = 6;
+    private static final int REGION = 7;
+    private static final int USAGE_DATE = 8;
+    private static final int USAGE_HOUR = 9;
+    private static final int USAGE_QUANTITY = 10;
+    private static final int USAGE_UNIT = 11;
+    private static final int UNIT_PRICE = 12;
+    private static final int TOTAL_COST = 13;
+    private static final int CURRENCY = 14;
+    private static final int FIELD_COUNT = 15;
+
+    private static final Map<String, Integer> COLUMN_ALIASES = new HashMap<>();
+
+    static {
+        alias(TEAM, "team", "teamname", "teamid");
+        alias(SERVICE, "service", "servicename", "servicecode", "serviceid");
+        alias(ACCOUNT, "account", "accountname", "accountid");
+        alias(PROVIDER, "provider", "cloudprovider", "providername");
+        alias(RESOURCE_ID, "resourceid");
+        alias(RESOURCE_NAME, "resourcename");
+        alias(RESOURCE_TYPE, "resourcetype");
+        alias(REGION, "region");
+        alias(USAGE_DATE, "usagedate", "date");
+        alias(USAGE_HOUR, "usagehour", "hour");
+        alias(USAGE_QUANTITY, "usagequantity", "usageamount", "quantity");
+        alias(USAGE_UNIT, "usageunit", "unit");
+        alias(UNIT_PRICE, "unitprice");
+        alias(TOTAL_COST, "totalcost", "cost");
+        alias(CURRENCY, "currency");
+    }
+
+    // columnIndex[field] = position of that field in the file, or -1 when absent
+    private final int[] columnIndex = new int[FIELD_COUNT];
+    private final int columnCount;
+    private final String[] values;
+    private final boolean hasPricing;
+
+    public UsageCsvParser(String headerLine) {
+        if (headerLine == null || headerLine.isBlank()) {
+            throw new IllegalArgumentException("CSV file is empty or has no header row");
+        }
+        java.util.Arrays.fill(columnIndex, -1);
+
+        String[] header = new String[countColumns(stripBom(headerLine))];
+        split(stripBom(headerLine), header);
+        this.columnCount = header.length;
+        this.values = new String[columnCount];
+
+        for (int i = 0; i < header.length; i++) {
+            Integer field = COLUMN_ALIASES.get(normalize(header[i]));
+            if (field != null && columnIndex[field] < 0) {
+                columnIndex[field] = i;
+            }
+        }
+
+        requireColumn(TEAM, "team");
+        requireColumn(SERVICE, "service");
+        requireColumn(USAGE_DATE, "usage date");
+        this.hasPricing = columnIndex[UNIT_PRICE] >= 0 || columnIndex[TOTAL_COST] >= 0;
+    }
+
+    public boolean hasAccountColumn() {
+        return columnIndex[ACCOUNT] >= 0;
+    }
+
+    /**
+     * Parse one data line into the next row of the batch.
+     * @return false if the line was blank and skipped
+     * @throws IllegalArgumentException if the line is malformed; the batch is left unchanged
+     */
+    public boolean parseInto(String line, long lineNumber, UsageRowBatch batch) {
+        if (line.isBlank()) {
+            return false;
+        }
+
+        int found = split(line, values);
+        if (found != columnCount) {
+            throw new IllegalArgumentException(
+                "expected " + columnCount + " columns but found " + found);
+        }
+
+        int row = batch.addRow(lineNumber);
+        try {
+            String team = required(TEAM, "team");
+            if (isNumeric(team)) batch.setTeamId(row, Long.parseLong(team));
+            else batch.setTeamKey(row, team);
+
+            String service = required(SERVICE, "service");
+            if (isNumeric(service)) batch.setServiceId(row, Long.parseLong(service));
+            else batch.setServiceKey(row, service);
+
+            String account = value(ACCOUNT);
+            if (account != null) {
+                if (isNumeric(account)) batch.setAccountId(row, Long.parseLong(account));
+                else batch.setAccountKey(row, account);
+            }
+
+            batch.setProvider(row, value(PROVIDER));
+            batch.setResourceId(row, value(RESOURCE_ID));
+            batch.setResourceName(row, value(RESOURCE_NAME));
+            batch.setResourceType(row, value(RESOURCE_TYPE));
+            batch.setRegion(row, value(REGION));
+            batch.setUsageUnit(row, value(USAGE_UNIT));
+
+            String currency = value(CURRENCY);
+            if (currency != null) batch.setCurrency(row, currency);
+
+            batch.setUsageDateEpochDay(row, parseDate(required(USAGE_DATE, "usage date")));
+
+            String hour = value(USAGE_HOUR);
+            if (hour != null) {
+                int usageHour = Integer.parseInt(hour);
+                if (usageHour < 0 || usageHour > 23) {
+                    throw new IllegalArgumentException("usage hour out of range: " + hour);
+                }
+                batch.setUsageHour(row, usageHour);
+            }
+
+            long quantity = parseFixedPoint(value(USAGE_QUANTITY));
+            long unitPrice = parseFixedPoint(value(UNIT_PRICE));
+            batch.setUsageQuantity(row, quantity);
+            batch.setUnitPrice(row, unitPrice);
+
+            String cost = value(TOTAL_COST);
+            if (cost != null) {
+                batch.setTotalCost(row, parseFixedPoint(cost));
+            } else if (!hasPricing) {
+                // Short exports (teamName,service,usageAmount,usageDate) carry the billed amount only
+                batch.setTotalCost(row, quantity);
+            } else {
+                batch.setTotalCost(row, multiply(quantity, unitPrice));
+            }
+            return true;
+        } catch (RuntimeException e) {
+            batch.removeLastRow();
+            if (e instanceof IllegalArgumentException && !(e instanceof NumberFormatException)) {
+                throw e;
+            }
+            throw new IllegalArgumentException("invalid value (" + e.getMessage() + ")", e);
+        }
+    }
+
+    /**
+     * Parse a decimal string into a fixed-point long with {@link UsageRowBatch#MONEY_SCALE}
+     * decimal places without allocating a BigDecimal on the common path.
+     */
+    public static long parseFixedPoint(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0L;
+        }
+        int len = text.length();
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (i == len) {
+            throw new NumberFormatException("not a number: " + text);
+        }
+
+        long whole = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        boolean roundUp = false;
+        for (; i < len; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else if (c >= '0' && c <= '9') {
+                if (!seenDot) {
+                    if (whole >= 900_000_000_000L) {
+                        return slowParseFixedPoint(text);
+                    }
+                    whole = whole * 10 + (c - '0');
+                } else if (fractionDigits < UsageRowBatch.MONEY_SCALE) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                } else if (fractionDigits == UsageRowBatch.MONEY_SCALE) {
+                    roundUp = c >= '5';
+                    fractionDigits++;
+                }
+            } else if (c == 'e' || c == 'E') {
+                return slowParseFixedPoint(text);
+            } else {
+                throw new NumberFormatException("not a number: " + text);
+            }
+        }
+        for (int d = Math.min(fractionDigits, UsageRowBatch.MONEY_SCALE); d < UsageRowBatch.MONEY_SCALE; d++) {
+            fraction *= 10;
+        }
+        long result = whole * 1_000_000L + fraction + (roundUp ? 1 : 0);
+        return negative ? -result : result;
+    }
+
+    // ========================================
+    // PRIVATE HELPER METHODS
+    // ========================================
+
+    private static void alias(int field, String... names) {
+        for (String name : names) {
+            COLUMN_ALIASES.put(name, field);
+        }
+    }
+
+    private static String normalize(String column) {
+        StringBuilder sb = new StringBuilder(column.length());
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c != '_' && c != '-' && c != ' ') {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private void requireColumn(int field, String name) {
+        if (columnIndex[field] < 0) {
+            throw new IllegalArgumentException("CSV header is missing required " + name + " column");
+        }
+    }
+
+    private String value(int field) {
+        int index = columnIndex[field];
+        if (index < 0) {
+            return null;
+        }
+        String v = values[index];
+        return v == null || v.isEmpty() ? null : v;
+    }
+
+    private String required(int field, String name) {
+        String v = value(field);
+        if (v == null) {
+            throw new IllegalArgumentException("missing " + name);
+        }
+        return v;
+    }
+
+    private static boolean isNumeric(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return !value.isEmpty() && value.length() < 19;
+    }
+
+    private static int parseDate(String text) {
+        // Fast path for ISO yyyy-MM-dd, optionally followed by a time component
+        if (text.length() >= 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        }
+        return (int) LocalDate.parse(text).toEpochDay();
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("invalid date: " + text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static long multiply(long quantity, long unitPrice) {
+        if (quantity == 0 || unitPrice == 0) {
+            return 0L;
+        }
+        return UsageRowBatch.toDecimal(quantity)
+            .multiply(UsageRowBatch.toDecimal(unitPrice))
+            .setScale(UsageRowBatch.MONEY_SCALE, RoundingMode.HALF_UP)
+            .unscaledValue()
+            .longValueExact();
+    }
+
+    private static long slowParseFixedPoint(String text) {
+        return new BigDecimal(text)
+            .setScale(UsageRowBatch.MONEY_SCALE, RoundingMode.HALF_UP)
+            .unscaledValue()
+            .longValueExact();
+    }
+
+    private static int countColumns(String line) {
+        int count = 1;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') quoted = !quoted;
+            else if (c == ',' && !quoted) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Split a CSV line into the provided array, honouring double-quoted fields with "" escapes.
+     * @return number of fields found (may exceed the array length, in which case extras are dropped)
+     */
+    private static int split(String line, String[] out) {
+        int field = 0;
+        int len = line.length();
+        int i = 0;
+        while (true) {
+            String value;
+            if (i < len && line.charAt(i) == '"') {
+                StringBuilder sb = new StringBuilder();
+                i++;
+                while (i < len) {
+                    char c = line.charAt(i);
+                    if (c == '"') {
+                        if (i + 1 < len && line.charAt(i + 1) == '"') {
+                            sb.append('"');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    sb.append(c);
+                    i++;
+                }
+                value = sb.toString();
+                while (i < len && line.charAt(i) != ',') i++;
+            } else {
+                int start = i;
+                while (i < len && line.charAt(i) != ',') i++;
+                value = line.substring(start, i).trim();
+            }
+            if (field < out.length) {
+                out[field] = value;
+            }
+            field++;
+            if (i >= len) {
+                break;
+            }
+            i++; // skip comma
+        }
+        return field;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dashboard.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes {@link UsageRowBatch} rows as CSV in the usage_records column layout understood by
+ * {@link UsageCsvParser}, using resolved surrogate ids. Output depends only on the row values,
+ * so identical batches always produce identical bytes.
+ */
+public class UsageCsvWriter {
+
+    public static final String HEADER = "account_id,team_id,service_id,resource_id,resource_name,"
+        + "resource_type,region,usage_date,usage_hour,usage_quantity,usage_unit,unit_price,total_cost,currency";
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public UsageCsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void writeHeader() throws IOException {
+        out.write(HEADER);
+        out.write('\n');
+    }
+
+    public void write(UsageRowBatch batch) throws IOException {
+        for (int row = 0; row < batch.size(); row++) {
+            line.setLength(0);
+            line.append(batch.getAccountId(row)).append(',')
+                .append(batch.getTeamId(row)).append(',')
+                .append(batch.getServiceId(row)).append(',');
+            appendText(batch.getResourceId(row));
+            line.append(',');
+            appendText(batch.getResourceName(row));
+            line.append(',');
+            appendText(batch.getResourceType(row));
+            line.append(',');
+            appendText(batch.getRegion(row));
+            line.append(',').append(batch.getUsageDate(row)).append(',')
+                .append(batch.getUsageHour(row)).append(',');
+            appendFixedPoint(batch.getUsageQuantity(row));
+            line.append(',');
+            appendText(batch.getUsageUnit(row));
+            line.append(',');
+            appendFixedPoint(batch.getUnitPrice(row));
+            line.append(',');
+            appendFixedPoint(batch.getTotalCost(row));
+            line.append(',');
+            appendText(batch.getCurrency(row));
+            line.append('\n');
+            out.append(line);
+        }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void appendText(String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private void appendFixedPoint(long value) {
+        if (value < 0) {
+            line.append('-');
+            value = -value;
+        }
+        long whole = value / 1_000_000L;
+        long fraction = value % 1_000_000L;
+        line.append(whole);
+        if (fraction != 0) {
+            line.append('.');
+            String digits = Long.toString(fraction + 1_000_000L).substring(1);
+            int end = digits.length();
+            while (digits.charAt(end - 1) == '0') {
+                end--;
+            }
+            line.append(digits, 0, end);
+        }
+    }
+}
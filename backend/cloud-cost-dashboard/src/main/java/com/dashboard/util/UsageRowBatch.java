@@ -0,0 +1,204 @@
+package com.dashboard.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Reusable, column-oriented buffer of parsed usage rows waiting to be written to usage_records.
+ * Monetary and quantity values are kept as fixed-point longs with six decimal places (the scale
+ * of the usage_records DECIMAL columns), dates as epoch days, so a full batch holds no boxed
+ * values and can be cleared and refilled without reallocating.
+ */
+public class UsageRowBatch {
+
+    public static final int MONEY_SCALE = 6;
+
+    private final int capacity;
+    private int size;
+
+    // Natural keys as they appear in the file (null when the column is absent)
+    private final String[] teamKeys;
+    private final String[] serviceKeys;
+    private final String[] accountKeys;
+    private final String[] providers;
+
+    // Surrogate ids, either read directly from the file or resolved from the natural keys (0 = unresolved)
+    private final long[] teamIds;
+    private final long[] serviceIds;
+    private final long[] accountIds;
+
+    private final String[] resourceIds;
+    private final String[] resourceNames;
+    private final String[] resourceTypes;
+    private final String[] regions;
+    private final String[] usageUnits;
+    private final String[] currencies;
+    private final int[] usageDates;
+    private final int[] usageHours;
+    private final long[] usageQuantities;
+    private final long[] unitPrices;
+    private final long[] totalCosts;
+    private final long[] lineNumbers;
+
+    public UsageRowBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Batch capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.teamKeys = new String[capacity];
+        this.serviceKeys = new String[capacity];
+        this.accountKeys = new String[capacity];
+        this.providers = new String[capacity];
+        this.teamIds = new long[capacity];
+        this.serviceIds = new long[capacity];
+        this.accountIds = new long[capacity];
+        this.resourceIds = new String[capacity];
+        this.resourceNames = new String[capacity];
+        this.resourceTypes = new String[capacity];
+        this.regions = new String[capacity];
+        this.usageUnits = new String[capacity];
+        this.currencies = new String[capacity];
+        this.usageDates = new int[capacity];
+        this.usageHours = new int[capacity];
+        this.usageQuantities = new long[capacity];
+        this.unitPrices = new long[capacity];
+        this.totalCosts = new long[capacity];
+        this.lineNumbers = new long[capacity];
+    }
+
+    /**
+     * Reserve the next row slot and reset it to defaults.
+     * @return index of the new row
+     */
+    public int addRow(long lineNumber) {
+        if (size >= capacity) {
+            throw new IllegalStateException("Batch is full (" + capacity + " rows)");
+        }
+        int row = size++;
+        teamKeys[row] = null;
+        serviceKeys[row] = null;
+        accountKeys[row] = null;
+        providers[row] = null;
+        teamIds[row] = 0;
+        serviceIds[row] = 0;
+        accountIds[row] = 0;
+        resourceIds[row] = null;
+        resourceNames[row] = null;
+        resourceTypes[row] = null;
+        regions[row] = null;
+        usageUnits[row] = null;
+        currencies[row] = "USD";
+        usageDates[row] = 0;
+        usageHours[row] = 0;
+        usageQuantities[row] = 0;
+        unitPrices[row] = 0;
+        totalCosts[row] = 0;
+        lineNumbers[row] = lineNumber;
+        return row;
+    }
+
+    /**
+     * Append a copy of one row of another batch.
+     * @return index of the new row
+     */
+    public int copyRowFrom(UsageRowBatch source, int sourceRow) {
+        int row = addRow(source.lineNumbers[sourceRow]);
+        teamKeys[row] = source.teamKeys[sourceRow];
+        serviceKeys[row] = source.serviceKeys[sourceRow];
+        accountKeys[row] = source.accountKeys[sourceRow];
+        providers[row] = source.providers[sourceRow];
+        teamIds[row] = source.teamIds[sourceRow];
+        serviceIds[row] = source.serviceIds[sourceRow];
+        accountIds[row] = source.accountIds[sourceRow];
+        resourceIds[row] = source.resourceIds[sourceRow];
+        resourceNames[row] = source.resourceNames[sourceRow];
+        resourceTypes[row] = source.resourceTypes[sourceRow];
+        regions[row] = source.regions[sourceRow];
+        usageUnits[row] = source.usageUnits[sourceRow];
+        currencies[row] = source.currencies[sourceRow];
+        usageDates[row] = source.usageDates[sourceRow];
+        usageHours[row] = source.usageHours[sourceRow];
+        usageQuantities[row] = source.usageQuantities[sourceRow];
+        unitPrices[row] = source.unitPrices[sourceRow];
+        totalCosts[row] = source.totalCosts[sourceRow];
+        return row;
+    }
+
+    /** Drop the most recently added row (used when a row is rejected after parsing). */
+    public void removeLastRow() {
+        if (size > 0) {
+            size--;
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return capacity; }
+    public boolean isFull() { return size >= capacity; }
+    public boolean isEmpty() { return size == 0; }
+
+    public static BigDecimal toDecimal(long fixedPoint) {
+        return BigDecimal.valueOf(fixedPoint, MONEY_SCALE);
+    }
+
+    // Row accessors
+    public String getTeamKey(int row) { return teamKeys[row]; }
+    public void setTeamKey(int row, String value) { teamKeys[row] = value; }
+
+    public String getServiceKey(int row) { return serviceKeys[row]; }
+    public void setServiceKey(int row, String value) { serviceKeys[row] = value; }
+
+    public String getAccountKey(int row) { return accountKeys[row]; }
+    public void setAccountKey(int row, String value) { accountKeys[row] = value; }
+
+    public String getProvider(int row) { return providers[row]; }
+    public void setProvider(int row, String value) { providers[row] = value; }
+
+    public long getTeamId(int row) { return teamIds[row]; }
+    public void setTeamId(int row, long value) { teamIds[row] = value; }
+
+    public long getServiceId(int row) { return serviceIds[row]; }
+    public void setServiceId(int row, long value) { serviceIds[row] = value; }
+
+    public long getAccountId(int row) { return accountIds[row]; }
+    public void setAccountId(int row, long value) { accountIds[row] = value; }
+
+    public String getResourceId(int row) { return resourceIds[row]; }
+    public void setResourceId(int row, String value) { resourceIds[row] = value; }
+
+    public String getResourceName(int row) { return resourceNames[row]; }
+    public void setResourceName(int row, String value) { resourceNames[row] = value; }
+
+    public String getResourceType(int row) { return resourceTypes[row]; }
+    public void setResourceType(int row, String value) { resourceTypes[row] = value; }
+
+    public String getRegion(int row) { return regions[row]; }
+    public void setRegion(int row, String value) { regions[row] = value; }
+
+    public String getUsageUnit(int row) { return usageUnits[row]; }
+    public void setUsageUnit(int row, String value) { usageUnits[row] = value; }
+
+    public String getCurrency(int row) { return currencies[row]; }
+    public void setCurrency(int row, String value) { currencies[row] = value; }
+
+    public int getUsageDateEpochDay(int row) { return usageDates[row]; }
+    public LocalDate getUsageDate(int row) { return LocalDate.ofEpochDay(usageDates[row]); }
+    public void setUsageDateEpochDay(int row, int value) { usageDates[row] = value; }
+
+    public int getUsageHour(int row) { return usageHours[row]; }
+    public void setUsageHour(int row, int value) { usageHours[row] = value; }
+
+    public long getUsageQuantity(int row) { return usageQuantities[row]; }
+    public void setUsageQuantity(int row, long value) { usageQuantities[row] = value; }
+
+    public long getUnitPrice(int row) { return unitPrices[row]; }
+    public void setUnitPrice(int row, long value) { unitPrices[row] = value; }
+
+    public long getTotalCost(int row) { return totalCosts[row]; }
+    public void setTotalCost(int row, long value) { totalCosts[row] = value; }
+
+    public long getLineNumber(int row) { return lineNumbers[row]; }
+}
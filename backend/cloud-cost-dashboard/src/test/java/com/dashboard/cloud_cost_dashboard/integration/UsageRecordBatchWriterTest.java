@@ -0,0 +1,141 @@
+package com.dashboard.cloud_cost_dashboard.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.dashboard.cloud_cost_dashboard.model.*;
+import com.dashboard.cloud_cost_dashboard.repository.*;
+import com.dashboard.service.impl.DailyCostRollup;
+import com.dashboard.service.impl.TopResourceTracker;
+import com.dashboard.service.impl.UsageRecordBatchWriter;
+import com.dashboard.util.UsageCsvParser;
+import com.dashboard.util.UsageRowBatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+// Not wrapped in a test transaction: the writer's own transaction has to commit or roll back
+@DataJpaTest
+@Import(UsageRecordBatchWriter.class)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UsageRecordBatchWriterTest {
+
+    @Autowired private UsageRecordBatchWriter batchWriter;
+
+    @Autowired private UsageRecordRepository usageRecordRepository;
+
+    @Autowired private TeamRepository teamRepository;
+
+    @Autowired private ServiceRepository serviceRepository;
+
+    @Autowired private AccountRepository accountRepository;
+
+    @Autowired private CloudProviderRepository cloudProviderRepository;
+
+    @MockBean private DailyCostRollup dailyCostRollup;
+
+    @MockBean private TopResourceTracker topResourceTracker;
+
+    private Team team;
+    private Service service;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        CloudProvider provider = new CloudProvider();
+        provider.setName("test-aws");
+        provider.setDisplayName("Test AWS");
+        provider = cloudProviderRepository.save(provider);
+
+        team = new Team();
+        team.setName("test-team");
+        team.setDisplayName("Test Team");
+        team.setDepartment("Engineering");
+        team = teamRepository.save(team);
+
+        service = new Service();
+        service.setCloudProvider(provider);
+        service.setServiceCode("TestEC2");
+        service.setServiceName("Test EC2");
+        service.setCategory("Compute");
+        service = serviceRepository.save(service);
+
+        account = new Account();
+        account.setCloudProvider(provider);
+        account.setAccountId("test-123");
+        account.setAccountName("Test Account");
+        account.setEnvironment(Account.Environment.PRODUCTION);
+        account.setStatus(Account.AccountStatus.ACTIVE);
+        account = accountRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        usageRecordRepository.deleteAll();
+        accountRepository.deleteAll();
+        serviceRepository.deleteAll();
+        teamRepository.deleteAll();
+        cloudProviderRepository.deleteAll();
+    }
+
+    @Test
+    void shouldCommitUsageRowsWithTheirRollup() {
+        // When
+        int written = batchWriter.write(createBatch());
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(usageRecordRepository.count()).isEqualTo(2);
+        verify(dailyCostRollup).record(any(UsageRowBatch.class));
+        verify(topResourceTracker).record(any(UsageRowBatch.class));
+    }
+
+    @Test
+    void shouldRollBackUsageRowsWhenRollupFails() {
+        // Given - the rollup upsert or budget counter update fails after the rows were inserted
+        when(dailyCostRollup.record(any(UsageRowBatch.class)))
+                .thenThrow(new IllegalStateException("Cannot roll up usage: unknown dimension id"));
+
+        // When
+        assertThatThrownBy(() -> batchWriter.write(createBatch()))
+                .isInstanceOf(IllegalStateException.class);
+
+        // Then - no facts are left without their rollup cells and spend deltas
+        assertThat(usageRecordRepository.count()).isZero();
+        verify(topResourceTracker, never()).record(any(UsageRowBatch.class));
+    }
+
+    // Helper methods
+    private UsageRowBatch createBatch() {
+        UsageRowBatch batch = new UsageRowBatch(2);
+        for (int i = 0; i < 2; i++) {
+            int row = batch.addRow(i + 1);
+            batch.setAccountId(row, account.getId());
+            batch.setTeamId(row, team.getId());
+            batch.setServiceId(row, service.getId());
+            batch.setResourceId(row, "i-" + i);
+            batch.setRegion(row, "us-east-1");
+            batch.setUsageDateEpochDay(row, (int) LocalDate.of(2024, 3, 1).toEpochDay());
+            batch.setUsageHour(row, i);
+            batch.setUsageQuantity(row, UsageCsvParser.parseFixedPoint("1"));
+            batch.setUnitPrice(row, UsageCsvParser.parseFixedPoint("0.50"));
+            batch.setTotalCost(row, UsageCsvParser.parseFixedPoint("0.50"));
+            batch.setCurrency(row, "USD");
+            batch.setUsageUnit(row, "Hrs");
+        }
+        return batch;
+    }
+}
@@ -3,11 +3,14 @@ package com.dashboard.cloud_cost_dashboard.util;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.dashboard.cloud_cost_dashboard.repository.*;
+import com.dashboard.service.impl.UsageRecordBatchWriter;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.context.ActiveProfiles;
 
 @DataJpaTest
@@ -24,6 +27,8 @@ class SampleDataGeneratorTest {
 
     @Autowired private CloudProviderRepository cloudProviderRepository;
 
+    @Autowired private JdbcTemplate jdbcTemplate;
+
     private SampleDataGenerator sampleDataGenerator;
 
     @BeforeEach
@@ -107,4 +112,31 @@ class SampleDataGeneratorTest {
         assertThat(firstRecord.getTeamName()).isNotNull();
         assertThat(firstRecord.getServiceName()).isNotNull();
     }
+
+    @Test
+    void shouldGenerateUsageDataInBulkMode() throws Exception {
+        // Given
+        UsageRecordBatchWriter batchWriter = new UsageRecordBatchWriter();
+        ReflectionTestUtils.setField(batchWriter, "jdbcTemplate", jdbcTemplate);
+        sampleDataGenerator.usageRecordBatchWriter = batchWriter;
+        sampleDataGenerator.bulkMode = true;
+        sampleDataGenerator.bulkBatchSize = 500;
+
+        // When
+        sampleDataGenerator.run();
+
+        // Then
+        assertThat(usageRecordRepository.count()).isGreaterThan(1000);
+        var records = usageRecordRepository.findAll();
+        assertThat(records)
+                .allSatisfy(
+                        record -> {
+                            assertThat(record.getTeam()).isNotNull();
+                            assertThat(record.getService()).isNotNull();
+                            assertThat(record.getAccount()).isNotNull();
+                            assertThat(record.getResourceId()).isNotBlank();
+                            assertThat(record.getTotalCost())
+                                    .isGreaterThanOrEqualTo(java.math.BigDecimal.ZERO);
+                        });
+    }
 }
@@ -0,0 +1,149 @@
+package com.dashboard.cloud_cost_dashboard.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dashboard.cloud_cost_dashboard.model.*;
+import com.dashboard.util.UsageCsvParser;
+import com.dashboard.util.UsageCsvWriter;
+import com.dashboard.util.UsageRowBatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+class SyntheticUsageGeneratorTest {
+
+    private final List<Team> teams = new ArrayList<>();
+    private final List<Service> services = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        CloudProvider aws = new CloudProvider();
+        aws.setId(1L);
+        aws.setName("aws");
+
+        teams.add(team(1L, "platform"));
+        teams.add(team(2L, "loadtest-team-002"));
+        teams.add(team(3L, "loadtest-team-003"));
+
+        services.add(service(10L, aws, "AmazonEC2", "Compute"));
+        services.add(service(11L, aws, "AmazonS3", "Storage"));
+        services.add(service(12L, aws, "AmazonRDS", "Database"));
+
+        accounts.add(account(100L, aws, Account.Environment.PRODUCTION));
+        accounts.add(account(101L, aws, Account.Environment.DEVELOPMENT));
+    }
+
+    @Test
+    void shouldProduceIdenticalBytesRegardlessOfParallelism() throws Exception {
+        // When
+        String sequential = generateCsv(42L, 1, 7);
+        String parallel = generateCsv(42L, 4, 7);
+        String parallelSmallBatches = generateCsv(42L, 3, 5);
+
+        // Then
+        assertThat(sequential).isNotEmpty();
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(parallelSmallBatches).isEqualTo(sequential);
+    }
+
+    @Test
+    void shouldProduceDifferentDataForDifferentSeeds() throws Exception {
+        assertThat(generateCsv(1L, 2, 100)).isNotEqualTo(generateCsv(2L, 2, 100));
+    }
+
+    @Test
+    void shouldScaleWithResourcesPerService() throws Exception {
+        // Given
+        SyntheticUsageGenerator single = generator(42L, 1);
+        SyntheticUsageGenerator many = generator(42L, 5);
+
+        // When
+        long singleRows = single.generate(2, 1000, batch -> {});
+        long manyRows = many.generate(2, 1000, batch -> {});
+
+        // Then
+        assertThat(single.getPartitionCount()).isEqualTo(3 * 31);
+        assertThat(manyRows).isGreaterThan(singleRows * 4);
+    }
+
+    @Test
+    void shouldWriteRowsParseableByIngestion() throws Exception {
+        // Given
+        String csv = generateCsv(42L, 2, 50);
+        String[] lines = csv.split("\n");
+        UsageCsvParser parser = new UsageCsvParser(lines[0]);
+        UsageRowBatch batch = new UsageRowBatch(lines.length);
+
+        // When
+        for (int i = 1; i < lines.length; i++) {
+            parser.parseInto(lines[i], i + 1, batch);
+        }
+
+        // Then
+        assertThat(batch.size()).isEqualTo(lines.length - 1);
+        for (int row = 0; row < batch.size(); row++) {
+            assertThat(batch.getTeamId(row)).isBetween(1L, 3L);
+            assertThat(batch.getAccountId(row)).isIn(100L, 101L);
+            assertThat(batch.getTotalCost(row)).isGreaterThanOrEqualTo(0L);
+            assertThat(batch.getUsageDate(row)).isBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThatThrownBy(() -> generator(42L, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> generator(42L, 1).generate(0, 100, batch -> {}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Helper methods
+    private String generateCsv(long seed, int parallelism, int batchSize) throws Exception {
+        StringWriter out = new StringWriter();
+        UsageCsvWriter writer = new UsageCsvWriter(out);
+        writer.writeHeader();
+        generator(seed, 2).generate(parallelism, batchSize, writer::write);
+        return out.toString();
+    }
+
+    private SyntheticUsageGenerator generator(long seed, int resourcesPerService) {
+        return new SyntheticUsageGenerator(
+                teams,
+                services,
+                accounts,
+                LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 1, 31),
+                seed,
+                resourcesPerService);
+    }
+
+    private Team team(Long id, String name) {
+        Team team = new Team();
+        team.setId(id);
+        team.setName(name);
+        return team;
+    }
+
+    private Service service(Long id, CloudProvider provider, String code, String category) {
+        Service service = new Service();
+        service.setId(id);
+        service.setCloudProvider(provider);
+        service.setServiceCode(code);
+        service.setCategory(category);
+        return service;
+    }
+
+    private Account account(Long id, CloudProvider provider, Account.Environment environment) {
+        Account account = new Account();
+        account.setId(id);
+        account.setCloudProvider(provider);
+        account.setEnvironment(environment);
+        return account;
+    }
+}
@@ -13,9 +13,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +31,18 @@ class AnalyticsServiceImplTest {
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private CostCube costCube;
+
+    @Mock
+    private TopResourceTracker topResourceTracker;
+
+    @Mock
+    private PredictionCache predictionCache;
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer();
+
     @InjectMocks
     private AnalyticsServiceImpl analyticsService;
 
@@ -44,7 +59,9 @@ class AnalyticsServiceImplTest {
     void testPredictCosts_Linear() {
         // Given
         PredictionRequest request = new PredictionRequest("linear", 7, "platform", "2025-01-01", "2025-01-31");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockHistoricalData);
+        stubHistoricalData(mockHistoricalData);
+        PredictionCache.Epoch epoch = new PredictionCache.Epoch(3, System.currentTimeMillis());
+        when(predictionCache.begin()).thenReturn(epoch);
 
         // When
         PredictionResult result = analyticsService.predictCosts(request);
@@ -76,6 +93,7 @@ class AnalyticsServiceImplTest {
         assertNotNull(result.getMetadata());
         assertTrue(result.getMetadata().containsKey("slope"));
         assertTrue(result.getMetadata().containsKey("intercept"));
+        verify(predictionCache).put(request, result, epoch);
     }
 
     @Test
@@ -83,7 +101,7 @@ class AnalyticsServiceImplTest {
     void testPredictCosts_Exponential() {
         // Given
         PredictionRequest request = new PredictionRequest("exponential", 14, "frontend", "2025-01-01", "2025-01-31");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockHistoricalData);
+        stubHistoricalData(mockHistoricalData);
 
         // When
         PredictionResult result = analyticsService.predictCosts(request);
@@ -105,7 +123,7 @@ class AnalyticsServiceImplTest {
     void testPredictCosts_Seasonal() {
         // Given
         PredictionRequest request = new PredictionRequest("seasonal", 30, "backend", "2025-01-01", "2025-01-31");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockHistoricalData);
+        stubHistoricalData(mockHistoricalData);
 
         // When
         PredictionResult result = analyticsService.predictCosts(request);
@@ -127,7 +145,7 @@ class AnalyticsServiceImplTest {
     void testPredictCosts_Growth() {
         // Given
         PredictionRequest request = new PredictionRequest("growth", 90, "data", "2025-01-01", "2025-01-31");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockHistoricalData);
+        stubHistoricalData(mockHistoricalData);
 
         // When
         PredictionResult result = analyticsService.predictCosts(request);
@@ -144,12 +162,30 @@ class AnalyticsServiceImplTest {
         assertTrue(result.getMetadata().containsKey("avgCost"));
     }
 
+    @Test
+    @DisplayName("Should serve cached predictions without querying history")
+    void testPredictCosts_Cached() {
+        // Given
+        PredictionRequest request = new PredictionRequest("linear", 7, "platform", "2025-01-01", "2025-01-31");
+        PredictionResult cached = new PredictionResult();
+        cached.setMethod("linear");
+        when(predictionCache.get(request)).thenReturn(cached);
+
+        // When
+        PredictionResult result = analyticsService.predictCosts(request);
+
+        // Then
+        assertSame(cached, result);
+        verifyNoInteractions(jdbcTemplate);
+        verify(predictionCache, never()).put(any(), any(), any());
+    }
+
     @Test
     @DisplayName("Should throw exception for unsupported prediction method")
     void testPredictCosts_UnsupportedMethod() {
         // Given
         PredictionRequest request = new PredictionRequest("unsupported", 7, "platform", "2025-01-01", "2025-01-31");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockHistoricalData);
+        stubHistoricalData(mockHistoricalData);
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, 
@@ -162,7 +198,7 @@ class AnalyticsServiceImplTest {
     void testPredictCosts_NoData() {
         // Given
         PredictionRequest request = new PredictionRequest("linear", 7, "nonexistent", "2025-01-01", "2025-01-31");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(Collections.emptyList());
+        stubHistoricalData(Collections.emptyList());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
@@ -175,7 +211,7 @@ class AnalyticsServiceImplTest {
     void testAnalyzeTrends() {
         // Given
         TrendAnalysisRequest request = new TrendAnalysisRequest("platform", "2025-01-01", "2025-01-31");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockHistoricalData);
+        stubHistoricalData(mockHistoricalData);
 
         // When
         TrendAnalysis result = analyticsService.analyzeTrends(request);
@@ -226,6 +262,58 @@ class AnalyticsServiceImplTest {
         assertTrue(benchmarks.containsKey("avgEfficiency"));
     }
 
+    @Test
+    @DisplayName("Should compare services from the cost cube without querying MySQL")
+    void testCompareEntities_ServicesFromCube() {
+        // Given
+        ComparisonRequest request = new ComparisonRequest("services", "2025-01-01", "2025-01-31");
+        CostCube.Group ec2 = mock(CostCube.Group.class);
+        when(ec2.getKey()).thenReturn("AmazonEC2");
+        when(ec2.getCost()).thenReturn(new BigDecimal("300.00"));
+        when(ec2.getRecordCount()).thenReturn(3L);
+        when(ec2.getDistinctCount(CostCube.Dimension.TEAM)).thenReturn(2L);
+        when(ec2.getDistinctCount(CostCube.Dimension.REGION)).thenReturn(1L);
+        when(ec2.getDailyCostPercentile(anyDouble())).thenReturn(new BigDecimal("9.50"));
+        when(ec2.getDailyCostPercentile(95)).thenReturn(new BigDecimal("14.00"));
+        when(costCube.isReady()).thenReturn(true);
+        when(costCube.groupBy(eq(CostCube.Dimension.SERVICE), any(), any(), isNull(),
+                              eq(CostCube.Dimension.TEAM), eq(CostCube.Dimension.REGION), eq(CostCube.Dimension.DATE)))
+            .thenReturn(Map.of("AmazonEC2", ec2));
+
+        // When
+        TeamComparison result = analyticsService.compareEntities(request);
+
+        // Then
+        Map<String, Object> service = result.getTeams().get(0);
+        assertEquals("AmazonEC2", service.get("service_name"));
+        assertEquals(new BigDecimal("300.00"), service.get("total_cost"));
+        assertEquals(0, new BigDecimal("100").compareTo((BigDecimal) service.get("avg_cost")));
+        assertEquals(2L, service.get("team_count"));
+        assertEquals(1L, service.get("region_count"));
+        assertEquals(new BigDecimal("9.50"), service.get("p50_daily_cost"));
+        assertEquals(new BigDecimal("14.00"), service.get("p95_daily_cost"));
+        assertFalse(service.containsKey("date_count"));
+        verify(jdbcTemplate, never()).queryForList(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should answer top resources from the tracker and fall back to SQL for long ranges")
+    void testGetTopResources() {
+        // Given
+        List<Map<String, Object>> tracked = List.of(Map.of("resourceId", "i-123", "totalCost", new BigDecimal("42.00")));
+        when(topResourceTracker.covers(any(), any())).thenAnswer(i -> !i.getArgument(0).toString().startsWith("2024"));
+        when(topResourceTracker.topResources(any(), any(), eq(List.of("platform")), eq(20))).thenReturn(tracked);
+
+        // When
+        List<Map<String, Object>> recent = analyticsService.getTopResources("platform", "2025-01-01", "2025-01-31", null);
+        List<Map<String, Object>> history = analyticsService.getTopResources(null, "2024-01-01", "2025-01-31", 5);
+
+        // Then
+        assertEquals(tracked, recent);
+        assertTrue(history.isEmpty());
+        verify(jdbcTemplate).query(contains("GROUP BY resource_id"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
     @Test
     @DisplayName("Should detect anomalies successfully")
     void testDetectAnomalies() {
@@ -237,7 +325,7 @@ class AnalyticsServiceImplTest {
         
         // Create data with anomalies
         List<Map<String, Object>> dataWithAnomalies = createMockDataWithAnomalies();
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(dataWithAnomalies);
+        stubHistoricalData(dataWithAnomalies);
 
         // When
         List<Object> anomalies = analyticsService.detectAnomalies(teamName, startDate, endDate, threshold);
@@ -268,7 +356,7 @@ class AnalyticsServiceImplTest {
         List<Map<String, Object>> minimalData = Collections.singletonList(
             Map.of("date", "2025-01-01", "cost", new BigDecimal("100.00"))
         );
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(minimalData);
+        stubHistoricalData(minimalData);
 
         PredictionRequest request = new PredictionRequest("linear", 1, "test", "2025-01-01", "2025-01-01");
         
@@ -284,7 +372,7 @@ class AnalyticsServiceImplTest {
     void testPredictionBounds() {
         // Given
         PredictionRequest request = new PredictionRequest("linear", 5, "platform", "2025-01-01", "2025-01-31");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockHistoricalData);
+        stubHistoricalData(mockHistoricalData);
 
         // When
         PredictionResult result = analyticsService.predictCosts(request);
@@ -305,6 +393,23 @@ class AnalyticsServiceImplTest {
     // HELPER METHODS FOR TEST DATA
     // ========================================
 
+    private void stubHistoricalData(List<Map<String, Object>> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getDate("date")).thenReturn(java.sql.Date.valueOf((String) row.get("date")));
+                when(rs.getString(anyString())).thenAnswer(i -> (String) row.get(i.getArgument(0)));
+                when(rs.getDouble(anyString())).thenAnswer(i -> {
+                    Object value = row.get(i.getArgument(0));
+                    return value == null ? 0.0 : ((BigDecimal) value).doubleValue();
+                });
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("daily_cost_rollup"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
     private List<Map<String, Object>> createMockHistoricalData() {
         List<Map<String, Object>> data = new ArrayList<>();
         
@@ -0,0 +1,149 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.service.interfaces.BudgetService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Budget Alert Scheduler Tests")
+class BudgetAlertSchedulerTest {
+
+    @Mock
+    private BudgetService budgetService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private BudgetAlertScheduler scheduler;
+
+    private PreparedStatement lockStatement;
+    private ResultSet lockResult;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        Connection connection = mock(Connection.class);
+        lockStatement = mock(PreparedStatement.class);
+        lockResult = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(lockStatement);
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getInt(1)).thenReturn(1);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+            .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+    }
+
+    @Test
+    @DisplayName("Should evaluate budgets and record run metrics")
+    void testRunOnce() throws Exception {
+        // Given
+        when(budgetService.evaluateBudgetAlerts()).thenReturn(3000);
+
+        // When
+        boolean ran = scheduler.runOnce();
+
+        // Then
+        assertTrue(ran);
+        Map<String, Object> stats = scheduler.getStats();
+        assertEquals(3000, stats.get("lastBudgetsEvaluated"));
+        assertEquals(1L, stats.get("completedRuns"));
+        assertTrue((Long) stats.get("lastRunDurationMs") >= 0);
+        assertNotNull(stats.get("lastRunStartedAt"));
+        verify(lockStatement, times(2)).setString(1, BudgetAlertScheduler.LOCK_NAME);
+    }
+
+    @Test
+    @DisplayName("Should skip the run when another instance holds the lock")
+    void testSkipWhenLockedElsewhere() throws Exception {
+        // Given
+        when(lockResult.getInt(1)).thenReturn(0);
+
+        // When
+        boolean ran = scheduler.runOnce();
+
+        // Then
+        assertFalse(ran);
+        verifyNoInteractions(budgetService);
+        assertEquals(1L, scheduler.getStats().get("skippedRuns"));
+    }
+
+    @Test
+    @DisplayName("Should skip an overlapping trigger in the same process")
+    void testSingleFlight() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(budgetService.evaluateBudgetAlerts()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // When
+            Future<Boolean> first = executor.submit(scheduler::runOnce);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            boolean second = scheduler.runOnce();
+            release.countDown();
+
+            // Then
+            assertFalse(second);
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            verify(budgetService, times(1)).evaluateBudgetAlerts();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should record failures without propagating them")
+    void testFailedRun() {
+        // Given
+        when(budgetService.evaluateBudgetAlerts()).thenThrow(new RuntimeException("Database unavailable"));
+
+        // When
+        boolean ran = scheduler.runOnce();
+
+        // Then
+        assertTrue(ran);
+        assertEquals(1L, scheduler.getStats().get("failedRuns"));
+        assertEquals("Database unavailable", scheduler.getStats().get("lastError"));
+    }
+
+    @Test
+    @DisplayName("Should not run on schedule when disabled")
+    void testDisabled() {
+        // Given
+        ReflectionTestUtils.setField(scheduler, "enabled", false);
+
+        // When
+        scheduler.scheduledEvaluation();
+
+        // Then
+        verifyNoInteractions(budgetService, jdbcTemplate);
+    }
+}
@@ -0,0 +1,153 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.model.budget.Budget;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Budget Evaluator Tests")
+class BudgetEvaluatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BudgetSpendCounters budgetSpendCounters;
+
+    @InjectMocks
+    private BudgetEvaluator budgetEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Should load spend for all budgets from the counters in one call")
+    void testLoadSpending() {
+        // Given
+        List<Budget> budgets = List.of(budget("b-1", "team", "platform", "1000"),
+            budget("b-2", "service", "EC2", "500"), budget("b-3", "organization", "all", "100"));
+        when(budgetSpendCounters.getSpend(List.of("b-1", "b-2", "b-3")))
+            .thenReturn(Map.of("b-1", new BigDecimal("850.00"), "b-2", new BigDecimal("125.00")));
+
+        // When
+        budgetEvaluator.loadSpending(budgets);
+
+        // Then
+        assertEquals(new BigDecimal("850.00"), budgets.get(0).getCurrentSpend());
+        assertEquals(85.0, budgets.get(0).getUtilizationPercentage(), 0.01);
+        assertEquals(new BigDecimal("125.00"), budgets.get(1).getCurrentSpend());
+        assertEquals(BigDecimal.ZERO, budgets.get(2).getCurrentSpend());
+        assertTrue(budgets.get(0).getDaysRemaining() > 0);
+        verify(budgetSpendCounters, times(1)).getSpend(anyCollection());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should group windowed alert history rows by budget")
+    void testLoadAlertHistory() {
+        // Given
+        List<Budget> budgets = List.of(budget("b-1", "team", "platform", "1000"), budget("b-2", "team", "data", "1000"));
+        stubRows("ROW_NUMBER()",
+            Map.of("budget_id", "b-1", "message", "Budget exceeded!", "created_at", "2024-03-02 10:00:00"),
+            Map.of("budget_id", "b-1", "message", "Approaching budget threshold.", "created_at", "2024-03-01 10:00:00"));
+
+        // When
+        budgetEvaluator.loadAlertHistory(budgets);
+
+        // Then
+        assertEquals(List.of("2024-03-02 10:00:00: Budget exceeded!", "2024-03-01 10:00:00: Approaching budget threshold."),
+            budgets.get(0).getAlertHistory());
+        assertTrue(budgets.get(1).getAlertHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should batch-insert alerts except those already raised today")
+    void testGenerateAlerts() throws Exception {
+        // Given
+        Budget exceeded = budget("b-1", "team", "platform", "100");
+        exceeded.setCurrentSpend(new BigDecimal("120"));
+        Budget nearThreshold = budget("b-2", "team", "data", "100");
+        nearThreshold.setCurrentSpend(new BigDecimal("75"));
+        Budget alreadyAlerted = budget("b-3", "team", "web", "100");
+        alreadyAlerted.setCurrentSpend(new BigDecimal("85"));
+        Budget healthy = budget("b-4", "team", "ml", "100");
+        healthy.setCurrentSpend(new BigDecimal("10"));
+        stubRows("created_at >= CURRENT_DATE", Map.of("budget_id", "b-3", "severity", "high"));
+
+        // When
+        int created = budgetEvaluator.generateAlerts(List.of(exceeded, nearThreshold, alreadyAlerted, healthy));
+
+        // Then
+        assertEquals(2, created);
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO budget_alerts"), setter.capture());
+        assertEquals(2, setter.getValue().getBatchSize());
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, 0);
+        verify(ps).setObject(2, "b-1");
+        verify(ps).setObject(4, "critical");
+        verify(ps).setObject(5, "budget_exceeded");
+    }
+
+    @Test
+    @DisplayName("Should not write when no budget needs an alert")
+    void testGenerateAlertsNothingToDo() {
+        // Given
+        Budget healthy = budget("b-1", "team", "platform", "100");
+        healthy.setCurrentSpend(new BigDecimal("5"));
+
+        // When
+        int created = budgetEvaluator.generateAlerts(List.of(healthy));
+
+        // Then
+        assertEquals(0, created);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+
+    // Helper methods
+    private Budget budget(String id, String scope, String target, String amount) {
+        Budget budget = new Budget("Budget " + id, new BigDecimal(amount), "monthly", scope, target);
+        budget.setId(id);
+        budget.setAlertThreshold(80.0);
+        budget.setStartDate(LocalDate.now().withDayOfMonth(1).toString());
+        budget.setEndDate(LocalDate.now().plusMonths(1).toString());
+        return budget;
+    }
+
+    @SafeVarargs
+    private void stubRows(String sqlFragment, Map<String, Object>... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(anyString())).thenAnswer(i -> (String) row.get(i.getArgument(0)));
+                when(rs.getObject(anyString())).thenAnswer(i -> row.get(i.getArgument(0)));
+                when(rs.getBigDecimal(anyString())).thenAnswer(i -> (BigDecimal) row.get(i.getArgument(0)));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains(sqlFragment), any(RowCallbackHandler.class), any(Object[].class));
+    }
+}
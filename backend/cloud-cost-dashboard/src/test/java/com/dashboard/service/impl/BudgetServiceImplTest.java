@@ -11,6 +11,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
@@ -26,6 +27,18 @@ class BudgetServiceImplTest {
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private BudgetEvaluator budgetEvaluator;
+
+    @Mock
+    private BudgetSpendCounters budgetSpendCounters;
+
+    @Mock
+    private CostCube costCube;
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer();
+
     @InjectMocks
     private BudgetServiceImpl budgetService;
 
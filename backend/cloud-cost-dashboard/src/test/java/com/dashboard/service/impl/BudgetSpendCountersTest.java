@@ -0,0 +1,268 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.UsageCsvParser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Budget Spend Counters Tests")
+class BudgetSpendCountersTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private BudgetSpendCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        stubBudgets(
+            Map.of("id", "team-budget", "scope", "team", "target", "platform"),
+            Map.of("id", "service-budget", "scope", "service", "target", "AmazonEC2"),
+            Map.of("id", "org-budget", "scope", "organization", "target", "all"));
+    }
+
+    @Test
+    @DisplayName("Should read stored counters without touching the rollup")
+    void testGetSpendFromCounters() {
+        // Given
+        stubRows("FROM budget_spend", List.of(
+            Map.of("budget_id", "team-budget", "current_spend", new BigDecimal("42.50"))));
+
+        // When
+        Map<String, BigDecimal> spend = counters.getSpend(List.of("team-budget"));
+
+        // Then
+        assertEquals(new BigDecimal("42.50"), spend.get("team-budget"));
+        verify(jdbcTemplate, never()).query(contains("daily_cost_rollup"), any(RowCallbackHandler.class), any(Object[].class));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("Should compute missing counters from the rollup and seed them")
+    void testGetSpendSeedsMissingCounters() throws Exception {
+        // Given
+        stubRows("daily_cost_rollup", List.of(
+            Map.of("budget_id", "service-budget", "total_cost", new BigDecimal("17.25"))));
+
+        // When
+        Map<String, BigDecimal> spend = counters.getSpend(List.of("service-budget"));
+
+        // Then
+        assertEquals(new BigDecimal("17.25"), spend.get("service-budget"));
+        verify(jdbcTemplate).query(contains("seeded_at IS NOT NULL"), any(RowCallbackHandler.class), any(Object[].class));
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(contains("seeded_at = CURRENT_TIMESTAMP"), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, 0);
+        verify(ps).setString(1, "service-budget");
+        verify(ps).setBigDecimal(2, new BigDecimal("17.25"));
+        assertEquals(1L, counters.getStats().get("countersSeeded"));
+    }
+
+    @Test
+    @DisplayName("Should add cell costs to every budget whose scope and window match")
+    void testRecordCosts() throws Exception {
+        // Given: one cell for platform/EC2 inside the window, one for data/S3 inside, one outside
+        int[] days = {(int) START.toEpochDay(), (int) START.plusDays(3).toEpochDay(), (int) END.plusDays(1).toEpochDay()};
+        String[] teams = {"platform", "data", "platform"};
+        String[] services = {"AmazonEC2", "AmazonS3", "AmazonEC2"};
+        long[] costs = {fixed("10"), fixed("2.5"), fixed("100")};
+
+        // When
+        counters.recordCosts(days, teams, services, costs, 3);
+
+        // Then: deltas are upserted, so budgets without a seeded counter keep them too
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(contains("current_spend = current_spend + VALUES(current_spend)"), setter.capture());
+        assertEquals(3, setter.getValue().getBatchSize());
+
+        // Budget ids are written in sorted order: org-budget, service-budget, team-budget
+        List<BigDecimal> deltas = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PreparedStatement ps = mock(PreparedStatement.class);
+            setter.getValue().setValues(ps, i);
+            ArgumentCaptor<BigDecimal> delta = ArgumentCaptor.forClass(BigDecimal.class);
+            ArgumentCaptor<String> id = ArgumentCaptor.forClass(String.class);
+            verify(ps).setString(eq(1), id.capture());
+            verify(ps).setBigDecimal(eq(2), delta.capture());
+            deltas.add(delta.getValue());
+            ids.add(id.getValue());
+        }
+        assertEquals(List.of("org-budget", "service-budget", "team-budget"), ids);
+        assertEquals(0, new BigDecimal("12.5").compareTo(deltas.get(0)));
+        assertEquals(0, new BigDecimal("10").compareTo(deltas.get(1)));
+        assertEquals(0, new BigDecimal("10").compareTo(deltas.get(2)));
+    }
+
+    @Test
+    @DisplayName("Should overwrite only counters that drifted during reconciliation")
+    void testReconcile() throws Exception {
+        // Given
+        stubRows("daily_cost_rollup", List.of(
+            Map.of("budget_id", "team-budget", "total_cost", new BigDecimal("100.00")),
+            Map.of("budget_id", "service-budget", "total_cost", new BigDecimal("50.00")),
+            Map.of("budget_id", "org-budget", "total_cost", new BigDecimal("300.00"))));
+        stubRows("FROM budget_spend", List.of(
+            Map.of("budget_id", "team-budget", "current_spend", new BigDecimal("100.00")),
+            Map.of("budget_id", "service-budget", "current_spend", new BigDecimal("45.00"))));
+
+        // When
+        int corrected = counters.reconcile();
+
+        // Then
+        assertEquals(2, corrected);
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(contains("reconciled_at = CURRENT_TIMESTAMP"), setter.capture());
+        assertEquals(2, setter.getValue().getBatchSize());
+        Map<String, Object> stats = counters.getStats();
+        assertEquals(3, stats.get("lastBudgetsChecked"));
+        assertEquals(2, stats.get("lastBudgetsCorrected"));
+        assertEquals(new BigDecimal("5.00"), stats.get("lastMaxDrift"));
+        verify(jdbcTemplate).update(contains("NOT IN (SELECT id FROM budgets)"));
+    }
+
+    @Test
+    @DisplayName("Should lock the counter rows before reading the rollup, in a transaction of its own")
+    void testSeedLocksCountersBeforeReadingRollup() {
+        // Given
+        stubRows("daily_cost_rollup", List.of(
+            Map.of("budget_id", "team-budget", "total_cost", new BigDecimal("8.00"))));
+
+        // When
+        counters.getSpend(List.of("team-budget"));
+
+        // Then
+        InOrder order = inOrder(transactionManager, jdbcTemplate);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(jdbcTemplate).batchUpdate(contains("ON DUPLICATE KEY UPDATE budget_id = budget_id"),
+            any(BatchPreparedStatementSetter.class));
+        order.verify(jdbcTemplate).query(contains("daily_cost_rollup"), any(RowCallbackHandler.class), any(Object[].class));
+        order.verify(jdbcTemplate).batchUpdate(contains("seeded_at = CURRENT_TIMESTAMP"), any(BatchPreparedStatementSetter.class));
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should mark the counters of budgets overlapping rebuilt dates unseeded")
+    void testUnseed() {
+        // Given
+        when(jdbcTemplate.update(contains("SET bs.seeded_at = NULL"), any(Object[].class))).thenReturn(2);
+
+        // When
+        int marked = counters.unseed(START, START.plusDays(6));
+
+        // Then
+        assertEquals(2, marked);
+        verify(jdbcTemplate).update(contains("b.start_date <= ? AND b.end_date >= ?"), eq(START.plusDays(6)), eq(START));
+    }
+
+    @Test
+    @DisplayName("Should reload budget definitions once their time to live has passed")
+    void testIndexExpires() {
+        // Given
+        ReflectionTestUtils.setField(counters, "indexTtlMs", -1L);
+
+        // When
+        counters.recordCosts(new int[] {(int) START.toEpochDay()}, new String[] {"platform"},
+            new String[] {"AmazonEC2"}, new long[] {fixed("1")}, 1);
+        counters.recordCosts(new int[] {(int) START.toEpochDay()}, new String[] {"platform"},
+            new String[] {"AmazonEC2"}, new long[] {fixed("1")}, 1);
+
+        // Then
+        verify(jdbcTemplate, times(2)).query(eq("SELECT id, scope, target, start_date, end_date FROM budgets"),
+            any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Should reload budget definitions and drop the counter when a budget changes")
+    void testInvalidate() {
+        // Given
+        counters.recordCosts(new int[] {(int) START.toEpochDay()}, new String[] {"platform"},
+            new String[] {"AmazonEC2"}, new long[] {fixed("1")}, 1);
+
+        // When
+        counters.invalidate("team-budget");
+        counters.recordCosts(new int[] {(int) START.toEpochDay()}, new String[] {"platform"},
+            new String[] {"AmazonEC2"}, new long[] {fixed("1")}, 1);
+
+        // Then
+        verify(jdbcTemplate).update("DELETE FROM budget_spend WHERE budget_id = ?", "team-budget");
+        verify(jdbcTemplate, times(2)).query(eq("SELECT id, scope, target, start_date, end_date FROM budgets"),
+            any(RowCallbackHandler.class));
+    }
+
+    // Helper methods
+    private long fixed(String amount) {
+        return UsageCsvParser.parseFixedPoint(amount);
+    }
+
+    @SafeVarargs
+    private void stubBudgets(Map<String, Object>... budgets) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> budget : budgets) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(anyString())).thenAnswer(i -> (String) budget.get(i.getArgument(0)));
+                when(rs.getDate("start_date")).thenReturn(java.sql.Date.valueOf(START));
+                when(rs.getDate("end_date")).thenReturn(java.sql.Date.valueOf(END));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq("SELECT id, scope, target, start_date, end_date FROM budgets"),
+            any(RowCallbackHandler.class));
+    }
+
+    /** Answers queries matching the fragment with the rows whose budget id is a query parameter. */
+    private void stubRows(String sqlFragment, List<Map<String, Object>> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            List<Object> params = new ArrayList<>();
+            for (Object argument : Arrays.copyOfRange(invocation.getArguments(), 2, invocation.getArguments().length)) {
+                params.addAll(argument instanceof Object[] array ? Arrays.asList(array) : List.of(argument));
+            }
+            for (Map<String, Object> row : rows) {
+                if (!params.contains(row.get("budget_id"))) {
+                    continue;
+                }
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(anyString())).thenAnswer(i -> (String) row.get(i.getArgument(0)));
+                when(rs.getBigDecimal(anyString())).thenAnswer(i -> (BigDecimal) row.get(i.getArgument(0)));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains(sqlFragment), any(RowCallbackHandler.class), any(Object[].class));
+    }
+}
@@ -0,0 +1,282 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.OffHeapColumn;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Cost Cube Tests")
+class CostCubeTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+    private static final Timestamp LOADED_AT = Timestamp.valueOf("2024-04-01 10:00:00");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private CostCube cube;
+
+    @TempDir
+    Path storageDir;
+
+    private final List<Object> loadArgs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Should refuse queries until the first load completes")
+    void testNotReadyBeforeLoad() {
+        assertFalse(cube.isReady());
+        assertThrows(IllegalStateException.class,
+            () -> cube.groupBy(CostCube.Dimension.TEAM, START, END, null));
+    }
+
+    @Test
+    @DisplayName("Should group by team with distinct service counts, most expensive first")
+    void testGroupByTeam() {
+        // Given
+        stubRollup(List.of(
+            cell("2024-03-01", "platform", "AmazonEC2", "us-east-1", "10.00", 2),
+            cell("2024-03-02", "platform", "AmazonS3", "us-east-1", "5.00", 1),
+            cell("2024-03-02", "frontend", "AmazonEC2", "eu-west-1", "20.00", 4),
+            cell("2024-04-02", "platform", "AmazonEC2", "us-east-1", "99.00", 1)));
+        cube.refresh();
+
+        // When
+        Map<String, CostCube.Group> teams = cube.groupBy(
+            CostCube.Dimension.TEAM, START, END, null, CostCube.Dimension.SERVICE);
+
+        // Then
+        assertTrue(cube.isReady());
+        assertEquals(List.of("frontend", "platform"), new ArrayList<>(teams.keySet()));
+        CostCube.Group platform = teams.get("platform");
+        assertEquals(0, new BigDecimal("15.00").compareTo(platform.getCost()));
+        assertEquals(3, platform.getRecordCount());
+        assertEquals(2, platform.getDistinctCount(CostCube.Dimension.SERVICE));
+        assertThrows(IllegalArgumentException.class, () -> platform.getDistinctCount(CostCube.Dimension.REGION));
+    }
+
+    @Test
+    @DisplayName("Should apply dimension filters and group by date")
+    void testFilteredDailyCosts() {
+        // Given
+        stubRollup(List.of(
+            cell("2024-03-01", "platform", "AmazonEC2", "us-east-1", "10.00", 1),
+            cell("2024-03-01", "platform", "AmazonEC2", "us-west-2", "2.00", 1),
+            cell("2024-03-02", "platform", "AmazonEC2", "us-east-1", "4.00", 1),
+            cell("2024-03-02", "frontend", "AmazonEC2", "us-east-1", "50.00", 1)));
+        cube.refresh();
+
+        // When
+        Map<String, CostCube.Group> days = cube.groupBy(CostCube.Dimension.DATE, START, END,
+            new CostCube.Filter()
+                .include(CostCube.Dimension.TEAM, List.of("platform"))
+                .include(CostCube.Dimension.REGION, List.of("us-east-1", "ap-south-1")));
+
+        // Then
+        assertEquals(2, days.size());
+        assertEquals(0, new BigDecimal("10.00").compareTo(days.get("2024-03-01").getCost()));
+        assertEquals(0, new BigDecimal("4.00").compareTo(days.get("2024-03-02").getCost()));
+    }
+
+    @Test
+    @DisplayName("Should fold the filtered cells of a range into a report aggregation")
+    void testFold() {
+        // Given
+        stubRollup(List.of(
+            cell("2024-03-01", "platform", "AmazonEC2", "us-east-1", "10.00", 3),
+            cell("2024-03-02", "platform", "AmazonS3", "us-east-1", "2.50", 2),
+            cell("2024-03-02", "platform", "AmazonEC2", "eu-west-1", "4.00", 1),
+            cell("2024-03-01", "frontend", "AmazonEC2", "us-east-1", "50.00", 1),
+            cell("2024-04-01", "platform", "AmazonEC2", "us-east-1", "7.00", 1)));
+        cube.refresh();
+        ReportAggregation.CellAccumulator cells = new ReportAggregation.Plan()
+            .groupBy("team_name", "service_name")
+            .groupBy("date")
+            .cellAccumulator();
+
+        // When
+        cube.fold(START, END, new CostCube.Filter().include(CostCube.Dimension.TEAM, List.of("platform")), cells);
+        ReportAggregation aggregation = cells.finish();
+
+        // Then
+        assertEquals(3, cells.getCellCount());
+        assertEquals(6L, aggregation.getRecordCount());
+        assertEquals(0, new BigDecimal("16.50").compareTo(aggregation.getTotalCost()));
+        assertEquals(Map.of("2024-03-01", new BigDecimal("10.000000"), "2024-03-02", new BigDecimal("6.500000")),
+            aggregation.getGroup("date"));
+        assertEquals(Map.of("platform", Map.of("AmazonEC2", new BigDecimal("14.000000"), "AmazonS3", new BigDecimal("2.500000"))),
+            aggregation.getNestedGroup("team_name", "service_name"));
+    }
+
+    @Test
+    @DisplayName("Should report daily cost percentiles when dates are counted")
+    void testDailyCostPercentiles() {
+        // Given
+        stubRollup(List.of(
+            cell("2024-03-01", "platform", "AmazonEC2", "us-east-1", "6.00", 1),
+            cell("2024-03-01", "platform", "AmazonS3", "us-east-1", "4.00", 1),
+            cell("2024-03-02", "platform", "AmazonEC2", "us-east-1", "20.00", 1),
+            cell("2024-03-03", "platform", "AmazonEC2", "us-east-1", "30.00", 1),
+            cell("2024-03-05", "platform", "AmazonEC2", "us-east-1", "40.00", 1)));
+        cube.refresh();
+
+        // When
+        CostCube.Group platform = cube.groupBy(CostCube.Dimension.TEAM, START, END, null,
+            CostCube.Dimension.DATE).get("platform");
+
+        // Then
+        assertEquals(4, platform.getDistinctCount(CostCube.Dimension.DATE));
+        assertEquals(0, new BigDecimal("25.00").compareTo(platform.getDailyCostPercentile(50)));
+        assertEquals(0, new BigDecimal("38.50").compareTo(platform.getDailyCostPercentile(95)));
+        assertEquals(0, new BigDecimal("10.00").compareTo(platform.getDailyCostPercentile(0)));
+        CostCube.Group withoutDates = cube.groupBy(CostCube.Dimension.TEAM, START, END, null).get("platform");
+        assertThrows(IllegalArgumentException.class, () -> withoutDates.getDailyCostPercentile(50));
+    }
+
+    @Test
+    @DisplayName("Should overwrite changed cells on an incremental refresh")
+    void testIncrementalRefresh() {
+        // Given
+        stubRollup(List.of(
+            cell("2024-03-01", "platform", "AmazonEC2", "us-east-1", "10.00", 1)));
+        cube.refresh();
+        stubRollup(List.of(
+            cell("2024-03-01", "platform", "AmazonEC2", "us-east-1", "12.50", 2),
+            cell("2024-03-03", "data", "AmazonRDS", "us-east-1", "7.00", 1)));
+
+        // When
+        int merged = cube.refresh();
+
+        // Then
+        assertEquals(2, merged);
+        assertEquals(LOADED_AT.getTime() - 5000, ((Timestamp) loadArgs.get(loadArgs.size() - 1)).getTime());
+        Map<String, CostCube.Group> teams = cube.groupBy(CostCube.Dimension.TEAM, START, END, null);
+        assertEquals(0, new BigDecimal("12.50").compareTo(teams.get("platform").getCost()));
+        assertEquals(2, teams.get("platform").getRecordCount());
+        assertEquals(0, new BigDecimal("7.00").compareTo(teams.get("data").getCost()));
+        assertEquals(1L, cube.getStats().get("incrementalRefreshes"));
+    }
+
+    @Test
+    @DisplayName("Should remap stored columns on restart and only catch up incrementally")
+    void testWarmRestartFromStorage() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(cube, "storageDir", storageDir.toString());
+        stubRollup(List.of(
+            cell("2024-03-01", "platform", "AmazonEC2", "us-east-1", "10.00", 1),
+            cell("2024-03-02", "data", "AmazonRDS", "eu-west-1", "4.00", 2)));
+        cube.refresh();
+
+        CostCube restarted = new CostCube();
+        ReflectionTestUtils.setField(restarted, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(restarted, "storageDir", storageDir.toString());
+        stubRollup(List.of(
+            cell("2024-03-03", "platform", "AmazonS3", "us-east-1", "1.50", 1)));
+
+        // When
+        int merged = restarted.refresh();
+
+        // Then
+        assertEquals(1, merged);
+        assertEquals(LOADED_AT.getTime() - 5000, ((Timestamp) loadArgs.get(loadArgs.size() - 1)).getTime());
+        assertEquals(0L, restarted.getStats().get("fullReloads"));
+        Map<String, CostCube.Group> teams = restarted.groupBy(
+            CostCube.Dimension.TEAM, START, END, null, CostCube.Dimension.SERVICE);
+        assertEquals(0, new BigDecimal("11.50").compareTo(teams.get("platform").getCost()));
+        assertEquals(2, teams.get("platform").getDistinctCount(CostCube.Dimension.SERVICE));
+        assertEquals(2, teams.get("data").getRecordCount());
+        assertTrue(Files.exists(storageDir.resolve("CURRENT")));
+    }
+
+    @Test
+    @DisplayName("Should unmap replaced generations so repeated full reloads do not pin deleted files")
+    void testRepeatedReloadsReleaseMappings() throws Exception {
+        // Given
+        Path maps = Path.of("/proc/self/maps");
+        assumeTrue(Files.isReadable(maps) && OffHeapColumn.releasesOnClose(), "Needs /proc/self/maps and unmapping");
+        ReflectionTestUtils.setField(cube, "storageDir", storageDir.toString());
+        ReflectionTestUtils.setField(cube, "fullReloadIntervalMs", 0L);
+        stubRollup(List.of(
+            cell("2024-03-01", "platform", "AmazonEC2", "us-east-1", "10.00", 1),
+            cell("2024-03-02", "data", "AmazonRDS", "eu-west-1", "4.00", 2)));
+        cube.refresh();
+        String storage = storageDir.toRealPath().toString();
+        long mappedAfterFirstLoad = mappings(maps, storage);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            cube.refresh();
+        }
+
+        // Then
+        assertEquals(11L, cube.getStats().get("fullReloads"));
+        assertTrue(mappedAfterFirstLoad > 0);
+        assertEquals(mappedAfterFirstLoad, mappings(maps, storage));
+        assertEquals(0, Files.readAllLines(maps).stream()
+            .filter(line -> line.contains(storage) && line.endsWith("(deleted)")).count());
+        try (Stream<Path> generations = Files.list(storageDir)) {
+            assertEquals(1, generations.filter(Files::isDirectory).count());
+        }
+    }
+
+    // ========================================
+    // HELPER METHODS FOR TEST DATA
+    // ========================================
+
+    private Map<String, Object> cell(String date, String team, String service, String region,
+                                     String cost, long recordCount) {
+        return Map.of("date", date, "team_name", team, "service_name", service, "region", region,
+            "provider", "aws", "cost", new BigDecimal(cost), "record_count", recordCount);
+    }
+
+    private long mappings(Path maps, String directory) throws Exception {
+        return Files.readAllLines(maps).stream().filter(line -> line.contains(directory)).count();
+    }
+
+    private void stubRollup(List<Map<String, Object>> rows) {
+        doAnswer(invocation -> {
+            loadArgs.add(invocation.getArgument(2));
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getDate("date")).thenReturn(java.sql.Date.valueOf((String) row.get("date")));
+                when(rs.getString(anyString())).thenAnswer(i -> (String) row.get(i.getArgument(0)));
+                when(rs.getBigDecimal(anyString())).thenAnswer(i -> (BigDecimal) row.get(i.getArgument(0)));
+                when(rs.getLong("record_count")).thenReturn((Long) row.get("record_count"));
+                when(rs.getTimestamp("updated_at")).thenReturn(LOADED_AT);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("daily_cost_rollup"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+}
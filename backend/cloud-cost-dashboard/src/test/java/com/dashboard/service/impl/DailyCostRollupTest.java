@@ -0,0 +1,143 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.UsageCsvParser;
+import com.dashboard.util.UsageRowBatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Daily Cost Rollup Tests")
+class DailyCostRollupTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DimensionDictionary dimensionDictionary;
+
+    @Mock
+    private BudgetSpendCounters budgetSpendCounters;
+
+    @Mock
+    private PredictionCache predictionCache;
+
+    @InjectMocks
+    private DailyCostRollup dailyCostRollup;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(dimensionDictionary.teamName(1L)).thenReturn("Platform");
+        when(dimensionDictionary.teamName(2L)).thenReturn("Data");
+        when(dimensionDictionary.serviceLabel(10L)).thenReturn(new String[] {"EC2", "aws"});
+    }
+
+    @Test
+    @DisplayName("Should collapse a batch into one upsert per day and dimension cell")
+    void testRecordAggregatesCells() throws Exception {
+        // Given
+        UsageRowBatch batch = new UsageRowBatch(8);
+        addRow(batch, 2L, "us-east-1", "5.00", "2");
+        addRow(batch, 1L, "us-east-1", "1.50", "1");
+        addRow(batch, 1L, "us-east-1", "2.25", "3");
+        addRow(batch, 1L, null, "4.00", "1");
+
+        // When
+        int cells = dailyCostRollup.record(batch);
+
+        // Then
+        assertEquals(3, cells);
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(contains("ON DUPLICATE KEY UPDATE"), setter.capture());
+        assertEquals(3, setter.getValue().getBatchSize());
+
+        // Cells are written in key order: Data before Platform, "unknown" after "us-east-1"
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, 1);
+        verify(ps).setDate(1, java.sql.Date.valueOf(DAY));
+        verify(ps).setString(2, "Platform");
+        verify(ps).setString(3, "EC2");
+        verify(ps).setString(4, "unknown");
+        verify(ps).setString(5, "aws");
+        verify(ps).setBigDecimal(6, new BigDecimal("4.000000"));
+        verify(ps).setLong(8, 1L);
+
+        PreparedStatement last = mock(PreparedStatement.class);
+        setter.getValue().setValues(last, 2);
+        verify(last).setString(2, "Platform");
+        verify(last).setString(4, "us-east-1");
+        verify(last).setBigDecimal(6, new BigDecimal("3.750000"));
+        verify(last).setBigDecimal(7, new BigDecimal("4.000000"));
+        verify(last).setLong(8, 2L);
+
+        verify(budgetSpendCounters).recordCosts(any(int[].class), eq(new String[] {"Data", "Platform", "Platform"}),
+            eq(new String[] {"EC2", "EC2", "EC2"}), any(long[].class), eq(3));
+        verify(predictionCache).invalidate(Set.of("Data", "Platform"), DAY, DAY);
+    }
+
+    @Test
+    @DisplayName("Should skip empty batches")
+    void testRecordEmptyBatch() {
+        // When
+        int cells = dailyCostRollup.record(new UsageRowBatch(4));
+
+        // Then
+        assertEquals(0, cells);
+        verifyNoInteractions(jdbcTemplate, budgetSpendCounters, predictionCache);
+    }
+
+    @Test
+    @DisplayName("Should rebuild a date range from both fact tables")
+    void testRebuild() {
+        // Given
+        when(jdbcTemplate.update(contains("FROM enhanced_usage_records"), any(Object[].class))).thenReturn(4);
+        when(jdbcTemplate.update(contains("FROM usage_records"), any(Object[].class))).thenReturn(2);
+
+        // When
+        int written = dailyCostRollup.rebuild(DAY, DAY.plusDays(6));
+
+        // Then
+        assertEquals(6, written);
+        verify(jdbcTemplate).update(startsWith("DELETE FROM daily_cost_rollup"), eq(DAY), eq(DAY.plusDays(6)));
+        verify(predictionCache).invalidate(null, DAY, DAY.plusDays(6));
+        verify(budgetSpendCounters).unseed(DAY, DAY.plusDays(6));
+        verify(jdbcTemplate).update(contains("COALESCE(s.rollup_name, s.service_code)"), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should reject an inverted date range")
+    void testRebuildRejectsInvertedRange() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> dailyCostRollup.rebuild(DAY, DAY.minusDays(1)));
+    }
+
+    // Helper methods
+    private void addRow(UsageRowBatch batch, long teamId, String region, String cost, String quantity) {
+        int row = batch.addRow(batch.size() + 1);
+        batch.setUsageDateEpochDay(row, (int) DAY.toEpochDay());
+        batch.setTeamId(row, teamId);
+        batch.setServiceId(row, 10L);
+        batch.setRegion(row, region);
+        batch.setTotalCost(row, UsageCsvParser.parseFixedPoint(cost));
+        batch.setUsageQuantity(row, UsageCsvParser.parseFixedPoint(quantity));
+    }
+}
@@ -0,0 +1,127 @@
+package com.dashboard.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Dimension Dictionary Tests")
+class DimensionDictionaryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DimensionDictionary dimensionDictionary;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        stubPreload("FROM teams", Map.of("id", 1L, "name", "Platform"));
+        stubPreload("FROM services", Map.of("id", 10L, "provider_id", 1L, "service_code", "AmazonEC2",
+            "service_name", "EC2 - Compute", "rollup_name", "EC2", "provider_name", "aws"));
+        stubPreload("FROM accounts", Map.of("id", 100L, "account_id", "123456789012", "provider_id", 1L));
+    }
+
+    @Test
+    @DisplayName("Should resolve preloaded keys without per-key queries")
+    void testResolvePreloadedKeys() {
+        // When / Then
+        assertEquals(1L, dimensionDictionary.resolveTeamId("platform"));
+        assertEquals(10L, dimensionDictionary.resolveServiceId("EC2", null));
+        assertEquals(10L, dimensionDictionary.resolveServiceId("AmazonEC2", "AWS"));
+        assertEquals(100L, dimensionDictionary.resolveAccountId("123456789012"));
+        assertEquals(100L, dimensionDictionary.resolveDefaultAccountId(10L));
+
+        verify(jdbcTemplate, times(3)).query(anyString(), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class), any(Object[].class));
+        assertEquals(5L, dimensionDictionary.getStats().get("hits"));
+    }
+
+    @Test
+    @DisplayName("Should query once on a miss and remember the result")
+    void testMissIsLoadedOnce() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("FROM teams"), eq(Long.class), any(Object[].class)))
+            .thenReturn(List.of(7L));
+
+        // When
+        long first = dimensionDictionary.resolveTeamId("Data");
+        long second = dimensionDictionary.resolveTeamId("DATA");
+
+        // Then
+        assertEquals(7L, first);
+        assertEquals(7L, second);
+        verify(jdbcTemplate, times(1)).queryForList(contains("FROM teams"), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should remember unknown keys until misses are forgotten")
+    void testForgetMisses() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("FROM teams"), eq(Long.class), any(Object[].class)))
+            .thenReturn(List.of(), List.of(8L));
+
+        // When / Then
+        assertEquals(0L, dimensionDictionary.resolveTeamId("New Team"));
+        assertEquals(0L, dimensionDictionary.resolveTeamId("New Team"));
+        dimensionDictionary.forgetMisses();
+        assertEquals(8L, dimensionDictionary.resolveTeamId("New Team"));
+        assertEquals(1L, dimensionDictionary.resolveTeamId("Platform"));
+    }
+
+    @Test
+    @DisplayName("Should map preloaded ids back to team name and service label")
+    void testReverseLookups() {
+        // When / Then
+        assertEquals("Platform", dimensionDictionary.teamName(1L));
+        assertArrayEquals(new String[] {"EC2", "aws"}, dimensionDictionary.serviceLabel(10L));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should keep resolving from the previous snapshot while a refresh is loading")
+    void testResolveDuringRefresh() {
+        // Given
+        assertEquals(1L, dimensionDictionary.resolveTeamId("platform"));
+        List<Long> resolvedDuringRefresh = new ArrayList<>();
+        doAnswer(invocation -> {
+            resolvedDuringRefresh.add(dimensionDictionary.resolveTeamId("platform"));
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM accounts"), any(RowCallbackHandler.class));
+
+        // When
+        dimensionDictionary.refresh();
+
+        // Then
+        assertEquals(List.of(1L), resolvedDuringRefresh);
+        assertEquals(1L, dimensionDictionary.resolveTeamId("Platform"));
+        verify(jdbcTemplate, never()).queryForList(contains("FROM teams"), eq(Long.class), any(Object[].class));
+    }
+
+    // Helper methods
+    private void stubPreload(String table, Map<String, Object> row) {
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString(anyString())).thenAnswer(i -> (String) row.get(i.getArgument(0)));
+            when(rs.getLong(anyString())).thenAnswer(i -> (Long) row.get(i.getArgument(0)));
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(contains(table), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,270 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.dto.analytics.PredictionRequest;
+import com.dashboard.model.analytics.PredictionResult;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Prediction Cache Tests")
+class PredictionCacheTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PredictionCache predictionCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Rows of memory entries are still in the table unless a test removes them
+        stubRowCurrent(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve a stored prediction from memory and write it through to the table")
+    void testPutThenMemoryHit() {
+        // Given
+        PredictionRequest request = new PredictionRequest("Linear", 7, "platform", "2025-01-01", "2025-01-31");
+        PredictionResult result = new PredictionResult("linear", List.of(), 0.85);
+
+        stubStored(1);
+
+        // When
+        predictionCache.put(request, result, predictionCache.begin());
+        PredictionResult cached = predictionCache.get(request);
+
+        // Then
+        assertSame(result, cached);
+        verify(jdbcTemplate).update(contains("INSERT INTO prediction_cache"),
+            eq("linear|platform|2025-01-01|2025-01-31|7|true|0.95"), eq("linear"), eq("platform"),
+            eq(LocalDate.of(2025, 1, 1)), eq(LocalDate.of(2025, 1, 31)), contains("\"team\":\"platform\""),
+            contains("\"confidence\":0.85"), any(), any(Timestamp.class),
+            any(Timestamp.class), any(), any(), eq("platform"), eq("*"), eq("platform"));
+        verify(jdbcTemplate).queryForObject(contains("valid_until = ?"), eq(Integer.class),
+            eq("linear|platform|2025-01-01|2025-01-31|7|true|0.95"), any(Timestamp.class));
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        assertEquals(1L, predictionCache.getStats().get("memoryHits"));
+    }
+
+    @Test
+    @DisplayName("Should not serve a memory entry whose row another instance invalidated")
+    void testMemoryEntryInvalidatedElsewhere() {
+        // Given - usage ingested on another instance deleted the shared row
+        PredictionRequest request = new PredictionRequest("linear", 7, "platform", "2025-01-01", "2025-01-31");
+        stubStored(1);
+        predictionCache.put(request, new PredictionResult("linear", List.of(), 0.8), predictionCache.begin());
+        stubRowCurrent(0);
+
+        // When
+        PredictionResult cached = predictionCache.get(request);
+
+        // Then
+        assertNull(cached);
+        Map<String, Object> stats = predictionCache.getStats();
+        assertEquals(0L, stats.get("memoryHits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(0, stats.get("memoryEntries"));
+    }
+
+    @Test
+    @DisplayName("Should read the row another instance stored again instead of an outdated memory entry")
+    void testMemoryEntryReplacedElsewhere() {
+        // Given - the row was invalidated and recomputed elsewhere, so its valid_until moved
+        PredictionRequest request = new PredictionRequest("seasonal", 30, null, "2025-01-01", "2025-03-31");
+        PredictionResult outdated = new PredictionResult("seasonal", List.of(), 0.6);
+        stubStored(1);
+        predictionCache.put(request, outdated, predictionCache.begin());
+        stubRowCurrent(0);
+        stubStoredRow("{\"team\":\"*\",\"startDate\":\"2025-01-01\",\"endDate\":\"2025-03-31\"}",
+            "{\"method\":\"seasonal\",\"predictions\":[{\"date\":\"2025-04-01\",\"predictedCost\":12.5}],\"confidence\":0.75}");
+
+        // When
+        PredictionResult cached = predictionCache.get(request);
+
+        // Then
+        assertNotSame(outdated, cached);
+        assertEquals(0.75, cached.getConfidence(), 1e-9);
+        assertEquals(1L, predictionCache.getStats().get("tableHits"));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the table and count misses")
+    void testTableHitAndMiss() {
+        // Given
+        PredictionRequest request = new PredictionRequest("seasonal", 30, null, "2025-01-01", "2025-03-31");
+        stubStoredRow("{\"team\":\"*\",\"startDate\":\"2025-01-01\",\"endDate\":\"2025-03-31\"}",
+            "{\"method\":\"seasonal\",\"predictions\":[{\"date\":\"2025-04-01\",\"predictedCost\":12.5}],\"confidence\":0.75}");
+
+        // When
+        PredictionResult first = predictionCache.get(request);
+        PredictionResult second = predictionCache.get(request);
+        PredictionResult other = predictionCache.get(new PredictionRequest("growth", 30, null, "2025-01-01", "2025-03-31"));
+
+        // Then
+        assertEquals("seasonal", first.getMethod());
+        assertEquals(12.5, first.getPredictions().get(0).get("predictedCost"));
+        assertSame(first, second);
+        assertNull(other);
+        Map<String, Object> stats = predictionCache.getStats();
+        assertEquals(1L, stats.get("tableHits"));
+        assertEquals(1L, stats.get("memoryHits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(2.0 / 3, (Double) stats.get("hitRatio"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should invalidate predictions of affected teams whose history overlaps new usage")
+    void testInvalidate() {
+        // Given
+        PredictionRequest platform = new PredictionRequest("linear", 7, "platform", "2025-01-01", "2025-01-31");
+        PredictionRequest data = new PredictionRequest("linear", 7, "data", "2025-01-01", "2025-01-31");
+        PredictionRequest allTeams = new PredictionRequest("linear", 7, "all", "2025-01-01", "2025-01-31");
+        PredictionRequest february = new PredictionRequest("linear", 7, "platform", "2025-02-01", "2025-02-28");
+        stubStored(1);
+        for (PredictionRequest request : List.of(platform, data, allTeams, february)) {
+            predictionCache.put(request, new PredictionResult("linear", List.of(), 0.8), predictionCache.begin());
+        }
+
+        // When
+        predictionCache.invalidate(Set.of("platform"), LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 16));
+
+        // Then
+        assertNull(predictionCache.get(platform));
+        assertNull(predictionCache.get(allTeams));
+        assertNotNull(predictionCache.get(data));
+        assertNotNull(predictionCache.get(february));
+        verify(jdbcTemplate).update(contains("AND team_name IN (?, ?)"),
+            eq(LocalDate.of(2025, 1, 16)), eq(LocalDate.of(2025, 1, 15)), eq("*"), eq("platform"));
+    }
+
+    @Test
+    @DisplayName("Should invalidate once the transaction that changed the usage commits")
+    void testInvalidateAfterCommit() {
+        // Given
+        PredictionRequest request = new PredictionRequest("linear", 7, "platform", "2025-01-01", "2025-01-31");
+        stubStored(1);
+        predictionCache.put(request, new PredictionResult("linear", List.of(), 0.8), predictionCache.begin());
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When - called from the ingest transaction
+        predictionCache.invalidate(Set.of("platform"), LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 15));
+
+        // Then - nothing is dropped until the usage is committed
+        verify(jdbcTemplate, never()).update(contains("DELETE FROM prediction_cache"), any(Object[].class));
+        assertEquals(1, predictionCache.getStats().get("memoryEntries"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(jdbcTemplate).update(contains("DELETE FROM prediction_cache"),
+            eq(LocalDate.of(2025, 1, 15)), eq(LocalDate.of(2025, 1, 15)), eq("*"), eq("platform"));
+        assertEquals(0, predictionCache.getStats().get("memoryEntries"));
+    }
+
+    @Test
+    @DisplayName("Should discard a prediction whose history was invalidated while it was computed")
+    void testPutAfterOverlappingInvalidation() {
+        // Given
+        PredictionRequest platform = new PredictionRequest("linear", 7, "platform", "2025-01-01", "2025-01-31");
+        PredictionRequest data = new PredictionRequest("linear", 7, "data", "2025-01-01", "2025-01-31");
+        PredictionCache.Epoch epoch = predictionCache.begin();
+        stubStored(1);
+
+        // When
+        predictionCache.invalidate(Set.of("platform"), LocalDate.of(2025, 1, 20), LocalDate.of(2025, 1, 20));
+        predictionCache.put(platform, new PredictionResult("linear", List.of(), 0.8), epoch);
+        predictionCache.put(data, new PredictionResult("linear", List.of(), 0.8), epoch);
+
+        // Then
+        assertEquals(1L, predictionCache.getStats().get("staleDiscards"));
+        assertEquals(1, predictionCache.getStats().get("memoryEntries"));
+        verify(jdbcTemplate, times(1)).update(contains("INSERT INTO prediction_cache"), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should not cache a prediction when another instance changed its history meanwhile")
+    void testPutAfterRollupChange() {
+        // Given: the conditional insert finds a rollup cell updated since the epoch
+        PredictionRequest request = new PredictionRequest("linear", 7, "platform", "2025-01-01", "2025-01-31");
+        stubStored(0);
+
+        // When
+        predictionCache.put(request, new PredictionResult("linear", List.of(), 0.8), predictionCache.begin());
+
+        // Then
+        assertEquals(1L, predictionCache.getStats().get("staleDiscards"));
+        assertEquals(0, predictionCache.getStats().get("memoryEntries"));
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used predictions beyond the bound")
+    void testLruBound() {
+        // Given
+        ReflectionTestUtils.setField(predictionCache, "maxEntries", 2);
+        PredictionRequest first = new PredictionRequest("linear", 7, "a", "2025-01-01", "2025-01-31");
+        PredictionRequest second = new PredictionRequest("linear", 7, "b", "2025-01-01", "2025-01-31");
+        PredictionRequest third = new PredictionRequest("linear", 7, "c", "2025-01-01", "2025-01-31");
+        stubStored(1);
+        predictionCache.put(first, new PredictionResult("linear", List.of(), 0.8), predictionCache.begin());
+        predictionCache.put(second, new PredictionResult("linear", List.of(), 0.8), predictionCache.begin());
+
+        // When
+        predictionCache.get(first);
+        predictionCache.put(third, new PredictionResult("linear", List.of(), 0.8), predictionCache.begin());
+
+        // Then
+        assertEquals(2, predictionCache.getStats().get("memoryEntries"));
+        assertNotNull(predictionCache.get(first));
+        assertNull(predictionCache.get(second));
+    }
+
+    // Helper methods
+    private void stubRowCurrent(int rows) {
+        when(jdbcTemplate.queryForObject(contains("valid_until = ?"), eq(Integer.class), any(Object[].class))).thenReturn(rows);
+    }
+
+    private void stubStored(int rowsAffected) {
+        when(jdbcTemplate.update(contains("INSERT INTO prediction_cache"), any(Object[].class))).thenReturn(rowsAffected);
+    }
+
+    private void stubStoredRow(String parameters, String results) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString("parameters")).thenReturn(parameters);
+            when(rs.getString("results")).thenReturn(results);
+            when(rs.getTimestamp("valid_until")).thenReturn(new Timestamp(System.currentTimeMillis() + 60_000));
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM prediction_cache"), any(RowCallbackHandler.class),
+            eq("seasonal|*|2025-01-01|2025-03-31|30|true|0.95"));
+    }
+}
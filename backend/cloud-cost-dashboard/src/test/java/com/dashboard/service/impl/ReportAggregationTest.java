@@ -0,0 +1,236 @@
+package com.dashboard.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Report Aggregation Tests")
+class ReportAggregationTest {
+
+    @Test
+    @DisplayName("Should compute totals and every planned group-by in one pass")
+    void testAggregate_GroupsAndTotals() {
+        // Given
+        List<Map<String, Object>> rows = List.of(
+            row("2025-01-01", "Platform", "EC2", "aws", "i-1", "100.50"),
+            row("2025-01-01", "Data", "S3", "aws", "b-1", "20.25"),
+            row("2025-01-02", "Platform", "EC2", "aws", "i-1", "99.5"),
+            row("2025-01-02", "Data", null, "gcp", "g-1", "5"));
+
+        // When
+        ReportAggregation aggregation = new ReportAggregation.Plan()
+            .groupBy("team_name")
+            .groupBy("service_name")
+            .groupBy("date")
+            .aggregate(rows, 1000);
+
+        // Then
+        assertEquals(new BigDecimal("225.25"), aggregation.getTotalCost());
+        assertEquals(4L, aggregation.getRecordCount());
+        assertEquals(Map.of("Platform", new BigDecimal("200.00"), "Data", new BigDecimal("25.25")),
+            aggregation.getGroup("team_name"));
+        assertEquals(new BigDecimal("5.00"), aggregation.getGroup("service_name").get("null"));
+        assertEquals(new BigDecimal("120.75"), aggregation.getGroup("date").get("2025-01-01"));
+        assertFalse(aggregation.hasGroup("region"));
+        assertThrows(IllegalArgumentException.class, () -> aggregation.getGroup("region"));
+    }
+
+    @Test
+    @DisplayName("Should merge parallel chunks into the same result as a single pass")
+    void testAggregate_ParallelChunksMatchSinglePass() {
+        // Given
+        Random random = new Random(42);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(row("2025-01-" + (10 + random.nextInt(20)), "team-" + random.nextInt(7), "svc-" + random.nextInt(30),
+                random.nextBoolean() ? "aws" : "azure", "r-" + random.nextInt(500),
+                BigDecimal.valueOf(random.nextInt(1_000_000), 4).toPlainString()));
+        }
+        ReportAggregation.Plan plan = new ReportAggregation.Plan()
+            .groupBy("team_name", "service_name")
+            .groupBy("provider")
+            .topResources(10);
+
+        // When
+        ReportAggregation single = plan.aggregate(rows, rows.size());
+        ReportAggregation chunked = plan.aggregate(rows, 333);
+
+        // Then
+        assertEquals(single.getTotalCost(), chunked.getTotalCost());
+        assertEquals(single.getGroup("team_name"), chunked.getGroup("team_name"));
+        assertEquals(single.getGroup("provider"), chunked.getGroup("provider"));
+        assertEquals(single.getNestedGroup("team_name", "service_name"), chunked.getNestedGroup("team_name", "service_name"));
+        assertEquals(single.getTopResources(10), chunked.getTopResources(10));
+        BigDecimal expectedTotal = rows.stream().map(r -> (BigDecimal) r.get("cost")).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(expectedTotal, chunked.getTotalCost());
+    }
+
+    @Test
+    @DisplayName("Should fold streamed rows into the same result as an in-memory aggregation")
+    void testAccumulator_MatchesAggregate() {
+        // Given
+        List<Map<String, Object>> rows = List.of(
+            row("2025-01-01", "Platform", "EC2", "aws", "i-1", "10.25"),
+            row("2025-01-01", "Data", "S3", "aws", "b-1", "12"),
+            row("2025-01-02", "Data", "EC2", "azure", "i-1", "5"),
+            row("2025-01-02", "Data", "RDS", "aws", "d-1", "1.5"));
+        ReportAggregation.Plan plan = new ReportAggregation.Plan()
+            .groupBy("team_name", "service_name")
+            .groupBy("provider")
+            .topResources(2);
+
+        // When
+        ReportAggregation.Accumulator accumulator = plan.accumulator();
+        rows.forEach(accumulator::add);
+        ReportAggregation streamed = accumulator.finish();
+        ReportAggregation aggregated = plan.aggregate(rows, 2);
+
+        // Then
+        assertEquals(aggregated.getTotalCost(), streamed.getTotalCost());
+        assertEquals(4L, streamed.getRecordCount());
+        assertEquals(aggregated.getGroup("provider"), streamed.getGroup("provider"));
+        assertEquals(aggregated.getNestedGroup("team_name", "service_name"), streamed.getNestedGroup("team_name", "service_name"));
+        assertEquals(aggregated.getTopResources(2), streamed.getTopResources(2));
+    }
+
+    @Test
+    @DisplayName("Should fold cube cells by dictionary id into the same groups as their rows")
+    void testCellAccumulator_MatchesAggregate() {
+        // Given - dictionaries of two teams and two services, dates as offsets from 2025-01-01
+        List<String> teams = List.of("Platform", "Data");
+        List<String> services = List.of("EC2", "S3");
+        ReportAggregation.Plan plan = new ReportAggregation.Plan()
+            .groupBy("team_name", "service_name")
+            .groupBy("date")
+            .groupBy("account_name");
+
+        // When
+        ReportAggregation.CellAccumulator cells = plan.cellAccumulator();
+        cells.add(ids(0, 0, 0), 10_250_000L, 4);
+        cells.add(ids(0, 1, 1), 12_000_000L, 1);
+        cells.add(ids(1, 1, 0), 5_000_000L, 2);
+        cells.resolve((int) java.time.LocalDate.parse("2025-01-01").toEpochDay(),
+            dimension -> dimension == CostCube.Dimension.TEAM ? teams::get : services::get);
+        ReportAggregation folded = cells.finish();
+        ReportAggregation aggregated = plan.aggregate(List.of(
+            row("2025-01-01", "Platform", "EC2", "aws", "i-1", "10.25"),
+            row("2025-01-01", "Data", "S3", "aws", "b-1", "12"),
+            row("2025-01-02", "Data", "EC2", "aws", "i-2", "5")), 10);
+
+        // Then
+        assertEquals(3L, cells.getCellCount());
+        assertEquals(7L, folded.getRecordCount());
+        assertEquals(0, aggregated.getTotalCost().compareTo(folded.getTotalCost()));
+        assertEquals(Map.of("2025-01-01", new BigDecimal("22.250000"), "2025-01-02", new BigDecimal("5.000000")),
+            folded.getGroup("date"));
+        assertEquals(Map.of("null", new BigDecimal("27.250000")), folded.getGroup("account_name"));
+        assertEquals(aggregated.getNestedGroup("team_name", "service_name").keySet(),
+            folded.getNestedGroup("team_name", "service_name").keySet());
+        assertEquals(0, new BigDecimal("5").compareTo(folded.getNestedGroup("team_name", "service_name").get("Data").get("EC2")));
+        assertThrows(IllegalArgumentException.class, () -> plan.topResources(5).cellAccumulator());
+    }
+
+    @Test
+    @DisplayName("Should nest service costs within teams")
+    void testAggregate_NestedGroup() {
+        // Given
+        List<Map<String, Object>> rows = List.of(
+            row("2025-01-01", "Platform", "EC2", "aws", "i-1", "10"),
+            row("2025-01-01", "Platform", "S3", "aws", "b-1", "2"),
+            row("2025-01-01", "Data", "EC2", "aws", "i-2", "3"),
+            row("2025-01-02", "Platform", "EC2", "aws", "i-1", "5"));
+
+        // When
+        ReportAggregation aggregation = new ReportAggregation.Plan()
+            .groupBy("team_name", "service_name")
+            .aggregate(rows, 2);
+
+        // Then
+        Map<String, Map<String, BigDecimal>> byTeam = aggregation.getNestedGroup("team_name", "service_name");
+        assertEquals(Map.of("EC2", new BigDecimal("15"), "S3", new BigDecimal("2")), byTeam.get("Platform"));
+        assertEquals(Map.of("EC2", new BigDecimal("3")), byTeam.get("Data"));
+        assertEquals(new BigDecimal("17"), aggregation.getGroup("team_name").get("Platform"));
+    }
+
+    @Test
+    @DisplayName("Should rank resources by total cost with the attributes of their first row")
+    void testGetTopResources() {
+        // Given
+        List<Map<String, Object>> rows = List.of(
+            row("2025-01-01", "Platform", "EC2", "aws", "i-1", "10"),
+            row("2025-01-01", "Data", "S3", "aws", "b-1", "12"),
+            row("2025-01-02", "Data", "EC2", "aws", "i-1", "5"),
+            row("2025-01-02", "Data", "RDS", "aws", "d-1", "1"));
+
+        // When
+        List<Map<String, Object>> top = new ReportAggregation.Plan()
+            .topResources(2)
+            .aggregate(rows, 1)
+            .getTopResources(2);
+
+        // Then
+        assertEquals(2, top.size());
+        assertEquals("i-1", top.get(0).get("resourceId"));
+        assertEquals(new BigDecimal("15"), top.get(0).get("totalCost"));
+        assertEquals("Platform", top.get(0).get("team"));
+        assertEquals("b-1", top.get(1).get("resourceId"));
+    }
+
+    @Test
+    @DisplayName("Should count the usage rows behind pre-aggregated cells")
+    void testAggregate_RecordCounts() {
+        // Given
+        Map<String, Object> cell = row("2025-01-01", "Platform", "EC2", "aws", null, "12");
+        cell.put("record_count", 40L);
+
+        // When
+        ReportAggregation aggregation = new ReportAggregation.Plan()
+            .groupBy("team_name")
+            .aggregate(List.of(cell, row("2025-01-01", "Data", "S3", "aws", "b-1", "3")), 100);
+
+        // Then
+        assertEquals(41L, aggregation.getRecordCount());
+        assertEquals(new BigDecimal("15"), aggregation.getTotalCost());
+    }
+
+    @Test
+    @DisplayName("Should return zero totals for no rows")
+    void testAggregate_Empty() {
+        // When
+        ReportAggregation aggregation = new ReportAggregation.Plan()
+            .groupBy("service_name")
+            .topResources(5)
+            .aggregate(List.of(), 100);
+
+        // Then
+        assertEquals(BigDecimal.ZERO, aggregation.getTotalCost());
+        assertEquals(0L, aggregation.getRecordCount());
+        assertTrue(aggregation.getGroup("service_name").isEmpty());
+        assertTrue(aggregation.getTopResources(5).isEmpty());
+    }
+
+    // Helper methods
+    private int[] ids(int day, int team, int service) {
+        int[] ids = new int[CostCube.Dimension.values().length];
+        ids[CostCube.Dimension.DATE.ordinal()] = day;
+        ids[CostCube.Dimension.TEAM.ordinal()] = team;
+        ids[CostCube.Dimension.SERVICE.ordinal()] = service;
+        return ids;
+    }
+
+    private Map<String, Object> row(String date, String team, String service, String provider, String resourceId, String cost) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("date", java.sql.Date.valueOf(date));
+        row.put("team_name", team);
+        row.put("service_name", service);
+        row.put("provider", provider);
+        row.put("region", "us-east-1");
+        row.put("resource_id", resourceId);
+        row.put("cost", new BigDecimal(cost));
+        return row;
+    }
+}
@@ -0,0 +1,221 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.model.report.Report;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Report Exporter Tests")
+class ReportExporterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ReportExporter reportExporter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Should stream quoted CSV rows from a forward-only cursor with the configured fetch size")
+    void testExport_CsvFromCursor() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(reportExporter, "fetchSize", 500);
+        Report report = createReport(Map.of("startDate", "2025-01-01", "endDate", "2025-01-31",
+            "teams", List.of("Platform", "Data")));
+        ResultSet rs = mockResultSet();
+        when(rs.getString("tags")).thenReturn("{\"env\":\"prod, eu\"}");
+        PreparedStatement statement = stubCursor(rs, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = reportExporter.export(report, "csv", out, false);
+
+        // Then
+        assertEquals(2, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(String.join(",", ReportExporter.COLUMNS), lines[0]);
+        assertEquals("2025-01-15,Platform,EC2,aws,us-east-1,i-123,12.50,720,hours,\"{\"\"env\"\":\"\"prod, eu\"\"}\"", lines[1]);
+        verify(statement).setFetchSize(500);
+        verify(statement).setObject(1, "2025-01-01");
+        verify(statement).setObject(2, "2025-01-31");
+        verify(statement).setObject(3, "Platform");
+        verify(statement).setObject(4, "Data");
+        assertEquals(2L, reportExporter.getStats().get("rowsExported"));
+    }
+
+    @Test
+    @DisplayName("Should write gzip-compressed newline-delimited JSON")
+    void testExport_GzipJsonLines() throws Exception {
+        // Given
+        Report report = createReport(Map.of("startDate", "2025-01-01", "endDate", "2025-01-31"));
+        ResultSet rs = mockResultSet();
+        when(rs.getString("usage_unit")).thenReturn("GB \"month\"");
+        stubCursor(rs, 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = reportExporter.export(report, "json", out, true);
+
+        // Then
+        assertEquals(3, rows);
+        String json = gunzip(out.toByteArray());
+        String[] lines = json.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"date\":\"2025-01-15\",\"team_name\":\"Platform\",\"service_name\":\"EC2\",\"provider\":\"aws\","
+            + "\"region\":\"us-east-1\",\"resource_id\":\"i-123\",\"cost\":12.50,\"usage_quantity\":720,"
+            + "\"usage_unit\":\"GB \\\"month\\\"\",\"tags\":null}", lines[0]);
+    }
+
+    @Test
+    @DisplayName("Should reject unsupported formats and incomplete reports before streaming")
+    void testExport_Validation() {
+        // Given
+        Report report = createReport(Map.of());
+        Report generating = createReport(Map.of());
+        generating.setStatus("generating");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> reportExporter.export(report, "docx", new ByteArrayOutputStream(), false));
+        assertThrows(IllegalStateException.class,
+            () -> reportExporter.export(generating, "csv", new ByteArrayOutputStream(), false));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should stop reading the cursor when the client disconnects")
+    void testExport_ClientDisconnect() throws Exception {
+        // Given
+        Report report = createReport(Map.of("startDate", "2025-01-01", "endDate", "2025-01-31"));
+        stubCursor(mockResultSet(), 100_000);
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then
+        IOException error = assertThrows(IOException.class, () -> reportExporter.export(report, "csv", broken, false));
+        assertEquals("Broken pipe", error.getMessage());
+        assertEquals(1L, reportExporter.getStats().get("failedExports"));
+    }
+
+    @Test
+    @DisplayName("Should re-resolve the time range of reports saved without a date range")
+    void testBuildExportQuery_LegacyConfiguration() {
+        // Given
+        Map<String, Object> config = Map.of("timeRange", "custom", "customStartDate", "2024-12-01",
+            "customEndDate", "2024-12-31", "providers", List.of("gcp"), "regions", List.of());
+        List<Object> params = new ArrayList<>();
+
+        // When
+        String sql = reportExporter.buildExportQuery(config, params);
+
+        // Then
+        assertTrue(sql.contains("AND provider IN (?)"));
+        assertFalse(sql.contains("region IN"));
+        assertEquals(List.of("2024-12-01", "2024-12-31", "gcp"), params);
+    }
+
+    @Test
+    @DisplayName("Should flatten saved report data into the summary of document formats")
+    void testSummarize_FlattensReportData() {
+        // Given
+        Report report = createReport(Map.of("startDate", "2025-01-01", "endDate", "2025-01-31"));
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("totalCost", 1234.5);
+        data.put("costByTeam", Map.of("Platform", 1000));
+        data.put("topServices", List.of(Map.of("service", "EC2")));
+        report.setData(data);
+        report.setRecommendations(List.of("Buy savings plans"));
+
+        // When
+        Map<String, Object> summary = reportExporter.summarize(report);
+
+        // Then
+        assertEquals("2025-01-01 to 2025-01-31", summary.get("Period"));
+        assertEquals(1234.5, summary.get("totalCost"));
+        assertEquals(1000, summary.get("costByTeam.Platform"));
+        assertEquals("EC2", summary.get("topServices[0].service"));
+        assertEquals("Buy savings plans", summary.get("Recommendation 1"));
+        assertTrue(reportExporter.supports("excel"));
+        assertFalse(reportExporter.isCompressible("pdf"));
+    }
+
+    // Helper methods
+    private Report createReport(Map<String, Object> configuration) {
+        Report report = new Report("January Detailed Breakdown", "Finance export", "detailed_breakdown");
+        report.setId("report-1");
+        report.setStatus("completed");
+        report.setConfiguration(new HashMap<>(configuration));
+        return report;
+    }
+
+    private ResultSet mockResultSet() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("date")).thenReturn("2025-01-15");
+        when(rs.getString("team_name")).thenReturn("Platform");
+        when(rs.getString("service_name")).thenReturn("EC2");
+        when(rs.getString("provider")).thenReturn("aws");
+        when(rs.getString("region")).thenReturn("us-east-1");
+        when(rs.getString("resource_id")).thenReturn("i-123");
+        when(rs.getBigDecimal("cost")).thenReturn(new BigDecimal("12.50"));
+        when(rs.getBigDecimal("usage_quantity")).thenReturn(new BigDecimal("720"));
+        when(rs.getString("usage_unit")).thenReturn("hours");
+        return rs;
+    }
+
+    /** Run the statement creator against a mock connection, then feed the handler {@code rows} rows. */
+    private PreparedStatement stubCursor(ResultSet rs, int rows) throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+            .thenReturn(statement);
+        doAnswer(invocation -> {
+            PreparedStatementCreator creator = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            creator.createPreparedStatement(connection);
+            for (int i = 0; i < rows; i++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        return statement;
+    }
+
+    private String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
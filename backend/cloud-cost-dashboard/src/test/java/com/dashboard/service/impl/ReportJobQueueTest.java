@@ -0,0 +1,359 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.dto.report.GenerateReportRequest;
+import com.dashboard.model.report.Report;
+import com.dashboard.model.report.ReportJob;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Report Job Queue Tests")
+class ReportJobQueueTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ReportServiceImpl reportService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ReportJobQueue reportJobQueue;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.queryForObject(contains("SELECT COUNT(*) FROM report_jobs"), eq(Integer.class), any(Object[].class)))
+            .thenReturn(0);
+        when(jdbcTemplate.update(contains("SET status = 'running'"), any(Object[].class))).thenReturn(1);
+        when(jdbcTemplate.queryForList(contains("FROM report_job_users"), eq(String.class), any(Object[].class)))
+            .thenAnswer(invocation -> List.of(invocation.getArgument(2)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobQueue.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should queue a report and generate it on a worker under the job's report id")
+    void testSubmit_GeneratesOnWorker() {
+        // Given
+        GenerateReportRequest request = createRequest("alice");
+        stubQueuedJobs(queuedRow("job-1", "report-1", "alice"));
+        when(reportService.generateReport(any(GenerateReportRequest.class), eq("report-1"), any(ReportProgress.class)))
+            .thenReturn(new Report());
+
+        // When
+        ReportJob job = reportJobQueue.submit(request);
+
+        // Then
+        assertEquals("queued", job.getStatus());
+        assertEquals("alice", job.getUserId());
+        verify(jdbcTemplate).update(contains("INSERT INTO report_jobs"), eq(job.getId()), eq(job.getReportId()),
+            eq("alice"), contains("\"title\":\"Annual Executive Summary\""));
+        verify(reportService, timeout(2000)).generateReport(argThat(r -> "executive_summary".equals(r.getType())),
+            eq("report-1"), any(ReportProgress.class));
+        verify(jdbcTemplate, timeout(2000)).update(contains("error_message = ?"), eq("completed"), anyLong(), anyInt(),
+            anyInt(), any(), isNull(), eq("job-1"));
+    }
+
+    @Test
+    @DisplayName("Should reject submissions beyond the pending limit of a user")
+    void testSubmit_PendingLimit() {
+        // Given
+        when(jdbcTemplate.queryForObject(contains("SELECT COUNT(*) FROM report_jobs"), eq(Integer.class), eq("alice")))
+            .thenReturn(10);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> reportJobQueue.submit(createRequest("alice")));
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO report_jobs"), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should check the pending limit and queue the job under the user's lock")
+    void testSubmit_UnderUserLock() {
+        // When
+        ReportJob job = reportJobQueue.submit(createRequest("alice"));
+
+        // Then
+        InOrder order = inOrder(jdbcTemplate, transactionManager);
+        order.verify(jdbcTemplate).update(contains("INSERT INTO report_job_users"), eq("alice"));
+        order.verify(jdbcTemplate).queryForList(contains("FROM report_job_users"), eq(String.class), eq("alice"));
+        order.verify(jdbcTemplate).queryForObject(contains("status IN ('queued', 'running')"), eq(Integer.class), eq("alice"));
+        order.verify(jdbcTemplate).update(contains("INSERT INTO report_jobs"), eq(job.getId()), any(), any(), any());
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should return a queued job even when dispatching after the insert fails")
+    void testSubmit_DispatchFailure() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("WHERE status = 'queued'"), any(Object[].class)))
+            .thenThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"));
+
+        // When
+        ReportJob job = reportJobQueue.submit(createRequest("alice"));
+
+        // Then
+        assertEquals("queued", job.getStatus());
+        verify(jdbcTemplate).update(contains("INSERT INTO report_jobs"), eq(job.getId()), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should let only one of two instances claim for a user with no running jobs")
+    void testDispatch_ConcurrentClaimsForIdleUser() throws Exception {
+        // Given - two instances share the database; the user's report_job_users row is their lock
+        ReportJobQueue otherInstance = new ReportJobQueue();
+        ReflectionTestUtils.setField(otherInstance, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(otherInstance, "reportService", reportService);
+        ReflectionTestUtils.setField(otherInstance, "transactionManager", transactionManager);
+        ReentrantLock userRow = new ReentrantLock();
+        AtomicInteger runningJobs = new AtomicInteger();
+        Set<Object> claimed = ConcurrentHashMap.newKeySet();
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.queryForList(contains("FROM report_job_users"), eq(String.class), eq("alice")))
+            .thenAnswer(invocation -> {
+                userRow.lock();
+                return List.of("alice");
+            });
+        doAnswer(invocation -> {
+            if (userRow.isHeldByCurrentThread()) {
+                userRow.unlock();
+            }
+            return null;
+        }).when(transactionManager).commit(any());
+        when(jdbcTemplate.queryForObject(contains("status = 'running'"), eq(Integer.class), eq("alice")))
+            .thenAnswer(invocation -> runningJobs.get());
+        when(jdbcTemplate.update(contains("SET status = 'running'"), any(Object[].class)))
+            .thenAnswer(invocation -> {
+                if (!claimed.add(invocation.getArgument(1))) {
+                    return 0;
+                }
+                runningJobs.incrementAndGet();
+                return 1;
+            });
+        stubQueuedJobs(queuedRow("job-1", "report-1", "alice"), queuedRow("job-2", "report-2", "alice"));
+        when(reportService.generateReport(any(GenerateReportRequest.class), anyString(), any(ReportProgress.class)))
+            .thenAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return new Report();
+            });
+        CyclicBarrier start = new CyclicBarrier(2);
+        ExecutorService instances = Executors.newFixedThreadPool(2);
+
+        // When
+        try {
+            Future<?> first = instances.submit(() -> {
+                start.await();
+                reportJobQueue.poll();
+                return null;
+            });
+            Future<?> second = instances.submit(() -> {
+                start.await();
+                otherInstance.poll();
+                return null;
+            });
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(1, claimed.size());
+            assertEquals(1, runningJobs.get());
+        } finally {
+            release.countDown();
+            instances.shutdown();
+            otherInstance.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should retry a claim once on a lock failure and then leave the job queued")
+    void testDispatch_LockFailure() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("FROM report_job_users"), eq(String.class), any(Object[].class)))
+            .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+        stubQueuedJobs(queuedRow("job-1", "report-1", "alice"));
+
+        // When
+        assertDoesNotThrow(() -> reportJobQueue.poll());
+
+        // Then
+        verify(jdbcTemplate, times(2)).queryForList(contains("FROM report_job_users"), eq(String.class), any(Object[].class));
+        verify(jdbcTemplate, never()).update(contains("SET status = 'running'"), any(Object[].class));
+        verify(reportService, never()).generateReport(any(GenerateReportRequest.class), anyString(), any(ReportProgress.class));
+    }
+
+    @Test
+    @DisplayName("Should skip queued jobs of users at their running limit")
+    void testDispatch_PerUserLimit() {
+        // Given
+        ReflectionTestUtils.setField(reportJobQueue, "workers", 4);
+        when(jdbcTemplate.queryForObject(contains("status = 'running'"), eq(Integer.class), eq("alice")))
+            .thenReturn(1);
+        // bob's first claim is counted by the locking read of his second
+        when(jdbcTemplate.queryForObject(contains("status = 'running'"), eq(Integer.class), eq("bob")))
+            .thenReturn(0, 1);
+        stubQueuedJobs(queuedRow("job-1", "report-1", "alice"), queuedRow("job-2", "report-2", "bob"),
+            queuedRow("job-3", "report-3", "bob"));
+        when(reportService.generateReport(any(GenerateReportRequest.class), anyString(), any(ReportProgress.class)))
+            .thenReturn(new Report());
+
+        // When
+        reportJobQueue.poll();
+
+        // Then
+        verify(jdbcTemplate).update(contains("SET status = 'running'"), eq("job-2"));
+        verify(jdbcTemplate, never()).update(contains("SET status = 'running'"), eq("job-1"));
+        verify(jdbcTemplate, never()).update(contains("SET status = 'running'"), eq("job-3"));
+        verify(reportService, timeout(2000)).generateReport(any(GenerateReportRequest.class), eq("report-2"),
+            any(ReportProgress.class));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should cancel a queued job without running it")
+    void testCancel_QueuedJob() {
+        // Given
+        when(jdbcTemplate.update(contains("SET status = 'cancelled'"), eq("job-1"))).thenReturn(1);
+        stubJobRow("job-1", "cancelled");
+
+        // When
+        ReportJob job = reportJobQueue.cancel("job-1");
+
+        // Then
+        assertEquals("cancelled", job.getStatus());
+        verify(jdbcTemplate, never()).update(contains("cancel_requested = TRUE"), any(Object[].class));
+        assertEquals(1L, reportJobQueue.getStats().get("cancelled"));
+    }
+
+    @Test
+    @DisplayName("Should stop a running job cancelled here or from another instance")
+    void testCancel_RunningJob() {
+        // Given
+        ReportProgress local = new ReportProgress();
+        ReportProgress remote = new ReportProgress();
+        runningJobs().put("job-1", local);
+        runningJobs().put("job-2", remote);
+        stubJobRow("job-1", "running");
+        when(jdbcTemplate.update(contains("SET rows_scanned = ?"), any(), any(), any(), any(), eq("job-2"))).thenReturn(0);
+        when(jdbcTemplate.update(contains("SET rows_scanned = ?"), any(), any(), any(), any(), eq("job-1"))).thenReturn(1);
+        ReflectionTestUtils.setField(reportJobQueue, "workers", 2);
+
+        // When
+        ReportJob job = reportJobQueue.cancel("job-1");
+        reportJobQueue.heartbeat();
+
+        // Then
+        verify(jdbcTemplate).update(contains("cancel_requested = TRUE"), eq("job-1"));
+        assertTrue(job.isCancelRequested());
+        assertTrue(local.isCancelled());
+        assertTrue(remote.isCancelled());
+        assertThrows(CancellationException.class, () -> remote.startSection("data"));
+    }
+
+    @Test
+    @DisplayName("Should keep writing progress of a running job without further polls")
+    void testHeartbeat_OwnThread() {
+        // Given - no poll runs after the claim, as when the shared scheduler is busy with a long task
+        ReflectionTestUtils.setField(reportJobQueue, "heartbeatIntervalMs", 20L);
+        CountDownLatch release = new CountDownLatch(1);
+        stubQueuedJobs(queuedRow("job-1", "report-1", "alice"));
+        when(reportService.generateReport(any(GenerateReportRequest.class), anyString(), any(ReportProgress.class)))
+            .thenAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return new Report();
+            });
+
+        // When
+        reportJobQueue.poll();
+
+        // Then
+        try {
+            verify(jdbcTemplate, timeout(2000).atLeast(2)).update(contains("SET rows_scanned = ?"), any(), any(), any(),
+                any(), eq("job-1"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should overlay live progress on a job running on this instance")
+    void testGetJob_LiveProgress() {
+        // Given
+        ReportProgress progress = new ReportProgress();
+        progress.start(4);
+        progress.startSection("data");
+        progress.addRowsScanned(120_000);
+        progress.sectionDone();
+        runningJobs().put("job-1", progress);
+        stubJobRow("job-1", "running");
+
+        // When
+        ReportJob job = reportJobQueue.getJob("job-1");
+
+        // Then
+        assertEquals(120_000L, job.getRowsScanned());
+        assertEquals(1, job.getSectionsDone());
+        assertEquals(4, job.getSectionsTotal());
+        assertEquals(25.0, job.getProgressPercentage(), 1e-9);
+    }
+
+    // Helper methods
+    private GenerateReportRequest createRequest(String userId) {
+        GenerateReportRequest request = new GenerateReportRequest("Annual Executive Summary", "executive_summary", "last_90_days");
+        request.setGeneratedBy(userId);
+        return request;
+    }
+
+    private Map<String, Object> queuedRow(String jobId, String reportId, String userId) {
+        return Map.of("id", jobId, "report_id", reportId, "user_id", userId,
+            "request", "{\"title\":\"Annual Executive Summary\",\"type\":\"executive_summary\",\"timeRange\":\"last_90_days\",\"valid\":true}");
+    }
+
+    @SafeVarargs
+    private void stubQueuedJobs(Map<String, Object>... rows) {
+        when(jdbcTemplate.queryForList(contains("WHERE status = 'queued'"), any(Object[].class)))
+            .thenReturn(List.of(rows));
+    }
+
+    private void stubJobRow(String jobId, String status) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", jobId);
+        row.put("report_id", "report-1");
+        row.put("user_id", "alice");
+        row.put("status", status);
+        row.put("rows_scanned", 0L);
+        row.put("sections_done", 0);
+        row.put("sections_total", 0);
+        row.put("cancel_requested", false);
+        row.put("submitted_at", "2025-01-01 10:00:00");
+        when(jdbcTemplate.queryForList(contains("FROM report_jobs WHERE id = ?"), eq(jobId))).thenReturn(List.of(row));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ReportProgress> runningJobs() {
+        return (Map<String, ReportProgress>) ReflectionTestUtils.getField(reportJobQueue, "running");
+    }
+}
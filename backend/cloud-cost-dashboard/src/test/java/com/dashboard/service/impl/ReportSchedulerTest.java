@@ -0,0 +1,213 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.dto.report.GenerateReportRequest;
+import com.dashboard.model.report.Report;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Report Scheduler Tests")
+class ReportSchedulerTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ReportServiceImpl reportService;
+
+    @Mock
+    private ReportExporter reportExporter;
+
+    @InjectMocks
+    private ReportScheduler reportScheduler;
+
+    @TempDir
+    Path deliveryDir;
+
+    private final List<Object[]> recordedRuns = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(reportScheduler, "deliveryDir", deliveryDir.toString());
+        when(jdbcTemplate.update(contains("failure_count"), any(Object[].class))).thenAnswer(invocation -> {
+            recordedRuns.add(invocation.getArguments());
+            return 1;
+        });
+    }
+
+    @Test
+    @DisplayName("Should keep daily runs at the same local time across a DST change")
+    void testNextRun_DailyAcrossDst() {
+        // Given - 2025-03-09 is the spring-forward day in New York
+        Instant after = Instant.parse("2025-03-07T12:00:00Z");
+
+        // When
+        Instant first = ReportScheduler.nextRun("daily", "2025-03-01", null, NEW_YORK, after);
+        Instant second = ReportScheduler.nextRun("daily", "2025-03-01", null, NEW_YORK, first);
+
+        // Then - 06:00 EST, then 06:00 EDT
+        assertEquals(Instant.parse("2025-03-08T11:00:00Z"), first);
+        assertEquals(Instant.parse("2025-03-09T10:00:00Z"), second);
+    }
+
+    @Test
+    @DisplayName("Should return to month end for monthly schedules starting on the 31st")
+    void testNextRun_MonthlyFromMonthEnd() {
+        // Given
+        ZoneId utc = ZoneId.of("UTC");
+
+        // When
+        Instant february = ReportScheduler.nextRun("monthly", "2025-01-31 09:30:00", null, utc,
+            Instant.parse("2025-02-01T00:00:00Z"));
+        Instant march = ReportScheduler.nextRun("monthly", "2025-01-31 09:30:00", null, utc, february);
+
+        // Then
+        assertEquals(Instant.parse("2025-02-28T09:30:00Z"), february);
+        assertEquals(Instant.parse("2025-03-31T09:30:00Z"), march);
+    }
+
+    @Test
+    @DisplayName("Should wait for a future start date and stop after the end date")
+    void testNextRun_StartAndEndDates() {
+        // Given
+        Instant now = Instant.parse("2025-01-10T12:00:00Z");
+
+        // When
+        Instant future = ReportScheduler.nextRun("weekly", "2025-02-03", null, NEW_YORK, now);
+        Instant lastWeek = ReportScheduler.nextRun("weekly", "2025-01-06", "2025-01-13", NEW_YORK, now);
+        Instant ended = ReportScheduler.nextRun("weekly", "2025-01-06", "2025-01-12", NEW_YORK, now);
+
+        // Then
+        assertEquals(Instant.parse("2025-02-03T11:00:00Z"), future);
+        assertEquals(Instant.parse("2025-01-13T11:00:00Z"), lastWeek);
+        assertNull(ended);
+        assertThrows(IllegalArgumentException.class,
+            () -> ReportScheduler.nextRun("hourly", "2025-01-06", null, NEW_YORK, now));
+        assertThrows(IllegalArgumentException.class, () -> ReportScheduler.parseZone("Mars/Olympus"));
+    }
+
+    @Test
+    @DisplayName("Should deliver the report with a recipient manifest and record lag and duration")
+    void testRunSchedule_DeliversReport() throws Exception {
+        // Given
+        Report report = new Report("Weekly Costs", "Scheduled", "cost_summary");
+        report.setId("report-1");
+        when(reportService.generateReport(any(GenerateReportRequest.class))).thenReturn(report);
+        when(reportExporter.getFileName(report, "csv", LocalDate.of(2025, 3, 10))).thenReturn("Weekly_Costs_2025-03-10.csv");
+        when(reportExporter.export(eq(report), eq("csv"), any(OutputStream.class), eq(false))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("date,cost\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+        ReportScheduler.DueSchedule schedule = createSchedule("csv", "America/New_York",
+            LocalDateTime.of(2025, 3, 10, 10, 0));
+
+        // When
+        reportScheduler.runSchedule(schedule);
+
+        // Then
+        Path delivered = deliveryDir.resolve("schedule-1").resolve("Weekly_Costs_2025-03-10.csv");
+        assertEquals("date,cost\n", Files.readString(delivered));
+        assertFalse(Files.exists(deliveryDir.resolve("schedule-1").resolve("Weekly_Costs_2025-03-10.csv.part")));
+        String manifest = Files.readString(deliveryDir.resolve("schedule-1").resolve("Weekly_Costs_2025-03-10.csv.json"));
+        assertTrue(manifest.contains("finance@example.com"));
+        verify(reportService).generateReport(argThat(request -> "owner-1".equals(request.getGeneratedBy())));
+
+        assertEquals(1, recordedRuns.size());
+        Object[] args = recordedRuns.get(0);
+        assertTrue(Instant.parse(args[1].toString().replace(' ', 'T') + "Z").isAfter(Instant.now()));
+        assertEquals(true, args[2]);
+        assertEquals("completed", args[4]);
+        assertEquals("report-1", args[5]);
+        assertEquals(delivered.toString(), args[6]);
+        assertNull(args[7]);
+        assertTrue((Long) args[8] > 0);
+        assertEquals("schedule-1", args[11]);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> timing = (Map<String, Object>) ((Map<String, Object>) reportScheduler.getStats()
+            .get("schedules")).get("schedule-1");
+        assertEquals(1L, timing.get("runs"));
+        assertEquals(0L, timing.get("failures"));
+        assertEquals(1L, reportScheduler.getStats().get("completed"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportScheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should renew leases of running schedules on a thread of its own")
+    void testLeaseRenewal_OwnThread() {
+        // Given - no poll runs, as when the shared scheduler is busy with a long task
+        ReflectionTestUtils.setField(reportScheduler, "leaseRenewIntervalMs", 20L);
+        runningSchedules().put("schedule-1", System.currentTimeMillis());
+
+        // When
+        ReflectionTestUtils.invokeMethod(reportScheduler, "startLeaseRenewal");
+
+        // Then
+        verify(jdbcTemplate, timeout(2000).atLeast(2)).update(contains("SET locked_until"), eq(10), anyString(),
+            eq("schedule-1"));
+    }
+
+    @Test
+    @DisplayName("Should record a failed run and move on to the next occurrence")
+    void testRunSchedule_RecordsFailure() {
+        // Given
+        when(reportService.generateReport(any(GenerateReportRequest.class)))
+            .thenThrow(new RuntimeException("Report generation failed", new IllegalStateException("No cost data")));
+        ReportScheduler.DueSchedule schedule = createSchedule("pdf", "UTC", LocalDateTime.now(ZoneOffset.UTC).minusMinutes(5));
+
+        // When
+        reportScheduler.runSchedule(schedule);
+
+        // Then
+        verifyNoInteractions(reportExporter);
+        Object[] args = recordedRuns.get(0);
+        assertNotNull(args[1]);
+        assertEquals("failed", args[4]);
+        assertEquals("No cost data", args[7]);
+        assertEquals(1, args[10]);
+        assertEquals(1L, reportScheduler.getStats().get("failed"));
+    }
+
+    // Helper methods
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> runningSchedules() {
+        return (Map<String, Long>) ReflectionTestUtils.getField(reportScheduler, "running");
+    }
+
+    private ReportScheduler.DueSchedule createSchedule(String format, String timezone, LocalDateTime scheduledFor) {
+        String reportConfig = "{\"title\":\"Weekly Costs\",\"type\":\"cost_summary\",\"timeRange\":\"last_7_days\"}";
+        return new ReportScheduler.DueSchedule("schedule-1", "Weekly Costs", reportConfig, "weekly",
+            "2025-01-06", null, format, timezone, "owner-1", "[\"finance@example.com\"]", scheduledFor);
+    }
+}
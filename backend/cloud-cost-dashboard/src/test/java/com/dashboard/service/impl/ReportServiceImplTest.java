@@ -4,6 +4,7 @@ import com.dashboard.model.report.Report;
 import com.dashboard.model.report.ReportTemplate;
 import com.dashboard.dto.report.GenerateReportRequest;
 import com.dashboard.dto.report.ReportScheduleRequest;
+import com.dashboard.util.UsageRowBatch;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,10 +12,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -26,6 +32,15 @@ class ReportServiceImplTest {
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private CostCube costCube;
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    @Spy
+    private ReportExporter reportExporter = new ReportExporter();
+
     @InjectMocks
     private ReportServiceImpl reportService;
 
@@ -45,7 +60,7 @@ class ReportServiceImplTest {
         // Given
         GenerateReportRequest request = new GenerateReportRequest("Monthly Cost Summary", "cost_summary", "last_30_days");
         request.setGeneratedBy("test-user");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockCostData);
+        stubCostRows(mockCostData);
 
         // When
         Report result = reportService.generateReport(request);
@@ -60,7 +75,7 @@ class ReportServiceImplTest {
         assertNotNull(result.getSummary());
         assertNotNull(result.getRecommendations());
         assertTrue(result.getGenerationTimeMs() >= 0);
-        verify(jdbcTemplate, atLeastOnce()).queryForList(anyString(), (Object[]) any());
+        verify(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
     }
 
     @Test
@@ -70,7 +85,7 @@ class ReportServiceImplTest {
         GenerateReportRequest request = new GenerateReportRequest("Detailed Cost Breakdown", "detailed_breakdown", "current_month");
         request.setGroupBy("service");
         request.setIncludeCharts(true);
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockCostData);
+        stubCostRows(mockCostData);
 
         // When
         Report result = reportService.generateReport(request);
@@ -94,7 +109,7 @@ class ReportServiceImplTest {
         GenerateReportRequest request = new GenerateReportRequest("Executive Summary", "executive_summary", "current_quarter");
         request.setIncludeForecasts(true);
         request.setIncludeComparisons(true);
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockCostData);
+        stubCostRows(mockCostData);
 
         // When
         Report result = reportService.generateReport(request);
@@ -112,7 +127,7 @@ class ReportServiceImplTest {
     void testGenerateReport_BudgetPerformance() {
         // Given
         GenerateReportRequest request = new GenerateReportRequest("Budget Performance", "budget_performance", "current_month");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockCostData);
+        stubCostRows(mockCostData);
         when(jdbcTemplate.queryForList(contains("budgets"), (Object[]) any())).thenReturn(createMockBudgetData());
 
         // When
@@ -134,7 +149,7 @@ class ReportServiceImplTest {
     void testGenerateReport_CostOptimization() {
         // Given
         GenerateReportRequest request = new GenerateReportRequest("Cost Optimization", "cost_optimization", "last_90_days");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockCostData);
+        stubCostRows(mockCostData);
         when(jdbcTemplate.queryForList(contains("optimization_recommendations"), (Object[]) any()))
             .thenReturn(createMockOptimizationData());
 
@@ -155,7 +170,7 @@ class ReportServiceImplTest {
         // Given
         GenerateReportRequest request = new GenerateReportRequest("Team Chargeback", "chargeback", "current_month");
         request.setGroupBy("team");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(mockCostData);
+        stubCostRows(mockCostData);
 
         // When
         Report result = reportService.generateReport(request);
@@ -171,6 +186,41 @@ class ReportServiceImplTest {
         assertTrue(reportData.containsKey("allocationMethod"));
     }
 
+    @Test
+    @DisplayName("Should take totals and breakdowns from the cost cube together when it is loaded")
+    void testGenerateReport_CubeTotalsMatchBreakdowns() {
+        // Given - the cube also holds ingested usage the cost rows do not
+        GenerateReportRequest request = new GenerateReportRequest("Team Chargeback", "chargeback", "current_month");
+        stubCostRows(mockCostData);
+        when(costCube.isReady()).thenReturn(true);
+        stubCubeCells(List.of(
+            cubeCell("platform", "Lambda", "100.50", 3),
+            cubeCell("platform", "EC2", "40.00", 2),
+            cubeCell("frontend", "S3", "75.25", 1)));
+
+        // When
+        Report result = reportService.generateReport(request);
+
+        // Then
+        BigDecimal total = result.getSummary().getTotalCost();
+        assertEquals(0, new BigDecimal("215.75").compareTo(total));
+        assertEquals(0, total.compareTo(sum(result.getSummary().getCategoryBreakdown().values())));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> reportData = (Map<String, Object>) result.getData();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> chargebackSummary = (Map<String, Object>) reportData.get("chargebackSummary");
+        assertEquals(0, total.compareTo((BigDecimal) chargebackSummary.get("totalCost")));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> details = (List<Map<String, Object>>) reportData.get("chargebackDetails");
+        for (Map<String, Object> team : details) {
+            @SuppressWarnings("unchecked")
+            Map<String, BigDecimal> services = (Map<String, BigDecimal>) team.get("serviceBreakdown");
+            assertEquals(0, ((BigDecimal) team.get("totalCost")).compareTo(sum(services.values())));
+        }
+        assertTrue(result.getSummary().getKeyFindings().contains("Data points analyzed: 6"));
+    }
+
     @Test
     @DisplayName("Should handle invalid report request")
     void testGenerateReport_InvalidRequest() {
@@ -190,7 +240,7 @@ class ReportServiceImplTest {
         // Given
         GenerateReportRequest request = new GenerateReportRequest("Empty Data Report", "cost_summary", "last_7_days");
         request.setGeneratedBy("test-user");
-        when(jdbcTemplate.queryForList(anyString(), (Object[]) any())).thenReturn(Collections.emptyList());
+        stubCostRows(Collections.emptyList());
 
         // When
         Report result = reportService.generateReport(request);
@@ -203,6 +253,41 @@ class ReportServiceImplTest {
         assertEquals(BigDecimal.ZERO, result.getSummary().getTotalCost());
     }
 
+    @Test
+    @DisplayName("Should report progress section by section under the given report id")
+    void testGenerateReport_Progress() {
+        // Given
+        GenerateReportRequest request = new GenerateReportRequest("Monthly Cost Summary", "cost_summary", "last_30_days");
+        request.setIncludeRecommendations(true);
+        stubCostRows(mockCostData);
+        ReportProgress progress = new ReportProgress();
+
+        // When
+        Report result = reportService.generateReport(request, "report-42", progress);
+
+        // Then
+        assertEquals("report-42", result.getId());
+        assertEquals(mockCostData.size(), progress.getRowsScanned());
+        assertEquals(5, progress.getSectionsTotal());
+        assertEquals(5, progress.getSectionsDone());
+        assertEquals("save", progress.getCurrentSection());
+    }
+
+    @Test
+    @DisplayName("Should stop a cancelled report without saving it")
+    void testGenerateReport_Cancelled() {
+        // Given
+        GenerateReportRequest request = new GenerateReportRequest("Monthly Cost Summary", "cost_summary", "last_30_days");
+        stubCostRows(mockCostData);
+        ReportProgress progress = new ReportProgress();
+        progress.cancel();
+
+        // When & Then
+        assertThrows(CancellationException.class, () -> reportService.generateReport(request, "report-42", progress));
+        assertEquals(0, progress.getSectionsDone());
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO reports"), any(Object[].class));
+    }
+
     @Test
     @DisplayName("Should get report templates by type")
     void testGetReportTemplates() {
@@ -330,8 +415,7 @@ class ReportServiceImplTest {
         request.setReportConfig(validRequest);
         request.setRecipients(Arrays.asList("user@example.com"));
         
-        when(jdbcTemplate.update(anyString(), any(), any(), any(), any(), any(), any(), any(), any()))
-            .thenReturn(1);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
 
         // When
         Object result = reportService.scheduleReport(request);
@@ -340,9 +424,26 @@ class ReportServiceImplTest {
         assertNotNull(result);
         @SuppressWarnings("unchecked")
         Map<String, Object> scheduleResult = (Map<String, Object>) result;
-        assertTrue((Boolean) scheduleResult.get("success"));
+        assertEquals("scheduled", scheduleResult.get("status"));
         assertNotNull(scheduleResult.get("scheduleId"));
-        assertTrue(scheduleResult.get("message").toString().contains("scheduled successfully"));
+        assertTrue(java.time.Instant.parse(scheduleResult.get("nextExecution").toString()).isAfter(java.time.Instant.now()));
+        verify(jdbcTemplate).update(contains("next_run_at"), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should reject a schedule in an unknown timezone")
+    void testScheduleReport_UnknownTimezone() {
+        // Given
+        ReportScheduleRequest request = new ReportScheduleRequest();
+        request.setName("Weekly Cost Report");
+        request.setFrequency("weekly");
+        request.setStartDate("2025-01-01");
+        request.setTimezone("Europe/Atlantis");
+        request.setReportConfig(validRequest);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> reportService.scheduleReport(request));
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO report_schedules"), any(Object[].class));
     }
 
     @Test
@@ -375,6 +476,31 @@ class ReportServiceImplTest {
         assertNotNull(exportResult.get("downloadUrl"));
     }
 
+    @Test
+    @DisplayName("Should describe the streamed download of a completed report")
+    void testExportReport_StreamedDownload() {
+        // Given
+        String reportId = "test-report-123";
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", reportId);
+        row.put("title", "January Breakdown");
+        row.put("type", "detailed_breakdown");
+        row.put("status", "completed");
+        row.put("created_at", "2025-02-01 10:00:00");
+        when(jdbcTemplate.queryForList(anyString(), eq(reportId))).thenReturn(List.of(row));
+
+        // When
+        @SuppressWarnings("unchecked")
+        Map<String, Object> exportResult = (Map<String, Object>) reportService.exportReport(reportId, "json");
+
+        // Then
+        assertEquals("/api/reports/" + reportId + "/download?format=json", exportResult.get("downloadUrl"));
+        assertEquals("application/x-ndjson", exportResult.get("contentType"));
+        assertEquals("gzip", exportResult.get("contentEncoding"));
+        assertTrue(exportResult.get("fileName").toString().endsWith(".jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> reportService.exportReport(reportId, "docx"));
+    }
+
     @Test
     @DisplayName("Should get report analytics")
     void testGetReportAnalytics() {
@@ -440,6 +566,65 @@ class ReportServiceImplTest {
         );
     }
 
+    /** Feed rows to the cursor the report streams its cost rows from. */
+    private void stubCostRows(List<Map<String, Object>> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getDate("date")).thenReturn(java.sql.Date.valueOf((String) row.get("date")));
+                when(rs.getString(anyString())).thenAnswer(column -> (String) row.get(column.getArgument(0)));
+                when(rs.getBigDecimal(anyString())).thenAnswer(column -> (BigDecimal) row.get(column.getArgument(0)));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    /** Fold cells into the report's accumulator as the cube would, by per-dimension dictionary ids. */
+    private void stubCubeCells(List<Map<String, Object>> cells) {
+        doAnswer(invocation -> {
+            java.time.LocalDate startDate = invocation.getArgument(0);
+            ReportAggregation.CellAccumulator accumulator = invocation.getArgument(3);
+            Map<CostCube.Dimension, List<String>> dictionaries = new EnumMap<>(CostCube.Dimension.class);
+            for (Map<String, Object> cell : cells) {
+                // Every cell falls on the first day of the report's range
+                int[] ids = new int[CostCube.Dimension.values().length];
+                for (CostCube.Dimension dimension : CostCube.Dimension.values()) {
+                    if (dimension == CostCube.Dimension.DATE) {
+                        continue;
+                    }
+                    Object value = cell.get(dimension.getColumn());
+                    List<String> dictionary = dictionaries.computeIfAbsent(dimension, d -> new ArrayList<>());
+                    if (!dictionary.contains(value)) {
+                        dictionary.add((String) value);
+                    }
+                    ids[dimension.ordinal()] = dictionary.indexOf(value);
+                }
+                accumulator.add(ids, ((BigDecimal) cell.get("cost")).movePointRight(UsageRowBatch.MONEY_SCALE).longValueExact(),
+                    (Long) cell.get("record_count"));
+            }
+            accumulator.resolve((int) startDate.toEpochDay(), dimension -> dictionaries.get(dimension)::get);
+            return null;
+        }).when(costCube).fold(any(), any(), any(), any());
+    }
+
+    private Map<String, Object> cubeCell(String team, String service, String cost, long recordCount) {
+        Map<String, Object> cell = new HashMap<>();
+        cell.put("date", java.sql.Date.valueOf("2025-01-01"));
+        cell.put("team_name", team);
+        cell.put("service_name", service);
+        cell.put("region", "us-east-1");
+        cell.put("provider", "aws");
+        cell.put("cost", new BigDecimal(cost));
+        cell.put("record_count", recordCount);
+        return cell;
+    }
+
+    private BigDecimal sum(Collection<BigDecimal> values) {
+        return values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     private List<Map<String, Object>> createMockBudgetData() {
         return Arrays.asList(
             Map.of(
@@ -0,0 +1,127 @@
+package com.dashboard.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Request Coalescer Tests")
+class RequestCoalescerTest {
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+
+    @Test
+    @DisplayName("Should run identical concurrent calls once and share the result")
+    void testConcurrentIdenticalCalls() throws Exception {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<Object> leader = pool.submit(() -> coalescer.execute("analytics.analyzeTrends",
+                List.of("platform", "2025-01-01"), () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return new Object();
+                }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When
+            Future<Object> follower1 = pool.submit(() -> coalescer.execute("analytics.analyzeTrends",
+                List.of("platform", "2025-01-01"), () -> { executions.incrementAndGet(); return new Object(); }));
+            Future<Object> follower2 = pool.submit(() -> coalescer.execute("analytics.analyzeTrends",
+                List.of("platform", "2025-01-01"), () -> { executions.incrementAndGet(); return new Object(); }));
+            waitForDeduplicated(2);
+            release.countDown();
+
+            // Then
+            Object result = leader.get(5, TimeUnit.SECONDS);
+            assertSame(result, follower1.get(5, TimeUnit.SECONDS));
+            assertSame(result, follower2.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+            assertEquals(0, coalescer.getStats().get("inFlight"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run sequential and differing calls separately")
+    void testNoCoalescingOutsideInFlightWindow() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        coalescer.execute("budgets.getBudget", List.of("b-1"), executions::incrementAndGet);
+        coalescer.execute("budgets.getBudget", List.of("b-1"), executions::incrementAndGet);
+        coalescer.execute("budgets.getBudget", List.of("b-2"), executions::incrementAndGet);
+        coalescer.execute("reports.getReport", List.of("b-1"), executions::incrementAndGet);
+
+        // Then
+        assertEquals(4, executions.get());
+        Map<String, Object> stats = coalescer.getStats();
+        assertEquals(4L, stats.get("calls"));
+        assertEquals(0L, stats.get("deduplicated"));
+    }
+
+    @Test
+    @DisplayName("Should pass the leader's exception to every coalesced caller")
+    void testExceptionShared() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Object> leader = pool.submit(() -> coalescer.execute("reports.getReport", List.of("missing"), () -> {
+                started.countDown();
+                await(release);
+                throw new RuntimeException("Report not found: missing");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Object> follower = pool.submit(() -> coalescer.execute("reports.getReport", List.of("missing"),
+                () -> new Object()));
+            waitForDeduplicated(1);
+
+            // When
+            release.countDown();
+
+            // Then
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertEquals("Report not found: missing", leaderError.getCause().getMessage());
+            assertSame(leaderError.getCause(), followerError.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Helper methods
+    private void waitForDeduplicated(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) coalescer.getStats().get("deduplicated") < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "Callers were not coalesced");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
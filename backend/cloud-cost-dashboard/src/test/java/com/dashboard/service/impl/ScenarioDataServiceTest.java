@@ -8,9 +8,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -171,9 +175,55 @@ class ScenarioDataServiceTest {
         // Verify usage data was generated with proper batch size
         verify(jdbcTemplate, atLeastOnce()).batchUpdate(
             contains("INSERT INTO scenario_usage_data"),
-            anyList(),
-            anyInt(),
-            any()
+            any(BatchPreparedStatementSetter.class)
         );
     }
+    
+    @Test
+    @DisplayName("Should insert usage data in fixed-size chunks")
+    void testGenerateScenarioSession_ChunkedUsageInsert() {
+        // Given - 3 teams x 16 resources x 31 days = 1488 rows
+        ReflectionTestUtils.setField(scenarioDataService, "batchSize", 100);
+        AtomicLong rowsWritten = new AtomicLong();
+        doAnswer(invocation -> {
+            BatchPreparedStatementSetter setter = invocation.getArgument(1);
+            rowsWritten.addAndGet(setter.getBatchSize());
+            return new int[setter.getBatchSize()];
+        }).when(jdbcTemplate).batchUpdate(contains("INSERT INTO scenario_usage_data"), any(BatchPreparedStatementSetter.class));
+        
+        // When
+        String sessionId = scenarioDataService.generateScenarioSession("beginner_rightsizing_ec2", "student123");
+        
+        // Then
+        assertNotNull(sessionId);
+        assertEquals(1488, rowsWritten.get());
+        verify(jdbcTemplate, times(15)).batchUpdate(
+            contains("INSERT INTO scenario_usage_data"),
+            any(BatchPreparedStatementSetter.class)
+        );
+    }
+    
+    @Test
+    @DisplayName("Should derive a stable seed per student and template")
+    void testStudentSeed() {
+        long seed = ScenarioDataService.studentSeed("beginner_rightsizing_ec2", "student123");
+        
+        assertEquals(seed, ScenarioDataService.studentSeed("beginner_rightsizing_ec2", "student123"));
+        assertNotEquals(seed, ScenarioDataService.studentSeed("beginner_rightsizing_ec2", "student124"));
+        assertNotEquals(seed, ScenarioDataService.studentSeed("beginner_ebs_cleanup", "student123"));
+    }
+    
+    @Test
+    @DisplayName("Should delete the session when writing usage data fails")
+    void testGenerateScenarioSession_WriteFailureCleansUp() {
+        // Given
+        doThrow(new DataAccessResourceFailureException("Connection lost"))
+            .when(jdbcTemplate).batchUpdate(contains("INSERT INTO scenario_usage_data"), any(BatchPreparedStatementSetter.class));
+        
+        // When/Then
+        assertThrows(DataAccessResourceFailureException.class, () ->
+            scenarioDataService.generateScenarioSession("advanced_multi_cloud", "student123"));
+        verify(jdbcTemplate).update(eq("DELETE FROM scenario_sessions WHERE session_id = ?"), anyString());
+        verify(jdbcTemplate, never()).batchUpdate(contains("INSERT INTO grading_keys"), anyList(), anyInt(), any());
+    }
 }
\ No newline at end of file
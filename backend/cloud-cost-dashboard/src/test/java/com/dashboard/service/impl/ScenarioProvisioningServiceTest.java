@@ -0,0 +1,177 @@
+package com.dashboard.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Scenario Provisioning Service Tests")
+class ScenarioProvisioningServiceTest {
+
+    @Mock
+    private ScenarioDataService scenarioDataService;
+
+    @InjectMocks
+    private ScenarioProvisioningService scenarioProvisioningService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scenarioProvisioningService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should provision every student of the roster and report results in roster order")
+    void testProvisionClassroom() {
+        // Given
+        List<String> roster = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            roster.add("student" + i);
+        }
+        when(scenarioDataService.generateScenarioSession(eq("beginner_rightsizing_ec2"), anyString()))
+            .thenAnswer(invocation -> "session-" + invocation.getArgument(1));
+
+        // When
+        Map<String, Object> summary = scenarioProvisioningService.provisionClassroom("beginner_rightsizing_ec2", roster);
+
+        // Then
+        assertEquals(20, summary.get("requested"));
+        assertEquals(20L, summary.get("succeeded"));
+        assertEquals(0L, summary.get("failed"));
+        assertEquals(8, summary.get("parallelism"));
+        List<Map<String, Object>> results = results(summary);
+        for (int i = 0; i < roster.size(); i++) {
+            assertEquals(roster.get(i), results.get(i).get("studentIdentifier"));
+            assertEquals("created", results.get(i).get("status"));
+            assertEquals("session-" + roster.get(i), results.get(i).get("sessionId"));
+            assertEquals(ScenarioDataService.studentSeed("beginner_rightsizing_ec2", roster.get(i)),
+                results.get(i).get("seed"));
+        }
+        verify(scenarioDataService, times(20)).generateScenarioSession(eq("beginner_rightsizing_ec2"), anyString());
+    }
+
+    @Test
+    @DisplayName("Should report a failed student without stopping the others")
+    void testProvisionClassroom_PartialFailure() {
+        // Given
+        when(scenarioDataService.generateScenarioSession("beginner_ebs_cleanup", "alice")).thenReturn("session-a");
+        when(scenarioDataService.generateScenarioSession("beginner_ebs_cleanup", "bob"))
+            .thenThrow(new IllegalStateException("Connection lost"));
+        when(scenarioDataService.generateScenarioSession("beginner_ebs_cleanup", "carol")).thenReturn("session-c");
+
+        // When
+        Map<String, Object> summary = scenarioProvisioningService.provisionClassroom(
+            "beginner_ebs_cleanup", List.of("alice", "bob", "carol"));
+
+        // Then
+        assertEquals(2L, summary.get("succeeded"));
+        assertEquals(1L, summary.get("failed"));
+        List<Map<String, Object>> results = results(summary);
+        assertEquals("failed", results.get(1).get("status"));
+        assertEquals("Connection lost", results.get(1).get("error"));
+        assertEquals("session-c", results.get(2).get("sessionId"));
+    }
+
+    @Test
+    @DisplayName("Should provision duplicate student identifiers once")
+    void testProvisionClassroom_Duplicates() {
+        // Given
+        when(scenarioDataService.generateScenarioSession(anyString(), anyString())).thenReturn("session");
+
+        // When
+        Map<String, Object> summary = scenarioProvisioningService.provisionClassroom(
+            "beginner_ebs_cleanup", List.of("alice", " alice", "bob"));
+
+        // Then
+        assertEquals(2, summary.get("requested"));
+        verify(scenarioDataService).generateScenarioSession("beginner_ebs_cleanup", "alice");
+        verify(scenarioDataService).generateScenarioSession("beginner_ebs_cleanup", "bob");
+    }
+
+    @Test
+    @DisplayName("Should bound sessions in flight across concurrent classroom requests")
+    void testProvisionClassroom_SharedPool() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(scenarioProvisioningService, "parallelism", 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(scenarioDataService.generateScenarioSession(anyString(), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            inFlight.decrementAndGet();
+            return "session-" + invocation.getArgument(1);
+        });
+        List<String> roster = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            roster.add("student" + i);
+        }
+
+        // When
+        List<CompletableFuture<Map<String, Object>>> classrooms = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            classrooms.add(CompletableFuture.supplyAsync(() ->
+                scenarioProvisioningService.provisionClassroom("beginner_ebs_cleanup", roster)));
+        }
+
+        // Then
+        for (CompletableFuture<Map<String, Object>> classroom : classrooms) {
+            assertEquals(12L, classroom.get().get("succeeded"));
+        }
+        assertTrue(maxInFlight.get() <= 3, "At most 3 sessions in flight, saw " + maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("Should refuse to provision once shut down")
+    void testProvisionClassroom_AfterShutdown() {
+        // Given
+        when(scenarioDataService.generateScenarioSession(anyString(), anyString())).thenReturn("session");
+        scenarioProvisioningService.provisionClassroom("beginner_ebs_cleanup", List.of("alice"));
+
+        // When
+        scenarioProvisioningService.shutdown();
+
+        // Then
+        assertThrows(IllegalStateException.class, () ->
+            scenarioProvisioningService.provisionClassroom("beginner_ebs_cleanup", List.of("bob")));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid templates, blank identifiers and oversized rosters")
+    void testProvisionClassroom_InvalidRequests() {
+        // Given
+        ReflectionTestUtils.setField(scenarioProvisioningService, "maxRosterSize", 2);
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () ->
+            scenarioProvisioningService.provisionClassroom("invalid_template", List.of("alice")));
+        assertThrows(IllegalArgumentException.class, () ->
+            scenarioProvisioningService.provisionClassroom("beginner_ebs_cleanup", List.of()));
+        assertThrows(IllegalArgumentException.class, () ->
+            scenarioProvisioningService.provisionClassroom("beginner_ebs_cleanup", Arrays.asList("alice", " ")));
+        assertThrows(IllegalArgumentException.class, () ->
+            scenarioProvisioningService.provisionClassroom("beginner_ebs_cleanup", List.of("a", "b", "c")));
+        verifyNoInteractions(scenarioDataService);
+    }
+
+    // Helper methods
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> results(Map<String, Object> summary) {
+        return (List<Map<String, Object>>) summary.get("results");
+    }
+}
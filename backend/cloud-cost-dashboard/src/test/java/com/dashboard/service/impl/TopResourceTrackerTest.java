@@ -0,0 +1,199 @@
+package com.dashboard.service.impl;
+
+import com.dashboard.util.UsageCsvParser;
+import com.dashboard.util.UsageRowBatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Top Resource Tracker Tests")
+class TopResourceTrackerTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DimensionDictionary dimensionDictionary;
+
+    @InjectMocks
+    private TopResourceTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(dimensionDictionary.teamName(1L)).thenReturn("platform");
+        when(dimensionDictionary.teamName(2L)).thenReturn("frontend");
+    }
+
+    @Test
+    @DisplayName("Should seed days from both fact tables and rank resources across teams")
+    void testSeedAndRank() {
+        // Given
+        stubRows("FROM enhanced_usage_records", List.of(
+            row("2024-03-01", "platform", "db-1", "100.00"),
+            row("2024-03-02", "platform", "db-1", "100.00"),
+            row("2024-03-02", "frontend", "cdn-1", "150.00")));
+        stubRows("FROM usage_records", List.of(
+            row("2024-03-03", "frontend", "vm-7", "60.00")));
+
+        // When
+        List<Map<String, Object>> top = tracker.topResources(START, END, null, 2);
+        List<Map<String, Object>> frontend = tracker.topResources(START, END, List.of("frontend"), 5);
+
+        // Then
+        assertEquals(List.of("db-1", "cdn-1"), top.stream().map(r -> r.get("resourceId")).toList());
+        assertEquals(0, new BigDecimal("200.00").compareTo((BigDecimal) top.get(0).get("totalCost")));
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) top.get(0).get("maxOverestimate")));
+        assertEquals(List.of("cdn-1", "vm-7"), frontend.stream().map(r -> r.get("resourceId")).toList());
+        verify(jdbcTemplate).query(contains("FROM enhanced_usage_records"), any(RowCallbackHandler.class), any(Object[].class));
+        verify(jdbcTemplate).query(contains("FROM usage_records"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should add ingested rows to seeded days only")
+    void testRecordIntoSeededDays() {
+        // Given
+        tracker.topResources(START, START, null, 10);
+        UsageRowBatch batch = new UsageRowBatch(4);
+        addRow(batch, START, 1L, "vm-1", "12.50");
+        addRow(batch, START, 2L, "vm-2", "-3.00");
+        addRow(batch, START.plusDays(1), 1L, "vm-3", "99.00");
+
+        // When - the rollup counts both rows of the seeded day, the credit included
+        tracker.record(batch);
+        stubRecordCounts(Map.of("2024-03-01", 2L));
+
+        // Then
+        List<Map<String, Object>> top = tracker.topResources(START, START, null, 10);
+        assertEquals(1, top.size());
+        assertEquals("vm-1", top.get(0).get("resourceId"));
+        assertEquals(1L, tracker.getStats().get("rowsRecorded"));
+        assertEquals(0L, tracker.getStats().get("daysReseeded"));
+    }
+
+    @Test
+    @DisplayName("Should seed a day again once another instance ingested rows for it")
+    void testReseedAfterIngestElsewhere() {
+        // Given - the day is seeded here while the rollup counts 3 usage rows
+        stubRecordCounts(Map.of("2024-03-01", 3L));
+        stubRows("FROM enhanced_usage_records", List.of(row("2024-03-01", "platform", "db-1", "100.00")));
+        tracker.topResources(START, START, null, 10);
+
+        // When - another instance writes 2 rows that never reach this instance's record()
+        stubRecordCounts(Map.of("2024-03-01", 5L));
+        stubRows("FROM usage_records", List.of(row("2024-03-01", "frontend", "vm-5", "250.00")));
+        List<Map<String, Object>> top = tracker.topResources(START, START, null, 10);
+        List<Map<String, Object>> again = tracker.topResources(START, START, null, 10);
+
+        // Then - reseeded once, after which the counts agree again
+        assertEquals(List.of("vm-5", "db-1"), top.stream().map(r -> r.get("resourceId")).toList());
+        assertEquals(top, again);
+        assertEquals(1L, tracker.getStats().get("daysReseeded"));
+        assertEquals(2L, tracker.getStats().get("daysSeeded"));
+        verify(jdbcTemplate, times(2)).query(contains("FROM enhanced_usage_records"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should keep batches recorded while their day is being seeded")
+    void testRecordDuringSeed() {
+        // Given - a batch is written after the seed's snapshot, while its query runs
+        UsageRowBatch batch = new UsageRowBatch(1);
+        addRow(batch, START, 2L, "vm-9", "40.00");
+        stubRows("FROM enhanced_usage_records", List.of(row("2024-03-01", "platform", "db-1", "100.00")));
+        doAnswer(invocation -> {
+            tracker.record(batch);
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM usage_records"), any(RowCallbackHandler.class), any(Object[].class));
+
+        // When
+        List<Map<String, Object>> top = tracker.topResources(START, START, null, 10);
+
+        // Then
+        assertEquals(List.of("db-1", "vm-9"), top.stream().map(r -> r.get("resourceId")).toList());
+        assertEquals(0, new BigDecimal("40.00").compareTo((BigDecimal) top.get(1).get("totalCost")));
+        assertEquals(1L, tracker.getStats().get("rowsRecorded"));
+    }
+
+    @Test
+    @DisplayName("Should forget days whose seed failed")
+    void testSeedFailure() {
+        // Given
+        doThrow(new IllegalStateException("connection lost"))
+            .when(jdbcTemplate).query(contains("FROM enhanced_usage_records"), any(RowCallbackHandler.class), any(Object[].class));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> tracker.topResources(START, START, null, 10));
+        assertEquals(0, tracker.getStats().get("days"));
+    }
+
+    @Test
+    @DisplayName("Should refuse ranges longer than the days kept")
+    void testRangeTooLong() {
+        assertFalse(tracker.covers(START, START.plusDays(400)));
+        assertThrows(IllegalArgumentException.class,
+            () -> tracker.topResources(START, START.plusDays(400), null, 20));
+    }
+
+    // ========================================
+    // HELPER METHODS FOR TEST DATA
+    // ========================================
+
+    private Map<String, Object> row(String date, String team, String resourceId, String cost) {
+        return Map.of("date", date, "team_name", team, "resource_id", resourceId, "cost", new BigDecimal(cost));
+    }
+
+    private void addRow(UsageRowBatch batch, LocalDate date, long teamId, String resourceId, String cost) {
+        int row = batch.addRow(batch.size() + 1);
+        batch.setUsageDateEpochDay(row, (int) date.toEpochDay());
+        batch.setTeamId(row, teamId);
+        batch.setResourceId(row, resourceId);
+        batch.setTotalCost(row, UsageCsvParser.parseFixedPoint(cost));
+    }
+
+    /** Sum of daily_cost_rollup.record_count per day, by ISO date. */
+    private void stubRecordCounts(Map<String, Long> recordCounts) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<String, Long> count : recordCounts.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getDate("date")).thenReturn(java.sql.Date.valueOf(count.getKey()));
+                when(rs.getLong("records")).thenReturn(count.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM daily_cost_rollup"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private void stubRows(String sqlFragment, List<Map<String, Object>> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getDate("date")).thenReturn(java.sql.Date.valueOf((String) row.get("date")));
+                when(rs.getString(anyString())).thenAnswer(i -> (String) row.get(i.getArgument(0)));
+                when(rs.getBigDecimal(anyString())).thenAnswer(i -> (BigDecimal) row.get(i.getArgument(0)));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains(sqlFragment), any(RowCallbackHandler.class), any(Object[].class));
+    }
+}
@@ -0,0 +1,67 @@
+package com.dashboard.templates;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Scenario Templates Tests")
+class ScenarioTemplatesTest {
+
+    @Test
+    @DisplayName("Should serve the same immutable catalog on every call")
+    void testCatalogBuiltOnce() {
+        // When
+        List<Map<String, Object>> all = ScenarioTemplates.getAllTemplates();
+
+        // Then
+        assertEquals(55, all.size());
+        assertSame(all, ScenarioTemplates.getAllTemplates());
+        assertEquals(20, ScenarioTemplates.getBeginnerTemplates().size());
+        assertEquals(20, ScenarioTemplates.getTemplatesByDifficulty("Intermediate").size());
+        assertSame(all, ScenarioTemplates.getTemplatesByDifficulty("expert"));
+        assertThrows(UnsupportedOperationException.class, () -> all.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> all.get(0).put("name", "changed"));
+    }
+
+    @Test
+    @DisplayName("Should look templates up by id, type and category")
+    void testLookups() {
+        // When
+        Map<String, Object> template = ScenarioTemplates.getTemplateById("beginner_ebs_cleanup");
+
+        // Then
+        assertEquals("Clean Up Unattached EBS Volumes", template.get("name"));
+        assertNull(ScenarioTemplates.getTemplateById("missing"));
+        assertTrue(ScenarioTemplates.getTemplatesByType("rightsizing").stream()
+            .allMatch(t -> "rightsizing".equals(t.get("type"))));
+        assertTrue(ScenarioTemplates.getCategories().contains("Resource Optimization"));
+        assertEquals(ScenarioTemplates.getTypes().size(), Set.copyOf(ScenarioTemplates.getTypes()).size());
+
+        List<Map<String, Object>> filtered = ScenarioTemplates.filterTemplates("beginner", "rightsizing", "");
+        assertFalse(filtered.isEmpty());
+        assertTrue(filtered.stream().allMatch(t -> "beginner".equals(t.get("difficulty"))
+            && "Resource Optimization".equals(t.get("category"))));
+    }
+
+    @Test
+    @DisplayName("Should search names, descriptions and types by word prefix")
+    void testSearch() {
+        // When
+        List<Map<String, Object>> prefix = ScenarioTemplates.searchTemplates("EB", null);
+        List<Map<String, Object>> twoWords = ScenarioTemplates.searchTemplates("unattached volu", "beginner");
+        List<Map<String, Object>> type = ScenarioTemplates.searchTemplates("reserved_inst", null);
+
+        // Then
+        assertTrue(prefix.contains(ScenarioTemplates.getTemplateById("beginner_ebs_cleanup")));
+        assertEquals(List.of(ScenarioTemplates.getTemplateById("beginner_ebs_cleanup")), twoWords);
+        assertFalse(type.isEmpty());
+        assertTrue(ScenarioTemplates.searchTemplates("unattached", "advanced").isEmpty());
+        assertTrue(ScenarioTemplates.searchTemplates("zzzz", null).isEmpty());
+        assertEquals(55, ScenarioTemplates.searchTemplates("  ", null).size());
+    }
+}
@@ -0,0 +1,64 @@
+package com.dashboard.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Compressed Bitmap Tests")
+class CompressedBitmapTest {
+
+    @Test
+    @DisplayName("Should keep sparse and dense groups across container conversions")
+    void testAddAndContains() {
+        // Given
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 10_000; value += 2) {
+            bitmap.add(value);
+        }
+        bitmap.add(70_000);
+        bitmap.add(70_000);
+
+        // Then
+        assertEquals(5001, bitmap.cardinality());
+        assertTrue(bitmap.contains(9998));
+        assertFalse(bitmap.contains(9999));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(65_536));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    @Test
+    @DisplayName("Should intersect and union bitmaps in ascending order")
+    void testAndOr() {
+        // Given
+        CompressedBitmap evens = new CompressedBitmap();
+        CompressedBitmap threes = new CompressedBitmap();
+        for (int value = 0; value < 200_000; value++) {
+            if (value % 2 == 0) {
+                evens.add(value);
+            }
+            if (value % 3 == 0) {
+                threes.add(value);
+            }
+        }
+
+        // When
+        CompressedBitmap sixes = evens.and(threes);
+        CompressedBitmap either = CompressedBitmap.or(List.of(evens, threes));
+
+        // Then
+        List<Integer> values = new ArrayList<>();
+        sixes.forEach(values::add);
+        assertEquals(33_334, values.size());
+        assertEquals(List.of(0, 6, 12), values.subList(0, 3));
+        assertEquals(199_998, values.get(values.size() - 1));
+        assertEquals(133_333, either.cardinality());
+        assertTrue(either.contains(199_998));
+        assertFalse(either.contains(199_997));
+        assertTrue(new CompressedBitmap().and(evens).isEmpty());
+    }
+}
@@ -0,0 +1,54 @@
+package com.dashboard.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Cost Series Tests")
+class CostSeriesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+
+    @Test
+    @DisplayName("Should grow past the initial capacity and decode dimension values")
+    void testAppendAndDecode() {
+        // Given
+        CostSeries series = new CostSeries(2);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            series.add(DAY.plusDays(i), "platform", i % 2 == 0 ? "EC2" : "S3", null, "aws", 10.0 * (i + 1), i);
+        }
+
+        // Then
+        assertEquals(5, series.size());
+        assertEquals(DAY.plusDays(4), series.getDate(4));
+        assertEquals("platform", series.getTeam(3));
+        assertEquals("S3", series.getService(3));
+        assertEquals("EC2", series.getService(4));
+        assertNull(series.getRegion(0));
+        assertEquals("aws", series.getProvider(2));
+        assertEquals(4.0, series.getUsageQuantity(4));
+        assertArrayEquals(new double[] {10, 20, 30, 40, 50}, series.costs());
+    }
+
+    @Test
+    @DisplayName("Should aggregate cost over the whole series and over ranges")
+    void testAggregates() {
+        // Given
+        CostSeries series = new CostSeries();
+        series.add(DAY, "platform", "EC2", "us-east-1", "aws", 100.0, 1.0);
+        series.add(DAY, "platform", "S3", "us-east-1", "aws", 50.0, 1.0);
+        series.add(DAY.plusDays(1), "data", "EC2", "eu-west-1", "aws", 30.0, 1.0);
+
+        // Then
+        assertEquals(180.0, series.totalCost(), 1e-9);
+        assertEquals(60.0, series.meanCost(), 1e-9);
+        assertEquals(75.0, series.meanCost(0, 2), 1e-9);
+        assertEquals(0.0, series.meanCost(2, 2));
+        assertTrue(new CostSeries().isEmpty());
+    }
+}
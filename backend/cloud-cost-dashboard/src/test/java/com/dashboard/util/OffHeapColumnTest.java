@@ -0,0 +1,87 @@
+package com.dashboard.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("Off-Heap Column Tests")
+class OffHeapColumnTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should keep values while a direct column grows across chunks")
+    void testDirectGrowth() {
+        // Given
+        OffHeapColumn column = OffHeapColumn.allocate(OffHeapColumn.LONG_BYTES, 10);
+        column.putLong(0, 42);
+        column.addLong(0, 8);
+
+        // When
+        long past = 3L << 20;
+        column.ensureCapacity(past + 1);
+        column.putLong(past, -7);
+
+        // Then
+        assertTrue(column.capacity() > past);
+        assertEquals(50, column.getLong(0));
+        assertEquals(-7, column.getLong(past));
+        assertEquals(0, column.getLong(past - 1));
+    }
+
+    @Test
+    @DisplayName("Should read back values written to a mapped file after reopening it")
+    void testMappedReopen() throws Exception {
+        // Given
+        Path file = tempDir.resolve("ints.col");
+        try (OffHeapColumn column = OffHeapColumn.map(file, OffHeapColumn.INT_BYTES, 16)) {
+            column.putInt(3, 1234);
+            column.ensureCapacity((1L << 20) + 5);
+            column.putInt((1L << 20) + 4, 99);
+            column.force();
+        }
+
+        // When
+        try (OffHeapColumn reopened = OffHeapColumn.map(file, OffHeapColumn.INT_BYTES, 0)) {
+            // Then
+            assertTrue(reopened.capacity() >= (1L << 20) + 5);
+            assertEquals(1234, reopened.getInt(3));
+            assertEquals(99, reopened.getInt((1L << 20) + 4));
+        }
+    }
+
+    @Test
+    @DisplayName("Should unmap a mapped file on close so deleting it frees the file")
+    void testCloseUnmaps() throws Exception {
+        // Given
+        Path maps = Path.of("/proc/self/maps");
+        assumeTrue(Files.isReadable(maps) && OffHeapColumn.releasesOnClose(), "Needs /proc/self/maps and unmapping");
+        Path file = tempDir.resolve("longs.col");
+        OffHeapColumn column = OffHeapColumn.map(file, OffHeapColumn.LONG_BYTES, (1L << 20) + 1);
+        column.putLong(1L << 20, 7);
+        String path = file.toRealPath().toString();
+        assertTrue(Files.readAllLines(maps).stream().anyMatch(line -> line.contains(path)));
+
+        // When
+        column.close();
+        Files.delete(file);
+
+        // Then
+        assertEquals(0, Files.readAllLines(maps).stream().filter(line -> line.contains(path)).count());
+        assertEquals(0, column.capacity());
+        assertThrows(IndexOutOfBoundsException.class, () -> column.getLong(0));
+    }
+
+    @Test
+    @DisplayName("Should reject unsupported element widths")
+    void testUnsupportedWidth() {
+        assertThrows(IllegalArgumentException.class, () -> OffHeapColumn.allocate(2, 10));
+    }
+}
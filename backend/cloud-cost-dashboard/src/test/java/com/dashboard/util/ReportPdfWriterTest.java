@@ -0,0 +1,86 @@
+package com.dashboard.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Report PDF Writer Tests")
+class ReportPdfWriterTest {
+
+    @Test
+    @DisplayName("Should page the rows and index every object in the cross-reference table")
+    void testPagedDocument() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportPdfWriter writer = new ReportPdfWriter(out, "January Breakdown");
+
+        // When
+        writer.writeSummary(Map.of("totalCost", new BigDecimal("1234.50")));
+        writer.writeHeader(List.of("team_name", "cost"));
+        for (int i = 0; i < 200; i++) {
+            writer.writeRow(new Object[]{"Platform", new BigDecimal("12.50")});
+        }
+        writer.finish();
+
+        // Then
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        Matcher count = Pattern.compile("/Type /Pages /Count (\\d+)").matcher(pdf);
+        assertTrue(count.find());
+        assertTrue(Integer.parseInt(count.group(1)) >= 5, "1 summary page and at least 4 table pages");
+
+        int xref = Integer.parseInt(pdf.substring(pdf.lastIndexOf("startxref\n") + 10, pdf.lastIndexOf("\n%%EOF")));
+        assertTrue(pdf.startsWith("xref\n0 ", xref));
+        String[] lines = pdf.substring(xref).split("\n");
+        int objects = Integer.parseInt(lines[1].split(" ")[1]);
+        for (int object = 1; object < objects; object++) {
+            int objectOffset = Integer.parseInt(lines[2 + object].substring(0, 10));
+            assertTrue(pdf.startsWith(object + " 0 obj\n", objectOffset), "offset of object " + object);
+        }
+    }
+
+    @Test
+    @DisplayName("Should escape literal strings and repeat the header on each page")
+    void testPageContent() throws Exception {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportPdfWriter writer = new ReportPdfWriter(out, "Costs (EUR)");
+
+        // When
+        writer.writeHeader(List.of("team_name", "cost"));
+        writer.writeRow(new Object[]{"Data \\ ML", 99});
+        writer.finish();
+
+        // Then
+        String content = firstPageContent(out.toByteArray());
+        assertTrue(content.contains("(Costs \\(EUR\\)) Tj"));
+        assertTrue(content.contains("/F2 7 Tf 1 0 0 1 38 525 Tm (team_name) Tj"));
+        assertTrue(content.contains("(Data \\\\ ML) Tj"));
+        assertTrue(content.contains("(Page 1) Tj"));
+    }
+
+    // Helper methods
+    private String firstPageContent(byte[] pdf) throws DataFormatException {
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+        Matcher stream = Pattern.compile("/Length (\\d+) /Filter /FlateDecode >>\nstream\n").matcher(text);
+        assertTrue(stream.find());
+        Inflater inflater = new Inflater();
+        inflater.setInput(pdf, stream.end(), Integer.parseInt(stream.group(1)));
+        byte[] buffer = new byte[64 * 1024];
+        int length = inflater.inflate(buffer);
+        inflater.end();
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.dashboard.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Report XLSX Writer Tests")
+class ReportXlsxWriterTest {
+
+    @Test
+    @DisplayName("Should write a summary sheet and a breakdown sheet with inline strings")
+    void testWriteWorkbook() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportXlsxWriter writer = new ReportXlsxWriter(out);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("Title", "January <Breakdown> & more");
+        summary.put("totalCost", new BigDecimal("1234.50"));
+
+        // When
+        writer.writeSummary(summary);
+        writer.writeHeader(List.of("team_name", "cost"));
+        writer.writeRow(new Object[]{"Platform", new BigDecimal("12.50")});
+        writer.writeRow(new Object[]{null, 3});
+        writer.finish();
+
+        // Then
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertTrue(entries.keySet().containsAll(List.of("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+            "xl/_rels/workbook.xml.rels", "xl/styles.xml")));
+        assertTrue(entries.get("xl/workbook.xml").contains("<sheet name=\"Summary\" sheetId=\"1\" r:id=\"rId1\"/>"
+            + "<sheet name=\"Breakdown\" sheetId=\"2\" r:id=\"rId2\"/>"));
+        assertTrue(entries.get("xl/worksheets/sheet1.xml").contains("<t>January &lt;Breakdown&gt; &amp; more</t>"));
+        String breakdown = entries.get("xl/worksheets/sheet2.xml");
+        assertTrue(breakdown.contains("state=\"frozen\""));
+        assertTrue(breakdown.contains("<row r=\"2\"><c t=\"inlineStr\"><is><t>Platform</t></is></c><c><v>12.50</v></c></row>"));
+        assertTrue(breakdown.contains("<row r=\"3\"><c/><c><v>3</v></c></row>"));
+    }
+
+    @Test
+    @DisplayName("Should continue on a new sheet with the header repeated when a sheet is full")
+    void testSheetRollover() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportXlsxWriter writer = new ReportXlsxWriter(out, 3);
+
+        // When
+        writer.writeHeader(List.of("n"));
+        for (int i = 1; i <= 5; i++) {
+            writer.writeRow(new Object[]{i});
+        }
+        writer.finish();
+
+        // Then
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertTrue(entries.get("xl/workbook.xml").contains("<sheet name=\"Breakdown 3\" sheetId=\"3\""));
+        assertTrue(entries.get("[Content_Types].xml").contains("/xl/worksheets/sheet3.xml"));
+        String last = entries.get("xl/worksheets/sheet3.xml");
+        assertTrue(last.contains("<row r=\"1\"><c t=\"inlineStr\" s=\"1\"><is><t>n</t></is></c></row>"));
+        assertTrue(last.contains("<row r=\"2\"><c><v>5</v></c></row>"));
+    }
+
+    @Test
+    @DisplayName("Should drop characters XML cannot represent")
+    void testInvalidXmlCharacters() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportXlsxWriter writer = new ReportXlsxWriter(out);
+
+        // When
+        writer.writeHeader(List.of("tags"));
+        writer.writeRow(new Object[]{"env\u0001prod "});
+        writer.finish();
+
+        // Then
+        assertTrue(unzip(out.toByteArray()).get("xl/worksheets/sheet1.xml").contains("<t xml:space=\"preserve\">envprod </t>"));
+    }
+
+    // Helper methods
+    private Map<String, String> unzip(byte[] workbook) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(workbook))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
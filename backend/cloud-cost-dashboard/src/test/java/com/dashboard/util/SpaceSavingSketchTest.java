@@ -0,0 +1,80 @@
+package com.dashboard.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Space-Saving Sketch Tests")
+class SpaceSavingSketchTest {
+
+    @Test
+    @DisplayName("Should report exact weights while keys fit the capacity")
+    void testExactBelowCapacity() {
+        // Given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        sketch.add("i-1", 10);
+        sketch.add("i-2", 30);
+        sketch.add("i-1", 25);
+        sketch.add("i-3", 0);
+
+        // When
+        List<SpaceSavingSketch.Entry> top = sketch.top(5);
+
+        // Then
+        assertEquals(2, top.size());
+        assertEquals("i-1", top.get(0).getKey());
+        assertEquals(35, top.get(0).getWeight());
+        assertEquals(0, top.get(0).getError());
+        assertEquals("i-2", top.get(1).getKey());
+        assertThrows(IllegalArgumentException.class, () -> sketch.add("i-4", -1));
+    }
+
+    @Test
+    @DisplayName("Should keep heavy hitters among many light keys within the error bound")
+    void testHeavyHittersSurviveEviction() {
+        // Given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(16);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add("light-" + i, 1);
+            if (i % 100 == 0) {
+                sketch.add("heavy-a", 50);
+                sketch.add("heavy-b", 20);
+            }
+        }
+
+        // When
+        List<SpaceSavingSketch.Entry> top = sketch.top(2);
+
+        // Then
+        assertEquals(16, sketch.size());
+        assertEquals("heavy-a", top.get(0).getKey());
+        assertEquals("heavy-b", top.get(1).getKey());
+        assertTrue(top.get(0).getWeight() >= 5000);
+        assertTrue(top.get(0).getWeight() - top.get(0).getError() <= 5000);
+    }
+
+    @Test
+    @DisplayName("Should sum the counters of several sketches in a union")
+    void testUnion() {
+        // Given
+        SpaceSavingSketch monday = new SpaceSavingSketch(8);
+        monday.add("db-1", 100);
+        monday.add("vm-1", 40);
+        SpaceSavingSketch tuesday = new SpaceSavingSketch(8);
+        tuesday.add("vm-1", 90);
+
+        // When
+        SpaceSavingSketch.Union week = new SpaceSavingSketch.Union();
+        week.add(monday);
+        week.add(tuesday);
+
+        // Then
+        List<SpaceSavingSketch.Entry> top = week.top(5);
+        assertEquals(List.of("vm-1", "db-1"), top.stream().map(SpaceSavingSketch.Entry::getKey).toList());
+        assertEquals(130, top.get(0).getWeight());
+        assertTrue(week.top(0).isEmpty());
+    }
+}
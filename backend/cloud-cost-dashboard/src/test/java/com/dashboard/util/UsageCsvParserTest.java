@@ -0,0 +1,92 @@
+package com.dashboard.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Usage CSV Parser Tests")
+class UsageCsvParserTest {
+
+    @Test
+    @DisplayName("Should parse the sample layout into natural keys")
+    void testParseSampleLayout() {
+        // Given
+        UsageCsvParser parser = new UsageCsvParser("teamName,service,usageAmount,usageDate");
+        UsageRowBatch batch = new UsageRowBatch(4);
+
+        // When
+        boolean parsed = parser.parseInto("Platform,EC2,120.5,2024-11-01", 2, batch);
+
+        // Then
+        assertTrue(parsed);
+        assertEquals(1, batch.size());
+        assertEquals("Platform", batch.getTeamKey(0));
+        assertEquals("EC2", batch.getServiceKey(0));
+        assertEquals(0, batch.getTeamId(0));
+        assertEquals(LocalDate.of(2024, 11, 1), batch.getUsageDate(0));
+        assertEquals(120_500_000L, batch.getUsageQuantity(0));
+        assertEquals("USD", batch.getCurrency(0));
+        assertFalse(parser.hasAccountColumn());
+    }
+
+    @Test
+    @DisplayName("Should parse the full usage_records layout with quoted fields")
+    void testParseFullLayout() {
+        // Given
+        UsageCsvParser parser = new UsageCsvParser("﻿account_id,team_id,service_id,resource_id,resource_name,"
+            + "region,usage_date,usage_hour,usage_quantity,unit_price,currency");
+        UsageRowBatch batch = new UsageRowBatch(4);
+
+        // When
+        parser.parseInto("7,3,42,i-1,\"web, \"\"primary\"\"\",eu-west-1,2024-11-05,13,24,0.0832,EUR", 2, batch);
+
+        // Then
+        assertTrue(parser.hasAccountColumn());
+        assertEquals(7, batch.getAccountId(0));
+        assertEquals(3, batch.getTeamId(0));
+        assertEquals(42, batch.getServiceId(0));
+        assertEquals("web, \"primary\"", batch.getResourceName(0));
+        assertEquals(13, batch.getUsageHour(0));
+        assertEquals("EUR", batch.getCurrency(0));
+        // Total cost is derived from quantity x unit price when the column is absent
+        assertEquals(1_996_800L, batch.getTotalCost(0));
+    }
+
+    @Test
+    @DisplayName("Should leave the batch unchanged when a row is malformed")
+    void testMalformedRowsAreRolledBack() {
+        // Given
+        UsageCsvParser parser = new UsageCsvParser("teamName,service,usageAmount,usageDate");
+        UsageRowBatch batch = new UsageRowBatch(4);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> parser.parseInto("Platform,EC2,abc,2024-11-01", 2, batch));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseInto("Platform,EC2,1,2024-13-01", 3, batch));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseInto("Platform,EC2,1", 4, batch));
+        assertThrows(IllegalArgumentException.class, () -> parser.parseInto(",EC2,1,2024-11-01", 5, batch));
+        assertFalse(parser.parseInto("   ", 6, batch));
+        assertEquals(0, batch.size());
+    }
+
+    @Test
+    @DisplayName("Should reject headers without required columns")
+    void testMissingRequiredColumns() {
+        assertThrows(IllegalArgumentException.class, () -> new UsageCsvParser("team,usage_date"));
+        assertThrows(IllegalArgumentException.class, () -> new UsageCsvParser(""));
+    }
+
+    @Test
+    @DisplayName("Should parse decimals into six-place fixed point")
+    void testParseFixedPoint() {
+        assertEquals(0L, UsageCsvParser.parseFixedPoint(null));
+        assertEquals(1_000_000L, UsageCsvParser.parseFixedPoint("1"));
+        assertEquals(-2_500_000L, UsageCsvParser.parseFixedPoint("-2.5"));
+        assertEquals(123_457L, UsageCsvParser.parseFixedPoint("0.1234565"));
+        assertEquals(1_500_000L, UsageCsvParser.parseFixedPoint("1.5E0"));
+        assertEquals(999_999_999_999_000_000L, UsageCsvParser.parseFixedPoint("999999999999"));
+        assertThrows(NumberFormatException.class, () -> UsageCsvParser.parseFixedPoint("1.2.3"));
+    }
+}
@@ -0,0 +1,54 @@
+-- Migration 002: Daily Cost Rollup
+-- Pre-aggregated daily cost per (date, team, service, region, provider) so dashboard, budget
+-- and optimization queries read one row per cell instead of scanning raw usage rows
+
+-- ========================================
+-- DAILY COST ROLLUP
+-- ========================================
+
+-- One row per day and dimension cell. Kept current by usage ingestion (upserts that add each
+-- batch's deltas) and re-derivable from the fact tables with the backfill below.
+CREATE TABLE IF NOT EXISTS daily_cost_rollup (
+    date DATE NOT NULL,
+    team_name VARCHAR(100) NOT NULL,
+    service_name VARCHAR(100) NOT NULL,
+    region VARCHAR(50) NOT NULL,
+    provider VARCHAR(20) NOT NULL,
+    cost DECIMAL(18,4) NOT NULL DEFAULT 0,
+    usage_quantity DECIMAL(20,4) NOT NULL DEFAULT 0,
+    record_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (date, team_name, service_name, region, provider),
+    INDEX idx_rollup_team_date (team_name, date),
+    INDEX idx_rollup_service_date (service_name, date),
+    INDEX idx_rollup_region_date (region, date)
+);
+
+-- ========================================
+-- BACKFILL
+-- ========================================
+
+-- Rows already present in enhanced_usage_records
+INSERT INTO daily_cost_rollup (date, team_name, service_name, region, provider, cost, usage_quantity, record_count)
+SELECT date, team_name, service_name, region, provider,
+       SUM(cost), COALESCE(SUM(usage_quantity), 0), COUNT(*)
+FROM enhanced_usage_records
+GROUP BY date, team_name, service_name, region, provider
+ON DUPLICATE KEY UPDATE
+    cost = cost + VALUES(cost),
+    usage_quantity = usage_quantity + VALUES(usage_quantity),
+    record_count = record_count + VALUES(record_count);
+
+-- Rows ingested into usage_records, named the way ingestion names them
+INSERT INTO daily_cost_rollup (date, team_name, service_name, region, provider, cost, usage_quantity, record_count)
+SELECT ur.usage_date, t.name, s.service_code, COALESCE(ur.region, 'unknown'), p.name,
+       SUM(ur.total_cost), COALESCE(SUM(ur.usage_quantity), 0), COUNT(*)
+FROM usage_records ur
+JOIN teams t ON ur.team_id = t.id
+JOIN services s ON ur.service_id = s.id
+JOIN cloud_providers p ON s.provider_id = p.id
+GROUP BY ur.usage_date, t.name, s.service_code, COALESCE(ur.region, 'unknown'), p.name
+ON DUPLICATE KEY UPDATE
+    cost = cost + VALUES(cost),
+    usage_quantity = usage_quantity + VALUES(usage_quantity),
+    record_count = record_count + VALUES(record_count);
@@ -0,0 +1,17 @@
+-- Migration 003: Budget Spend Counters
+-- Running spend per budget so utilization reads are a primary-key lookup instead of a
+-- SUM over the budget window
+
+-- ========================================
+-- BUDGET SPEND
+-- ========================================
+
+-- One row per budget. Rows are seeded from daily_cost_rollup the first time a budget is read,
+-- incremented by usage ingestion for every budget whose scope and window match the new rows,
+-- and overwritten by the periodic reconciliation job when they drift.
+CREATE TABLE IF NOT EXISTS budget_spend (
+    budget_id VARCHAR(64) PRIMARY KEY,
+    current_spend DECIMAL(18,4) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    reconciled_at TIMESTAMP NULL
+);
@@ -0,0 +1,9 @@
+-- Migration 004: Rollup Change Index
+-- Lets the in-process cost cube re-read only the daily_cost_rollup rows changed since its last
+-- refresh instead of scanning the whole rollup
+
+-- ========================================
+-- DAILY COST ROLLUP
+-- ========================================
+
+CREATE INDEX idx_rollup_updated_at ON daily_cost_rollup (updated_at);
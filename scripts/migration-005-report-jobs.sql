@@ -0,0 +1,32 @@
+-- Migration 005: Report Jobs
+-- Persistent queue for asynchronous report generation, so a submitted report survives a
+-- restart and its progress can be polled from any instance
+
+-- ========================================
+-- REPORT JOBS
+-- ========================================
+
+-- One row per submitted report. Workers claim queued rows with a conditional UPDATE, write
+-- progress (and refresh updated_at) about once a second while running, and stop at the next
+-- section once cancel_requested is set. Running rows whose updated_at stops advancing belong to
+-- a dead instance and are queued again.
+CREATE TABLE IF NOT EXISTS report_jobs (
+    id VARCHAR(64) PRIMARY KEY,
+    report_id VARCHAR(64) NOT NULL,
+    user_id VARCHAR(128) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'queued',
+    request JSON NOT NULL,
+    rows_scanned BIGINT NOT NULL DEFAULT 0,
+    sections_done INT NOT NULL DEFAULT 0,
+    sections_total INT NOT NULL DEFAULT 0,
+    current_section VARCHAR(64) NULL,
+    cancel_requested BOOLEAN NOT NULL DEFAULT FALSE,
+    error_message TEXT NULL,
+    submitted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP NULL,
+    completed_at TIMESTAMP NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_report_jobs_status (status, submitted_at),
+    INDEX idx_report_jobs_user (user_id, status)
+);
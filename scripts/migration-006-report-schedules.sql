@@ -0,0 +1,41 @@
+-- Migration 006: Report Schedules
+-- Recurring reports created through ReportService.scheduleReport, with the state the schedule
+-- scheduler needs to run each occurrence on one replica at a time
+
+-- ========================================
+-- REPORT SCHEDULES
+-- ========================================
+
+-- One row per schedule. start_date and end_date are local to timezone; next_run_at, locked_until
+-- and last_run_at are UTC. Due rows are claimed inside a transaction with
+-- SELECT ... FOR UPDATE SKIP LOCKED and leased to one instance (locked_by, locked_until); the
+-- lease is renewed while the report runs, and an expired lease lets another instance run it.
+CREATE TABLE IF NOT EXISTS report_schedules (
+    id VARCHAR(64) PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT NULL,
+    report_config JSON NOT NULL,
+    frequency VARCHAR(20) NOT NULL,
+    start_date VARCHAR(32) NOT NULL,
+    end_date VARCHAR(32) NULL,
+    recipients JSON NULL,
+    delivery_format VARCHAR(20) NOT NULL DEFAULT 'pdf',
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    timezone VARCHAR(64) NOT NULL DEFAULT 'UTC',
+    created_by VARCHAR(128) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    next_run_at DATETIME NULL,
+    locked_by VARCHAR(128) NULL,
+    locked_until DATETIME NULL,
+    last_run_at DATETIME NULL,
+    last_status VARCHAR(20) NULL,
+    last_report_id VARCHAR(64) NULL,
+    last_output_path VARCHAR(1024) NULL,
+    last_error TEXT NULL,
+    last_lag_ms BIGINT NULL,
+    last_duration_ms BIGINT NULL,
+    run_count INT NOT NULL DEFAULT 0,
+    failure_count INT NOT NULL DEFAULT 0,
+
+    INDEX idx_report_schedules_due (is_active, next_run_at)
+);
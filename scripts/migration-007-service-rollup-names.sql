@@ -0,0 +1,64 @@
+-- Migration 007: Service Rollup Names
+-- Ingested usage_records rows were rolled up under the service code ("AmazonEC2") while
+-- enhanced_usage_records uses the short service name ("EC2"), so one service showed up as two
+-- rollup cells. Services now carry the name the rollup, cube, budgets and reports group by.
+
+-- ========================================
+-- SERVICES
+-- ========================================
+
+-- Name the service is rolled up and reported under; NULL falls back to service_code
+ALTER TABLE services ADD COLUMN rollup_name VARCHAR(100) NULL AFTER service_name;
+
+UPDATE services s
+JOIN cloud_providers p ON s.provider_id = p.id
+SET s.rollup_name = CASE s.service_code
+    WHEN 'AmazonEC2' THEN 'EC2'
+    WHEN 'AmazonS3' THEN 'S3'
+    WHEN 'AmazonRDS' THEN 'RDS'
+    WHEN 'AWSLambda' THEN 'Lambda'
+    WHEN 'AmazonCloudWatch' THEN 'CloudWatch'
+    WHEN 'AmazonVPC' THEN 'VPC'
+    WHEN 'AmazonCloudFront' THEN 'CloudFront'
+    WHEN 'AmazonDynamoDB' THEN 'DynamoDB'
+    WHEN 'ElasticLoadBalancing' THEN 'ELB'
+    WHEN 'AmazonEKS' THEN 'EKS'
+    WHEN 'AmazonElastiCache' THEN 'ElastiCache'
+    WHEN 'AmazonSageMaker' THEN 'SageMaker'
+    ELSE NULL
+END
+WHERE p.name = 'aws';
+
+-- ========================================
+-- DAILY COST ROLLUP
+-- ========================================
+
+-- Re-derive every cell so ingested rows move under the rollup name; the cost cube picks the
+-- change up on its next full reload
+DELETE FROM daily_cost_rollup;
+
+INSERT INTO daily_cost_rollup (date, team_name, service_name, region, provider, cost, usage_quantity, record_count)
+SELECT date, team_name, service_name, region, provider,
+       SUM(cost), COALESCE(SUM(usage_quantity), 0), COUNT(*)
+FROM enhanced_usage_records
+GROUP BY date, team_name, service_name, region, provider;
+
+INSERT INTO daily_cost_rollup (date, team_name, service_name, region, provider, cost, usage_quantity, record_count)
+SELECT ur.usage_date, t.name, COALESCE(s.rollup_name, s.service_code), COALESCE(ur.region, 'unknown'), p.name,
+       SUM(ur.total_cost), COALESCE(SUM(ur.usage_quantity), 0), COUNT(*)
+FROM usage_records ur
+JOIN teams t ON ur.team_id = t.id
+JOIN services s ON ur.service_id = s.id
+JOIN cloud_providers p ON s.provider_id = p.id
+GROUP BY ur.usage_date, t.name, COALESCE(s.rollup_name, s.service_code), COALESCE(ur.region, 'unknown'), p.name
+ON DUPLICATE KEY UPDATE
+    cost = cost + VALUES(cost),
+    usage_quantity = usage_quantity + VALUES(usage_quantity),
+    record_count = record_count + VALUES(record_count);
+
+-- ========================================
+-- BUDGET SPEND
+-- ========================================
+
+-- Service-scoped budgets now match ingested rows; counters are re-seeded on next read
+DELETE FROM budget_spend;
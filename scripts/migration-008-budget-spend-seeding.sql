@@ -0,0 +1,14 @@
+-- Migration 008: Budget Spend Seeding
+-- Ingestion now upserts its deltas, so a budget_spend row can exist before its counter has been
+-- seeded from the rollup; seeded_at tells the two apart
+
+-- ========================================
+-- BUDGET SPEND
+-- ========================================
+
+-- NULL while the row only holds ingestion deltas (or after a rollup rebuild of the budget's
+-- window); reads ignore such rows and seed them under a row lock
+ALTER TABLE budget_spend ADD COLUMN seeded_at TIMESTAMP NULL AFTER current_spend;
+
+-- Counters written so far were all seeded or reconciled
+UPDATE budget_spend SET seeded_at = COALESCE(reconciled_at, updated_at, CURRENT_TIMESTAMP);
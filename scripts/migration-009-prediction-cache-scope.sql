@@ -0,0 +1,30 @@
+-- Migration 009: Prediction Cache Scope Columns
+-- Invalidation ran on every ingest batch and filtered on JSON_EXTRACT(parameters, ...), scanning
+-- the whole table; team and history range now live in indexed columns
+
+-- ========================================
+-- PREDICTION CACHE
+-- ========================================
+
+-- team_name is '*' for predictions over all teams
+ALTER TABLE prediction_cache
+    ADD COLUMN team_name VARCHAR(100) NULL AFTER method,
+    ADD COLUMN start_date DATE NULL AFTER team_name,
+    ADD COLUMN end_date DATE NULL AFTER start_date;
+
+UPDATE prediction_cache
+SET team_name = JSON_UNQUOTE(JSON_EXTRACT(parameters, '$.team')),
+    start_date = JSON_UNQUOTE(JSON_EXTRACT(parameters, '$.startDate')),
+    end_date = JSON_UNQUOTE(JSON_EXTRACT(parameters, '$.endDate'));
+
+-- Drop anything that could not be backfilled; it is only a cache
+DELETE FROM prediction_cache WHERE team_name IS NULL OR start_date IS NULL OR end_date IS NULL;
+
+ALTER TABLE prediction_cache
+    MODIFY team_name VARCHAR(100) NOT NULL,
+    MODIFY start_date DATE NOT NULL,
+    MODIFY end_date DATE NOT NULL;
+
+-- Per-team invalidation from ingestion, and all-teams invalidation from rollup rebuilds
+CREATE INDEX idx_prediction_team_dates ON prediction_cache (team_name, start_date, end_date);
+CREATE INDEX idx_prediction_dates ON prediction_cache (start_date, end_date);
@@ -0,0 +1,19 @@
+-- Migration 010: Report Job Users
+-- Per-user limits on report jobs are checked under a lock on the user's row here; locking the
+-- user's report_jobs rows instead takes only a gap lock when the user has none, which does not
+-- keep two instances from both seeing room
+
+-- ========================================
+-- REPORT JOB USERS
+-- ========================================
+
+-- One row per user that ever submitted a report job. Submissions upsert it before locking it;
+-- claims and submissions of the same user then serialize on it.
+CREATE TABLE IF NOT EXISTS report_job_users (
+    user_id VARCHAR(128) PRIMARY KEY,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Users with jobs queued before the table existed
+INSERT IGNORE INTO report_job_users (user_id)
+SELECT DISTINCT user_id FROM report_jobs;